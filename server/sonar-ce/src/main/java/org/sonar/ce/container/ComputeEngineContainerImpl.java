@@ -146,6 +146,7 @@ import org.sonar.server.search.EsSearchModule;
 import org.sonar.server.setting.DatabaseSettingLoader;
 import org.sonar.server.setting.DatabaseSettingsEnabler;
 import org.sonar.server.setting.ThreadLocalSettings;
+import org.sonar.server.settings.ProjectConfigurationLoaderImpl;
 import org.sonar.server.test.index.TestIndexer;
 import org.sonar.server.user.DefaultUserFinder;
 import org.sonar.server.user.DeprecatedUserFinder;
@@ -424,6 +425,7 @@ public class ComputeEngineContainerImpl implements ComputeEngineContainer {
 
       InternalPropertiesImpl.class,
       ProjectConfigurationFactory.class,
+      ProjectConfigurationLoaderImpl.class,
 
       // webhooks
       WebhookModule.class,
@@ -19,6 +19,9 @@
  */
 package org.sonar.ce.monitoring;
 
+import java.util.List;
+import javax.annotation.CheckForNull;
+
 public interface CeTasksMBean {
 
   String OBJECT_NAME = "SonarQube:name=ComputeEngineTasks";
@@ -57,4 +60,16 @@ public interface CeTasksMBean {
    * Configured number of Workers.
    */
   int getWorkerCount();
+
+  /**
+   * UUID of the last batch report processed since instance startup, {@code null} if none.
+   */
+  @CheckForNull
+  String getLastTaskUuid();
+
+  /**
+   * Time, CPU time and heap allocations of each step and of each component visitor during the processing of the last
+   * batch report since instance startup. Resources used by visitors are extrapolated from a sample of components.
+   */
+  List<String> getLastTaskStatistics();
 }
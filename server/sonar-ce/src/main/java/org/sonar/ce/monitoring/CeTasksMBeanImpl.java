@@ -19,19 +19,28 @@
  */
 package org.sonar.ce.monitoring;
 
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.CheckForNull;
 import org.picocontainer.Startable;
 import org.sonar.process.Jmx;
 import org.sonar.process.systeminfo.SystemInfoSection;
 import org.sonar.process.systeminfo.protobuf.ProtobufSystemInfo;
 import org.sonar.ce.configuration.CeConfiguration;
+import org.sonar.server.computation.task.step.TaskStatistic;
+import org.sonar.server.computation.task.step.TaskStatisticsRecorder;
+
+import static org.sonar.core.util.stream.MoreCollectors.toList;
 
 public class CeTasksMBeanImpl implements CeTasksMBean, Startable, SystemInfoSection {
   private final CEQueueStatus queueStatus;
   private final CeConfiguration ceConfiguration;
+  private final TaskStatisticsRecorder taskStatisticsRecorder;
 
-  public CeTasksMBeanImpl(CEQueueStatus queueStatus, CeConfiguration ceConfiguration) {
+  public CeTasksMBeanImpl(CEQueueStatus queueStatus, CeConfiguration ceConfiguration, TaskStatisticsRecorder taskStatisticsRecorder) {
     this.queueStatus = queueStatus;
     this.ceConfiguration = ceConfiguration;
+    this.taskStatisticsRecorder = taskStatisticsRecorder;
   }
 
   @Override
@@ -82,6 +91,21 @@ public class CeTasksMBeanImpl implements CeTasksMBean, Startable, SystemInfoSect
     return ceConfiguration.getWorkerCount();
   }
 
+  @Override
+  @CheckForNull
+  public String getLastTaskUuid() {
+    return taskStatisticsRecorder.getLastTask()
+      .map(TaskStatisticsRecorder.RecordedTask::getTaskUuid)
+      .orElse(null);
+  }
+
+  @Override
+  public List<String> getLastTaskStatistics() {
+    return taskStatisticsRecorder.getLastTask()
+      .map(task -> task.getStatistics().stream().map(TaskStatistic::toString).collect(toList()))
+      .orElse(Collections.emptyList());
+  }
+
   @Override
   public ProtobufSystemInfo.Section toProtobuf() {
     ProtobufSystemInfo.Section.Builder builder = ProtobufSystemInfo.Section.newBuilder();
@@ -0,0 +1,85 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.ce.monitoring;
+
+import fi.iki.elonen.NanoHTTPD;
+import java.io.StringWriter;
+import java.util.Optional;
+import org.sonar.api.utils.text.JsonWriter;
+import org.sonar.ce.httpd.HttpAction;
+import org.sonar.server.computation.task.step.ResourceUsage;
+import org.sonar.server.computation.task.step.TaskStatistic;
+import org.sonar.server.computation.task.step.TaskStatisticsRecorder;
+
+import static fi.iki.elonen.NanoHTTPD.MIME_PLAINTEXT;
+import static fi.iki.elonen.NanoHTTPD.Response.Status.METHOD_NOT_ALLOWED;
+import static fi.iki.elonen.NanoHTTPD.Response.Status.OK;
+import static fi.iki.elonen.NanoHTTPD.newFixedLengthResponse;
+
+/**
+ * Serves as JSON the resources used by each step and by each component visitor during the processing of the last
+ * task since startup.
+ */
+public class TaskStatisticsHttpAction implements HttpAction {
+
+  private static final String PATH = "taskStatistics";
+  private static final String JSON_MIME_TYPE = "application/json";
+
+  private final TaskStatisticsRecorder taskStatisticsRecorder;
+
+  public TaskStatisticsHttpAction(TaskStatisticsRecorder taskStatisticsRecorder) {
+    this.taskStatisticsRecorder = taskStatisticsRecorder;
+  }
+
+  @Override
+  public void register(ActionRegistry registry) {
+    registry.register(PATH, this);
+  }
+
+  @Override
+  public NanoHTTPD.Response serve(NanoHTTPD.IHTTPSession session) {
+    if (session.getMethod() != NanoHTTPD.Method.GET) {
+      return newFixedLengthResponse(METHOD_NOT_ALLOWED, MIME_PLAINTEXT, null);
+    }
+
+    StringWriter writer = new StringWriter();
+    try (JsonWriter json = JsonWriter.of(writer)) {
+      Optional<TaskStatisticsRecorder.RecordedTask> lastTask = taskStatisticsRecorder.getLastTask();
+      json.beginObject();
+      json.prop("taskUuid", lastTask.map(TaskStatisticsRecorder.RecordedTask::getTaskUuid).orElse(null));
+      json.name("statistics").beginArray();
+      lastTask.ifPresent(task -> task.getStatistics().forEach(statistic -> writeStatistic(json, statistic)));
+      json.endArray();
+      json.endObject();
+    }
+    return newFixedLengthResponse(OK, JSON_MIME_TYPE, writer.toString());
+  }
+
+  private static void writeStatistic(JsonWriter json, TaskStatistic statistic) {
+    ResourceUsage resourceUsage = statistic.getResourceUsage();
+    json.beginObject()
+      .prop("kind", statistic.getKind().name())
+      .prop("name", statistic.getName())
+      .prop("durationMs", resourceUsage.getDurationMs())
+      .prop("cpuTimeMs", resourceUsage.getCpuTimeMs())
+      .prop("allocatedBytes", resourceUsage.getAllocatedBytes())
+      .endObject();
+  }
+}
@@ -58,6 +58,7 @@ public class PurgeCeActivities implements Startable {
         .collect(MoreCollectors.toSet());
       dbClient.ceActivityDao().deleteByUuids(dbSession, ceActivityUuids);
       dbClient.ceScannerContextDao().deleteByUuids(dbSession, ceActivityUuids);
+      dbClient.ceTaskStatisticDao().deleteByTaskUuids(dbSession, ceActivityUuids);
       dbSession.commit();
     }
   }
@@ -91,16 +91,16 @@ public class ComputeEngineContainerImplTest {
     assertThat(picoContainer.getComponentAdapters())
       .hasSize(
         CONTAINER_ITSELF
-          + 77 // level 4
+          + 78 // level 4
           + 6 // content of CeConfigurationModule
           + 4 // content of CeQueueModule
-          + 4 // content of CeHttpModule
+          + 5 // content of CeHttpModule
           + 3 // content of CeTaskCommonsModule
-          + 4 // content of ProjectAnalysisTaskModule
+          + 5 // content of ProjectAnalysisTaskModule
           + 7 // content of CeTaskProcessorModule
           + 4 // content of ReportAnalysisFailureNotificationModule
           + 3 // CeCleaningModule + its content
-          + 4 // WebhookModule
+          + 6 // WebhookModule
           + 1 // CeDistributedInformation
     );
     assertThat(picoContainer.getParent().getComponentAdapters()).hasSize(
@@ -115,7 +115,7 @@ public class ComputeEngineContainerImplTest {
     assertThat(picoContainer.getParent().getParent().getParent().getComponentAdapters()).hasSize(
       COMPONENTS_IN_LEVEL_1_AT_CONSTRUCTION
         + 26 // level 1
-        + 52 // content of DaoModule
+        + 54 // content of DaoModule
         + 3 // content of EsSearchModule
         + 67 // content of CorePropertyDefinitions
         + 1 // StopFlagContainer
@@ -20,15 +20,23 @@
 package org.sonar.ce.monitoring;
 
 import java.lang.management.ManagementFactory;
+import java.util.Collections;
 import javax.annotation.CheckForNull;
 import javax.management.InstanceNotFoundException;
 import javax.management.ObjectInstance;
 import javax.management.ObjectName;
 import org.junit.Test;
 import org.sonar.ce.configuration.CeConfiguration;
+import org.sonar.core.util.SequenceUuidFactory;
+import org.sonar.db.DbClient;
 import org.sonar.process.systeminfo.protobuf.ProtobufSystemInfo;
+import org.sonar.server.computation.task.step.ResourceUsage;
+import org.sonar.server.computation.task.step.TaskStatistic;
+import org.sonar.server.computation.task.step.TaskStatisticsRecorder;
 
+import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 
 public class CeTasksMBeanImplTest {
   private static final long PENDING_COUNT = 2;
@@ -39,7 +47,8 @@ public class CeTasksMBeanImplTest {
   private static final int WORKER_MAX_COUNT = 666;
   private static final int WORKER_COUNT = 56;
 
-  private CeTasksMBeanImpl underTest = new CeTasksMBeanImpl(new DumbCEQueueStatus(), new DumbCeConfiguration());
+  private TaskStatisticsRecorder taskStatisticsRecorder = new TaskStatisticsRecorder(mock(DbClient.class), new SequenceUuidFactory());
+  private CeTasksMBeanImpl underTest = new CeTasksMBeanImpl(new DumbCEQueueStatus(), new DumbCeConfiguration(), taskStatisticsRecorder);
 
   @Test
   public void register_and_unregister() throws Exception {
@@ -84,6 +93,25 @@ public class CeTasksMBeanImplTest {
     assertThat(underTest.getWorkerMaxCount()).isEqualTo(WORKER_MAX_COUNT);
   }
 
+  @Test
+  public void last_task_statistics_are_empty_if_no_task_has_been_processed() {
+    assertThat(underTest.getLastTaskUuid()).isNull();
+    assertThat(underTest.getLastTaskStatistics()).isEmpty();
+  }
+
+  @Test
+  public void last_task_statistics_delegate_to_the_TaskStatisticsRecorder_instance() {
+    taskStatisticsRecorder.record("TASK_1", Collections.singletonList(new TaskStatistic(TaskStatistic.Kind.STEP, "step1", ResourceUsage.NONE)));
+    taskStatisticsRecorder.record("TASK_2", asList(
+      new TaskStatistic(TaskStatistic.Kind.STEP, "step2", ResourceUsage.NONE),
+      new TaskStatistic(TaskStatistic.Kind.VISITOR, "visitor", ResourceUsage.NONE)));
+
+    assertThat(underTest.getLastTaskUuid()).isEqualTo("TASK_2");
+    assertThat(underTest.getLastTaskStatistics()).containsExactly(
+      "STEP | step2 | time=0ms | cpu=0ms | allocated=0B",
+      "VISITOR | visitor | time=0ms | cpu=0ms | allocated=0B");
+  }
+
   @Test
   public void export_system_info() {
     ProtobufSystemInfo.Section section = underTest.toProtobuf();
@@ -0,0 +1,89 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.ce.monitoring;
+
+import fi.iki.elonen.NanoHTTPD;
+import java.io.IOException;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.sonar.ce.httpd.HttpAction;
+import org.sonar.core.util.SequenceUuidFactory;
+import org.sonar.db.DbClient;
+import org.sonar.server.computation.task.step.ResourceUsage;
+import org.sonar.server.computation.task.step.TaskStatistic;
+import org.sonar.server.computation.task.step.TaskStatisticsRecorder;
+
+import static fi.iki.elonen.NanoHTTPD.Method.GET;
+import static fi.iki.elonen.NanoHTTPD.Method.POST;
+import static fi.iki.elonen.NanoHTTPD.Response.Status.METHOD_NOT_ALLOWED;
+import static fi.iki.elonen.NanoHTTPD.Response.Status.OK;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.sonar.ce.httpd.CeHttpUtils.createHttpSession;
+
+public class TaskStatisticsHttpActionTest {
+
+  private TaskStatisticsRecorder taskStatisticsRecorder = new TaskStatisticsRecorder(mock(DbClient.class), new SequenceUuidFactory());
+  private TaskStatisticsHttpAction underTest = new TaskStatisticsHttpAction(taskStatisticsRecorder);
+
+  @Test
+  public void register_to_path_taskStatistics() {
+    HttpAction.ActionRegistry actionRegistry = mock(HttpAction.ActionRegistry.class);
+
+    underTest.register(actionRegistry);
+
+    verify(actionRegistry).register("taskStatistics", underTest);
+  }
+
+  @Test
+  public void serves_METHOD_NOT_ALLOWED_error_when_method_is_not_GET() {
+    NanoHTTPD.Response response = underTest.serve(createHttpSession(POST));
+
+    assertThat(response.getStatus()).isEqualTo(METHOD_NOT_ALLOWED);
+  }
+
+  @Test
+  public void serves_empty_statistics_if_no_task_has_been_processed() throws IOException {
+    NanoHTTPD.Response response = underTest.serve(createHttpSession(GET));
+
+    assertThat(response.getStatus()).isEqualTo(OK);
+    assertThat(IOUtils.toString(response.getData(), UTF_8)).isEqualTo("{\"statistics\":[]}");
+  }
+
+  @Test
+  public void serves_statistics_of_last_task() throws IOException {
+    taskStatisticsRecorder.record("TASK_1", asList(
+      new TaskStatistic(TaskStatistic.Kind.STEP, "step", ResourceUsage.NONE),
+      new TaskStatistic(TaskStatistic.Kind.VISITOR, "visitor", ResourceUsage.NONE)));
+
+    NanoHTTPD.Response response = underTest.serve(createHttpSession(GET));
+
+    assertThat(response.getStatus()).isEqualTo(OK);
+    assertThat(IOUtils.toString(response.getData(), UTF_8)).isEqualTo("{" +
+      "\"taskUuid\":\"TASK_1\"," +
+      "\"statistics\":[" +
+      "{\"kind\":\"STEP\",\"name\":\"step\",\"durationMs\":0,\"cpuTimeMs\":0,\"allocatedBytes\":0}," +
+      "{\"kind\":\"VISITOR\",\"name\":\"visitor\",\"durationMs\":0,\"cpuTimeMs\":0,\"allocatedBytes\":0}" +
+      "]}");
+  }
+}
@@ -25,8 +25,10 @@ import org.sonar.api.utils.System2;
 import org.sonar.db.DbTester;
 import org.sonar.db.ce.CeActivityDto;
 import org.sonar.db.ce.CeQueueDto;
+import org.sonar.db.ce.CeTaskStatisticDto;
 import org.sonar.db.ce.CeTaskTypes;
 
+import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
@@ -52,6 +54,29 @@ public class PurgeCeActivitiesTest {
     assertThat(dbTester.getDbClient().ceActivityDao().selectByUuid(dbTester.getSession(), "RECENT").isPresent()).isTrue();
   }
 
+  @Test
+  public void delete_statistics_of_tasks_older_than_6_months() {
+    insertWithDate("VERY_OLD", 1_000_000_000_000L);
+    insertWithDate("RECENT", 1_500_000_000_000L);
+    insertStatistic("VERY_OLD");
+    insertStatistic("RECENT");
+    when(system2.now()).thenReturn(1_500_000_000_100L);
+
+    underTest.start();
+
+    assertThat(dbTester.getDbClient().ceTaskStatisticDao().selectByTaskUuid(dbTester.getSession(), "VERY_OLD")).isEmpty();
+    assertThat(dbTester.getDbClient().ceTaskStatisticDao().selectByTaskUuid(dbTester.getSession(), "RECENT")).hasSize(1);
+  }
+
+  private void insertStatistic(String taskUuid) {
+    dbTester.getDbClient().ceTaskStatisticDao().insert(dbTester.getSession(), singletonList(new CeTaskStatisticDto()
+      .setUuid("STAT_" + taskUuid)
+      .setTaskUuid(taskUuid)
+      .setKind(CeTaskStatisticDto.Kind.STEP)
+      .setName("step")));
+    dbTester.getSession().commit();
+  }
+
   private void insertWithDate(String uuid, long date) {
     CeQueueDto queueDto = new CeQueueDto();
     queueDto.setUuid(uuid);
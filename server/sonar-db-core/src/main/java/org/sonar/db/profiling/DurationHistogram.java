@@ -0,0 +1,87 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.profiling;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe histogram of durations, in milliseconds. Durations are counted in buckets whose
+ * upper bounds are powers of 10, from 1 ms to 10 seconds.
+ */
+public class DurationHistogram {
+
+  private static final long[] UPPER_BOUNDS_MS = {1L, 10L, 100L, 1_000L, 10_000L};
+
+  private final LongAdder[] counts = new LongAdder[UPPER_BOUNDS_MS.length + 1];
+  private final LongAdder totalMs = new LongAdder();
+  private final AtomicLong maxMs = new AtomicLong();
+
+  public DurationHistogram() {
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = new LongAdder();
+    }
+  }
+
+  public void record(long durationMs) {
+    counts[bucketOf(durationMs)].increment();
+    totalMs.add(durationMs);
+    maxMs.accumulateAndGet(durationMs, Math::max);
+  }
+
+  private static int bucketOf(long durationMs) {
+    for (int i = 0; i < UPPER_BOUNDS_MS.length; i++) {
+      if (durationMs <= UPPER_BOUNDS_MS[i]) {
+        return i;
+      }
+    }
+    return UPPER_BOUNDS_MS.length;
+  }
+
+  public long getCount() {
+    long count = 0L;
+    for (LongAdder bucket : counts) {
+      count += bucket.sum();
+    }
+    return count;
+  }
+
+  public long getTotalMillis() {
+    return totalMs.sum();
+  }
+
+  public long getMaxMillis() {
+    return maxMs.get();
+  }
+
+  /**
+   * Number of durations by bucket, for example "<= 10 ms" or "> 10000 ms", ordered by increasing duration
+   */
+  public Map<String, Long> getCountsByBucket() {
+    Map<String, Long> result = new LinkedHashMap<>();
+    for (int i = 0; i < UPPER_BOUNDS_MS.length; i++) {
+      result.put("<= " + UPPER_BOUNDS_MS[i] + " ms", counts[i].sum());
+    }
+    result.put("> " + UPPER_BOUNDS_MS[UPPER_BOUNDS_MS.length - 1] + " ms", counts[UPPER_BOUNDS_MS.length].sum());
+    return result;
+  }
+}
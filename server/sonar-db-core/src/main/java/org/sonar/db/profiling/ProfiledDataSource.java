@@ -24,6 +24,7 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 import org.apache.commons.dbcp.BasicDataSource;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
@@ -33,6 +34,7 @@ public class ProfiledDataSource extends BasicDataSource {
   static final Logger SQL_LOGGER = Loggers.get("sql");
 
   private final BasicDataSource delegate;
+  private final DurationHistogram connectionWaits = new DurationHistogram();
   private ConnectionInterceptor connectionInterceptor;
 
   public ProfiledDataSource(BasicDataSource delegate, ConnectionInterceptor connectionInterceptor) {
@@ -44,6 +46,14 @@ public class ProfiledDataSource extends BasicDataSource {
     return delegate;
   }
 
+  /**
+   * Time spent by {@link #getConnection()} to borrow a connection from the pool, including the
+   * creation of new connections.
+   */
+  public DurationHistogram getConnectionWaits() {
+    return connectionWaits;
+  }
+
   public synchronized void setConnectionInterceptor(ConnectionInterceptor ci) {
     this.connectionInterceptor = ci;
   }
@@ -320,7 +330,12 @@ public class ProfiledDataSource extends BasicDataSource {
 
   @Override
   public Connection getConnection() throws SQLException {
-    return connectionInterceptor.getConnection(delegate);
+    long start = System.nanoTime();
+    try {
+      return connectionInterceptor.getConnection(delegate);
+    } finally {
+      connectionWaits.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
   }
 
   @Override
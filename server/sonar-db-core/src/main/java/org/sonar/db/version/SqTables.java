@@ -57,6 +57,7 @@ public final class SqTables {
     "ce_queue",
     "ce_task_characteristics",
     "ce_task_input",
+    "ce_task_statistics",
     "ce_scanner_context",
     "default_qprofiles",
     "duplications_index",
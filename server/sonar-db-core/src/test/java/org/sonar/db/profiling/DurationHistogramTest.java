@@ -0,0 +1,58 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.profiling;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+public class DurationHistogramTest {
+
+  private DurationHistogram underTest = new DurationHistogram();
+
+  @Test
+  public void empty_histogram() {
+    assertThat(underTest.getCount()).isZero();
+    assertThat(underTest.getTotalMillis()).isZero();
+    assertThat(underTest.getMaxMillis()).isZero();
+    assertThat(underTest.getCountsByBucket()).hasSize(6).containsValues(0L);
+  }
+
+  @Test
+  public void count_durations_by_bucket() {
+    underTest.record(0L);
+    underTest.record(1L);
+    underTest.record(2L);
+    underTest.record(100L);
+    underTest.record(50_000L);
+
+    assertThat(underTest.getCount()).isEqualTo(5);
+    assertThat(underTest.getTotalMillis()).isEqualTo(50_103L);
+    assertThat(underTest.getMaxMillis()).isEqualTo(50_000L);
+    assertThat(underTest.getCountsByBucket()).containsExactly(
+      entry("<= 1 ms", 2L),
+      entry("<= 10 ms", 1L),
+      entry("<= 100 ms", 1L),
+      entry("<= 1000 ms", 0L),
+      entry("<= 10000 ms", 0L),
+      entry("> 10000 ms", 1L));
+  }
+}
@@ -132,6 +132,17 @@ public class ProfiledDataSourceTest {
       .doesNotContain("params=");
   }
 
+  @Test
+  public void record_time_spent_to_get_connection() throws Exception {
+    when(originDataSource.getConnection()).thenReturn(mock(Connection.class));
+    ProfiledDataSource underTest = new ProfiledDataSource(originDataSource, NullConnectionInterceptor.INSTANCE);
+
+    underTest.getConnection();
+    underTest.getConnection();
+
+    assertThat(underTest.getConnectionWaits().getCount()).isEqualTo(2);
+  }
+
   @Test
   public void delegate_to_underlying_data_source() throws Exception {
     ProfiledDataSource proxy = new ProfiledDataSource(originDataSource, ProfiledConnectionInterceptor.INSTANCE);
@@ -0,0 +1,52 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db;
+
+import java.util.Iterator;
+import org.apache.ibatis.cursor.Cursor;
+import org.sonar.core.util.CloseableIterator;
+
+/**
+ * {@link CloseableIterator} over a MyBatis {@link Cursor}. Rows are fetched from database while iterating,
+ * by batches whose size is defined by the attribute {@code fetchSize} of the mapper statement (usually
+ * {@code ${_scrollFetchSize}}), instead of being loaded at once in a {@link java.util.List}.
+ * <p>
+ * The iterator must be closed, for example in a try-with-resources block, unless it is fully consumed.
+ */
+public class CursorIterator<T> extends CloseableIterator<T> {
+
+  private final Cursor<T> cursor;
+  private final Iterator<T> iterator;
+
+  public CursorIterator(Cursor<T> cursor) {
+    this.cursor = cursor;
+    this.iterator = cursor.iterator();
+  }
+
+  @Override
+  protected T doNext() {
+    return iterator.hasNext() ? iterator.next() : null;
+  }
+
+  @Override
+  protected void doClose() throws Exception {
+    cursor.close();
+  }
+}
@@ -28,6 +28,7 @@ import org.sonar.db.ce.CeQueueDao;
 import org.sonar.db.ce.CeScannerContextDao;
 import org.sonar.db.ce.CeTaskCharacteristicDao;
 import org.sonar.db.ce.CeTaskInputDao;
+import org.sonar.db.ce.CeTaskStatisticDao;
 import org.sonar.db.component.AnalysisPropertiesDao;
 import org.sonar.db.component.BranchDao;
 import org.sonar.db.component.ComponentDao;
@@ -47,6 +48,7 @@ import org.sonar.db.notification.NotificationQueueDao;
 import org.sonar.db.organization.OrganizationDao;
 import org.sonar.db.organization.OrganizationMemberDao;
 import org.sonar.db.permission.AuthorizationDao;
+import org.sonar.db.permission.AuthorizationVersionDao;
 import org.sonar.db.permission.GroupPermissionDao;
 import org.sonar.db.permission.UserPermissionDao;
 import org.sonar.db.permission.template.PermissionTemplateCharacteristicDao;
@@ -84,11 +86,13 @@ public class DaoModule extends Module {
     ActiveRuleDao.class,
     AnalysisPropertiesDao.class,
     AuthorizationDao.class,
+    AuthorizationVersionDao.class,
     BranchDao.class,
     CeActivityDao.class,
     CeQueueDao.class,
     CeScannerContextDao.class,
     CeTaskCharacteristicDao.class,
+    CeTaskStatisticDao.class,
     CeTaskInputDao.class,
     ComponentDao.class,
     ComponentKeyUpdaterDao.class,
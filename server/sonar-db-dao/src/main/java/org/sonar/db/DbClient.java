@@ -26,6 +26,7 @@ import org.sonar.db.ce.CeQueueDao;
 import org.sonar.db.ce.CeScannerContextDao;
 import org.sonar.db.ce.CeTaskCharacteristicDao;
 import org.sonar.db.ce.CeTaskInputDao;
+import org.sonar.db.ce.CeTaskStatisticDao;
 import org.sonar.db.component.AnalysisPropertiesDao;
 import org.sonar.db.component.BranchDao;
 import org.sonar.db.component.ComponentDao;
@@ -45,6 +46,7 @@ import org.sonar.db.notification.NotificationQueueDao;
 import org.sonar.db.organization.OrganizationDao;
 import org.sonar.db.organization.OrganizationMemberDao;
 import org.sonar.db.permission.AuthorizationDao;
+import org.sonar.db.permission.AuthorizationVersionDao;
 import org.sonar.db.permission.GroupPermissionDao;
 import org.sonar.db.permission.UserPermissionDao;
 import org.sonar.db.permission.template.PermissionTemplateCharacteristicDao;
@@ -82,6 +84,7 @@ public class DbClient {
 
   private final SchemaMigrationDao schemaMigrationDao;
   private final AuthorizationDao authorizationDao;
+  private final AuthorizationVersionDao authorizationVersionDao;
   private final OrganizationDao organizationDao;
   private final OrganizationMemberDao organizationMemberDao;
   private final QualityProfileDao qualityProfileDao;
@@ -105,6 +108,7 @@ public class DbClient {
   private final CeQueueDao ceQueueDao;
   private final CeTaskInputDao ceTaskInputDao;
   private final CeTaskCharacteristicDao ceTaskCharacteristicsDao;
+  private final CeTaskStatisticDao ceTaskStatisticDao;
   private final CeScannerContextDao ceScannerContextDao;
   private final FileSourceDao fileSourceDao;
   private final ComponentLinkDao componentLinkDao;
@@ -144,6 +148,7 @@ public class DbClient {
     }
     schemaMigrationDao = getDao(map, SchemaMigrationDao.class);
     authorizationDao = getDao(map, AuthorizationDao.class);
+    authorizationVersionDao = getDao(map, AuthorizationVersionDao.class);
     organizationDao = getDao(map, OrganizationDao.class);
     organizationMemberDao = getDao(map, OrganizationMemberDao.class);
     qualityProfileDao = getDao(map, QualityProfileDao.class);
@@ -167,6 +172,7 @@ public class DbClient {
     ceQueueDao = getDao(map, CeQueueDao.class);
     ceTaskInputDao = getDao(map, CeTaskInputDao.class);
     ceTaskCharacteristicsDao = getDao(map, CeTaskCharacteristicDao.class);
+    ceTaskStatisticDao = getDao(map, CeTaskStatisticDao.class);
     ceScannerContextDao = getDao(map, CeScannerContextDao.class);
     fileSourceDao = getDao(map, FileSourceDao.class);
     componentLinkDao = getDao(map, ComponentLinkDao.class);
@@ -212,6 +218,10 @@ public class DbClient {
     return authorizationDao;
   }
 
+  public AuthorizationVersionDao authorizationVersionDao() {
+    return authorizationVersionDao;
+  }
+
   public OrganizationDao organizationDao() {
     return organizationDao;
   }
@@ -308,6 +318,10 @@ public class DbClient {
     return ceTaskCharacteristicsDao;
   }
 
+  public CeTaskStatisticDao ceTaskStatisticDao() {
+    return ceTaskStatisticDao;
+  }
+
   public CeScannerContextDao ceScannerContextDao() {
     return ceScannerContextDao;
   }
@@ -35,6 +35,8 @@ import org.sonar.db.ce.CeScannerContextMapper;
 import org.sonar.db.ce.CeTaskCharacteristicDto;
 import org.sonar.db.ce.CeTaskCharacteristicMapper;
 import org.sonar.db.ce.CeTaskInputMapper;
+import org.sonar.db.ce.CeTaskStatisticDto;
+import org.sonar.db.ce.CeTaskStatisticMapper;
 import org.sonar.db.component.AnalysisPropertiesMapper;
 import org.sonar.db.component.BranchMapper;
 import org.sonar.db.component.ComponentDto;
@@ -132,6 +134,7 @@ import org.sonar.db.webhook.WebhookDeliveryMapper;
 public class MyBatis implements Startable {
 
   private final Database database;
+  private final StatementDurations statementDurations = new StatementDurations();
   private SqlSessionFactory sessionFactory;
 
   public MyBatis(Database database) {
@@ -148,6 +151,7 @@ public class MyBatis implements Startable {
     confBuilder.loadAlias("ActiveRule", ActiveRuleDto.class);
     confBuilder.loadAlias("ActiveRuleParam", ActiveRuleParamDto.class);
     confBuilder.loadAlias("CeTaskCharacteristic", CeTaskCharacteristicDto.class);
+    confBuilder.loadAlias("CeTaskStatistic", CeTaskStatisticDto.class);
     confBuilder.loadAlias("Component", ComponentDto.class);
     confBuilder.loadAlias("ComponentLink", ComponentLinkDto.class);
     confBuilder.loadAlias("ComponentWithSnapshot", ComponentDtoWithSnapshotId.class);
@@ -204,6 +208,7 @@ public class MyBatis implements Startable {
       CeQueueMapper.class,
       CeScannerContextMapper.class,
       CeTaskInputMapper.class,
+      CeTaskStatisticMapper.class,
       CeTaskCharacteristicMapper.class,
       ComponentKeyUpdaterMapper.class,
       ComponentLinkMapper.class,
@@ -251,6 +256,7 @@ public class MyBatis implements Startable {
       WebhookDeliveryMapper.class
     };
     confBuilder.loadMappers(mappers);
+    confBuilder.addInterceptor(statementDurations);
 
     sessionFactory = new SqlSessionFactoryBuilder().build(confBuilder.build());
   }
@@ -260,6 +266,13 @@ public class MyBatis implements Startable {
     // nothing to do
   }
 
+  /**
+   * Durations of executions of mapper statements since startup
+   */
+  public StatementDurations getStatementDurations() {
+    return statementDurations;
+  }
+
   @VisibleForTesting
   SqlSessionFactory getSessionFactory() {
     return sessionFactory;
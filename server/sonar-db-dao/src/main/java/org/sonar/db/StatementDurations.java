@@ -0,0 +1,80 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.sonar.db.profiling.DurationHistogram;
+
+/**
+ * MyBatis plugin recording the durations of executions of mapper statements, by statement id
+ * (for example "org.sonar.db.component.ComponentMapper.selectByUuids").
+ * <p>
+ * Durations of selects include the processing of rows by {@link ResultHandler}s. Executions of
+ * cursors only include the execution of the query. In batch sessions, updates are only recorded
+ * when they are added to the batch.
+ */
+@Intercepts({
+  @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+  @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+  @Signature(type = Executor.class, method = "queryCursor", args = {MappedStatement.class, Object.class, RowBounds.class})
+})
+public class StatementDurations implements Interceptor {
+
+  private final Map<String, DurationHistogram> histogramsByStatementId = new ConcurrentHashMap<>();
+
+  @Override
+  public Object intercept(Invocation invocation) throws Throwable {
+    MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+    long start = System.nanoTime();
+    try {
+      return invocation.proceed();
+    } finally {
+      long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      histogramsByStatementId.computeIfAbsent(statement.getId(), id -> new DurationHistogram()).record(durationMs);
+    }
+  }
+
+  @Override
+  public Object plugin(Object target) {
+    return Plugin.wrap(target, this);
+  }
+
+  @Override
+  public void setProperties(Properties properties) {
+    // no properties
+  }
+
+  public Map<String, DurationHistogram> getHistogramsByStatementId() {
+    return Collections.unmodifiableMap(histogramsByStatementId);
+  }
+}
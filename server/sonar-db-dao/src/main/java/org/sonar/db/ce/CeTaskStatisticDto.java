@@ -0,0 +1,111 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.ce;
+
+/**
+ * Resources used by a step or by a component visitor during the processing of a Compute Engine task.
+ */
+public class CeTaskStatisticDto {
+
+  public enum Kind {
+    STEP, VISITOR
+  }
+
+  private String uuid;
+  private String taskUuid;
+  private Kind kind;
+  private String name;
+  private long durationMs;
+  private long cpuTimeMs;
+  private long allocatedBytes;
+  private long createdAt;
+
+  public String getUuid() {
+    return uuid;
+  }
+
+  public CeTaskStatisticDto setUuid(String uuid) {
+    this.uuid = uuid;
+    return this;
+  }
+
+  public String getTaskUuid() {
+    return taskUuid;
+  }
+
+  public CeTaskStatisticDto setTaskUuid(String taskUuid) {
+    this.taskUuid = taskUuid;
+    return this;
+  }
+
+  public Kind getKind() {
+    return kind;
+  }
+
+  public CeTaskStatisticDto setKind(Kind kind) {
+    this.kind = kind;
+    return this;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public CeTaskStatisticDto setName(String name) {
+    this.name = name;
+    return this;
+  }
+
+  public long getDurationMs() {
+    return durationMs;
+  }
+
+  public CeTaskStatisticDto setDurationMs(long durationMs) {
+    this.durationMs = durationMs;
+    return this;
+  }
+
+  public long getCpuTimeMs() {
+    return cpuTimeMs;
+  }
+
+  public CeTaskStatisticDto setCpuTimeMs(long cpuTimeMs) {
+    this.cpuTimeMs = cpuTimeMs;
+    return this;
+  }
+
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  public CeTaskStatisticDto setAllocatedBytes(long allocatedBytes) {
+    this.allocatedBytes = allocatedBytes;
+    return this;
+  }
+
+  public long getCreatedAt() {
+    return createdAt;
+  }
+
+  public CeTaskStatisticDto setCreatedAt(long createdAt) {
+    this.createdAt = createdAt;
+    return this;
+  }
+}
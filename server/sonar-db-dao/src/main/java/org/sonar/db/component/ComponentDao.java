@@ -36,9 +36,12 @@ import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.sonar.api.resources.Qualifiers;
 import org.sonar.api.resources.Scopes;
+import org.sonar.core.util.CloseableIterator;
+import org.sonar.db.CursorIterator;
 import org.sonar.db.Dao;
 import org.sonar.db.DbSession;
 import org.sonar.db.RowNotFoundException;
+import org.sonar.db.permission.AuthorizationVersionDao;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Collections.emptyList;
@@ -53,6 +56,12 @@ import static org.sonar.db.component.ComponentDto.generateBranchKey;
 
 public class ComponentDao implements Dao {
 
+  private final AuthorizationVersionDao authorizationVersionDao;
+
+  public ComponentDao(AuthorizationVersionDao authorizationVersionDao) {
+    this.authorizationVersionDao = authorizationVersionDao;
+  }
+
   private static List<ComponentDto> selectByQueryImpl(DbSession session, @Nullable String organizationUuid, ComponentQuery query, int offset, int limit) {
     if (query.hasEmptySetOfComponents()) {
       return emptyList();
@@ -145,6 +154,22 @@ public class ComponentDao implements Dao {
     return mapper(session).selectEnabledFilesFromProject(rootComponentUuid);
   }
 
+  /**
+   * Same as {@link #selectEnabledDescendantFiles(DbSession, String)} but files are streamed from database while
+   * iterating. Returned iterator must be closed.
+   */
+  public CloseableIterator<FilePathWithHashDto> scrollEnabledDescendantFiles(DbSession session, String rootComponentUuid) {
+    return new CursorIterator<>(mapper(session).scrollDescendantFiles(rootComponentUuid, Scopes.FILE, true));
+  }
+
+  /**
+   * Same as {@link #selectEnabledFilesFromProject(DbSession, String)} but files are streamed from database while
+   * iterating. Returned iterator must be closed.
+   */
+  public CloseableIterator<FilePathWithHashDto> scrollEnabledFilesFromProject(DbSession session, String rootComponentUuid) {
+    return new CursorIterator<>(mapper(session).scrollEnabledFilesFromProject(rootComponentUuid));
+  }
+
   public List<ComponentDto> selectByIds(DbSession session, Collection<Long> ids) {
     return executeLargeInputs(ids, mapper(session)::selectByIds);
   }
@@ -164,6 +189,14 @@ public class ComponentDao implements Dao {
     return mapper(session).selectComponentsFromProjectKeyAndScope(projectKey, null, false);
   }
 
+  /**
+   * Same as {@link #selectAllComponentsFromProjectKey(DbSession, String)} but components are streamed from database
+   * while iterating. Returned iterator must be closed.
+   */
+  public CloseableIterator<ComponentDto> scrollAllComponentsFromProjectKey(DbSession session, String projectKey) {
+    return new CursorIterator<>(mapper(session).scrollComponentsFromProjectKeyAndScope(projectKey, null, false));
+  }
+
   public List<KeyWithUuidDto> selectUuidsByKeyFromProjectKey(DbSession session, String projectKey) {
     return mapper(session).selectUuidsByKeyFromProjectKey(projectKey);
   }
@@ -337,6 +370,7 @@ public class ComponentDao implements Dao {
   }
 
   public void setPrivateForRootComponentUuid(DbSession session, String projectUuid, boolean isPrivate) {
+    authorizationVersionDao.change(session);
     mapper(session).setPrivateForRootComponentUuid(projectUuid, isPrivate);
   }
 
@@ -25,6 +25,7 @@ import java.util.List;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 
@@ -101,6 +102,17 @@ public interface ComponentMapper {
   List<FilePathWithHashDto> selectDescendantFiles(@Param("moduleUuid") String moduleUuid, @Param(value = "scope") String scope,
     @Param(value = "excludeDisabled") boolean excludeDisabled);
 
+  /**
+   * Same as {@link #selectEnabledFilesFromProject(String)} but rows are fetched while iterating
+   */
+  Cursor<FilePathWithHashDto> scrollEnabledFilesFromProject(@Param("projectUuid") String projectUuid);
+
+  /**
+   * Same as {@link #selectDescendantFiles(String, String, boolean)} but rows are fetched while iterating
+   */
+  Cursor<FilePathWithHashDto> scrollDescendantFiles(@Param("moduleUuid") String moduleUuid, @Param(value = "scope") String scope,
+    @Param(value = "excludeDisabled") boolean excludeDisabled);
+
   /**
    * Return uuids and project uuids from list of qualifiers
    * <p/>
@@ -116,6 +128,12 @@ public interface ComponentMapper {
   List<ComponentDto> selectComponentsFromProjectKeyAndScope(@Param("projectKey") String projectKey, @Nullable @Param("scope") String scope,
     @Param(value = "excludeDisabled") boolean excludeDisabled);
 
+  /**
+   * Same as {@link #selectComponentsFromProjectKeyAndScope(String, String, boolean)} but rows are fetched while iterating
+   */
+  Cursor<ComponentDto> scrollComponentsFromProjectKeyAndScope(@Param("projectKey") String projectKey, @Nullable @Param("scope") String scope,
+    @Param(value = "excludeDisabled") boolean excludeDisabled);
+
   /**
    * Return keys and UUIDs of all components belonging to a project
    */
@@ -22,6 +22,7 @@ package org.sonar.db.es;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import org.sonar.api.utils.System2;
 import org.sonar.core.util.UuidFactory;
 import org.sonar.db.Dao;
@@ -73,6 +74,17 @@ public class EsQueueDao implements Dao {
     return mapper(dbSession).selectForRecovery(beforeDate, limit);
   }
 
+  public long count(DbSession dbSession) {
+    return mapper(dbSession).count();
+  }
+
+  /**
+   * Creation date of the oldest item of the queue, or empty if the queue is empty
+   */
+  public Optional<Long> selectOldestCreationDate(DbSession dbSession) {
+    return Optional.ofNullable(mapper(dbSession).selectMinCreatedAt());
+  }
+
   private static EsQueueMapper mapper(DbSession dbSession) {
     return dbSession.getMapper(EsQueueMapper.class);
   }
@@ -21,6 +21,7 @@ package org.sonar.db.es;
 
 import java.util.Collection;
 import java.util.List;
+import javax.annotation.CheckForNull;
 import org.apache.ibatis.annotations.Param;
 
 public interface EsQueueMapper {
@@ -30,4 +31,9 @@ public interface EsQueueMapper {
   void delete(@Param("uuids") List<String> uuids);
 
   Collection<EsQueueDto> selectForRecovery(@Param("beforeDate") long beforeDate, @Param("limit") long limit);
+
+  long count();
+
+  @CheckForNull
+  Long selectMinCreatedAt();
 }
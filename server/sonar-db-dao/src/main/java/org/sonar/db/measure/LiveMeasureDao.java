@@ -29,6 +29,7 @@ import org.sonar.api.utils.System2;
 import org.sonar.core.util.Uuids;
 import org.sonar.db.Dao;
 import org.sonar.db.DbSession;
+import org.sonar.db.Pagination;
 import org.sonar.db.component.ComponentDto;
 
 import static java.util.Collections.singletonList;
@@ -78,6 +79,29 @@ public class LiveMeasureDao implements Dao {
     mapper(dbSession).selectTreeByQuery(query, baseComponent.uuid(), query.getUuidPath(baseComponent), resultHandler);
   }
 
+  /**
+   * Counts the descendants of {@code baseComponent} matching {@code query} which have a value for
+   * the metric {@code metricId}. Metric ids of the query are ignored.
+   */
+  public int countTreeComponentsWithValue(DbSession dbSession, ComponentDto baseComponent, MeasureTreeQuery query, int metricId) {
+    if (query.returnsEmpty()) {
+      return 0;
+    }
+    return mapper(dbSession).countTreeComponentsWithValue(query, baseComponent.uuid(), query.getUuidPath(baseComponent), metricId);
+  }
+
+  /**
+   * Page of the UUIDs of the descendants of {@code baseComponent} matching {@code query} which have a value for
+   * the metric {@code metricId}, sorted by this value, then by component name. Metric ids of the query are ignored.
+   */
+  public List<String> selectTreeComponentUuidsSortedByValue(DbSession dbSession, ComponentDto baseComponent, MeasureTreeQuery query, int metricId,
+    boolean asc, Pagination pagination) {
+    if (query.returnsEmpty()) {
+      return Collections.emptyList();
+    }
+    return mapper(dbSession).selectTreeComponentUuidsSortedByValue(query, baseComponent.uuid(), query.getUuidPath(baseComponent), metricId, asc, pagination);
+  }
+
   public void insert(DbSession dbSession, LiveMeasureDto dto) {
     mapper(dbSession).insert(dto, Uuids.create(), null, system2.now());
   }
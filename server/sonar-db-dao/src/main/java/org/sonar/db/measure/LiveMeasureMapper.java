@@ -24,6 +24,7 @@ import java.util.List;
 import javax.annotation.Nullable;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.session.ResultHandler;
+import org.sonar.db.Pagination;
 
 public interface LiveMeasureMapper {
 
@@ -41,6 +42,20 @@ public interface LiveMeasureMapper {
     @Param("baseUuidPath") String baseUuidPath,
     ResultHandler<LiveMeasureDto> resultHandler);
 
+  int countTreeComponentsWithValue(
+    @Param("query") MeasureTreeQuery measureQuery,
+    @Param("baseUuid") String baseUuid,
+    @Param("baseUuidPath") String baseUuidPath,
+    @Param("metricId") int metricId);
+
+  List<String> selectTreeComponentUuidsSortedByValue(
+    @Param("query") MeasureTreeQuery measureQuery,
+    @Param("baseUuid") String baseUuid,
+    @Param("baseUuidPath") String baseUuidPath,
+    @Param("metricId") int metricId,
+    @Param("asc") boolean asc,
+    @Param("pagination") Pagination pagination);
+
   void insert(
     @Param("dto") LiveMeasureDto dto,
     @Param("uuid") String uuid,
@@ -97,8 +97,15 @@ public class ProjectMeasuresIndexerIterator extends CloseableIterator<ProjectMea
   }
 
   public static ProjectMeasuresIndexerIterator create(DbSession session, @Nullable String projectUuid) {
+    return create(session, selectProjects(session, projectUuid));
+  }
+
+  /**
+   * Iterates on the measures of the given projects, in the same order. Projects are
+   * generally loaded by {@link #selectProjects(DbSession, String)}.
+   */
+  public static ProjectMeasuresIndexerIterator create(DbSession session, List<Project> projects) {
     try {
-      List<Project> projects = selectProjects(session, projectUuid);
       PreparedStatement projectsStatement = createMeasuresStatement(session);
       return new ProjectMeasuresIndexerIterator(projectsStatement, projects);
     } catch (SQLException e) {
@@ -106,7 +113,12 @@ public class ProjectMeasuresIndexerIterator extends CloseableIterator<ProjectMea
     }
   }
 
-  private static List<Project> selectProjects(DbSession session, @Nullable String projectUuid) {
+  /**
+   * Loads the project(s) to be indexed, without their measures.
+   *
+   * @param projectUuid uuid of the project to load, or {@code null} to load all projects
+   */
+  public static List<Project> selectProjects(DbSession session, @Nullable String projectUuid) {
     List<Project> projects = new ArrayList<>();
     try (PreparedStatement stmt = createProjectsStatement(session, projectUuid);
       ResultSet rs = stmt.executeQuery()) {
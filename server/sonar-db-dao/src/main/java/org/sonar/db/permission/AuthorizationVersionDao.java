@@ -0,0 +1,80 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.permission;
+
+import java.util.List;
+import java.util.Optional;
+import org.sonar.api.utils.System2;
+import org.sonar.core.util.UuidFactory;
+import org.sonar.db.Dao;
+import org.sonar.db.DbSession;
+import org.sonar.db.property.InternalPropertiesMapper;
+import org.sonar.db.property.InternalPropertyDto;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Version of the authorization data (tokens, active users, groups and permissions), stored
+ * in table internal_properties. It is changed by every DAO which alters this data, in the
+ * same transaction, so that caches of authorizations can detect that they are stale.
+ */
+public class AuthorizationVersionDao implements Dao {
+
+  public static final String KEY = "authz.version";
+
+  private final System2 system2;
+  private final UuidFactory uuidFactory;
+
+  public AuthorizationVersionDao(System2 system2, UuidFactory uuidFactory) {
+    this.system2 = system2;
+    this.uuidFactory = uuidFactory;
+  }
+
+  /**
+   * @return the current version, or empty if it has not been initialized yet
+   */
+  public Optional<String> select(DbSession dbSession) {
+    List<InternalPropertyDto> rows = mapper(dbSession).selectAsText(singletonList(KEY));
+    return rows.stream().findFirst().map(InternalPropertyDto::getValue);
+  }
+
+  public void insertIfAbsent(DbSession dbSession) {
+    if (!select(dbSession).isPresent()) {
+      mapper(dbSession).insertAsText(KEY, uuidFactory.create(), system2.now());
+    }
+  }
+
+  /**
+   * Sets a new version. Must be called before altering authorization data so that the
+   * row is locked first by all the concurrent transactions.
+   */
+  public void change(DbSession dbSession) {
+    InternalPropertiesMapper mapper = mapper(dbSession);
+    String version = uuidFactory.create();
+    long now = system2.now();
+    if (mapper.updateAsText(KEY, version, now) == 0) {
+      mapper.insertAsText(KEY, version, now);
+    }
+  }
+
+  private static InternalPropertiesMapper mapper(DbSession dbSession) {
+    return dbSession.getMapper(InternalPropertiesMapper.class);
+  }
+}
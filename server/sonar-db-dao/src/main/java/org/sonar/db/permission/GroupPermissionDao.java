@@ -40,6 +40,12 @@ public class GroupPermissionDao implements Dao {
 
   private static final String ANYONE_GROUP_PARAMETER = "anyoneGroup";
 
+  private final AuthorizationVersionDao authorizationVersionDao;
+
+  public GroupPermissionDao(AuthorizationVersionDao authorizationVersionDao) {
+    this.authorizationVersionDao = authorizationVersionDao;
+  }
+
   /**
    * Returns the names of the groups that match the given query, for the given organization.
    * The virtual group "Anyone" may be returned as the value {@link DefaultGroups#ANYONE}.
@@ -114,6 +120,7 @@ public class GroupPermissionDao implements Dao {
   }
 
   public void insert(DbSession dbSession, GroupPermissionDto dto) {
+    authorizationVersionDao.change(dbSession);
     ensureComponentPermissionConsistency(dbSession, dto);
     ensureGroupPermissionConsistency(dbSession, dto);
     mapper(dbSession).insert(dto);
@@ -145,6 +152,7 @@ public class GroupPermissionDao implements Dao {
    * Delete all the permissions associated to a root component (project)
    */
   public void deleteByRootComponentId(DbSession dbSession, long rootComponentId) {
+    authorizationVersionDao.change(dbSession);
     mapper(dbSession).deleteByRootComponentId(rootComponentId);
   }
 
@@ -153,6 +161,7 @@ public class GroupPermissionDao implements Dao {
    * component.
    */
   public int deleteByRootComponentIdAndGroupId(DbSession dbSession, long rootComponentId, @Nullable Integer groupId) {
+    authorizationVersionDao.change(dbSession);
     return mapper(dbSession).deleteByRootComponentIdAndGroupId(rootComponentId, groupId);
   }
 
@@ -160,6 +169,7 @@ public class GroupPermissionDao implements Dao {
    * Delete the specified permission for the specified component for any group (including group AnyOne).
    */
   public int deleteByRootComponentIdAndPermission(DbSession dbSession, long rootComponentId, String permission) {
+    authorizationVersionDao.change(dbSession);
     return mapper(dbSession).deleteByRootComponentIdAndPermission(rootComponentId, permission);
   }
 
@@ -178,10 +188,12 @@ public class GroupPermissionDao implements Dao {
    * @param rootComponentId if null, then global permission, else id of root component (project)
    */
   public void delete(DbSession dbSession, String permission, String organizationUuid, @Nullable Integer groupId, @Nullable Long rootComponentId) {
+    authorizationVersionDao.change(dbSession);
     mapper(dbSession).delete(permission, organizationUuid, groupId, rootComponentId);
   }
 
   public void deleteByOrganization(DbSession dbSession, String organizationUuid) {
+    authorizationVersionDao.change(dbSession);
     mapper(dbSession).deleteByOrganization(organizationUuid);
   }
 
@@ -34,6 +34,12 @@ import static org.sonar.db.DatabaseUtils.executeLargeInputs;
 
 public class UserPermissionDao implements Dao {
 
+  private final AuthorizationVersionDao authorizationVersionDao;
+
+  public UserPermissionDao(AuthorizationVersionDao authorizationVersionDao) {
+    this.authorizationVersionDao = authorizationVersionDao;
+  }
+
   /**
    * List of user permissions ordered by alphabetical order of user names.
    * Pagination is NOT applied.
@@ -95,6 +101,7 @@ public class UserPermissionDao implements Dao {
   }
 
   public void insert(DbSession dbSession, UserPermissionDto dto) {
+    authorizationVersionDao.change(dbSession);
     ensureComponentPermissionConsistency(dbSession, dto);
     mapper(dbSession).insert(dto);
   }
@@ -114,6 +121,7 @@ public class UserPermissionDao implements Dao {
    * Removes a single global permission from user
    */
   public void deleteGlobalPermission(DbSession dbSession, int userId, String permission, String organizationUuid) {
+    authorizationVersionDao.change(dbSession);
     mapper(dbSession).deleteGlobalPermission(userId, permission, organizationUuid);
   }
 
@@ -121,6 +129,7 @@ public class UserPermissionDao implements Dao {
    * Removes a single project permission from user
    */
   public void deleteProjectPermission(DbSession dbSession, int userId, String permission, long projectId) {
+    authorizationVersionDao.change(dbSession);
     mapper(dbSession).deleteProjectPermission(userId, permission, projectId);
   }
 
@@ -128,6 +137,7 @@ public class UserPermissionDao implements Dao {
    * Deletes all the permissions defined on a project
    */
   public void deleteProjectPermissions(DbSession dbSession, long projectId) {
+    authorizationVersionDao.change(dbSession);
     mapper(dbSession).deleteProjectPermissions(projectId);
   }
 
@@ -135,18 +145,22 @@ public class UserPermissionDao implements Dao {
    * Deletes the specified permission on the specified project for any user.
    */
   public int deleteProjectPermissionOfAnyUser(DbSession dbSession, long projectId, String permission) {
+    authorizationVersionDao.change(dbSession);
     return mapper(dbSession).deleteProjectPermissionOfAnyUser(projectId, permission);
   }
 
   public void deleteByOrganization(DbSession dbSession, String organizationUuid) {
+    authorizationVersionDao.change(dbSession);
     mapper(dbSession).deleteByOrganization(organizationUuid);
   }
 
   public void deleteOrganizationMemberPermissions(DbSession dbSession, String organizationUuid, int userId) {
+    authorizationVersionDao.change(dbSession);
     mapper(dbSession).deleteOrganizationMemberPermissions(organizationUuid, userId);
   }
 
   public void deleteByUserId(DbSession dbSession, int userId) {
+    authorizationVersionDao.change(dbSession);
     mapper(dbSession).deleteByUserId(userId);
   }
 
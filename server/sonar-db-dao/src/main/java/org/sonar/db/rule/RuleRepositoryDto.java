@@ -19,12 +19,16 @@
  */
 package org.sonar.db.rule;
 
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
 public class RuleRepositoryDto {
 
   // do not rename "key" as MyBatis maps it with the db column "kee"
   private String kee;
   private String language;
   private String name;
+  private String fingerprint;
 
   public RuleRepositoryDto() {
     // used by MyBatis
@@ -48,6 +52,14 @@ public class RuleRepositoryDto {
     return name;
   }
 
+  /**
+   * Hash of the rule definitions provided by plugins, used to detect changes at startup
+   */
+  @CheckForNull
+  public String getFingerprint() {
+    return fingerprint;
+  }
+
   public RuleRepositoryDto setKey(String s) {
     this.kee = s;
     return this;
@@ -62,4 +74,9 @@ public class RuleRepositoryDto {
     this.name = s;
     return this;
   }
+
+  public RuleRepositoryDto setFingerprint(@Nullable String s) {
+    this.fingerprint = s;
+    return this;
+  }
 }
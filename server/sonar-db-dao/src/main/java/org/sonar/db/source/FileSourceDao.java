@@ -25,16 +25,20 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.function.Function;
 import javax.annotation.CheckForNull;
 import org.apache.commons.dbutils.DbUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.ibatis.session.ResultHandler;
 import org.sonar.db.Dao;
 import org.sonar.db.DbSession;
 import org.sonar.db.source.FileSourceDto.Type;
 
+import static org.sonar.db.DatabaseUtils.executeLargeInputsWithoutOutput;
+
 public class FileSourceDao implements Dao {
 
   private static final Splitter END_OF_LINE_SPLITTER = Splitter.on('\n');
@@ -44,6 +48,15 @@ public class FileSourceDao implements Dao {
     return mapper(session).select(fileUuid, Type.SOURCE);
   }
 
+  /**
+   * Only the fields {@link FileSourceDto#getFileUuid()}, {@link FileSourceDto#getSrcHash()} and
+   * {@link FileSourceDto#getBinaryData()} are loaded.
+   */
+  @CheckForNull
+  public FileSourceDto selectSourceDataByFileUuid(DbSession session, String fileUuid) {
+    return mapper(session).selectSourceData(fileUuid, Type.SOURCE);
+  }
+
   @CheckForNull
   public FileSourceDto selectTest(DbSession dbSession, String fileUuid) {
     return mapper(dbSession).select(fileUuid, Type.TEST);
@@ -98,6 +111,14 @@ public class FileSourceDao implements Dao {
     }
   }
 
+  /**
+   * Scrolls the line hashes of the given files. Only the fields {@link FileSourceDto#getFileUuid()} and
+   * {@link FileSourceDto#getLineHashes()} are loaded. Files without sources are ignored.
+   */
+  public void scrollLineHashes(DbSession dbSession, Collection<String> fileUuids, ResultHandler<FileSourceDto> handler) {
+    executeLargeInputsWithoutOutput(fileUuids, partition -> mapper(dbSession).scrollLineHashes(partition, Type.SOURCE, handler));
+  }
+
   public void insert(DbSession session, FileSourceDto dto) {
     mapper(session).insert(dto);
   }
@@ -20,7 +20,9 @@
 package org.sonar.db.source;
 
 import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.ExtensionRegistryLite;
 import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -52,6 +54,7 @@ public class FileSourceDto {
   private String dataType;
   private String dataHash;
   private String revision;
+  private String inputHash;
 
   public Long getId() {
     return id;
@@ -212,6 +215,38 @@ public class FileSourceDto {
     return decodeSourceData(binaryData);
   }
 
+  /**
+   * Decompress and deserialize only the lines {@code from} to {@code toInclusive} (both starting from 1) of
+   * {@link #getSourceData()}. Lines are stored in order, so the preceding lines are skipped without being
+   * deserialized and decompression stops as soon as line {@code toInclusive} is read.
+   */
+  public List<DbFileSources.Line> getSourceLines(int from, int toInclusive) {
+    List<DbFileSources.Line> lines = new ArrayList<>();
+    try (LZ4BlockInputStream lz4Input = new LZ4BlockInputStream(new ByteArrayInputStream(binaryData))) {
+      CodedInputStream input = CodedInputStream.newInstance(lz4Input);
+      input.setSizeLimit(Integer.MAX_VALUE);
+      int index = 0;
+      int tag;
+      while (index < toInclusive && (tag = input.readTag()) != 0) {
+        if (WireFormat.getTagFieldNumber(tag) != DbFileSources.Data.LINES_FIELD_NUMBER) {
+          input.skipField(tag);
+        } else {
+          index++;
+          if (index < from) {
+            input.skipField(tag);
+          } else {
+            lines.add(input.readMessage(DbFileSources.Line.parser(), ExtensionRegistryLite.getEmptyRegistry()));
+          }
+        }
+      }
+      return lines;
+    } catch (IOException e) {
+      throw new IllegalStateException(
+        format("Fail to decompress and deserialize source data [id=%s,fileUuid=%s,projectUuid=%s]", id, fileUuid, projectUuid),
+        e);
+    }
+  }
+
   public FileSourceDto setSourceData(DbFileSources.Data data) {
     this.dataType = Type.SOURCE;
     this.binaryData = encodeSourceData(data);
@@ -290,6 +325,19 @@ public class FileSourceDto {
     return this;
   }
 
+  @CheckForNull
+  public String getInputHash() {
+    return inputHash;
+  }
+
+  /**
+   * Hash of the analysis report data the binary data was computed from. Value is computed by Compute Engine.
+   */
+  public FileSourceDto setInputHash(@Nullable String inputHash) {
+    this.inputHash = inputHash;
+    return this;
+  }
+
   public static class Type {
     public static final String SOURCE = "SOURCE";
     public static final String TEST = "TEST";
@@ -19,17 +19,24 @@
  */
 package org.sonar.db.source;
 
+import java.util.Collection;
 import java.util.List;
 import javax.annotation.CheckForNull;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 public interface FileSourceMapper {
 
   List<FileSourceDto> selectHashesForProject(@Param("projectUuid") String projectUuid, @Param("dataType") String dataType);
 
+  void scrollLineHashes(@Param("fileUuids") Collection<String> fileUuids, @Param("dataType") String dataType, ResultHandler<FileSourceDto> handler);
+
   @CheckForNull
   FileSourceDto select(@Param("fileUuid") String fileUuid, @Param("dataType") String dataType);
 
+  @CheckForNull
+  FileSourceDto selectSourceData(@Param("fileUuid") String fileUuid, @Param("dataType") String dataType);
+
   void insert(FileSourceDto dto);
 
   void update(FileSourceDto dto);
@@ -33,15 +33,18 @@ import org.sonar.db.Dao;
 import org.sonar.db.DaoDatabaseUtils;
 import org.sonar.db.DbSession;
 import org.sonar.db.WildcardPosition;
+import org.sonar.db.permission.AuthorizationVersionDao;
 
 import static org.sonar.db.DatabaseUtils.executeLargeInputs;
 
 public class GroupDao implements Dao {
 
   private final System2 system;
+  private final AuthorizationVersionDao authorizationVersionDao;
 
-  public GroupDao(System2 system) {
+  public GroupDao(System2 system, AuthorizationVersionDao authorizationVersionDao) {
     this.system = system;
+    this.authorizationVersionDao = authorizationVersionDao;
   }
 
   /**
@@ -68,10 +71,12 @@ public class GroupDao implements Dao {
   }
 
   public void deleteById(DbSession dbSession, int groupId) {
+    authorizationVersionDao.change(dbSession);
     mapper(dbSession).deleteById(groupId);
   }
 
   public void deleteByOrganization(DbSession dbSession, String organizationUuid) {
+    authorizationVersionDao.change(dbSession);
     mapper(dbSession).deleteByOrganization(organizationUuid);
   }
 
@@ -92,6 +97,7 @@ public class GroupDao implements Dao {
   }
 
   public GroupDto update(DbSession session, GroupDto item) {
+    authorizationVersionDao.change(session);
     item.setUpdatedAt(new Date(system.now()));
     mapper(session).update(item);
     return item;
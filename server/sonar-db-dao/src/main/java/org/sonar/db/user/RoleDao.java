@@ -25,6 +25,7 @@ import java.util.Set;
 import org.sonar.api.web.UserRole;
 import org.sonar.db.Dao;
 import org.sonar.db.DbSession;
+import org.sonar.db.permission.AuthorizationVersionDao;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static org.sonar.api.web.UserRole.CODEVIEWER;
@@ -33,6 +34,12 @@ import static org.sonar.api.web.UserRole.USER;
 public class RoleDao implements Dao {
   private static final Set<String> UNSUPPORTED_PROJECT_PERMISSIONS = ImmutableSet.of(USER, CODEVIEWER);
 
+  private final AuthorizationVersionDao authorizationVersionDao;
+
+  public RoleDao(AuthorizationVersionDao authorizationVersionDao) {
+    this.authorizationVersionDao = authorizationVersionDao;
+  }
+
   /**
    * All the projects on which the user has {@code permission}, directly or through
    * groups.
@@ -48,6 +55,7 @@ public class RoleDao implements Dao {
   }
 
   public void deleteGroupRolesByGroupId(DbSession session, int groupId) {
+    authorizationVersionDao.change(session);
     mapper(session).deleteGroupRolesByGroupId(groupId);
   }
 
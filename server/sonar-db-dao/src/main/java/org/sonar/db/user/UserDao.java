@@ -35,6 +35,7 @@ import org.sonar.api.utils.System2;
 import org.sonar.db.Dao;
 import org.sonar.db.DbSession;
 import org.sonar.db.RowNotFoundException;
+import org.sonar.db.permission.AuthorizationVersionDao;
 
 import static org.sonar.db.DatabaseUtils.executeLargeInputs;
 import static org.sonar.db.DatabaseUtils.executeLargeInputsWithoutOutput;
@@ -42,9 +43,11 @@ import static org.sonar.db.DatabaseUtils.executeLargeInputsWithoutOutput;
 public class UserDao implements Dao {
 
   private final System2 system2;
+  private final AuthorizationVersionDao authorizationVersionDao;
 
-  public UserDao(System2 system2) {
+  public UserDao(System2 system2, AuthorizationVersionDao authorizationVersionDao) {
     this.system2 = system2;
+    this.authorizationVersionDao = authorizationVersionDao;
   }
 
   @CheckForNull
@@ -107,6 +110,7 @@ public class UserDao implements Dao {
   }
 
   public UserDto update(DbSession session, UserDto dto) {
+    authorizationVersionDao.change(session);
     long now = system2.now();
     mapper(session).update(dto, now);
     dto.setUpdatedAt(now);
@@ -114,10 +118,12 @@ public class UserDao implements Dao {
   }
 
   public void setRoot(DbSession session, String login, boolean root) {
+    authorizationVersionDao.change(session);
     mapper(session).setRoot(login, root, system2.now());
   }
 
   public void deactivateUser(DbSession dbSession, UserDto user) {
+    authorizationVersionDao.change(dbSession);
     mapper(dbSession).deactivateUser(user.getLogin(), system2.now());
   }
 
@@ -21,27 +21,39 @@ package org.sonar.db.user;
 
 import org.sonar.db.Dao;
 import org.sonar.db.DbSession;
+import org.sonar.db.permission.AuthorizationVersionDao;
 
 public class UserGroupDao implements Dao {
 
+  private final AuthorizationVersionDao authorizationVersionDao;
+
+  public UserGroupDao(AuthorizationVersionDao authorizationVersionDao) {
+    this.authorizationVersionDao = authorizationVersionDao;
+  }
+
   public UserGroupDto insert(DbSession session, UserGroupDto dto) {
+    authorizationVersionDao.change(session);
     mapper(session).insert(dto);
     return dto;
   }
 
   public void delete(DbSession session, int groupId, int userId) {
+    authorizationVersionDao.change(session);
     mapper(session).delete(groupId, userId);
   }
 
   public void deleteByGroupId(DbSession session, int groupId) {
+    authorizationVersionDao.change(session);
     mapper(session).deleteByGroupId(groupId);
   }
 
   public void deleteByOrganizationAndUser(DbSession dbSession, String organizationUuid, int userId) {
+    authorizationVersionDao.change(dbSession);
     mapper(dbSession).deleteByOrganizationAndUser(organizationUuid, userId);
   }
 
   public void deleteByUserId(DbSession dbSession, int userId) {
+    authorizationVersionDao.change(dbSession);
     mapper(dbSession).deleteByUserId(userId);
   }
 
@@ -26,11 +26,19 @@ import java.util.Map;
 import org.sonar.db.Dao;
 import org.sonar.db.DbSession;
 import org.sonar.db.RowNotFoundException;
+import org.sonar.db.permission.AuthorizationVersionDao;
 
 import static java.lang.String.format;
 import static org.sonar.db.DatabaseUtils.executeLargeInputs;
 
 public class UserTokenDao implements Dao {
+
+  private final AuthorizationVersionDao authorizationVersionDao;
+
+  public UserTokenDao(AuthorizationVersionDao authorizationVersionDao) {
+    this.authorizationVersionDao = authorizationVersionDao;
+  }
+
   public void insert(DbSession dbSession, UserTokenDto userTokenDto) {
     mapper(dbSession).insert(userTokenDto);
   }
@@ -72,10 +80,12 @@ public class UserTokenDao implements Dao {
   }
 
   public void deleteByLogin(DbSession dbSession, String login) {
+    authorizationVersionDao.change(dbSession);
     mapper(dbSession).deleteByLogin(login);
   }
 
   public void deleteByLoginAndName(DbSession dbSession, String login, String name) {
+    authorizationVersionDao.change(dbSession);
     mapper(dbSession).deleteByLoginAndName(login, name);
   }
 
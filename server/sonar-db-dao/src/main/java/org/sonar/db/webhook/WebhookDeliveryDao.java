@@ -48,6 +48,22 @@ public class WebhookDeliveryDao implements Dao {
     mapper(dbSession).insert(dto);
   }
 
+  /**
+   * Failed deliveries whose next attempt is due at the specified date, ordered by ascending date of retry.
+   */
+  public List<WebhookDeliveryDto> selectForRetry(DbSession dbSession, long now, int limit) {
+    return mapper(dbSession).selectForRetry(now, limit);
+  }
+
+  /**
+   * Marks the delivery as being retried, so that it's not selected anymore by {@link #selectForRetry(DbSession, long, int)}.
+   *
+   * @return false if the retry has already been claimed by another process or thread
+   */
+  public boolean clearRetry(DbSession dbSession, String uuid, long retryAt) {
+    return mapper(dbSession).clearRetry(uuid, retryAt) == 1;
+  }
+
   public void deleteComponentBeforeDate(DbSession dbSession, String componentUuid, long beforeDate) {
     mapper(dbSession).deleteComponentBeforeDate(componentUuid, beforeDate);
   }
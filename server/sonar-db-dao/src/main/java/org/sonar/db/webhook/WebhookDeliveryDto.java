@@ -28,6 +28,10 @@ public class WebhookDeliveryDto extends WebhookDeliveryLiteDto<WebhookDeliveryDt
   private String errorStacktrace;
   /** The payload that has been sent, cannot be null */
   private String payload;
+  /** Number of the attempt, starting at 1. Null for deliveries done before retries were supported */
+  private Integer attempt;
+  /** Date of the next attempt if the delivery failed and must be retried, else null */
+  private Long retryAt;
 
   @CheckForNull
   public String getErrorStacktrace() {
@@ -49,6 +53,26 @@ public class WebhookDeliveryDto extends WebhookDeliveryLiteDto<WebhookDeliveryDt
     return this;
   }
 
+  @CheckForNull
+  public Integer getAttempt() {
+    return attempt;
+  }
+
+  public WebhookDeliveryDto setAttempt(@Nullable Integer i) {
+    this.attempt = i;
+    return this;
+  }
+
+  @CheckForNull
+  public Long getRetryAt() {
+    return retryAt;
+  }
+
+  public WebhookDeliveryDto setRetryAt(@Nullable Long l) {
+    this.retryAt = l;
+    return this;
+  }
+
   @Override
   public String toString() {
     return new ToStringBuilder(this)
@@ -61,6 +85,8 @@ public class WebhookDeliveryDto extends WebhookDeliveryLiteDto<WebhookDeliveryDt
       .append("url", url)
       .append("errorStacktrace", errorStacktrace)
       .append("createdAt", createdAt)
+      .append("attempt", attempt)
+      .append("retryAt", retryAt)
       .toString();
   }
 }
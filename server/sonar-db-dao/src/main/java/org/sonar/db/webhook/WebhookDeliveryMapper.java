@@ -34,5 +34,9 @@ public interface WebhookDeliveryMapper {
 
   void insert(WebhookDeliveryDto dto);
 
+  List<WebhookDeliveryDto> selectForRetry(@Param("now") long now, @Param("limit") int limit);
+
+  int clearRetry(@Param("uuid") String uuid, @Param("retryAt") long retryAt);
+
   void deleteComponentBeforeDate(@Param("componentUuid") String componentUuid, @Param("beforeDate") long beforeDate);
 }
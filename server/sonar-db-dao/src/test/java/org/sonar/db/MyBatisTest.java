@@ -25,6 +25,7 @@ import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.sonar.db.profiling.DurationHistogram;
 import org.sonar.db.rule.RuleMapper;
 
 import static org.hamcrest.CoreMatchers.notNullValue;
@@ -70,4 +71,17 @@ public class MyBatisTest {
       assertThat(session.getMapper(RuleMapper.class), notNullValue());
     }
   }
+
+  @Test
+  public void shouldRecordDurationsOfStatements() {
+    underTest.start();
+
+    try (DbSession session = underTest.openSession(false)) {
+      session.getMapper(IsAliveMapper.class).isAlive();
+      session.getMapper(IsAliveMapper.class).isAlive();
+    }
+
+    DurationHistogram histogram = underTest.getStatementDurations().getHistogramsByStatementId().get("org.sonar.db.IsAliveMapper.isAlive");
+    assertThat(histogram.getCount(), Is.is(2L));
+  }
 }
@@ -0,0 +1,85 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.ce;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.utils.internal.TestSystem2;
+import org.sonar.db.DbTester;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.sonar.db.ce.CeTaskStatisticDto.Kind.STEP;
+import static org.sonar.db.ce.CeTaskStatisticDto.Kind.VISITOR;
+
+public class CeTaskStatisticDaoTest {
+
+  private TestSystem2 system2 = new TestSystem2().setNow(1_500_000_000_000L);
+
+  @Rule
+  public DbTester dbTester = DbTester.create(system2);
+
+  private CeTaskStatisticDao underTest = new CeTaskStatisticDao(system2);
+
+  @Test
+  public void insert_and_selectByTaskUuid() {
+    underTest.insert(dbTester.getSession(), asList(
+      newDto("uuid1", "task1", STEP, "Persist issues"),
+      newDto("uuid2", "task1", VISITOR, "NclocVisitor"),
+      newDto("uuid3", "task2", STEP, "Persist issues")));
+    dbTester.getSession().commit();
+
+    assertThat(underTest.selectByTaskUuid(dbTester.getSession(), "task1"))
+      .extracting(CeTaskStatisticDto::getUuid, CeTaskStatisticDto::getKind, CeTaskStatisticDto::getName, CeTaskStatisticDto::getDurationMs,
+        CeTaskStatisticDto::getCpuTimeMs, CeTaskStatisticDto::getAllocatedBytes, CeTaskStatisticDto::getCreatedAt)
+      .containsOnly(
+        tuple("uuid1", STEP, "Persist issues", 10L, 5L, 1_000L, 1_500_000_000_000L),
+        tuple("uuid2", VISITOR, "NclocVisitor", 10L, 5L, 1_000L, 1_500_000_000_000L));
+    assertThat(underTest.selectByTaskUuid(dbTester.getSession(), "unknown")).isEmpty();
+  }
+
+  @Test
+  public void deleteByTaskUuids() {
+    underTest.insert(dbTester.getSession(), asList(
+      newDto("uuid1", "task1", STEP, "Persist issues"),
+      newDto("uuid2", "task2", STEP, "Persist issues"),
+      newDto("uuid3", "task3", STEP, "Persist issues")));
+    dbTester.getSession().commit();
+
+    underTest.deleteByTaskUuids(dbTester.getSession(), asList("task1", "task3", "unknown"));
+    dbTester.getSession().commit();
+
+    assertThat(underTest.selectByTaskUuid(dbTester.getSession(), "task1")).isEmpty();
+    assertThat(underTest.selectByTaskUuid(dbTester.getSession(), "task2")).extracting(CeTaskStatisticDto::getUuid).containsOnly("uuid2");
+    assertThat(underTest.selectByTaskUuid(dbTester.getSession(), "task3")).isEmpty();
+  }
+
+  private static CeTaskStatisticDto newDto(String uuid, String taskUuid, CeTaskStatisticDto.Kind kind, String name) {
+    return new CeTaskStatisticDto()
+      .setUuid(uuid)
+      .setTaskUuid(taskUuid)
+      .setKind(kind)
+      .setName(name)
+      .setDurationMs(10L)
+      .setCpuTimeMs(5L)
+      .setAllocatedBytes(1_000L);
+  }
+}
@@ -36,6 +36,7 @@ import org.junit.rules.ExpectedException;
 import org.sonar.api.resources.Qualifiers;
 import org.sonar.api.resources.Scopes;
 import org.sonar.api.utils.System2;
+import org.sonar.core.util.CloseableIterator;
 import org.sonar.db.DbSession;
 import org.sonar.db.DbTester;
 import org.sonar.db.RowNotFoundException;
@@ -79,7 +80,7 @@ public class ComponentDaoTest {
   public DbTester db = DbTester.create(System2.INSTANCE);
 
   private DbSession dbSession = db.getSession();
-  private ComponentDao underTest = new ComponentDao();
+  private ComponentDao underTest = db.getDbClient().componentDao();
 
   private static ComponentTreeQuery.Builder newTreeQuery(String baseUuid) {
     return ComponentTreeQuery.builder()
@@ -560,6 +561,38 @@ public class ComponentDaoTest {
     assertThat(underTest.selectEnabledFilesFromProject(dbSession, "unknown")).isEmpty();
   }
 
+  @Test
+  public void scroll_enabled_files_from_project_and_from_module() {
+    ComponentDto project = db.components().insertPrivateProject();
+    ComponentDto module = db.components().insertComponent(newModuleDto(project));
+    ComponentDto fileOnProject = db.components().insertComponent(newFileDto(project));
+    FileSourceDto fileSourceOnProject = db.fileSources().insertFileSource(fileOnProject);
+    ComponentDto file = db.components().insertComponent(newFileDto(module));
+    FileSourceDto fileSource = db.fileSources().insertFileSource(file);
+    ComponentDto disabledFile = db.components().insertComponent(newFileDto(module).setEnabled(false));
+    db.fileSources().insertFileSource(disabledFile);
+
+    assertThat(scroll(underTest.scrollEnabledFilesFromProject(dbSession, project.uuid())))
+      .extracting(FilePathWithHashDto::getUuid, FilePathWithHashDto::getModuleUuid, FilePathWithHashDto::getSrcHash, FilePathWithHashDto::getPath, FilePathWithHashDto::getRevision)
+      .containsExactlyInAnyOrder(
+        tuple(fileOnProject.uuid(), project.uuid(), fileSourceOnProject.getSrcHash(), fileOnProject.path(), fileSourceOnProject.getRevision()),
+        tuple(file.uuid(), module.uuid(), fileSource.getSrcHash(), file.path(), fileSource.getRevision()));
+    assertThat(scroll(underTest.scrollEnabledFilesFromProject(dbSession, module.uuid()))).isEmpty();
+    assertThat(scroll(underTest.scrollEnabledFilesFromProject(dbSession, "unknown"))).isEmpty();
+
+    assertThat(scroll(underTest.scrollEnabledDescendantFiles(dbSession, module.uuid())))
+      .extracting(FilePathWithHashDto::getUuid, FilePathWithHashDto::getModuleUuid, FilePathWithHashDto::getSrcHash, FilePathWithHashDto::getPath, FilePathWithHashDto::getRevision)
+      .containsExactlyInAnyOrder(
+        tuple(file.uuid(), module.uuid(), fileSource.getSrcHash(), file.path(), fileSource.getRevision()));
+    assertThat(scroll(underTest.scrollEnabledDescendantFiles(dbSession, "unknown"))).isEmpty();
+  }
+
+  private static <T> List<T> scroll(CloseableIterator<T> rows) {
+    try (CloseableIterator<T> it = rows) {
+      return newArrayList(it);
+    }
+  }
+
   @Test
   public void select_all_components_from_project() {
     ComponentDto project = db.components().insertPrivateProject();
@@ -582,6 +615,22 @@ public class ComponentDaoTest {
     assertThat(underTest.selectAllComponentsFromProjectKey(dbSession, "UNKNOWN")).isEmpty();
   }
 
+  @Test
+  public void scroll_all_components_from_project() {
+    ComponentDto project = db.components().insertPrivateProject();
+    db.components().insertPrivateProject();
+    ComponentDto module = db.components().insertComponent(newModuleDto(project));
+    ComponentDto removedDirectory = db.components().insertComponent(newDirectory(module, "src").setEnabled(false));
+    ComponentDto file = db.components().insertComponent(newFileDto(module, removedDirectory));
+
+    // Removed components are included
+    assertThat(scroll(underTest.scrollAllComponentsFromProjectKey(dbSession, project.getDbKey())))
+      .extracting(ComponentDto::getDbKey)
+      .containsExactlyInAnyOrder(project.getDbKey(), module.getDbKey(), removedDirectory.getDbKey(), file.getDbKey());
+
+    assertThat(scroll(underTest.scrollAllComponentsFromProjectKey(dbSession, "UNKNOWN"))).isEmpty();
+  }
+
   @Test
   public void select_uuids_by_key_from_project() {
     ComponentDto project = db.components().insertPrivateProject();
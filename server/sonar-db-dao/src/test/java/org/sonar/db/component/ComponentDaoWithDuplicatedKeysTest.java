@@ -44,7 +44,7 @@ public class ComponentDaoWithDuplicatedKeysTest {
   private DbClient dbClient = db.getDbClient();
   private DbSession dbSession = db.getSession();
 
-  private ComponentDao underTest = new ComponentDao();
+  private ComponentDao underTest = db.getDbClient().componentDao();
 
   @Test
   public void select_components_having_same_key() {
@@ -126,4 +126,20 @@ public class EsQueueDaoTest {
       .extracting(EsQueueDto::getUuid)
       .containsExactly(i3.getUuid(), i2.getUuid(), i1.getUuid());
   }
+
+  @Test
+  public void count_and_select_oldest_creation_date() {
+    assertThat(underTest.count(dbSession)).isEqualTo(0L);
+    assertThat(underTest.selectOldestCreationDate(dbSession)).isEmpty();
+
+    system2.setNow(1_001L);
+    underTest.insert(dbSession, EsQueueDto.create("foo", UuidFactoryFast.getInstance().create()));
+    system2.setNow(1_000L);
+    underTest.insert(dbSession, EsQueueDto.create("foo", UuidFactoryFast.getInstance().create()));
+    system2.setNow(1_002L);
+    underTest.insert(dbSession, EsQueueDto.create("foo", UuidFactoryFast.getInstance().create()));
+
+    assertThat(underTest.count(dbSession)).isEqualTo(3L);
+    assertThat(underTest.selectOldestCreationDate(dbSession)).contains(1_000L);
+  }
 }
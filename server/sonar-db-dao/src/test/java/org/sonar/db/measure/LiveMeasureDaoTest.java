@@ -25,11 +25,16 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.sonar.api.utils.System2;
 import org.sonar.db.DbTester;
+import org.sonar.db.component.ComponentDto;
 import org.sonar.db.metric.MetricDto;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.db.Pagination.forPage;
+import static org.sonar.db.component.ComponentTesting.newDirectory;
+import static org.sonar.db.component.ComponentTesting.newFileDto;
 import static org.sonar.db.measure.MeasureTesting.newLiveMeasure;
 
 public class LiveMeasureDaoTest {
@@ -134,6 +139,57 @@ public class LiveMeasureDaoTest {
     verifyPersisted(measure5OtherProject);
   }
 
+  @Test
+  public void selectTreeComponentUuidsSortedByValue_returns_page_of_components_having_a_value() {
+    MetricDto metric = db.measures().insertMetric();
+    ComponentDto project = db.components().insertPrivateProject();
+    ComponentDto dir = db.components().insertComponent(newDirectory(project, "src"));
+    ComponentDto file1 = db.components().insertComponent(newFileDto(project, dir).setName("File1"));
+    ComponentDto file2 = db.components().insertComponent(newFileDto(project, dir).setName("file2"));
+    ComponentDto file3 = db.components().insertComponent(newFileDto(project, dir).setName("File3"));
+    ComponentDto fileWithoutValue = db.components().insertComponent(newFileDto(project, dir));
+    db.measures().insertLiveMeasure(project, metric, m -> m.setValue(100d));
+    db.measures().insertLiveMeasure(dir, metric, m -> m.setValue(30d));
+    db.measures().insertLiveMeasure(file1, metric, m -> m.setValue(10d));
+    db.measures().insertLiveMeasure(file2, metric, m -> m.setValue(20d));
+    db.measures().insertLiveMeasure(file3, metric, m -> m.setValue(10d));
+    db.measures().insertLiveMeasure(fileWithoutValue, metric, m -> m.setValue(null));
+    MeasureTreeQuery query = MeasureTreeQuery.builder().setStrategy(MeasureTreeQuery.Strategy.LEAVES).build();
+
+    assertThat(underTest.countTreeComponentsWithValue(db.getSession(), project, query, metric.getId())).isEqualTo(4);
+    assertThat(underTest.selectTreeComponentUuidsSortedByValue(db.getSession(), project, query, metric.getId(), true, forPage(1).andSize(10)))
+      .containsExactly(file1.uuid(), file3.uuid(), file2.uuid(), dir.uuid());
+    assertThat(underTest.selectTreeComponentUuidsSortedByValue(db.getSession(), project, query, metric.getId(), false, forPage(1).andSize(10)))
+      .containsExactly(dir.uuid(), file2.uuid(), file1.uuid(), file3.uuid());
+    assertThat(underTest.selectTreeComponentUuidsSortedByValue(db.getSession(), project, query, metric.getId(), true, forPage(2).andSize(2)))
+      .containsExactly(file2.uuid(), dir.uuid());
+  }
+
+  @Test
+  public void selectTreeComponentUuidsSortedByValue_applies_strategy_and_filters_of_query() {
+    MetricDto metric = db.measures().insertMetric();
+    ComponentDto project = db.components().insertPrivateProject();
+    ComponentDto dir = db.components().insertComponent(newDirectory(project, "src"));
+    ComponentDto file1 = db.components().insertComponent(newFileDto(project, dir).setName("Foo"));
+    ComponentDto file2 = db.components().insertComponent(newFileDto(project, dir).setName("Bar"));
+    db.measures().insertLiveMeasure(dir, metric, m -> m.setValue(30d));
+    db.measures().insertLiveMeasure(file1, metric, m -> m.setValue(10d));
+    db.measures().insertLiveMeasure(file2, metric, m -> m.setValue(20d));
+
+    MeasureTreeQuery children = MeasureTreeQuery.builder().setStrategy(MeasureTreeQuery.Strategy.CHILDREN).build();
+    assertThat(underTest.selectTreeComponentUuidsSortedByValue(db.getSession(), project, children, metric.getId(), true, forPage(1).andSize(10)))
+      .containsExactly(dir.uuid());
+
+    MeasureTreeQuery byName = MeasureTreeQuery.builder().setStrategy(MeasureTreeQuery.Strategy.LEAVES).setNameOrKeyQuery("fo").build();
+    assertThat(underTest.selectTreeComponentUuidsSortedByValue(db.getSession(), project, byName, metric.getId(), true, forPage(1).andSize(10)))
+      .containsExactly(file1.uuid());
+    assertThat(underTest.countTreeComponentsWithValue(db.getSession(), project, byName, metric.getId())).isEqualTo(1);
+
+    MeasureTreeQuery noQualifiers = MeasureTreeQuery.builder().setStrategy(MeasureTreeQuery.Strategy.LEAVES).setQualifiers(emptyList()).build();
+    assertThat(underTest.selectTreeComponentUuidsSortedByValue(db.getSession(), project, noQualifiers, metric.getId(), true, forPage(1).andSize(10))).isEmpty();
+    assertThat(underTest.countTreeComponentsWithValue(db.getSession(), project, noQualifiers, metric.getId())).isZero();
+  }
+
   private void verifyTableSize(int expectedSize) {
     assertThat(db.countRowsOfTable(db.getSession(), "live_measures")).isEqualTo(expectedSize);
   }
@@ -20,7 +20,11 @@
 package org.sonar.db.measure;
 
 import com.google.common.collect.Maps;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.junit.Rule;
 import org.junit.Test;
@@ -258,6 +262,32 @@ public class ProjectMeasuresIndexerIteratorTest {
     assertThat(doc.getProject().getAnalysisDate()).isNotNull().isEqualTo(analysis1.getCreatedAt());
   }
 
+  @Test
+  public void iterate_on_given_projects_in_the_same_order() {
+    OrganizationDto organization = dbTester.organizations().insert();
+    ComponentDto project1 = dbTester.components().insertPrivateProject(organization);
+    ComponentDto project2 = dbTester.components().insertPrivateProject(organization);
+    ComponentDto project3 = dbTester.components().insertPrivateProject(organization);
+    MetricDto metric = dbTester.measures().insertMetric(m -> m.setValueType(INT.name()).setKey("ncloc"));
+    dbTester.measures().insertLiveMeasure(project2, metric, m -> m.setValue(10d));
+    DbSession dbSession = dbTester.getSession();
+
+    List<ProjectMeasuresIndexerIterator.Project> projects = ProjectMeasuresIndexerIterator.selectProjects(dbSession, null).stream()
+      .filter(p -> !p.getUuid().equals(project1.uuid()))
+      .sorted(Comparator.comparing(ProjectMeasuresIndexerIterator.Project::getKey).reversed())
+      .collect(Collectors.toList());
+    List<ProjectMeasures> docs = new ArrayList<>();
+    try (ProjectMeasuresIndexerIterator it = ProjectMeasuresIndexerIterator.create(dbSession, projects)) {
+      it.forEachRemaining(docs::add);
+    }
+
+    assertThat(docs).extracting(doc -> doc.getProject().getUuid())
+      .containsExactlyElementsOf(projects.stream().map(ProjectMeasuresIndexerIterator.Project::getUuid).collect(Collectors.toList()))
+      .containsOnly(project2.uuid(), project3.uuid());
+    assertThat(docs.stream().filter(doc -> doc.getProject().getUuid().equals(project2.uuid())).findFirst().get().getMeasures().getNumericMeasures())
+      .containsOnly(entry("ncloc", 10d));
+  }
+
   @Test
   public void return_nothing_on_unknown_project() throws Exception {
     OrganizationDto organization = dbTester.organizations().insert();
@@ -0,0 +1,83 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.permission;
+
+import java.util.Optional;
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.utils.System2;
+import org.sonar.db.DbSession;
+import org.sonar.db.DbTester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AuthorizationVersionDaoTest {
+
+  @Rule
+  public DbTester db = DbTester.create(System2.INSTANCE);
+
+  private DbSession dbSession = db.getSession();
+  private AuthorizationVersionDao underTest = db.getDbClient().authorizationVersionDao();
+
+  @Test
+  public void select_returns_empty_if_version_is_not_initialized() {
+    assertThat(underTest.select(dbSession)).isEmpty();
+  }
+
+  @Test
+  public void insertIfAbsent_initializes_version_only_once() {
+    underTest.insertIfAbsent(dbSession);
+    Optional<String> version = underTest.select(dbSession);
+
+    underTest.insertIfAbsent(dbSession);
+
+    assertThat(version).isPresent();
+    assertThat(underTest.select(dbSession)).isEqualTo(version);
+  }
+
+  @Test
+  public void change_initializes_version_if_absent() {
+    underTest.change(dbSession);
+
+    assertThat(underTest.select(dbSession)).isPresent();
+  }
+
+  @Test
+  public void change_sets_a_new_version() {
+    underTest.insertIfAbsent(dbSession);
+    String version = underTest.select(dbSession).get();
+
+    underTest.change(dbSession);
+
+    String newVersion = underTest.select(dbSession).get();
+    assertThat(newVersion).isNotEqualTo(version);
+    underTest.change(dbSession);
+    assertThat(underTest.select(dbSession).get()).isNotEqualTo(newVersion);
+  }
+
+  @Test
+  public void version_is_changed_when_authorizations_are_altered() {
+    db.getDbClient().internalPropertiesDao().save(dbSession, AuthorizationVersionDao.KEY, "initial");
+
+    db.getDbClient().userTokenDao().deleteByLogin(dbSession, "foo");
+
+    assertThat(underTest.select(dbSession).get()).isNotEqualTo("initial");
+  }
+}
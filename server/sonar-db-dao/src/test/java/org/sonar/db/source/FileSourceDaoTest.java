@@ -21,6 +21,9 @@ package org.sonar.db.source;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.function.Function;
 import javax.annotation.Nullable;
 import org.apache.commons.io.IOUtils;
@@ -31,8 +34,10 @@ import org.sonar.db.DbSession;
 import org.sonar.db.DbTester;
 import org.sonar.db.source.FileSourceDto.Type;
 
+import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
+import static org.assertj.core.api.Assertions.tuple;
 
 public class FileSourceDaoTest {
 
@@ -59,6 +64,20 @@ public class FileSourceDaoTest {
     assertThat(fileSourceDto.getRevision()).isEqualTo("123456789");
   }
 
+  @Test
+  public void select_source_data() {
+    dbTester.prepareDbUnit(getClass(), "shared.xml");
+
+    FileSourceDto fileSourceDto = underTest.selectSourceDataByFileUuid(session, "FILE1_UUID");
+
+    assertThat(fileSourceDto.getFileUuid()).isEqualTo("FILE1_UUID");
+    assertThat(fileSourceDto.getBinaryData()).isNotEmpty();
+    assertThat(fileSourceDto.getSrcHash()).isEqualTo("FILE_HASH");
+    assertThat(fileSourceDto.getLineHashes()).isNull();
+    assertThat(fileSourceDto.getDataHash()).isNull();
+    assertThat(underTest.selectSourceDataByFileUuid(session, "UNKNOWN")).isNull();
+  }
+
   @Test
   public void select_line_hashes() {
     dbTester.prepareDbUnit(getClass(), "shared.xml");
@@ -89,6 +108,46 @@ public class FileSourceDaoTest {
     assertThat(fn.result).isNull();
   }
 
+  @Test
+  public void scroll_line_hashes_of_files() {
+    insertFileSource("FILE1_UUID", Type.SOURCE, "ABC\nDEF");
+    insertFileSource("FILE2_UUID", Type.SOURCE, "GHI");
+    insertFileSource("FILE3_UUID", Type.SOURCE, "JKL");
+    insertFileSource("FILE4_UUID", Type.TEST, null);
+    session.commit();
+
+    List<FileSourceDto> result = new ArrayList<>();
+    underTest.scrollLineHashes(session, asList("FILE1_UUID", "FILE2_UUID", "FILE4_UUID", "UNKNOWN"), context -> result.add(context.getResultObject()));
+
+    assertThat(result)
+      .extracting(FileSourceDto::getFileUuid, FileSourceDto::getLineHashes)
+      .containsExactlyInAnyOrder(tuple("FILE1_UUID", "ABC\nDEF"), tuple("FILE2_UUID", "GHI"));
+  }
+
+  @Test
+  public void scroll_line_hashes_of_no_files() {
+    insertFileSource("FILE1_UUID", Type.SOURCE, "ABC");
+    session.commit();
+
+    List<FileSourceDto> result = new ArrayList<>();
+    underTest.scrollLineHashes(session, Collections.emptyList(), context -> result.add(context.getResultObject()));
+
+    assertThat(result).isEmpty();
+  }
+
+  private void insertFileSource(String fileUuid, String dataType, @Nullable String lineHashes) {
+    underTest.insert(session, new FileSourceDto()
+      .setProjectUuid("PRJ_UUID")
+      .setFileUuid(fileUuid)
+      .setBinaryData(new byte[0])
+      .setDataHash("DATA_HASH")
+      .setLineHashes(lineHashes)
+      .setSrcHash("SRC_HASH")
+      .setDataType(dataType)
+      .setCreatedAt(1500000000000L)
+      .setUpdatedAt(1500000000000L));
+  }
+
   @Test
   public void insert() {
     dbTester.prepareDbUnit(getClass(), "shared.xml");
@@ -103,11 +162,12 @@ public class FileSourceDaoTest {
       .setDataType(Type.SOURCE)
       .setCreatedAt(1500000000000L)
       .setUpdatedAt(1500000000001L)
-      .setRevision("123456789"));
+      .setRevision("123456789")
+      .setInputHash("FILE2_INPUT_HASH"));
     session.commit();
 
     dbTester.assertDbUnitTable(getClass(), "insert-result.xml", "file_sources",
-      "project_uuid", "file_uuid", "data_hash", "line_hashes", "src_hash", "created_at", "updated_at", "data_type", "revision");
+      "project_uuid", "file_uuid", "data_hash", "line_hashes", "src_hash", "created_at", "updated_at", "data_type", "revision", "input_hash");
   }
 
   @Test
@@ -172,11 +232,12 @@ public class FileSourceDaoTest {
       .setLineHashes("NEW_LINE_HASHES")
       .setDataType(Type.SOURCE)
       .setUpdatedAt(1500000000002L)
-      .setRevision("987654321"));
+      .setRevision("987654321")
+      .setInputHash("NEW_INPUT_HASH"));
     session.commit();
 
     dbTester.assertDbUnitTable(getClass(), "update-result.xml", "file_sources",
-      "project_uuid", "file_uuid", "data_hash", "line_hashes", "src_hash", "created_at", "updated_at", "data_type", "revision");
+      "project_uuid", "file_uuid", "data_hash", "line_hashes", "src_hash", "created_at", "updated_at", "data_type", "revision", "input_hash");
   }
 
   private static class ReaderToStringFunction implements Function<Reader, String> {
@@ -80,6 +80,27 @@ public class FileSourceDtoTest {
     assertThat(data.getLinesCount()).isEqualTo(build.getLinesCount());
   }
 
+  @Test
+  public void getSourceLines_decodes_only_the_requested_range_of_lines() {
+    DbFileSources.Data.Builder dataBuilder = DbFileSources.Data.newBuilder();
+    for (int i = 1; i <= 10; i++) {
+      dataBuilder.addLinesBuilder().setLine(i).setSource("line " + i);
+    }
+    FileSourceDto underTest = new FileSourceDto().setSourceData(dataBuilder.build());
+
+    assertThat(underTest.getSourceLines(3, 5)).extracting(DbFileSources.Line::getSource).containsExactly("line 3", "line 4", "line 5");
+    assertThat(underTest.getSourceLines(9, Integer.MAX_VALUE)).extracting(DbFileSources.Line::getLine).containsExactly(9, 10);
+    assertThat(underTest.getSourceLines(11, 20)).isEmpty();
+  }
+
+  @Test
+  public void getSourceLines_reads_Data_object_bigger_than_default_size_limit() {
+    DbFileSources.Data build = createOver64MBDataStructure();
+    FileSourceDto underTest = new FileSourceDto().setSourceData(build);
+
+    assertThat(underTest.getSourceLines(199990, Integer.MAX_VALUE)).hasSize(10);
+  }
+
   private static DbFileSources.Data createOver64MBDataStructure() {
     DbFileSources.Data.Builder dataBuilder = DbFileSources.Data.newBuilder();
     DbFileSources.Line.Builder lineBuilder = DbFileSources.Line.newBuilder();
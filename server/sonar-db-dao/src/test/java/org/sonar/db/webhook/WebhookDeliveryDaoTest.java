@@ -159,6 +159,37 @@ public class WebhookDeliveryDaoTest {
     assertThat(dbTester.countRowsOfTable(dbSession, "webhook_deliveries")).isEqualTo(1);
   }
 
+  @Test
+  public void selectForRetry_returns_deliveries_to_retry_before_date() {
+    underTest.insert(dbSession, newDto("DELIVERY_1", "COMPONENT_1", "TASK_1").setAttempt(1).setRetryAt(2_000L));
+    underTest.insert(dbSession, newDto("DELIVERY_2", "COMPONENT_1", "TASK_2").setAttempt(2).setRetryAt(1_000L));
+    underTest.insert(dbSession, newDto("DELIVERY_3", "COMPONENT_2", "TASK_3").setAttempt(1).setRetryAt(3_000L));
+    underTest.insert(dbSession, newDto("DELIVERY_4", "COMPONENT_2", "TASK_4").setAttempt(1));
+
+    assertThat(underTest.selectForRetry(dbSession, 2_000L, 10))
+      .extracting(WebhookDeliveryDto::getUuid)
+      .containsExactly("DELIVERY_2", "DELIVERY_1");
+    assertThat(underTest.selectForRetry(dbSession, 2_000L, 1))
+      .extracting(WebhookDeliveryDto::getUuid)
+      .containsExactly("DELIVERY_2");
+
+    WebhookDeliveryDto stored = underTest.selectForRetry(dbSession, 1_000L, 10).get(0);
+    assertThat(stored.getAttempt()).isEqualTo(2);
+    assertThat(stored.getRetryAt()).isEqualTo(1_000L);
+    assertThat(stored.getPayload()).isNotEmpty();
+    assertThat(stored.getAnalysisUuid()).isNotEmpty();
+  }
+
+  @Test
+  public void clearRetry_can_be_done_only_once() {
+    underTest.insert(dbSession, newDto("DELIVERY_1", "COMPONENT_1", "TASK_1").setAttempt(1).setRetryAt(2_000L));
+
+    assertThat(underTest.clearRetry(dbSession, "DELIVERY_1", 1_000L)).isFalse();
+    assertThat(underTest.clearRetry(dbSession, "DELIVERY_1", 2_000L)).isTrue();
+    assertThat(underTest.clearRetry(dbSession, "DELIVERY_1", 2_000L)).isFalse();
+    assertThat(underTest.selectForRetry(dbSession, 5_000L, 10)).isEmpty();
+  }
+
   private void verifyMandatoryFields(WebhookDeliveryDto expected, WebhookDeliveryDto actual) {
     assertThat(actual.getUuid()).isEqualTo(expected.getUuid());
     assertThat(actual.getComponentUuid()).isEqualTo(expected.getComponentUuid());
@@ -0,0 +1,80 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.db.migration.version.v70;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import org.sonar.db.Database;
+import org.sonar.db.DatabaseUtils;
+import org.sonar.server.platform.db.migration.def.VarcharColumnDef;
+import org.sonar.server.platform.db.migration.sql.CreateIndexBuilder;
+import org.sonar.server.platform.db.migration.sql.CreateTableBuilder;
+import org.sonar.server.platform.db.migration.step.DdlChange;
+
+import static org.sonar.server.platform.db.migration.def.BigIntegerColumnDef.newBigIntegerColumnDefBuilder;
+import static org.sonar.server.platform.db.migration.def.VarcharColumnDef.UUID_SIZE;
+import static org.sonar.server.platform.db.migration.def.VarcharColumnDef.newVarcharColumnDefBuilder;
+
+public class CreateTableCeTaskStatistics extends DdlChange {
+
+  private static final String TABLE_NAME = "ce_task_statistics";
+  private static final VarcharColumnDef TASK_UUID_COLUMN = newVarcharColumnDefBuilder()
+    .setColumnName("task_uuid")
+    .setIsNullable(false)
+    .setLimit(UUID_SIZE)
+    .build();
+
+  private final Database db;
+
+  public CreateTableCeTaskStatistics(Database db) {
+    super(db);
+    this.db = db;
+  }
+
+  @Override
+  public void execute(Context context) throws SQLException {
+    if (tableExists()) {
+      return;
+    }
+    context.execute(new CreateTableBuilder(getDialect(), TABLE_NAME)
+      .addPkColumn(newVarcharColumnDefBuilder().setColumnName("uuid").setIsNullable(false).setLimit(UUID_SIZE).build())
+      .addColumn(TASK_UUID_COLUMN)
+      .addColumn(newVarcharColumnDefBuilder().setColumnName("kind").setIsNullable(false).setLimit(10).build())
+      .addColumn(newVarcharColumnDefBuilder().setColumnName("name").setIsNullable(false).setLimit(255).build())
+      .addColumn(newBigIntegerColumnDefBuilder().setColumnName("duration_ms").setIsNullable(false).build())
+      .addColumn(newBigIntegerColumnDefBuilder().setColumnName("cpu_time_ms").setIsNullable(false).build())
+      .addColumn(newBigIntegerColumnDefBuilder().setColumnName("allocated_bytes").setIsNullable(false).build())
+      .addColumn(newBigIntegerColumnDefBuilder().setColumnName("created_at").setIsNullable(false).build())
+      .build());
+
+    context.execute(new CreateIndexBuilder(getDialect())
+      .setTable(TABLE_NAME)
+      .setName("ce_task_statistics_task_uuid")
+      .addColumn(TASK_UUID_COLUMN)
+      .setUnique(false)
+      .build());
+  }
+
+  private boolean tableExists() throws SQLException {
+    try (Connection connection = db.getDataSource().getConnection()) {
+      return DatabaseUtils.tableExists(TABLE_NAME, connection);
+    }
+  }
+}
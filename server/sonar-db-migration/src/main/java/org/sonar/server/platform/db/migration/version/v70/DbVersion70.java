@@ -50,6 +50,10 @@ public class DbVersion70 implements DbVersion {
       .add(1920, "Read 'sonar.qualitygate' setting and set the value to default organization", ReadGlobalSonarQualityGateSettingToDefaultOrg.class)
       .add(1921, "Delete 'sonar.qualitygate' setting at global level", DeleteGlobalSonarQualityGateSetting.class)
       .add(1922, "Make ORGANIZATIONS.DEFAULT_QUALITY_GATE_UUID not nullable", SetDefaultQualityGateUuidAsNotNullableInOrganizations.class)
+      .add(1923, "Add RULE_REPOSITORIES.FINGERPRINT", AddFingerprintToRuleRepositories.class)
+      .add(1924, "Add WEBHOOK_DELIVERIES.ATTEMPT and WEBHOOK_DELIVERIES.RETRY_AT", AddRetryColumnsToWebhookDeliveries.class)
+      .add(1925, "Create table CE_TASK_STATISTICS", CreateTableCeTaskStatistics.class)
+      .add(1926, "Add FILE_SOURCES.INPUT_HASH", AddInputHashToFileSources.class)
     ;
   }
 }
@@ -27,6 +27,7 @@ import org.sonar.db.DbSession;
 import org.sonar.db.user.UserDto;
 import org.sonar.server.authentication.event.AuthenticationEvent;
 import org.sonar.server.authentication.event.AuthenticationException;
+import org.sonar.server.user.AuthorizationCache;
 import org.sonar.server.usertoken.UserTokenAuthenticator;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -46,13 +47,15 @@ public class BasicAuthenticator {
   private final CredentialsAuthenticator credentialsAuthenticator;
   private final UserTokenAuthenticator userTokenAuthenticator;
   private final AuthenticationEvent authenticationEvent;
+  private final AuthorizationCache authorizationCache;
 
   public BasicAuthenticator(DbClient dbClient, CredentialsAuthenticator credentialsAuthenticator,
-    UserTokenAuthenticator userTokenAuthenticator, AuthenticationEvent authenticationEvent) {
+    UserTokenAuthenticator userTokenAuthenticator, AuthenticationEvent authenticationEvent, AuthorizationCache authorizationCache) {
     this.dbClient = dbClient;
     this.credentialsAuthenticator = credentialsAuthenticator;
     this.userTokenAuthenticator = userTokenAuthenticator;
     this.authenticationEvent = authenticationEvent;
+    this.authorizationCache = authorizationCache;
   }
 
   public Optional<UserDto> authenticate(HttpServletRequest request) {
@@ -113,15 +116,17 @@ public class BasicAuthenticator {
         .setMessage("Token doesn't exist")
         .build();
     }
+    String login = authenticatedLogin.get();
+    return authorizationCache.getActiveUserByLogin(login, () -> selectActiveUserByLogin(login))
+      .orElseThrow(() -> AuthenticationException.newBuilder()
+        .setSource(Source.local(Method.BASIC_TOKEN))
+        .setMessage("User doesn't exist")
+        .build());
+  }
+
+  private Optional<UserDto> selectActiveUserByLogin(String login) {
     try (DbSession dbSession = dbClient.openSession(false)) {
-      UserDto userDto = dbClient.userDao().selectActiveUserByLogin(dbSession, authenticatedLogin.get());
-      if (userDto == null) {
-        throw AuthenticationException.newBuilder()
-          .setSource(Source.local(Method.BASIC_TOKEN))
-          .setMessage("User doesn't exist")
-          .build();
-      }
-      return userDto;
+      return Optional.ofNullable(dbClient.userDao().selectActiveUserByLogin(dbSession, login));
     }
   }
 
@@ -35,6 +35,7 @@ import org.sonar.api.utils.System2;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.user.UserDto;
+import org.sonar.server.user.AuthorizationCache;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
@@ -69,13 +70,16 @@ public class JwtHttpHandler {
   // This timeout is used to disconnect the user we he has not browse any page for a while
   private final int sessionTimeoutInSeconds;
   private final JwtCsrfVerifier jwtCsrfVerifier;
+  private final AuthorizationCache authorizationCache;
 
-  public JwtHttpHandler(System2 system2, DbClient dbClient, Configuration config, JwtSerializer jwtSerializer, JwtCsrfVerifier jwtCsrfVerifier) {
+  public JwtHttpHandler(System2 system2, DbClient dbClient, Configuration config, JwtSerializer jwtSerializer, JwtCsrfVerifier jwtCsrfVerifier,
+    AuthorizationCache authorizationCache) {
     this.jwtSerializer = jwtSerializer;
     this.dbClient = dbClient;
     this.system2 = system2;
     this.sessionTimeoutInSeconds = getSessionTimeoutInSeconds(config);
     this.jwtCsrfVerifier = jwtCsrfVerifier;
+    this.authorizationCache = authorizationCache;
   }
 
   public void generateToken(UserDto user, Map<String, Object> properties, HttpServletRequest request, HttpServletResponse response) {
@@ -171,6 +175,10 @@ public class JwtHttpHandler {
   }
 
   private Optional<UserDto> selectUserFromDb(String userLogin) {
+    return authorizationCache.getActiveUserByLogin(userLogin, () -> selectActiveUserByLogin(userLogin));
+  }
+
+  private Optional<UserDto> selectActiveUserByLogin(String userLogin) {
     try (DbSession dbSession = dbClient.openSession(false)) {
       return Optional.ofNullable(dbClient.userDao().selectActiveUserByLogin(dbSession, userLogin));
     }
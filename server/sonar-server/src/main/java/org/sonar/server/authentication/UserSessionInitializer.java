@@ -32,6 +32,7 @@ import org.sonar.server.authentication.event.AuthenticationEvent;
 import org.sonar.server.authentication.event.AuthenticationEvent.Method;
 import org.sonar.server.authentication.event.AuthenticationEvent.Source;
 import org.sonar.server.authentication.event.AuthenticationException;
+import org.sonar.server.user.AuthorizationCache;
 import org.sonar.server.user.ThreadLocalUserSession;
 import org.sonar.server.user.UserSession;
 import org.sonar.server.user.UserSessionFactory;
@@ -76,14 +77,16 @@ public class UserSessionInitializer {
   private final AuthenticationEvent authenticationEvent;
   private final UserSessionFactory userSessionFactory;
   private final Authenticators authenticators;
+  private final AuthorizationCache authorizationCache;
 
   public UserSessionInitializer(Configuration config, ThreadLocalUserSession threadLocalSession, AuthenticationEvent authenticationEvent,
-    UserSessionFactory userSessionFactory, Authenticators authenticators) {
+    UserSessionFactory userSessionFactory, Authenticators authenticators, AuthorizationCache authorizationCache) {
     this.config = config;
     this.threadLocalSession = threadLocalSession;
     this.authenticationEvent = authenticationEvent;
     this.userSessionFactory = userSessionFactory;
     this.authenticators = authenticators;
+    this.authorizationCache = authorizationCache;
   }
 
   public boolean initUserSession(HttpServletRequest request, HttpServletResponse response) {
@@ -117,6 +120,7 @@ public class UserSessionInitializer {
 
   private void loadUserSession(HttpServletRequest request, HttpServletResponse response) {
     UserSession session;
+    authorizationCache.load();
     Optional<UserDto> user = authenticators.authenticate(request, response);
     if (user.isPresent()) {
       session = userSessionFactory.create(user.get());
@@ -139,6 +143,7 @@ public class UserSessionInitializer {
 
   public void removeUserSession() {
     threadLocalSession.unload();
+    authorizationCache.unload();
   }
 
   private static boolean isWsUrl(String path) {
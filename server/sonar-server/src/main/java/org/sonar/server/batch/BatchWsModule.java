@@ -31,6 +31,7 @@ public class BatchWsModule extends Module {
       IssuesAction.class,
       IndexAction.class,
       FileAction.class,
+      LineHashesAction.class,
       BatchWs.class);
   }
 }
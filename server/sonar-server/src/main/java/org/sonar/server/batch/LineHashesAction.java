@@ -0,0 +1,114 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.batch;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import org.sonar.api.server.ws.Request;
+import org.sonar.api.server.ws.Response;
+import org.sonar.api.server.ws.WebService;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.db.component.ComponentDto;
+import org.sonar.db.source.FileSourceDto;
+import org.sonar.scanner.protocol.input.ScannerInput;
+import org.sonar.server.user.UserSession;
+import org.sonarqube.ws.MediaTypes;
+
+import static org.sonar.api.web.UserRole.USER;
+import static org.sonar.core.util.Protobuf.setNullable;
+import static org.sonar.core.util.stream.MoreCollectors.uniqueIndex;
+import static org.sonar.server.ws.KeyExamples.KEY_BRANCH_EXAMPLE_001;
+import static org.sonar.server.ws.KeyExamples.KEY_FILE_EXAMPLE_001;
+
+/**
+ * Bulk equivalent of api/sources/hash, used by the scanner in issues mode to get the line hashes
+ * of all the changed files in a few requests.
+ */
+public class LineHashesAction implements BatchWsAction {
+
+  static final int MAX_KEYS = 100;
+  private static final String PARAM_KEYS = "keys";
+  private static final String PARAM_BRANCH = "branch";
+
+  private final DbClient dbClient;
+  private final UserSession userSession;
+
+  public LineHashesAction(DbClient dbClient, UserSession userSession) {
+    this.dbClient = dbClient;
+    this.userSession = userSession;
+  }
+
+  @Override
+  public void define(WebService.NewController controller) {
+    WebService.NewAction action = controller.createAction("line_hashes")
+      .setDescription("Return the line hashes of files. Files which do not exist or have no sources are ignored.<br/>" +
+        "Require Browse permission on the project of the files.")
+      .setResponseExample(getClass().getResource("line_hashes-example.proto"))
+      .setSince("7.0")
+      .setInternal(true)
+      .setHandler(this);
+
+    action
+      .createParam(PARAM_KEYS)
+      .setRequired(true)
+      .setMaxValuesAllowed(MAX_KEYS)
+      .setDescription("Comma-separated list of file keys")
+      .setExampleValue(KEY_FILE_EXAMPLE_001);
+
+    action
+      .createParam(PARAM_BRANCH)
+      .setDescription("Branch key")
+      .setExampleValue(KEY_BRANCH_EXAMPLE_001);
+  }
+
+  @Override
+  public void handle(Request request, Response response) throws Exception {
+    List<String> keys = request.mandatoryParamAsStrings(PARAM_KEYS);
+    String branch = request.param(PARAM_BRANCH);
+    try (DbSession dbSession = dbClient.openSession(false)) {
+      List<ComponentDto> files = branch == null ? dbClient.componentDao().selectByKeys(dbSession, keys)
+        : dbClient.componentDao().selectByKeysAndBranch(dbSession, keys, branch);
+      files.forEach(file -> userSession.checkComponentPermission(USER, file));
+      Map<String, ComponentDto> filesByUuid = files.stream().collect(uniqueIndex(ComponentDto::uuid));
+
+      response.stream().setMediaType(MediaTypes.PROTOBUF);
+      OutputStream output = response.stream().output();
+      ScannerInput.FileLineHashes.Builder builder = ScannerInput.FileLineHashes.newBuilder();
+      dbClient.fileSourceDao().scrollLineHashes(dbSession, filesByUuid.keySet(), context -> {
+        FileSourceDto source = context.getResultObject();
+        builder.setKey(filesByUuid.get(source.getFileUuid()).getKey());
+        setNullable(source.getLineHashes(), builder::setLineHashes);
+        writeTo(builder.build(), output);
+        builder.clear();
+      });
+    }
+  }
+
+  private static void writeTo(ScannerInput.FileLineHashes lineHashes, OutputStream output) {
+    try {
+      lineHashes.writeDelimitedTo(output);
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to serialize line hashes", e);
+    }
+  }
+}
@@ -25,6 +25,7 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -32,6 +33,7 @@ import javax.annotation.Nullable;
 import org.sonar.api.resources.Qualifiers;
 import org.sonar.api.resources.Scopes;
 import org.sonar.api.server.ServerSide;
+import org.sonar.core.util.CloseableIterator;
 import org.sonar.core.util.stream.MoreCollectors;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
@@ -89,8 +91,9 @@ public class ProjectDataLoader {
       TreeModuleSettings treeModuleSettings = new TreeModuleSettings(session, modulesTree, modulesTreeSettings);
 
       addSettingsToChildrenModules(data, moduleKey, Maps.newHashMap(), treeModuleSettings, hasScanPerm);
-      List<FilePathWithHashDto> files = searchFilesWithHashAndRevision(session, branchOrMainModule);
-      addFileData(data, modulesTree, files);
+      try (CloseableIterator<FilePathWithHashDto> files = searchFilesWithHashAndRevision(session, branchOrMainModule)) {
+        addFileData(data, modulesTree, files);
+      }
 
       // FIXME need real value but actually only used to know if there is a previous analysis in local issue tracking mode so any value is
       // ok
@@ -107,12 +110,12 @@ public class ProjectDataLoader {
     return Qualifiers.PROJECT.equals(module.qualifier()) || Qualifiers.MODULE.equals(module.qualifier());
   }
 
-  private List<FilePathWithHashDto> searchFilesWithHashAndRevision(DbSession session, @Nullable ComponentDto module) {
+  private CloseableIterator<FilePathWithHashDto> searchFilesWithHashAndRevision(DbSession session, @Nullable ComponentDto module) {
     if (module == null) {
-      return Collections.emptyList();
+      return CloseableIterator.emptyCloseableIterator();
     }
-    return module.isRootProject() ? dbClient.componentDao().selectEnabledFilesFromProject(session, module.uuid())
-      : dbClient.componentDao().selectEnabledDescendantFiles(session, module.uuid());
+    return module.isRootProject() ? dbClient.componentDao().scrollEnabledFilesFromProject(session, module.uuid())
+      : dbClient.componentDao().scrollEnabledDescendantFiles(session, module.uuid());
   }
 
   private ComponentDto getProject(ComponentDto module, DbSession session) {
@@ -181,13 +184,14 @@ public class ProjectDataLoader {
     return !key.contains(".secured") || hasScanPerm;
   }
 
-  private static void addFileData(ProjectRepositories data, List<ComponentDto> moduleChildren, List<FilePathWithHashDto> files) {
+  private static void addFileData(ProjectRepositories data, List<ComponentDto> moduleChildren, Iterator<FilePathWithHashDto> files) {
     Map<String, String> moduleKeysByUuid = newHashMap();
     for (ComponentDto module : moduleChildren) {
       moduleKeysByUuid.put(module.uuid(), module.getKey());
     }
 
-    for (FilePathWithHashDto file : files) {
+    while (files.hasNext()) {
+      FilePathWithHashDto file = files.next();
       FileData fileData = new FileData(file.getSrcHash(), file.getRevision());
       data.addFileData(moduleKeysByUuid.get(file.getModuleUuid()), file.getPath(), fileData);
     }
@@ -68,12 +68,12 @@ public class ComponentIndexer implements ProjectIndexer, NeedAuthorizationIndexe
 
   @Override
   public void indexOnStartup(Set<IndexType> uninitializedIndexTypes) {
-    doIndexByProjectUuid(null, Size.LARGE);
+    doIndexByProjectUuid(null, BulkIndexer.forPopulation(esClient, INDEX_TYPE_COMPONENT, Size.LARGE));
   }
 
   @Override
   public void indexOnAnalysis(String branchUuid) {
-    doIndexByProjectUuid(branchUuid, Size.REGULAR);
+    doIndexByProjectUuid(branchUuid, new BulkIndexer(esClient, INDEX_TYPE_COMPONENT, Size.REGULAR));
   }
 
   @Override
@@ -135,9 +135,7 @@ public class ComponentIndexer implements ProjectIndexer, NeedAuthorizationIndexe
    * @param projectUuid the uuid of the project to analyze, or {@code null} if all content should be indexed.<br/>
    * <b>Warning:</b> only use {@code null} during startup.
    */
-  private void doIndexByProjectUuid(@Nullable String projectUuid, Size bulkSize) {
-    BulkIndexer bulk = new BulkIndexer(esClient, INDEX_TYPE_COMPONENT, bulkSize);
-
+  private void doIndexByProjectUuid(@Nullable String projectUuid, BulkIndexer bulk) {
     bulk.start();
     try (DbSession dbSession = dbClient.openSession(false)) {
       dbClient.componentDao()
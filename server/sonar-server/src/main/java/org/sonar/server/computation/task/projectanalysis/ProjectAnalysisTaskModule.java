@@ -24,6 +24,7 @@ import org.sonar.core.platform.Module;
 import org.sonar.server.computation.task.projectanalysis.container.ContainerFactoryImpl;
 import org.sonar.server.computation.task.projectanalysis.taskprocessor.ReportTaskProcessor;
 import org.sonar.server.computation.task.step.ComputationStepExecutor;
+import org.sonar.server.computation.task.step.TaskStatisticsRecorder;
 
 public class ProjectAnalysisTaskModule extends Module {
   @Override
@@ -33,6 +34,7 @@ public class ProjectAnalysisTaskModule extends Module {
       ContainerFactoryImpl.class,
       ComputationStepExecutor.class,
       ReportTaskProcessor.class,
+      TaskStatisticsRecorder.class,
       ReportSubmitter.class);
   }
 }
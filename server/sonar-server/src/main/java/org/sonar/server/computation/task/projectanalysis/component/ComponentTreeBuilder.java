@@ -97,7 +97,7 @@ public class ComponentTreeBuilder {
       case PROJECT:
         String projectKey = keyGenerator.generateKey(component, null);
         String uuid = uuidSupplier.apply(projectKey);
-        String projectPublicKey = publicKeyGenerator.generateKey(component, null);
+        String projectPublicKey = generatePublicKey(component, null, projectKey);
         return ComponentImpl.builder(Component.Type.PROJECT)
           .setUuid(uuid)
           .setKey(projectKey)
@@ -113,7 +113,7 @@ public class ComponentTreeBuilder {
 
       case MODULE:
         String moduleKey = keyGenerator.generateKey(component, null);
-        String modulePublicKey = publicKeyGenerator.generateKey(component, null);
+        String modulePublicKey = generatePublicKey(component, null, moduleKey);
         return ComponentImpl.builder(Component.Type.MODULE)
           .setUuid(uuidSupplier.apply(moduleKey))
           .setKey(moduleKey)
@@ -128,7 +128,7 @@ public class ComponentTreeBuilder {
       case DIRECTORY:
       case FILE:
         String key = keyGenerator.generateKey(closestModule, component);
-        String publicKey = publicKeyGenerator.generateKey(closestModule, component);
+        String publicKey = generatePublicKey(closestModule, component, key);
         return ComponentImpl.builder(convertDirOrFileType(component.getType()))
           .setUuid(uuidSupplier.apply(key))
           .setKey(key)
@@ -146,6 +146,15 @@ public class ComponentTreeBuilder {
     }
   }
 
+  /**
+   * The public key is the same as the key on main and legacy branches. The key is returned in this case, so that
+   * components do not keep two copies of the same string.
+   */
+  private String generatePublicKey(ScannerReport.Component module, @Nullable ScannerReport.Component fileOrDir, String key) {
+    String publicKey = publicKeyGenerator.generateKey(module, fileOrDir);
+    return publicKey.equals(key) ? key : publicKey;
+  }
+
   private static Component.Status convertStatus(FileStatus status) {
     switch (status) {
       case ADDED:
@@ -178,7 +187,7 @@ public class ComponentTreeBuilder {
   private String createProjectVersion(ScannerReport.Component component) {
     String version = trimToNull(component.getVersion());
     if (version != null) {
-      return version;
+      return version.intern();
     }
     if (baseAnalysis != null) {
       return firstNonNull(baseAnalysis.getVersion(), DEFAULT_PROJECT_VERSION);
@@ -187,10 +196,14 @@ public class ComponentTreeBuilder {
   }
 
   private static ReportAttributes.Builder createAttributesBuilder(ScannerReport.Component component, @Nullable String scmBasePath) {
+    String version = trimToNull(component.getVersion());
+    String path = trimToNull(component.getPath());
+    String scmPath = computeScmPath(scmBasePath, component.getProjectRelativePath());
     return ReportAttributes.newBuilder(component.getRef())
-      .setVersion(trimToNull(component.getVersion()))
-      .setPath(trimToNull(component.getPath()))
-      .setScmPath(computeScmPath(scmBasePath, component.getProjectRelativePath()));
+      .setVersion(version == null ? null : version.intern())
+      .setPath(path)
+      // path and SCM path are the same on projects made of a single module located at the root of the SCM repository
+      .setScmPath(path != null && path.equals(scmPath) ? path : scmPath);
   }
 
   @CheckForNull
@@ -211,9 +224,11 @@ public class ComponentTreeBuilder {
     }
 
     checkArgument(component.getLines() > 0, "File '%s' has no line", component.getPath());
+    // the few languages are shared by all the files instead of being copied on each of them
+    String language = trimToNull(component.getLanguage());
     return new FileAttributes(
       component.getIsTest(),
-      trimToNull(component.getLanguage()),
+      language == null ? null : language.intern(),
       component.getLines());
   }
 
@@ -24,16 +24,20 @@ import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.core.util.logs.Profiler;
+import org.sonar.server.computation.task.step.ResourceUsage;
 
 import static com.google.common.collect.FluentIterable.from;
 import static com.google.common.collect.Iterables.concat;
+import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
+import static org.sonar.core.util.stream.MoreCollectors.uniqueIndex;
 
 /**
  * This crawler make any number of {@link TypeAwareVisitor} or {@link PathAwareVisitor} defined in a list visit a component tree, component per component, in the order of the list
@@ -44,17 +48,30 @@ public class VisitorsCrawler implements ComponentCrawler {
   private final Map<ComponentVisitor, VisitorDuration> visitorCumulativeDurations;
   private final List<VisitorWrapper> preOrderVisitorWrappers;
   private final List<VisitorWrapper> postOrderVisitorWrappers;
+  private final int resourceUsageSamplingRate;
+  private final Map<ComponentVisitor, VisitorResourceUsage> visitorResourceUsages = new HashMap<>();
+  private long visitedComponents = 0;
 
   public VisitorsCrawler(Iterable<ComponentVisitor> visitors) {
     this(visitors, false);
   }
 
   public VisitorsCrawler(Iterable<ComponentVisitor> visitors, boolean computeDuration) {
+    this(visitors, computeDuration, 0);
+  }
+
+  /**
+   * @param resourceUsageSamplingRate the resources used by the visitors are measured on one component out of
+   *                                  {@code resourceUsageSamplingRate}, {@code 0} disables the measurement
+   */
+  public VisitorsCrawler(Iterable<ComponentVisitor> visitors, boolean computeDuration, int resourceUsageSamplingRate) {
+    checkArgument(resourceUsageSamplingRate >= 0, "Sampling rate can't be negative");
     List<VisitorWrapper> visitorWrappers = from(visitors).transform(ToVisitorWrapper.INSTANCE).toList();
     this.preOrderVisitorWrappers = from(visitorWrappers).filter(MathPreOrderVisitor.INSTANCE).toList();
     this.postOrderVisitorWrappers = from(visitorWrappers).filter(MatchPostOrderVisitor.INSTANCE).toList();
     this.computeDuration = computeDuration;
     this.visitorCumulativeDurations = computeDuration ? from(visitors).toMap(VisitorWrapperToInitialDuration.INSTANCE) : Collections.emptyMap();
+    this.resourceUsageSamplingRate = resourceUsageSamplingRate;
   }
 
   public Map<ComponentVisitor, Long> getCumulativeDurations() {
@@ -66,6 +83,16 @@ public class VisitorsCrawler implements ComponentCrawler {
     return Collections.emptyMap();
   }
 
+  /**
+   * Resources used by each visitor, extrapolated from the sampled components to all the components visited by the
+   * visitor. Visitors which did not visit any sampled component are not included.
+   */
+  public Map<ComponentVisitor, ResourceUsage> getResourceUsages() {
+    return visitorResourceUsages.entrySet().stream()
+      .filter(entry -> entry.getValue().sampledVisits > 0)
+      .collect(uniqueIndex(Map.Entry::getKey, entry -> entry.getValue().extrapolate()));
+  }
+
   @Override
   public void visit(final Component component) {
     try {
@@ -90,14 +117,15 @@ public class VisitorsCrawler implements ComponentCrawler {
       visitorWrapper.beforeComponent(component);
     }
 
+    boolean sampled = isSampled();
     for (VisitorWrapper visitorWrapper : preOrderVisitorWrappersToExecute) {
-      visitNode(component, visitorWrapper);
+      visitNode(component, visitorWrapper, sampled);
     }
 
     visitChildren(component);
 
     for (VisitorWrapper visitorWrapper : postOrderVisitorWrappersToExecute) {
-      visitNode(component, visitorWrapper);
+      visitNode(component, visitorWrapper, sampled);
     }
 
     for (VisitorWrapper visitorWrapper : concat(preOrderVisitorWrappersToExecute, postOrderVisitorWrappersToExecute)) {
@@ -111,9 +139,19 @@ public class VisitorsCrawler implements ComponentCrawler {
     }
   }
 
-  private void visitNode(Component component, VisitorWrapper visitor) {
+  private boolean isSampled() {
+    if (resourceUsageSamplingRate == 0) {
+      return false;
+    }
+    boolean sampled = visitedComponents % resourceUsageSamplingRate == 0;
+    visitedComponents++;
+    return sampled;
+  }
+
+  private void visitNode(Component component, VisitorWrapper visitor, boolean sampled) {
     Profiler profiler = Profiler.create(Loggers.get(visitor.getWrappedVisitor().getClass()))
       .startTrace("Visiting component {}", component.getKey());
+    ResourceUsage.Measure measure = sampled ? ResourceUsage.start() : null;
     visitor.visitAny(component);
     switch (component.getType()) {
       case PROJECT:
@@ -140,8 +178,16 @@ public class VisitorsCrawler implements ComponentCrawler {
       default:
         throw new IllegalStateException(String.format("Unknown type %s", component.getType().name()));
     }
+    ResourceUsage resourceUsage = measure == null ? null : measure.stop();
     long duration = profiler.stopTrace();
     incrementDuration(visitor, duration);
+    incrementResourceUsage(visitor, resourceUsage);
+  }
+
+  private void incrementResourceUsage(VisitorWrapper visitorWrapper, @Nullable ResourceUsage resourceUsage) {
+    if (resourceUsageSamplingRate > 0) {
+      visitorResourceUsages.computeIfAbsent(visitorWrapper.getWrappedVisitor(), v -> new VisitorResourceUsage()).increment(resourceUsage);
+    }
   }
 
   private void incrementDuration(VisitorWrapper visitorWrapper, long duration) {
@@ -222,6 +268,24 @@ public class VisitorsCrawler implements ComponentCrawler {
     }
   }
 
+  private static final class VisitorResourceUsage {
+    private long visits = 0;
+    private long sampledVisits = 0;
+    private ResourceUsage sampledResourceUsage = ResourceUsage.NONE;
+
+    void increment(@Nullable ResourceUsage resourceUsage) {
+      visits++;
+      if (resourceUsage != null) {
+        sampledVisits++;
+        sampledResourceUsage = sampledResourceUsage.plus(resourceUsage);
+      }
+    }
+
+    ResourceUsage extrapolate() {
+      return sampledResourceUsage.multiply((double) visits / sampledVisits);
+    }
+  }
+
   private enum VisitorWrapperToInitialDuration implements Function<ComponentVisitor, VisitorDuration> {
     INSTANCE;
 
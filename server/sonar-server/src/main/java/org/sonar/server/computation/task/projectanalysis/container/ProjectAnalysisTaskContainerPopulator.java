@@ -119,6 +119,7 @@ import org.sonar.server.computation.task.projectanalysis.step.ReportComputationS
 import org.sonar.server.computation.task.projectanalysis.step.SmallChangesetQualityGateSpecialCase;
 import org.sonar.server.computation.task.projectanalysis.webhook.WebhookPostTask;
 import org.sonar.server.computation.task.step.ComputationStepExecutor;
+import org.sonar.server.computation.task.step.TaskStatisticsHolder;
 import org.sonar.server.computation.task.step.ComputationSteps;
 import org.sonar.server.computation.taskprocessor.MutableTaskResultHolderImpl;
 import org.sonar.server.view.index.ViewIndex;
@@ -173,6 +174,7 @@ public final class ProjectAnalysisTaskContainerPopulator implements ContainerPop
       RatingSettings.class,
       ActiveRulesHolderImpl.class,
       MeasureComputersHolderImpl.class,
+      TaskStatisticsHolder.class,
       MutableTaskResultHolderImpl.class,
       BatchReportReaderImpl.class,
       MergeBranchComponentUuids.class,
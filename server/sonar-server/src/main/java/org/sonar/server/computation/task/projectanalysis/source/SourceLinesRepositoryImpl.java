@@ -19,22 +19,47 @@
  */
 package org.sonar.server.computation.task.projectanalysis.source;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import org.apache.commons.io.FileUtils;
+import org.sonar.api.utils.MessageException;
 import org.sonar.core.util.CloseableIterator;
+import org.sonar.core.util.LineReaderIterator;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.db.protobuf.DbFileSources;
+import org.sonar.db.source.FileSourceDto;
+import org.sonar.server.computation.task.projectanalysis.batch.BatchReportDirectoryHolder;
 import org.sonar.server.computation.task.projectanalysis.batch.BatchReportReader;
 import org.sonar.server.computation.task.projectanalysis.component.Component;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.requireNonNull;
 import static org.sonar.server.computation.task.projectanalysis.component.Component.Type.FILE;
 
 public class SourceLinesRepositoryImpl implements SourceLinesRepository {
 
+  private static final String PREVIOUS_SOURCES_DIR = "previous-sources";
+
   private final BatchReportReader reportReader;
+  private final BatchReportDirectoryHolder reportDirectoryHolder;
+  private final DbClient dbClient;
+  private final Map<Integer, File> previousSourcesByRef = new HashMap<>();
 
-  public SourceLinesRepositoryImpl(BatchReportReader reportReader) {
+  public SourceLinesRepositoryImpl(BatchReportReader reportReader, BatchReportDirectoryHolder reportDirectoryHolder, DbClient dbClient) {
     this.reportReader = reportReader;
+    this.reportDirectoryHolder = reportDirectoryHolder;
+    this.dbClient = dbClient;
   }
 
   @Override
@@ -43,6 +68,9 @@ public class SourceLinesRepositoryImpl implements SourceLinesRepository {
     checkArgument(file.getType() == FILE, "Component '%s' is not a file", file);
 
     Optional<CloseableIterator<String>> linesIteratorOptional = reportReader.readFileSource(file.getReportAttributes().getRef());
+    if (!linesIteratorOptional.isPresent() && file.getStatus() == Component.Status.SAME) {
+      linesIteratorOptional = readPreviousLines(file);
+    }
 
     checkState(linesIteratorOptional.isPresent(), "File '%s' has no source code", file);
     CloseableIterator<String> lineIterator = linesIteratorOptional.get();
@@ -50,6 +78,62 @@ public class SourceLinesRepositoryImpl implements SourceLinesRepository {
     return new ComponentLinesCloseableIterator(file, lineIterator, file.getFileAttributes().getLines());
   }
 
+  /**
+   * In incremental mode, the scanner does not put in the report the source of the files which did not change
+   * since the previous analysis. It is then read from the previous analysis, as long as it is the one the scanner
+   * compared the file to. It is loaded from DB only once and kept on disk for the next reads.
+   * <p>
+   * If another report of the project was processed after the scanner loaded the previous analysis and before
+   * this report, the source in DB may differ. The task then fails and the project must be analyzed again.
+   */
+  private Optional<CloseableIterator<String>> readPreviousLines(Component file) {
+    int ref = file.getReportAttributes().getRef();
+    File sourceFile = previousSourcesByRef.get(ref);
+    if (sourceFile == null) {
+      sourceFile = loadPreviousSource(file);
+      previousSourcesByRef.put(ref, sourceFile);
+    }
+    try {
+      return Optional.of(new LineReaderIterator(new InputStreamReader(FileUtils.openInputStream(sourceFile), UTF_8)));
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to read previous source of file " + file.getKey(), e);
+    }
+  }
+
+  private File loadPreviousSource(Component file) {
+    int ref = file.getReportAttributes().getRef();
+    String expectedSrcHash = reportReader.readComponent(ref).getPreviousSourceHash();
+    checkState(!expectedSrcHash.isEmpty(), "File '%s' has no source code", file);
+
+    FileSourceDto dto;
+    try (DbSession dbSession = dbClient.openSession(false)) {
+      dto = dbClient.fileSourceDao().selectSourceDataByFileUuid(dbSession, file.getUuid());
+    }
+    if (dto == null || !expectedSrcHash.equals(dto.getSrcHash())) {
+      // another report of the project, queued before this one, changed the file after the scanner loaded the previous
+      // analysis. The source compared by the scanner is lost.
+      throw MessageException.of(format("Source of file '%s' was not sent by the scanner because it did not change since the previous analysis, " +
+        "but another analysis of the project has been processed since then. Please analyze the project again.", file.getKey()));
+    }
+
+    List<DbFileSources.Line> lines = dto.getSourceData().getLinesList();
+    File sourceFile = new File(new File(reportDirectoryHolder.getDirectory(), PREVIOUS_SOURCES_DIR), ref + ".txt");
+    try {
+      FileUtils.forceMkdir(sourceFile.getParentFile());
+      try (Writer writer = Files.newBufferedWriter(sourceFile.toPath(), UTF_8)) {
+        for (int i = 0; i < lines.size(); i++) {
+          if (i > 0) {
+            writer.write('\n');
+          }
+          writer.write(lines.get(i).getSource());
+        }
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to write previous source of file " + file.getKey(), e);
+    }
+    return sourceFile;
+  }
+
   private static class ComponentLinesCloseableIterator extends CloseableIterator<String> {
     private static final String EXTRA_END_LINE = "";
 
@@ -21,12 +21,17 @@ package org.sonar.server.computation.task.projectanalysis.step;
 
 import java.util.List;
 import java.util.Map;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.server.computation.task.projectanalysis.component.ComponentVisitor;
 import org.sonar.server.computation.task.projectanalysis.component.TreeRootHolder;
 import org.sonar.server.computation.task.projectanalysis.component.VisitorsCrawler;
 import org.sonar.server.computation.task.step.ComputationStep;
+import org.sonar.server.computation.task.step.ResourceUsage;
+import org.sonar.server.computation.task.step.TaskStatistic;
+import org.sonar.server.computation.task.step.TaskStatisticsHolder;
 
 public class ExecuteVisitorsStep implements ComputationStep {
 
@@ -34,10 +39,20 @@ public class ExecuteVisitorsStep implements ComputationStep {
 
   private final TreeRootHolder treeRootHolder;
   private final List<ComponentVisitor> visitors;
+  @CheckForNull
+  private final TaskStatisticsHolder statisticsHolder;
 
+  /**
+   * Used when no {@link TaskStatisticsHolder} is available in pico container.
+   */
   public ExecuteVisitorsStep(TreeRootHolder treeRootHolder, List<ComponentVisitor> visitors) {
+    this(treeRootHolder, visitors, null);
+  }
+
+  public ExecuteVisitorsStep(TreeRootHolder treeRootHolder, List<ComponentVisitor> visitors, @Nullable TaskStatisticsHolder statisticsHolder) {
     this.treeRootHolder = treeRootHolder;
     this.visitors = visitors;
+    this.statisticsHolder = statisticsHolder;
   }
 
   @Override
@@ -47,9 +62,23 @@ public class ExecuteVisitorsStep implements ComputationStep {
 
   @Override
   public void execute() {
-    VisitorsCrawler visitorsCrawler = new VisitorsCrawler(visitors, LOGGER.isDebugEnabled());
+    int samplingRate = statisticsHolder == null ? 0 : statisticsHolder.getVisitorSamplingRate();
+    VisitorsCrawler visitorsCrawler = new VisitorsCrawler(visitors, LOGGER.isDebugEnabled(), samplingRate);
     visitorsCrawler.visit(treeRootHolder.getRoot());
     logVisitorExecutionDurations(visitors, visitorsCrawler);
+    if (statisticsHolder != null) {
+      recordVisitorResourceUsages(statisticsHolder, visitorsCrawler);
+    }
+  }
+
+  private void recordVisitorResourceUsages(TaskStatisticsHolder statisticsHolder, VisitorsCrawler visitorsCrawler) {
+    Map<ComponentVisitor, ResourceUsage> resourceUsages = visitorsCrawler.getResourceUsages();
+    for (ComponentVisitor visitor : visitors) {
+      ResourceUsage resourceUsage = resourceUsages.get(visitor);
+      if (resourceUsage != null) {
+        statisticsHolder.add(new TaskStatistic(TaskStatistic.Kind.VISITOR, visitor.getClass().getSimpleName(), resourceUsage));
+      }
+    }
   }
 
   private static void logVisitorExecutionDurations(List<ComponentVisitor> visitors, VisitorsCrawler visitorsCrawler) {
@@ -22,11 +22,10 @@ package org.sonar.server.computation.task.projectanalysis.step;
 import com.google.common.base.Predicate;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -35,6 +34,7 @@ import org.apache.commons.lang.StringUtils;
 import org.sonar.api.resources.Qualifiers;
 import org.sonar.api.resources.Scopes;
 import org.sonar.api.utils.System2;
+import org.sonar.core.util.CloseableIterator;
 import org.sonar.core.util.stream.MoreCollectors;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
@@ -53,6 +53,7 @@ import org.sonar.server.computation.task.projectanalysis.component.PathAwareVisi
 import org.sonar.server.computation.task.projectanalysis.component.TreeRootHolder;
 import org.sonar.server.computation.task.step.ComputationStep;
 
+import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.FluentIterable.from;
 import static java.util.Optional.ofNullable;
 import static org.sonar.db.component.ComponentDto.UUID_PATH_OF_ROOT;
@@ -159,9 +160,12 @@ public class PersistComponentsStep implements ComputationStep {
    * disabled components.
    */
   private Map<String, ComponentDto> indexExistingDtosByKey(DbSession session) {
-    return dbClient.componentDao().selectAllComponentsFromProjectKey(session, treeRootHolder.getRoot().getKey())
-      .stream()
-      .collect(Collectors.toMap(ComponentDto::getDbKey, Function.identity()));
+    // components are streamed, so that they are not loaded in a list before being indexed
+    Map<String, ComponentDto> dtosByKey = new HashMap<>();
+    try (CloseableIterator<ComponentDto> dtos = dbClient.componentDao().scrollAllComponentsFromProjectKey(session, treeRootHolder.getRoot().getKey())) {
+      dtos.forEachRemaining(dto -> checkState(dtosByKey.put(dto.getDbKey(), dto) == null, "Duplicate component key %s", dto.getDbKey()));
+    }
+    return dtosByKey;
   }
 
   private class PersistComponentStepsVisitor extends PathAwareVisitorAdapter<ComponentDtoHolder> {
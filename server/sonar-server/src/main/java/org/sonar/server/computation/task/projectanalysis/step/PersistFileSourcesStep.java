@@ -21,12 +21,14 @@ package org.sonar.server.computation.task.projectanalysis.step;
 
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableMap;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang.ObjectUtils;
 import org.sonar.api.utils.System2;
@@ -43,7 +45,12 @@ import org.sonar.server.computation.task.projectanalysis.component.CrawlerDepthL
 import org.sonar.server.computation.task.projectanalysis.component.DepthTraversalTypeAwareCrawler;
 import org.sonar.server.computation.task.projectanalysis.component.TreeRootHolder;
 import org.sonar.server.computation.task.projectanalysis.component.TypeAwareVisitorAdapter;
+import org.sonar.server.computation.task.projectanalysis.duplication.CrossProjectDuplicate;
+import org.sonar.server.computation.task.projectanalysis.duplication.Duplicate;
+import org.sonar.server.computation.task.projectanalysis.duplication.Duplication;
 import org.sonar.server.computation.task.projectanalysis.duplication.DuplicationRepository;
+import org.sonar.server.computation.task.projectanalysis.duplication.InProjectDuplicate;
+import org.sonar.server.computation.task.projectanalysis.duplication.TextBlock;
 import org.sonar.server.computation.task.projectanalysis.scm.Changeset;
 import org.sonar.server.computation.task.projectanalysis.scm.ScmInfo;
 import org.sonar.server.computation.task.projectanalysis.scm.ScmInfoRepository;
@@ -54,14 +61,22 @@ import org.sonar.server.computation.task.projectanalysis.source.HighlightingLine
 import org.sonar.server.computation.task.projectanalysis.source.LineReader;
 import org.sonar.server.computation.task.projectanalysis.source.RangeOffsetConverter;
 import org.sonar.server.computation.task.projectanalysis.source.ScmLineReader;
+import org.sonar.server.computation.task.projectanalysis.source.SourceHashRepository;
 import org.sonar.server.computation.task.projectanalysis.source.SourceLinesRepository;
 import org.sonar.server.computation.task.projectanalysis.source.SymbolsLineReader;
 import org.sonar.server.computation.task.step.ComputationStep;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.sonar.server.computation.task.projectanalysis.component.ComponentVisitor.Order.PRE_ORDER;
 
 public class PersistFileSourcesStep implements ComputationStep {
 
+  /**
+   * Part of the input hash, to be incremented when the way {@link DbFileSources.Data} is computed from the report changes,
+   * so that the sources of unchanged files get computed again after upgrade.
+   */
+  private static final String INPUT_HASH_VERSION = "1";
+
   private final DbClient dbClient;
   private final System2 system2;
   private final TreeRootHolder treeRootHolder;
@@ -69,9 +84,10 @@ public class PersistFileSourcesStep implements ComputationStep {
   private final SourceLinesRepository sourceLinesRepository;
   private final ScmInfoRepository scmInfoRepository;
   private final DuplicationRepository duplicationRepository;
+  private final SourceHashRepository sourceHashRepository;
 
   public PersistFileSourcesStep(DbClient dbClient, System2 system2, TreeRootHolder treeRootHolder, BatchReportReader reportReader, SourceLinesRepository sourceLinesRepository,
-    ScmInfoRepository scmInfoRepository, DuplicationRepository duplicationRepository) {
+    ScmInfoRepository scmInfoRepository, DuplicationRepository duplicationRepository, SourceHashRepository sourceHashRepository) {
     this.dbClient = dbClient;
     this.system2 = system2;
     this.treeRootHolder = treeRootHolder;
@@ -79,6 +95,7 @@ public class PersistFileSourcesStep implements ComputationStep {
     this.sourceLinesRepository = sourceLinesRepository;
     this.scmInfoRepository = scmInfoRepository;
     this.duplicationRepository = duplicationRepository;
+    this.sourceHashRepository = sourceHashRepository;
   }
 
   @Override
@@ -114,22 +131,38 @@ public class PersistFileSourcesStep implements ComputationStep {
 
     @Override
     public void visitFile(Component file) {
+      FileSourceDto previousDto = previousFileSourcesByUuid.get(file.getUuid());
+      String inputHash = null;
+      if (previousDto != null && previousDto.getInputHash() != null) {
+        // status of the file is not trusted: on short living branches, files which are not in the SCM changed files are SAME
+        inputHash = computeInputHash(file, sourceHashRepository.getRawSourceHash(file));
+        if (inputHash.equals(previousDto.getInputHash())) {
+          // neither the source nor the report data it is decorated with changed, previous data is still valid
+          return;
+        }
+      }
+
       try (CloseableIterator<String> linesIterator = sourceLinesRepository.readLines(file);
         LineReaders lineReaders = new LineReaders(reportReader, scmInfoRepository, duplicationRepository, file)) {
         ComputeFileSourceData computeFileSourceData = new ComputeFileSourceData(linesIterator, lineReaders.readers(), file.getFileAttributes().getLines());
         ComputeFileSourceData.Data fileSourceData = computeFileSourceData.compute();
-        persistSource(fileSourceData, file.getUuid(), lineReaders.getLatestChange());
+        // the source hash can be read only once
+        String srcHash = fileSourceData.getSrcHash();
+        if (inputHash == null) {
+          inputHash = computeInputHash(file, srcHash);
+        }
+        persistSource(fileSourceData, file.getUuid(), srcHash, inputHash, lineReaders.getLatestChange());
       } catch (Exception e) {
         throw new IllegalStateException(String.format("Cannot persist sources of %s", file.getKey()), e);
       }
     }
 
-    private void persistSource(ComputeFileSourceData.Data fileSourceData, String componentUuid, @Nullable Changeset latestChange) {
+    private void persistSource(ComputeFileSourceData.Data fileSourceData, String componentUuid, String srcHash, String inputHash,
+      @Nullable Changeset latestChange) {
       DbFileSources.Data fileData = fileSourceData.getFileSourceData();
 
       byte[] data = FileSourceDto.encodeSourceData(fileData);
       String dataHash = DigestUtils.md5Hex(data);
-      String srcHash = fileSourceData.getSrcHash();
       String lineHashes = fileSourceData.getLineHashes();
       FileSourceDto previousDto = previousFileSourcesByUuid.get(componentUuid);
 
@@ -144,22 +177,25 @@ public class PersistFileSourcesStep implements ComputationStep {
           .setLineHashes(lineHashes)
           .setCreatedAt(system2.now())
           .setUpdatedAt(system2.now())
-          .setRevision(computeRevision(latestChange));
+          .setRevision(computeRevision(latestChange))
+          .setInputHash(inputHash);
         dbClient.fileSourceDao().insert(session, dto);
         session.commit();
       } else {
-        // Update only if data_hash has changed or if src_hash is missing or revision is missing (progressive migration)
+        // Update only if data_hash has changed or if src_hash, revision or input_hash is missing (progressive migration)
         boolean binaryDataUpdated = !dataHash.equals(previousDto.getDataHash());
         boolean srcHashUpdated = !srcHash.equals(previousDto.getSrcHash());
         String revision = computeRevision(latestChange);
         boolean revisionUpdated = !ObjectUtils.equals(revision, previousDto.getRevision());
-        if (binaryDataUpdated || srcHashUpdated || revisionUpdated) {
+        boolean inputHashUpdated = !inputHash.equals(previousDto.getInputHash());
+        if (binaryDataUpdated || srcHashUpdated || revisionUpdated || inputHashUpdated) {
           previousDto
             .setBinaryData(data)
             .setDataHash(dataHash)
             .setSrcHash(srcHash)
             .setLineHashes(lineHashes)
             .setRevision(revision)
+            .setInputHash(inputHash)
             .setUpdatedAt(system2.now());
           dbClient.fileSourceDao().update(session, previousDto);
           session.commit();
@@ -167,6 +203,44 @@ public class PersistFileSourcesStep implements ComputationStep {
       }
     }
 
+    /**
+     * Hash of everything the file source data is computed from: the source itself and the coverage, SCM, highlighting,
+     * symbols and duplications of the file. It is much cheaper to compute than the file source data.
+     */
+    private String computeInputHash(Component file, String srcHash) {
+      MessageDigest digest = DigestUtils.getMd5Digest();
+      update(digest, INPUT_HASH_VERSION);
+      update(digest, srcHash);
+      update(digest, String.valueOf(file.getFileAttributes().getLines()));
+      int componentRef = file.getReportAttributes().getRef();
+      try (CloseableIterator<ScannerReport.LineCoverage> it = reportReader.readComponentCoverage(componentRef)) {
+        it.forEachRemaining(coverage -> digest.update(coverage.toByteArray()));
+      }
+      update(digest, "scm");
+      Optional<ScmInfo> scmInfo = scmInfoRepository.getScmInfo(file);
+      if (scmInfo.isPresent()) {
+        for (Changeset changeset : scmInfo.get().getAllChangesets()) {
+          update(digest, changeset.getRevision() + ';' + changeset.getAuthor() + ';' + changeset.getDate());
+        }
+      }
+      update(digest, "highlighting");
+      try (CloseableIterator<ScannerReport.SyntaxHighlightingRule> it = reportReader.readComponentSyntaxHighlighting(componentRef)) {
+        it.forEachRemaining(rule -> digest.update(rule.toByteArray()));
+      }
+      update(digest, "symbols");
+      try (CloseableIterator<ScannerReport.Symbol> it = reportReader.readComponentSymbols(componentRef)) {
+        it.forEachRemaining(symbol -> digest.update(symbol.toByteArray()));
+      }
+      update(digest, "duplications");
+      // duplications are not returned in a guaranteed order
+      List<String> duplications = new ArrayList<>();
+      for (Duplication duplication : duplicationRepository.getDuplications(file)) {
+        duplications.add(toHashInput(duplication));
+      }
+      duplications.stream().sorted().forEach(duplication -> update(digest, duplication));
+      return Hex.encodeHexString(digest.digest());
+    }
+
     @CheckForNull
     private String computeRevision(@Nullable Changeset latestChange) {
       if (latestChange == null) {
@@ -176,6 +250,30 @@ public class PersistFileSourcesStep implements ComputationStep {
     }
   }
 
+  private static void update(MessageDigest digest, String str) {
+    digest.update(str.getBytes(UTF_8));
+    digest.update((byte) '\n');
+  }
+
+  private static String toHashInput(Duplication duplication) {
+    StringBuilder sb = new StringBuilder();
+    append(sb, duplication.getOriginal());
+    for (Duplicate duplicate : duplication.getDuplicates()) {
+      sb.append('|');
+      if (duplicate instanceof InProjectDuplicate) {
+        sb.append(((InProjectDuplicate) duplicate).getFile().getKey());
+      } else if (duplicate instanceof CrossProjectDuplicate) {
+        sb.append(((CrossProjectDuplicate) duplicate).getFileKey());
+      }
+      append(sb, duplicate.getTextBlock());
+    }
+    return sb.toString();
+  }
+
+  private static void append(StringBuilder sb, TextBlock textBlock) {
+    sb.append('[').append(textBlock.getStart()).append(',').append(textBlock.getEnd()).append(']');
+  }
+
   private static class LineReaders implements AutoCloseable {
     private final List<LineReader> readers = new ArrayList<>();
     private final List<CloseableIterator<?>> closeables = new ArrayList<>();
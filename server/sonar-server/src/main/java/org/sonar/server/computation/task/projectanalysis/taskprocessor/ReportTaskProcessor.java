@@ -31,6 +31,8 @@ import org.sonar.plugin.ce.ReportAnalysisComponentProvider;
 import org.sonar.server.computation.task.container.TaskContainer;
 import org.sonar.server.computation.task.projectanalysis.container.ContainerFactory;
 import org.sonar.server.computation.task.step.ComputationStepExecutor;
+import org.sonar.server.computation.task.step.TaskStatisticsHolder;
+import org.sonar.server.computation.task.step.TaskStatisticsRecorder;
 import org.sonar.server.computation.taskprocessor.TaskResultHolder;
 
 public class ReportTaskProcessor implements CeTaskProcessor {
@@ -39,24 +41,28 @@ public class ReportTaskProcessor implements CeTaskProcessor {
 
   private final ContainerFactory containerFactory;
   private final ComponentContainer serverContainer;
+  private final TaskStatisticsRecorder statisticsRecorder;
   @CheckForNull
   private final ReportAnalysisComponentProvider[] componentProviders;
 
   /**
    * Used when at least one Privileged plugin is installed
    */
-  public ReportTaskProcessor(ContainerFactory containerFactory, ComponentContainer serverContainer, ReportAnalysisComponentProvider[] componentProviders) {
+  public ReportTaskProcessor(ContainerFactory containerFactory, ComponentContainer serverContainer, TaskStatisticsRecorder statisticsRecorder,
+    ReportAnalysisComponentProvider[] componentProviders) {
     this.containerFactory = containerFactory;
     this.serverContainer = serverContainer;
+    this.statisticsRecorder = statisticsRecorder;
     this.componentProviders = componentProviders;
   }
 
   /**
    * Used when no privileged plugin is installed
    */
-  public ReportTaskProcessor(ContainerFactory containerFactory, ComponentContainer serverContainer) {
+  public ReportTaskProcessor(ContainerFactory containerFactory, ComponentContainer serverContainer, TaskStatisticsRecorder statisticsRecorder) {
     this.containerFactory = containerFactory;
     this.serverContainer = serverContainer;
+    this.statisticsRecorder = statisticsRecorder;
     this.componentProviders = null;
   }
 
@@ -70,7 +76,11 @@ public class ReportTaskProcessor implements CeTaskProcessor {
     try (TaskContainer ceContainer = containerFactory.create(serverContainer, task, componentProviders)) {
       ceContainer.bootup();
 
-      ceContainer.getComponentByType(ComputationStepExecutor.class).execute();
+      try {
+        ceContainer.getComponentByType(ComputationStepExecutor.class).execute();
+      } finally {
+        statisticsRecorder.record(task.getUuid(), ceContainer.getComponentByType(TaskStatisticsHolder.class).getStatistics());
+      }
       return ceContainer.getComponentByType(TaskResultHolder.class).getResult();
     }
   }
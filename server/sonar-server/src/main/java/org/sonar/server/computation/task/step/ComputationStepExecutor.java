@@ -30,6 +30,8 @@ public final class ComputationStepExecutor {
 
   private final ComputationSteps steps;
   @CheckForNull
+  private final TaskStatisticsHolder statisticsHolder;
+  @CheckForNull
   private final Listener listener;
 
   /**
@@ -37,11 +39,27 @@ public final class ComputationStepExecutor {
    * container.
    */
   public ComputationStepExecutor(ComputationSteps steps) {
-    this(steps, null);
+    this(steps, null, null);
   }
 
+  /**
+   * Used when no {@link TaskStatisticsHolder} is available in pico container.
+   */
   public ComputationStepExecutor(ComputationSteps steps, @Nullable Listener listener) {
+    this(steps, null, listener);
+  }
+
+  /**
+   * Used when no {@link ComputationStepExecutor.Listener} is available in pico
+   * container.
+   */
+  public ComputationStepExecutor(ComputationSteps steps, @Nullable TaskStatisticsHolder statisticsHolder) {
+    this(steps, statisticsHolder, null);
+  }
+
+  public ComputationStepExecutor(ComputationSteps steps, @Nullable TaskStatisticsHolder statisticsHolder, @Nullable Listener listener) {
     this.steps = steps;
+    this.statisticsHolder = statisticsHolder;
     this.listener = listener;
   }
 
@@ -61,8 +79,12 @@ public final class ComputationStepExecutor {
   private void executeSteps(Profiler stepProfiler) {
     for (ComputationStep step : steps.instances()) {
       stepProfiler.start();
+      ResourceUsage.Measure measure = statisticsHolder == null ? null : ResourceUsage.start();
       step.execute();
       stepProfiler.stopDebug(step.getDescription());
+      if (measure != null) {
+        statisticsHolder.add(new TaskStatistic(TaskStatistic.Kind.STEP, step.getDescription(), measure.stop()));
+      }
     }
   }
 
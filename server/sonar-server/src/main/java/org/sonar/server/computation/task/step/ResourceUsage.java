@@ -0,0 +1,118 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.step;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import javax.annotation.concurrent.Immutable;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Elapsed time, CPU time and heap allocations of the current thread over a period of time.
+ * <p>
+ * CPU time and allocations are always zero when the JVM does not support measuring them.
+ */
+@Immutable
+public final class ResourceUsage {
+
+  public static final ResourceUsage NONE = new ResourceUsage(0L, 0L, 0L);
+
+  private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+  private final long durationNanos;
+  private final long cpuTimeNanos;
+  private final long allocatedBytes;
+
+  private ResourceUsage(long durationNanos, long cpuTimeNanos, long allocatedBytes) {
+    this.durationNanos = durationNanos;
+    this.cpuTimeNanos = cpuTimeNanos;
+    this.allocatedBytes = allocatedBytes;
+  }
+
+  /**
+   * Starts measuring the resources used by the current thread. {@link Measure#stop()} must be called
+   * by the same thread.
+   */
+  public static Measure start() {
+    return new Measure();
+  }
+
+  public ResourceUsage plus(ResourceUsage other) {
+    return new ResourceUsage(durationNanos + other.durationNanos, cpuTimeNanos + other.cpuTimeNanos, allocatedBytes + other.allocatedBytes);
+  }
+
+  public ResourceUsage multiply(double factor) {
+    return new ResourceUsage(Math.round(durationNanos * factor), Math.round(cpuTimeNanos * factor), Math.round(allocatedBytes * factor));
+  }
+
+  public long getDurationMs() {
+    return NANOSECONDS.toMillis(durationNanos);
+  }
+
+  public long getCpuTimeMs() {
+    return NANOSECONDS.toMillis(cpuTimeNanos);
+  }
+
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  @Override
+  public String toString() {
+    return "time=" + getDurationMs() + "ms | cpu=" + getCpuTimeMs() + "ms | allocated=" + allocatedBytes + "B";
+  }
+
+  public static final class Measure {
+    private final long startNanos;
+    private final long startCpuTimeNanos;
+    private final long startAllocatedBytes;
+
+    private Measure() {
+      this.startAllocatedBytes = currentThreadAllocatedBytes();
+      this.startCpuTimeNanos = currentThreadCpuTime();
+      this.startNanos = System.nanoTime();
+    }
+
+    public ResourceUsage stop() {
+      long durationNanos = System.nanoTime() - startNanos;
+      long cpuTimeNanos = currentThreadCpuTime() - startCpuTimeNanos;
+      long allocatedBytes = currentThreadAllocatedBytes() - startAllocatedBytes;
+      return new ResourceUsage(durationNanos, Math.max(0L, cpuTimeNanos), Math.max(0L, allocatedBytes));
+    }
+  }
+
+  private static long currentThreadCpuTime() {
+    if (THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() && THREAD_MX_BEAN.isThreadCpuTimeEnabled()) {
+      return THREAD_MX_BEAN.getCurrentThreadCpuTime();
+    }
+    return 0L;
+  }
+
+  private static long currentThreadAllocatedBytes() {
+    if (THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) THREAD_MX_BEAN;
+      if (sunThreadMXBean.isThreadAllocatedMemorySupported() && sunThreadMXBean.isThreadAllocatedMemoryEnabled()) {
+        return sunThreadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+    }
+    return 0L;
+  }
+}
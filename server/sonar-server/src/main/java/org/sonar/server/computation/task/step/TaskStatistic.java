@@ -0,0 +1,62 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.step;
+
+import javax.annotation.concurrent.Immutable;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Resources used by a {@link ComputationStep} or by a component visitor during the processing of a task.
+ */
+@Immutable
+public final class TaskStatistic {
+
+  public enum Kind {
+    STEP, VISITOR
+  }
+
+  private final Kind kind;
+  private final String name;
+  private final ResourceUsage resourceUsage;
+
+  public TaskStatistic(Kind kind, String name, ResourceUsage resourceUsage) {
+    this.kind = requireNonNull(kind, "kind can't be null");
+    this.name = requireNonNull(name, "name can't be null");
+    this.resourceUsage = requireNonNull(resourceUsage, "resourceUsage can't be null");
+  }
+
+  public Kind getKind() {
+    return kind;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public ResourceUsage getResourceUsage() {
+    return resourceUsage;
+  }
+
+  @Override
+  public String toString() {
+    return kind + " | " + name + " | " + resourceUsage;
+  }
+}
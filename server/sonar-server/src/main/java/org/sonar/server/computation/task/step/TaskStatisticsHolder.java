@@ -0,0 +1,65 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.step;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.sonar.api.config.Configuration;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Collects the {@link TaskStatistic}s of the task being processed.
+ * <p>
+ * Resources used by steps are always measured. Measuring each visit of each component by each visitor is too costly
+ * on large projects, so by default only one component out of {@link #DEFAULT_VISITOR_SAMPLING_RATE} is measured and
+ * the result is extrapolated. The rate is configured by property {@link #VISITOR_SAMPLING_RATE_PROPERTY}: {@code 1}
+ * measures all components and {@code 0} disables the measurement of visitors.
+ */
+public class TaskStatisticsHolder {
+
+  public static final String VISITOR_SAMPLING_RATE_PROPERTY = "sonar.ce.taskStatistics.visitorSamplingRate";
+  public static final int DEFAULT_VISITOR_SAMPLING_RATE = 10;
+
+  private final int visitorSamplingRate;
+  private final List<TaskStatistic> statistics = new ArrayList<>();
+
+  public TaskStatisticsHolder(Configuration configuration) {
+    this.visitorSamplingRate = configuration.getInt(VISITOR_SAMPLING_RATE_PROPERTY).orElse(DEFAULT_VISITOR_SAMPLING_RATE);
+    checkArgument(visitorSamplingRate >= 0, "Property %s must be positive or zero, got %s", VISITOR_SAMPLING_RATE_PROPERTY, visitorSamplingRate);
+  }
+
+  public int getVisitorSamplingRate() {
+    return visitorSamplingRate;
+  }
+
+  public TaskStatisticsHolder add(TaskStatistic statistic) {
+    statistics.add(statistic);
+    return this;
+  }
+
+  /**
+   * Statistics in the order they have been added.
+   */
+  public List<TaskStatistic> getStatistics() {
+    return Collections.unmodifiableList(statistics);
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.step;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.concurrent.Immutable;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.core.util.UuidFactory;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.db.ce.CeTaskStatisticDto;
+
+import static com.google.common.collect.ImmutableList.copyOf;
+import static org.apache.commons.lang.StringUtils.abbreviate;
+import static org.sonar.core.util.stream.MoreCollectors.toList;
+
+/**
+ * Persists the {@link TaskStatistic}s of the processed tasks in table CE_TASK_STATISTICS and keeps the ones of the
+ * last processed task in memory, so that they can be exposed by the monitoring of the Compute Engine.
+ */
+public class TaskStatisticsRecorder {
+
+  private static final Logger LOGGER = Loggers.get(TaskStatisticsRecorder.class);
+  private static final int MAX_NAME_LENGTH = 255;
+
+  private final DbClient dbClient;
+  private final UuidFactory uuidFactory;
+  private final AtomicReference<RecordedTask> lastTask = new AtomicReference<>();
+
+  public TaskStatisticsRecorder(DbClient dbClient, UuidFactory uuidFactory) {
+    this.dbClient = dbClient;
+    this.uuidFactory = uuidFactory;
+  }
+
+  /**
+   * Failures are logged and never propagated, statistics must not fail the processing of a task.
+   */
+  public void record(String taskUuid, List<TaskStatistic> statistics) {
+    lastTask.set(new RecordedTask(taskUuid, statistics));
+    if (statistics.isEmpty()) {
+      return;
+    }
+    try (DbSession dbSession = dbClient.openSession(false)) {
+      dbClient.ceTaskStatisticDao().insert(dbSession, statistics.stream()
+        .map(statistic -> toDto(taskUuid, statistic))
+        .collect(toList(statistics.size())));
+      dbSession.commit();
+    } catch (Exception e) {
+      LOGGER.error("Failed to persist statistics of task {}", taskUuid, e);
+    }
+  }
+
+  public Optional<RecordedTask> getLastTask() {
+    return Optional.ofNullable(lastTask.get());
+  }
+
+  private CeTaskStatisticDto toDto(String taskUuid, TaskStatistic statistic) {
+    ResourceUsage resourceUsage = statistic.getResourceUsage();
+    return new CeTaskStatisticDto()
+      .setUuid(uuidFactory.create())
+      .setTaskUuid(taskUuid)
+      .setKind(CeTaskStatisticDto.Kind.valueOf(statistic.getKind().name()))
+      .setName(abbreviate(statistic.getName(), MAX_NAME_LENGTH))
+      .setDurationMs(resourceUsage.getDurationMs())
+      .setCpuTimeMs(resourceUsage.getCpuTimeMs())
+      .setAllocatedBytes(resourceUsage.getAllocatedBytes());
+  }
+
+  @Immutable
+  public static final class RecordedTask {
+    private final String taskUuid;
+    private final List<TaskStatistic> statistics;
+
+    private RecordedTask(String taskUuid, List<TaskStatistic> statistics) {
+      this.taskUuid = taskUuid;
+      this.statistics = copyOf(statistics);
+    }
+
+    public String getTaskUuid() {
+      return taskUuid;
+    }
+
+    public List<TaskStatistic> getStatistics() {
+      return statistics;
+    }
+  }
+}
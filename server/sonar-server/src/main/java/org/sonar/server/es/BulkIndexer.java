@@ -20,6 +20,7 @@
 package org.sonar.server.es;
 
 import com.google.common.annotations.VisibleForTesting;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -27,7 +28,6 @@ import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 import org.elasticsearch.action.DocWriteRequest;
-import org.elasticsearch.action.admin.indices.settings.get.GetSettingsResponse;
 import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsRequestBuilder;
 import org.elasticsearch.action.bulk.BackoffPolicy;
 import org.elasticsearch.action.bulk.BulkItemResponse;
@@ -40,16 +40,24 @@ import org.elasticsearch.action.delete.DeleteRequestBuilder;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.support.replication.ReplicationRequest;
+import org.elasticsearch.action.support.single.instance.InstanceShardOperationRequest;
+import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.VersionType;
+import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHitField;
 import org.elasticsearch.search.sort.SortOrder;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.core.util.ProgressLogger;
+import org.sonar.server.es.metadata.MetadataIndex;
 
 import static java.lang.String.format;
 
@@ -58,7 +66,14 @@ import static java.lang.String.format;
  * <ul>
  *   <li>bulk request is sent on the wire when its size is higher than 5Mb</li>
  *   <li>on large table indexing, replicas and automatic refresh can be temporarily disabled</li>
+ *   <li>when the index is being rebuilt in background (see {@link IndexCreator}), the population
+ *   (see {@link #forPopulation(EsClient, IndexType, Size)}) writes to the new index only, while the other requests
+ *   are sent to both the current and the new indices</li>
  * </ul>
+ * Documents of a new index are versioned so that the population never overwrites a document written
+ * or deleted by a concurrent request: population writes version {@link #POPULATION_VERSION}, which is
+ * rejected when the document already has version {@link #MIRRORED_VERSION}. Tombstones of deleted documents
+ * are kept during the rebuild (see {@link IndexCreator}). Partial updates do not support versioning.
  */
 public class BulkIndexer {
 
@@ -67,6 +82,8 @@ public class BulkIndexer {
   private static final int FLUSH_ACTIONS = -1;
   private static final String REFRESH_INTERVAL_SETTING = "index.refresh_interval";
   private static final int DEFAULT_NUMBER_OF_SHARDS = 5;
+  private static final long POPULATION_VERSION = 1L;
+  private static final long MIRRORED_VERSION = 2L;
 
   private final EsClient client;
   private final IndexType indexType;
@@ -74,15 +91,23 @@ public class BulkIndexer {
   private final IndexingResult result = new IndexingResult();
   private final IndexingListener indexingListener;
   private final SizeHandler sizeHandler;
+  private final boolean populatesRebuildIndex;
+  @Nullable
+  private String rebuildIndex;
 
   public BulkIndexer(EsClient client, IndexType indexType, Size size) {
     this(client, indexType, size, IndexingListener.FAIL_ON_ERROR);
   }
 
   public BulkIndexer(EsClient client, IndexType indexType, Size size, IndexingListener indexingListener) {
+    this(client, indexType, size, indexingListener, false);
+  }
+
+  private BulkIndexer(EsClient client, IndexType indexType, Size size, IndexingListener indexingListener, boolean populatesRebuildIndex) {
     this.client = client;
     this.indexType = indexType;
     this.sizeHandler = size.createHandler(Runtime2.INSTANCE);
+    this.populatesRebuildIndex = populatesRebuildIndex;
     this.indexingListener = indexingListener;
     BulkProcessorListener bulkProcessorListener = new BulkProcessorListener();
     this.bulkProcessor = BulkProcessor.builder(client.nativeClient(), bulkProcessorListener)
@@ -93,12 +118,22 @@ public class BulkIndexer {
       .build();
   }
 
+  /**
+   * Bulk indexer to be used by {@link StartupIndexer#indexOnStartup(java.util.Set)} to populate the index from database.
+   * When the index is being rebuilt, the requests are sent to the new index only and they do not overwrite
+   * the documents written or deleted concurrently.
+   */
+  public static BulkIndexer forPopulation(EsClient client, IndexType indexType, Size size) {
+    return new BulkIndexer(client, indexType, size, IndexingListener.FAIL_ON_ERROR, true);
+  }
+
   public IndexType getIndexType() {
     return indexType;
   }
 
   public void start() {
     result.clear();
+    rebuildIndex = new MetadataIndex(client).getPendingRebuildIndex(indexType.getIndex());
     sizeHandler.beforeStart(this);
   }
 
@@ -113,26 +148,74 @@ public class BulkIndexer {
       throw new IllegalStateException("Elasticsearch bulk requests still being executed after 1 minute", e);
     }
     client.prepareRefresh(indexType.getIndex()).get();
+    if (rebuildIndex != null) {
+      client.prepareRefresh(rebuildIndex).get();
+    }
     sizeHandler.afterStop(this);
     indexingListener.onFinish(result);
     return result;
   }
 
   public void add(IndexRequest request) {
-    result.incrementRequests();
-    bulkProcessor.add(request);
+    doAdd(request);
   }
 
   public void add(DeleteRequest request) {
-    result.incrementRequests();
-    bulkProcessor.add(request);
+    doAdd(request);
   }
 
   public void add(DocWriteRequest request) {
+    doAdd(request);
+  }
+
+  private void doAdd(DocWriteRequest request) {
     result.incrementRequests();
+    if (rebuildIndex != null && indexType.getIndex().equals(request.index())) {
+      if (populatesRebuildIndex) {
+        bulkProcessor.add(setVersion(setIndex(request, rebuildIndex), VersionType.EXTERNAL, POPULATION_VERSION));
+        return;
+      }
+      result.incrementRequests();
+      bulkProcessor.add(setVersion(setIndex(copy(request), rebuildIndex), VersionType.EXTERNAL_GTE, MIRRORED_VERSION));
+    }
     bulkProcessor.add(request);
   }
 
+  /**
+   * The index to which settings are temporarily changed during large indexing
+   */
+  private String getSettingsIndex() {
+    return rebuildIndex != null && populatesRebuildIndex ? rebuildIndex : indexType.getIndex();
+  }
+
+  private static DocWriteRequest copy(DocWriteRequest request) {
+    try (BytesStreamOutput output = new BytesStreamOutput()) {
+      DocWriteRequest.writeDocumentRequest(output, request);
+      return DocWriteRequest.readDocumentRequest(output.bytes().streamInput());
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to copy request " + request, e);
+    }
+  }
+
+  private static DocWriteRequest setIndex(DocWriteRequest request, String index) {
+    if (request instanceof ReplicationRequest) {
+      ((ReplicationRequest) request).index(index);
+    } else if (request instanceof InstanceShardOperationRequest) {
+      ((InstanceShardOperationRequest) request).index(index);
+    } else {
+      throw new IllegalArgumentException("Unsupported request " + request);
+    }
+    return request;
+  }
+
+  private static DocWriteRequest setVersion(DocWriteRequest request, VersionType versionType, long version) {
+    if (!(request instanceof UpdateRequest)) {
+      request.versionType(versionType);
+      request.version(version);
+    }
+    return request;
+  }
+
   public void addDeletion(SearchRequestBuilder searchRequest) {
     // TODO to be replaced by delete_by_query that is back in ES5
     searchRequest
@@ -152,7 +235,10 @@ public class BulkIndexer {
       SearchHit[] hits = searchResponse.getHits().getHits();
       for (SearchHit hit : hits) {
         SearchHitField routing = hit.getField("_routing");
-        DeleteRequestBuilder deleteRequestBuilder = client.prepareDelete(hit.getIndex(), hit.getType(), hit.getId());
+        // hits have the name of the physical index, which is not the name of an index rebuilt before,
+        // so deletions would not be sent to the index being rebuilt
+        String index = hit.getIndex().equals(rebuildIndex) ? rebuildIndex : indexType.getIndex();
+        DeleteRequestBuilder deleteRequestBuilder = client.prepareDelete(index, hit.getType(), hit.getId());
         if (routing != null) {
           deleteRequestBuilder.setRouting(routing.getValue());
         }
@@ -199,7 +285,7 @@ public class BulkIndexer {
     public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
       List<DocId> successDocIds = new ArrayList<>();
       for (BulkItemResponse item : response.getItems()) {
-        if (item.isFailed()) {
+        if (item.isFailed() && !isVersionConflictOnRebuildIndex(item)) {
           LOGGER.error("index [{}], type [{}], id [{}], message [{}]", item.getIndex(), item.getType(), item.getId(), item.getFailureMessage());
         } else {
           result.incrementSuccess();
@@ -209,6 +295,13 @@ public class BulkIndexer {
       indexingListener.onSuccess(successDocIds);
     }
 
+    /**
+     * The document has been written or deleted by a more recent request during the rebuild
+     */
+    private boolean isVersionConflictOnRebuildIndex(BulkItemResponse item) {
+      return item.getIndex().equals(rebuildIndex) && item.status() == RestStatus.CONFLICT;
+    }
+
     @Override
     public void afterBulk(long executionId, BulkRequest req, Throwable e) {
       LOGGER.error("Fail to execute bulk index request: " + req, e);
@@ -290,17 +383,19 @@ public class BulkIndexer {
         .setPluralLabel("requests");
       this.progress.start();
       Map<String, Object> temporarySettings = new HashMap<>();
-      GetSettingsResponse settingsResp = bulkIndexer.client.nativeClient().admin().indices().prepareGetSettings(bulkIndexer.indexType.getIndex()).get();
+      // the index name may be an alias, so settings are not read by index name
+      Settings indexSettings = bulkIndexer.client.nativeClient().admin().indices().prepareGetSettings(bulkIndexer.getSettingsIndex()).get()
+        .getIndexToSettings().valuesIt().next();
 
       // deactivate replicas
-      int initialReplicas = Integer.parseInt(settingsResp.getSetting(bulkIndexer.indexType.getIndex(), IndexMetaData.SETTING_NUMBER_OF_REPLICAS));
+      int initialReplicas = Integer.parseInt(indexSettings.get(IndexMetaData.SETTING_NUMBER_OF_REPLICAS));
       if (initialReplicas > 0) {
         initialSettings.put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, initialReplicas);
         temporarySettings.put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0);
       }
 
       // deactivate periodical refresh
-      String refreshInterval = settingsResp.getSetting(bulkIndexer.indexType.getIndex(), REFRESH_INTERVAL_SETTING);
+      String refreshInterval = indexSettings.get(REFRESH_INTERVAL_SETTING);
       initialSettings.put(REFRESH_INTERVAL_SETTING, refreshInterval);
       temporarySettings.put(REFRESH_INTERVAL_SETTING, "-1");
 
@@ -312,14 +407,14 @@ public class BulkIndexer {
       // optimize lucene segments and revert index settings
       // Optimization must be done before re-applying replicas:
       // http://www.elasticsearch.org/blog/performance-considerations-elasticsearch-indexing/
-      bulkIndexer.client.prepareForceMerge(bulkIndexer.indexType.getIndex()).get();
+      bulkIndexer.client.prepareForceMerge(bulkIndexer.getSettingsIndex()).get();
 
       updateSettings(bulkIndexer, initialSettings);
       this.progress.stop();
     }
 
     private static void updateSettings(BulkIndexer bulkIndexer, Map<String, Object> settings) {
-      UpdateSettingsRequestBuilder req = bulkIndexer.client.nativeClient().admin().indices().prepareUpdateSettings(bulkIndexer.indexType.getIndex());
+      UpdateSettingsRequestBuilder req = bulkIndexer.client.nativeClient().admin().indices().prepareUpdateSettings(bulkIndexer.getSettingsIndex());
       req.setSettings(settings);
       req.get();
     }
@@ -22,12 +22,14 @@ package org.sonar.server.es;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import org.apache.commons.lang.StringUtils;
 import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
 import org.elasticsearch.action.admin.indices.mapping.put.PutMappingResponse;
 import org.elasticsearch.cluster.health.ClusterHealthStatus;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.IndexSettings;
 import org.picocontainer.Startable;
 import org.sonar.api.config.Configuration;
 import org.sonar.api.server.ServerSide;
@@ -40,12 +42,21 @@ import org.sonar.server.es.metadata.MetadataIndexDefinition;
 
 /**
  * Creates/deletes all indices in Elasticsearch during server startup.
+ * <p>
+ * When the definition of an existing index changes, the index is not dropped. A new physical index
+ * is created beside it and is populated in background by {@link IndexerStartupTask}. Searches keep
+ * hitting the current index until the name is atomically swapped to an alias of the new index.
+ * The new mappings are also put on the current index, so that the changes sent to both indices meanwhile
+ * are accepted. Fields added this way are complete only after the swap. When mappings are not compatible
+ * (changed type of field, new analyzer, ...), the index is dropped and recreated during startup, as before.
  */
 @ServerSide
 public class IndexCreator implements Startable {
 
   private static final Logger LOGGER = Loggers.get(IndexCreator.class);
   private static final String PROPERY_DISABLE_CHECK = "sonar.search.disableDropOnDbMigration";
+  static final String GC_DELETES_SETTING = IndexSettings.INDEX_GC_DELETES_SETTING.getKey();
+  private static final String REBUILD_GC_DELETES = "1d";
 
   private final MetadataIndexDefinition metadataIndexDefinition;
   private final MetadataIndex metadataIndex;
@@ -79,13 +90,21 @@ public class IndexCreator implements Startable {
     // create indices that do not exist or that have a new definition (different mapping, cluster enabled, ...)
     for (Index index : definitions.getIndices().values()) {
       boolean exists = client.prepareIndicesExist(index.getName()).get().isExists();
-      if (exists && !index.getName().equals(MetadataIndexDefinition.INDEX_TYPE_METADATA.getIndex()) && hasDefinitionChange(index)) {
-        LOGGER.info("Delete Elasticsearch index {} (structure changed)", index.getName());
-        deleteIndex(index.getName());
-        exists = false;
-      }
       if (!exists) {
         createIndex(index, true);
+      } else if (!index.getName().equals(MetadataIndexDefinition.INDEX_TYPE_METADATA.getIndex())) {
+        Optional<String> pendingRebuild = metadataIndex.getRebuildIndex(index.getName());
+        if (hasDefinitionChange(index) || pendingRebuild.isPresent()) {
+          // a rebuild interrupted by a previous stop is restarted from scratch
+          pendingRebuild.ifPresent(this::deleteIndexIfExists);
+          if (putMappings(index, index.getName())) {
+            createRebuildIndex(index);
+          } else {
+            LOGGER.info("Delete Elasticsearch index {} (incompatible structure change)", index.getName());
+            Arrays.stream(getPhysicalIndices(index.getName())).forEach(this::deleteIndex);
+            createIndex(index, true);
+          }
+        }
       }
     }
   }
@@ -95,29 +114,67 @@ public class IndexCreator implements Startable {
     // nothing to do
   }
 
+  private void createRebuildIndex(Index index) {
+    String rebuildIndex = index.getName() + "_" + System.currentTimeMillis();
+    LOGGER.info("Rebuild Elasticsearch index {} in background into {} (structure changed)", index.getName(), rebuildIndex);
+    // tombstones of the documents deleted during the rebuild prevent the population from writing them again
+    createPhysicalIndex(index, rebuildIndex, Settings.builder().put(GC_DELETES_SETTING, REBUILD_GC_DELETES));
+    // hash of current index is replaced when the rebuilt index starts being searched
+    metadataIndex.setRebuildHash(index.getName(), IndexDefinitionHash.of(index));
+    metadataIndex.setRebuildIndex(index.getName(), rebuildIndex);
+  }
+
+  /**
+   * @return false if the mappings are not compatible with the existing ones
+   */
+  private boolean putMappings(Index index, String indexName) {
+    try {
+      for (Map.Entry<String, IndexDefinitions.IndexType> entry : index.getTypes().entrySet()) {
+        client.preparePutMapping(indexName)
+          .setType(entry.getKey())
+          .setSource(entry.getValue().getAttributes())
+          .get();
+      }
+      return true;
+    } catch (IllegalStateException e) {
+      // failure of request is wrapped by EsClient
+      LOGGER.debug("Mappings of index {} can not be updated", indexName, e);
+      return false;
+    }
+  }
+
+  private String[] getPhysicalIndices(String indexName) {
+    // the name is an alias if the index has already been rebuilt
+    return client.nativeClient().admin().indices().prepareGetIndex().setIndices(indexName).get().getIndices();
+  }
+
   private void createIndex(Index index, boolean useMetadata) {
-    LOGGER.info(String.format("Create index %s", index.getName()));
-    Settings.Builder settings = Settings.builder();
-    settings.put(index.getSettings());
     if (useMetadata) {
       metadataIndex.setHash(index.getName(), IndexDefinitionHash.of(index));
+      metadataIndex.setRebuildIndex(index.getName(), null);
       for (IndexDefinitions.IndexType type : index.getTypes().values()) {
         metadataIndex.setInitialized(new IndexType(index.getName(), type.getName()), false);
       }
     }
+    createPhysicalIndex(index, index.getName(), Settings.builder());
+  }
+
+  private void createPhysicalIndex(Index index, String indexName, Settings.Builder settings) {
+    LOGGER.info(String.format("Create index %s", indexName));
+    settings.put(index.getSettings());
     CreateIndexResponse indexResponse = client
-      .prepareCreate(index.getName())
+      .prepareCreate(indexName)
       .setSettings(settings)
       .get();
     if (!indexResponse.isAcknowledged()) {
-      throw new IllegalStateException("Failed to create index " + index.getName());
+      throw new IllegalStateException("Failed to create index " + indexName);
     }
     client.waitForStatus(ClusterHealthStatus.YELLOW);
 
     // create types
     for (Map.Entry<String, IndexDefinitions.IndexType> entry : index.getTypes().entrySet()) {
-      LOGGER.info(String.format("Create type %s/%s", index.getName(), entry.getKey()));
-      PutMappingResponse mappingResponse = client.preparePutMapping(index.getName())
+      LOGGER.info(String.format("Create type %s/%s", indexName, entry.getKey()));
+      PutMappingResponse mappingResponse = client.preparePutMapping(indexName)
         .setType(entry.getKey())
         .setSource(entry.getValue().getAttributes())
         .get();
@@ -132,6 +189,12 @@ public class IndexCreator implements Startable {
     client.nativeClient().admin().indices().prepareDelete(indexName).get();
   }
 
+  private void deleteIndexIfExists(String indexName) {
+    if (client.prepareIndicesExist(indexName).get().isExists()) {
+      deleteIndex(indexName);
+    }
+  }
+
   private boolean hasDefinitionChange(Index index) {
     return metadataIndex.getHash(index.getName())
       .map(hash -> {
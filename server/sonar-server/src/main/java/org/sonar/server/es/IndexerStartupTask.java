@@ -19,11 +19,18 @@
  */
 package org.sonar.server.es;
 
+import com.google.common.annotations.VisibleForTesting;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.elasticsearch.action.admin.cluster.health.ClusterHealthAction;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequestBuilder;
 import org.elasticsearch.client.Client;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.IndexSettings;
 import org.sonar.api.config.Configuration;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
@@ -51,17 +58,80 @@ public class IndexerStartupTask {
 
   public void execute() {
     if (indexesAreEnabled()) {
+      Map<String, String> rebuildIndices = new HashMap<>();
       stream(indexers)
-        .forEach(this::indexUninitializedTypes);
+        .forEach(indexer -> indexUninitializedTypes(indexer, rebuildIndices));
+      if (!rebuildIndices.isEmpty()) {
+        Thread thread = new Thread(() -> rebuild(rebuildIndices), "IndexRebuild");
+        thread.setDaemon(true);
+        thread.start();
+      }
     }
   }
 
+  /**
+   * Populates the new physical indices from database, then atomically moves the names
+   * of the indices to the new physical indices. In the meantime searches keep hitting the
+   * current indices and changes are sent to both current and new indices by {@link BulkIndexer}.
+   * These changes are not overwritten by the population, which may have read the database before.
+   */
+  @VisibleForTesting
+  void rebuild(Map<String, String> rebuildIndices) {
+    try {
+      Set<IndexType> rebuiltTypes = new HashSet<>();
+      for (StartupIndexer indexer : indexers) {
+        Set<IndexType> types = indexer.getIndexTypes().stream()
+          .filter(indexType -> rebuildIndices.containsKey(indexType.getIndex()))
+          .collect(toSet());
+        if (!types.isEmpty()) {
+          Profiler profiler = Profiler.create(LOG);
+          profiler.startInfo(getLogMessage(types, "in background..."));
+          indexer.indexOnStartup(types);
+          profiler.stopInfo(getLogMessage(types, "in background done"));
+          rebuiltTypes.addAll(types);
+        }
+      }
+      rebuildIndices.forEach(this::swap);
+      rebuiltTypes.forEach(indexType -> metadataIndex.setInitialized(indexType, true));
+    } catch (RuntimeException e) {
+      LOG.error("Fail to rebuild indices " + rebuildIndices.keySet() + ". They will be rebuilt on next startup.", e);
+    }
+  }
+
+  private void swap(String index, String rebuildIndex) {
+    waitForIndexYellow(rebuildIndex);
+    String[] previousIndices = esClient.nativeClient().admin().indices().prepareGetIndex().setIndices(index).get().getIndices();
+    IndicesAliasesRequestBuilder request = esClient.nativeClient().admin().indices().prepareAliases();
+    stream(previousIndices).forEach(request::removeIndex);
+    request.addAlias(rebuildIndex, index).get();
+    // deleted documents do not need to be remembered anymore
+    esClient.nativeClient().admin().indices().prepareUpdateSettings(rebuildIndex)
+      .setSettings(Settings.builder().put(IndexCreator.GC_DELETES_SETTING, IndexSettings.DEFAULT_GC_DELETES.getStringRep()))
+      .get();
+    metadataIndex.getRebuildHash(index).ifPresent(hash -> metadataIndex.setHash(index, hash));
+    metadataIndex.setRebuildIndex(index, null);
+    LOG.info("Index {} is now served by {}", index, rebuildIndex);
+  }
+
   private boolean indexesAreEnabled() {
     return !config.getBoolean("sonar.internal.es.disableIndexes").orElse(false);
   }
 
-  private void indexUninitializedTypes(StartupIndexer indexer) {
-    Set<IndexType> uninitializedTypes = getUninitializedTypes(indexer);
+  /**
+   * @param rebuildIndices the indices which are being rebuilt, with the name of their new physical index. Completed
+   *                       by this method.
+   */
+  private void indexUninitializedTypes(StartupIndexer indexer, Map<String, String> rebuildIndices) {
+    Set<IndexType> indexTypes = indexer.getIndexTypes();
+    indexTypes.stream()
+      .map(IndexType::getIndex)
+      .filter(index -> !rebuildIndices.containsKey(index))
+      .forEach(index -> metadataIndex.getRebuildIndex(index).ifPresent(rebuildIndex -> rebuildIndices.put(index, rebuildIndex)));
+    // indices being rebuilt are populated later, in background
+    Set<IndexType> uninitializedTypes = indexTypes.stream()
+      .filter(indexType -> !rebuildIndices.containsKey(indexType.getIndex()))
+      .filter(indexType -> !metadataIndex.getInitialized(indexType))
+      .collect(toSet());
     if (!uninitializedTypes.isEmpty()) {
       Profiler profiler = Profiler.create(LOG);
       profiler.startInfo(getLogMessage(uninitializedTypes, "..."));
@@ -71,10 +141,6 @@ public class IndexerStartupTask {
     }
   }
 
-  private Set<IndexType> getUninitializedTypes(StartupIndexer indexer) {
-    return indexer.getIndexTypes().stream().filter(indexType -> !metadataIndex.getInitialized(indexType)).collect(toSet());
-  }
-
   private void setInitialized(IndexType indexType) {
     String index = indexType.getIndex();
     waitForIndexYellow(index);
@@ -23,11 +23,18 @@ package org.sonar.server.es;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ListMultimap;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang.math.RandomUtils;
@@ -43,7 +50,19 @@ import org.sonar.db.DbSession;
 import org.sonar.db.es.EsQueueDto;
 
 import static java.lang.String.format;
+import static java.util.Collections.singletonList;
 
+/**
+ * Periodically indexes the items of table ES_QUEUE that have not been processed
+ * by the indexers, for example because Elasticsearch was not available.
+ * <p>
+ * Items of a loop are grouped by type and by routing (the project for most of the types), and
+ * the groups are indexed in parallel by {@link #PROPERTY_THREADS} threads. The number of items
+ * loaded in a loop starts at {@link #PROPERTY_LOOP_LIMIT}. It is halved when a loop takes more than
+ * {@link #PROPERTY_LOOP_TARGET_DURATION}, for example when Elasticsearch is overloaded, and is
+ * doubled again (without exceeding {@link #PROPERTY_LOOP_LIMIT}) when loops are fast.
+ * </p>
+ */
 public class RecoveryIndexer implements Startable {
 
   private static final Logger LOGGER = Loggers.get(RecoveryIndexer.class);
@@ -52,9 +71,14 @@ public class RecoveryIndexer implements Startable {
   private static final String PROPERTY_DELAY = "sonar.search.recovery.delayInMs";
   private static final String PROPERTY_MIN_AGE = "sonar.search.recovery.minAgeInMs";
   private static final String PROPERTY_LOOP_LIMIT = "sonar.search.recovery.loopLimit";
+  private static final String PROPERTY_LOOP_TARGET_DURATION = "sonar.search.recovery.loopTargetDurationInMs";
+  private static final String PROPERTY_THREADS = "sonar.search.recovery.threads";
   private static final long DEFAULT_DELAY_IN_MS = 5L * 60 * 1000;
   private static final long DEFAULT_MIN_AGE_IN_MS = 5L * 60 * 1000;
   private static final int DEFAULT_LOOP_LIMIT = 10_000;
+  private static final long DEFAULT_LOOP_TARGET_DURATION_IN_MS = 30_000L;
+  private static final int DEFAULT_THREADS = 2;
+  private static final long MIN_LOOP_LIMIT = 10;
   private static final double CIRCUIT_BREAKER_IN_PERCENT = 0.7;
 
   private final ScheduledExecutorService executorService = Executors.newScheduledThreadPool(1,
@@ -65,9 +89,15 @@ public class RecoveryIndexer implements Startable {
   private final System2 system2;
   private final Configuration config;
   private final DbClient dbClient;
+  private final ExecutorService indexingService;
   private final Map<IndexType, ResilientIndexer> indexersByType;
   private final long minAgeInMs;
   private final long loopLimit;
+  private final long loopTargetDurationInMs;
+  private final int threads;
+  private volatile long currentLoopLimit;
+  private volatile long lastRunDocuments = 0L;
+  private volatile long lastRunDurationInMs = 0L;
 
   public RecoveryIndexer(System2 system2, Configuration config, DbClient dbClient, ResilientIndexer... indexers) {
     this.system2 = system2;
@@ -77,6 +107,15 @@ public class RecoveryIndexer implements Startable {
     Arrays.stream(indexers).forEach(i -> i.getIndexTypes().forEach(indexType -> indexersByType.put(indexType, i)));
     this.minAgeInMs = getSetting(PROPERTY_MIN_AGE, DEFAULT_MIN_AGE_IN_MS);
     this.loopLimit = getSetting(PROPERTY_LOOP_LIMIT, DEFAULT_LOOP_LIMIT);
+    this.loopTargetDurationInMs = getSetting(PROPERTY_LOOP_TARGET_DURATION, DEFAULT_LOOP_TARGET_DURATION_IN_MS);
+    this.threads = (int) Math.max(1L, getSetting(PROPERTY_THREADS, DEFAULT_THREADS));
+    this.currentLoopLimit = loopLimit;
+    this.indexingService = Executors.newFixedThreadPool(threads,
+      new ThreadFactoryBuilder()
+        .setPriority(Thread.MIN_PRIORITY)
+        .setNameFormat("RecoveryIndexer-worker-%d")
+        .setDaemon(true)
+        .build());
   }
 
   @Override
@@ -99,9 +138,11 @@ public class RecoveryIndexer implements Startable {
     try {
       executorService.shutdown();
       executorService.awaitTermination(5, TimeUnit.SECONDS);
+      indexingService.shutdown();
     } catch (InterruptedException e) {
       LOGGER.error(LOG_PREFIX + "Unable to stop recovery indexer in timely fashion", e);
       executorService.shutdownNow();
+      indexingService.shutdownNow();
       Thread.currentThread().interrupt();
     }
   }
@@ -110,14 +151,15 @@ public class RecoveryIndexer implements Startable {
   void recover() {
     try (DbSession dbSession = dbClient.openSession(false)) {
       Profiler profiler = Profiler.create(LOGGER).start();
-      long beforeDate = system2.now() - minAgeInMs;
+      long start = system2.now();
+      long beforeDate = start - minAgeInMs;
       IndexingResult result = new IndexingResult();
 
-      Collection<EsQueueDto> items = dbClient.esQueueDao().selectForRecovery(dbSession, beforeDate, loopLimit);
+      Collection<EsQueueDto> items = dbClient.esQueueDao().selectForRecovery(dbSession, beforeDate, currentLoopLimit);
       while (!items.isEmpty()) {
-        IndexingResult loopResult = new IndexingResult();
-
-        groupItemsByType(items).asMap().forEach((type, typeItems) -> loopResult.add(doIndex(dbSession, type, typeItems)));
+        long loopStart = system2.now();
+        IndexingResult loopResult = indexInParallel(items);
+        adaptLoopLimit(items.size(), system2.now() - loopStart);
         result.add(loopResult);
 
         if (loopResult.getSuccessRatio() <= CIRCUIT_BREAKER_IN_PERCENT) {
@@ -129,9 +171,11 @@ public class RecoveryIndexer implements Startable {
           break;
         }
 
-        items = dbClient.esQueueDao().selectForRecovery(dbSession, beforeDate, loopLimit);
+        items = dbClient.esQueueDao().selectForRecovery(dbSession, beforeDate, currentLoopLimit);
       }
       if (result.getTotal() > 0L) {
+        lastRunDocuments = result.getTotal();
+        lastRunDurationInMs = system2.now() - start;
         profiler.stopInfo(LOG_PREFIX + format("%d documents processed [%d failures]", result.getTotal(), result.getFailures()));
       }
     } catch (Throwable t) {
@@ -139,7 +183,23 @@ public class RecoveryIndexer implements Startable {
     }
   }
 
-  private IndexingResult doIndex(DbSession dbSession, IndexType type, Collection<EsQueueDto> typeItems) {
+  private IndexingResult indexInParallel(Collection<EsQueueDto> items) throws InterruptedException {
+    List<Callable<IndexingResult>> tasks = new ArrayList<>();
+    groupItemsByType(items).asMap().forEach((type, typeItems) -> partitionByRouting(typeItems)
+      .forEach(partition -> tasks.add(() -> doIndex(type, partition))));
+
+    IndexingResult loopResult = new IndexingResult();
+    for (Future<IndexingResult> future : indexingService.invokeAll(tasks)) {
+      try {
+        loopResult.add(future.get());
+      } catch (ExecutionException e) {
+        throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new IllegalStateException(e.getCause());
+      }
+    }
+    return loopResult;
+  }
+
+  private IndexingResult doIndex(IndexType type, Collection<EsQueueDto> typeItems) {
     LOGGER.trace(LOG_PREFIX + "processing {} {}", typeItems.size(), type);
 
     ResilientIndexer indexer = indexersByType.get(type);
@@ -147,7 +207,54 @@ public class RecoveryIndexer implements Startable {
       LOGGER.error(LOG_PREFIX + "ignore {} items with unsupported type {}", typeItems.size(), type);
       return new IndexingResult();
     }
-    return indexer.index(dbSession, typeItems);
+    // DB sessions are not thread-safe
+    try (DbSession dbSession = dbClient.openSession(false)) {
+      return indexer.index(dbSession, typeItems);
+    }
+  }
+
+  /**
+   * Items of the same document always have the same routing, so they are processed
+   * by the same indexing task.
+   */
+  private Collection<Collection<EsQueueDto>> partitionByRouting(Collection<EsQueueDto> items) {
+    if (threads == 1) {
+      return singletonList(items);
+    }
+    ListMultimap<Integer, EsQueueDto> partitions = items.stream()
+      .collect(MoreCollectors.index(i -> Math.floorMod(Objects.hashCode(i.getDocRouting()), threads)));
+    return partitions.asMap().values();
+  }
+
+  private void adaptLoopLimit(int loopSize, long loopDurationInMs) {
+    long limit = currentLoopLimit;
+    if (loopDurationInMs > loopTargetDurationInMs) {
+      limit = Math.max(Math.min(MIN_LOOP_LIMIT, loopLimit), limit / 2);
+    } else if (loopDurationInMs <= loopTargetDurationInMs / 2 && loopSize >= limit) {
+      limit = Math.min(loopLimit, limit * 2);
+    }
+    if (limit != currentLoopLimit) {
+      LOGGER.debug(LOG_PREFIX + "loop of {} documents took {} ms, loading {} documents per loop", loopSize, loopDurationInMs, limit);
+      currentLoopLimit = limit;
+    }
+  }
+
+  /**
+   * Maximum number of documents loaded in the next loop, see {@link #PROPERTY_LOOP_TARGET_DURATION}
+   */
+  public long getCurrentLoopLimit() {
+    return currentLoopLimit;
+  }
+
+  /**
+   * Number of documents processed by the last run that found documents to recover
+   */
+  public long getLastRunDocuments() {
+    return lastRunDocuments;
+  }
+
+  public long getLastRunDurationInMs() {
+    return lastRunDurationInMs;
   }
 
   private static ListMultimap<IndexType, EsQueueDto> groupItemsByType(Collection<EsQueueDto> items) {
@@ -20,8 +20,13 @@
 package org.sonar.server.es.metadata;
 
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import org.elasticsearch.action.get.GetRequestBuilder;
 import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.index.IndexNotFoundException;
 import org.elasticsearch.index.get.GetField;
 import org.sonar.server.es.EsClient;
 import org.sonar.server.es.IndexType;
@@ -33,6 +38,12 @@ public class MetadataIndex {
   private static final String DB_VENDOR_KEY = "dbVendor";
   private static final String DB_SCHEMA_VERSION_KEY = "dbSchemaVersion";
 
+  /**
+   * Indices known to have no pending rebuild in this process. Rebuilds are started only
+   * by {@link org.sonar.server.es.IndexCreator} when the server starts.
+   */
+  private static final Set<String> INDICES_WITHOUT_REBUILD = ConcurrentHashMap.newKeySet();
+
   private final EsClient esClient;
 
   public MetadataIndex(EsClient esClient) {
@@ -51,6 +62,67 @@ public class MetadataIndex {
     return index + ".indexStructure";
   }
 
+  /**
+   * Name of the physical index which is being rebuilt in background, while searches
+   * keep hitting the current index {@code index}.
+   */
+  public Optional<String> getRebuildIndex(String index) {
+    return getMetadata(rebuildId(index));
+  }
+
+  /**
+   * Same as {@link #getRebuildIndex(String)}, except that the metadata index is not requested
+   * anymore once the index is known to have no pending rebuild. That avoids a request for each
+   * bulk of documents.
+   */
+  @CheckForNull
+  public String getPendingRebuildIndex(String index) {
+    if (INDICES_WITHOUT_REBUILD.contains(index)) {
+      return null;
+    }
+    try {
+      Optional<String> rebuildIndex = getRebuildIndex(index);
+      if (!rebuildIndex.isPresent()) {
+        INDICES_WITHOUT_REBUILD.add(index);
+      }
+      return rebuildIndex.orElse(null);
+    } catch (IndexNotFoundException e) {
+      // metadata index does not exist yet
+      return null;
+    }
+  }
+
+  public void setRebuildIndex(String index, @Nullable String rebuildIndex) {
+    if (rebuildIndex == null) {
+      deleteMetadata(rebuildId(index));
+      deleteMetadata(rebuildHashId(index));
+      INDICES_WITHOUT_REBUILD.add(index);
+    } else {
+      INDICES_WITHOUT_REBUILD.remove(index);
+      setMetadata(rebuildId(index), rebuildIndex);
+    }
+  }
+
+  private static String rebuildId(String index) {
+    return index + ".rebuildIndex";
+  }
+
+  /**
+   * Hash of the definition of the index which is being rebuilt. It replaces the hash of the
+   * index only when the rebuilt index starts being searched.
+   */
+  public Optional<String> getRebuildHash(String index) {
+    return getMetadata(rebuildHashId(index));
+  }
+
+  public void setRebuildHash(String index, String hash) {
+    setMetadata(rebuildHashId(index), hash);
+  }
+
+  private static String rebuildHashId(String index) {
+    return index + ".rebuildIndexStructure";
+  }
+
   public boolean getInitialized(IndexType indexType) {
     return getMetadata(initializedId(indexType)).map(Boolean::parseBoolean).orElse(false);
   }
@@ -88,6 +160,12 @@ public class MetadataIndex {
     return Optional.empty();
   }
 
+  private void deleteMetadata(String id) {
+    esClient.prepareDelete(MetadataIndexDefinition.INDEX_TYPE_METADATA, id)
+      .setRefreshPolicy(REFRESH_IMMEDIATE)
+      .get();
+  }
+
   private void setMetadata(String id, String value) {
     esClient.prepareIndex(MetadataIndexDefinition.INDEX_TYPE_METADATA)
       .setId(id)
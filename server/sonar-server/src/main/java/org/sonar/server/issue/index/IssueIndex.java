@@ -26,10 +26,12 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -39,6 +41,7 @@ import org.apache.commons.lang.BooleanUtils;
 import org.apache.commons.lang.StringUtils;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
@@ -60,6 +63,7 @@ import org.elasticsearch.search.aggregations.metrics.min.Min;
 import org.elasticsearch.search.aggregations.metrics.sum.SumAggregationBuilder;
 import org.elasticsearch.search.aggregations.metrics.valuecount.InternalValueCount;
 import org.elasticsearch.search.sort.FieldSortBuilder;
+import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 import org.joda.time.Duration;
 import org.sonar.api.utils.DateUtils;
@@ -89,7 +93,10 @@ import static org.elasticsearch.index.query.QueryBuilders.termQuery;
 import static org.elasticsearch.index.query.QueryBuilders.termsQuery;
 import static org.sonar.core.util.stream.MoreCollectors.uniqueIndex;
 import static org.sonar.server.es.BaseDoc.epochMillisToEpochSeconds;
+import static org.sonar.server.es.EsUtils.SCROLL_TIME_IN_MINUTES;
 import static org.sonar.server.es.EsUtils.escapeSpecialRegexChars;
+import static org.sonar.server.es.EsUtils.optimizeScrollRequest;
+import static org.sonar.server.es.EsUtils.scrollIds;
 import static org.sonar.server.issue.index.IssueIndexDefinition.FIELD_ISSUE_ORGANIZATION_UUID;
 import static org.sonar.server.issue.index.IssueIndexDefinition.INDEX_TYPE_ISSUE;
 import static org.sonarqube.ws.client.issue.IssuesWsParameters.DEPRECATED_FACET_MODE_DEBT;
@@ -137,6 +144,12 @@ public class IssueIndex {
     PARAM_TYPES,
     PARAM_CREATED_AT);
   public static final String AGGREGATION_NAME_FOR_TAGS = "tags__issues";
+  /**
+   * Groups of the search statistics of Elasticsearch, which report the latency of the requests
+   * returning hits and of the requests computing facets.
+   */
+  public static final String STATS_GROUP_HITS = "issues_hits";
+  public static final String STATS_GROUP_FACETS = "issues_facets";
   private static final String SUBSTRING_MATCH_REGEXP = ".*%s.*";
   // TODO to be documented
   // TODO move to Facets ?
@@ -145,6 +158,7 @@ public class IssueIndex {
   private static final SumAggregationBuilder EFFORT_AGGREGATION = AggregationBuilders.sum(FACET_MODE_EFFORT).field(IssueIndexDefinition.FIELD_ISSUE_EFFORT);
   private static final Order EFFORT_AGGREGATION_ORDER = Order.aggregation(FACET_MODE_EFFORT, false);
   private static final int DEFAULT_FACET_SIZE = 15;
+  private static final int SCROLL_PAGE_SIZE = 500;
   private static final Duration TWENTY_DAYS = Duration.standardDays(20L);
   private static final Duration TWENTY_WEEKS = Duration.standardDays(20L * 7L);
   private static final Duration TWENTY_MONTHS = Duration.standardDays(20L * 30L);
@@ -340,29 +354,70 @@ public class IssueIndex {
   }
 
   public SearchResponse search(IssueQuery query, SearchOptions options) {
-    SearchRequestBuilder requestBuilder = client.prepareSearch(INDEX_TYPE_ISSUE);
+    SearchRequestBuilder requestBuilder = client.prepareSearch(INDEX_TYPE_ISSUE)
+      .setStats(STATS_GROUP_HITS);
 
     configureSorting(query, requestBuilder);
     configurePagination(options, requestBuilder);
     configureRouting(query, options, requestBuilder);
+    configureQueryAndStickyFacets(query, options, requestBuilder);
+    requestBuilder.setFetchSource(false);
+    return requestBuilder.get();
+  }
+
+  /**
+   * Same as {@link #search(IssueQuery, SearchOptions)} but only the facets are computed, paging and sorting
+   * are ignored. As no hits are requested, the response is kept in the shard request cache of Elasticsearch.
+   * The cache key is the whole request, including the authorization filter of the current user,
+   * and the cache is invalidated each time the index is refreshed, for example after {@link IssueIndexer}
+   * indexed some issues. Note that the facet on creation date ends at the end of the current day, rather
+   * than now, so that the request does not change during the day.
+   */
+  public SearchResponse searchFacets(IssueQuery query, SearchOptions options) {
+    SearchRequestBuilder requestBuilder = client.prepareSearch(INDEX_TYPE_ISSUE)
+      .setSize(0)
+      .setRequestCache(true)
+      .setStats(STATS_GROUP_FACETS);
+    configureQueryAndStickyFacets(query, options, requestBuilder);
+    return requestBuilder.get();
+  }
 
+  private void configureQueryAndStickyFacets(IssueQuery query, SearchOptions options, SearchRequestBuilder requestBuilder) {
     QueryBuilder esQuery = matchAllQuery();
-    BoolQueryBuilder esFilter = boolQuery();
     Map<String, QueryBuilder> filters = createFilters(query);
+    requestBuilder.setQuery(createFilteredQuery(esQuery, filters));
+    configureStickyFacets(query, options, filters, esQuery, requestBuilder);
+  }
+
+  /**
+   * Keys of all the issues matching the query, without any paging limit. Keys are lazily loaded
+   * from Elasticsearch by pages of 500 documents, so memory does not depend on the number
+   * of matching issues. Sorting and facets of the query are ignored, keys are returned in index order.
+   */
+  public Iterator<String> searchAll(IssueQuery query) {
+    SearchRequestBuilder requestBuilder = client
+      .prepareSearch(INDEX_TYPE_ISSUE)
+      .setScroll(TimeValue.timeValueMinutes(SCROLL_TIME_IN_MINUTES))
+      .setSize(SCROLL_PAGE_SIZE);
+    optimizeScrollRequest(requestBuilder);
+    configureRouting(query, new SearchOptions(), requestBuilder);
+
+    requestBuilder.setQuery(createFilteredQuery(matchAllQuery(), createFilters(query)));
+    requestBuilder.setFetchSource(false);
+    return scrollIds(client, requestBuilder.get(), Function.identity());
+  }
+
+  private static QueryBuilder createFilteredQuery(QueryBuilder esQuery, Map<String, QueryBuilder> filters) {
+    BoolQueryBuilder esFilter = boolQuery();
     for (QueryBuilder filter : filters.values()) {
       if (filter != null) {
         esFilter.must(filter);
       }
     }
     if (esFilter.hasClauses()) {
-      requestBuilder.setQuery(boolQuery().must(esQuery).filter(esFilter));
-    } else {
-      requestBuilder.setQuery(esQuery);
+      return boolQuery().must(esQuery).filter(esFilter);
     }
-
-    configureStickyFacets(query, options, filters, esQuery, requestBuilder);
-    requestBuilder.setFetchSource(false);
-    return requestBuilder.get();
+    return esQuery;
   }
 
   private void configureSorting(IssueQuery query, SearchRequestBuilder esRequest) {
@@ -524,7 +579,7 @@ public class IssueIndex {
       startTime = createdAfter.getTime();
     }
     Date createdBefore = query.createdBefore();
-    long endTime = createdBefore == null ? system.now() : createdBefore.getTime();
+    long endTime = createdBefore == null ? getEndOfToday() : createdBefore.getTime();
 
     Duration timeSpan = new Duration(startTime, endTime);
     DateHistogramInterval bucketSize = DateHistogramInterval.YEAR;
@@ -548,6 +603,11 @@ public class IssueIndex {
     return Optional.of(dateHistogram);
   }
 
+  private long getEndOfToday() {
+    DateTimeZone timeZone = DateTimeZone.forOffsetMillis(system.getDefaultTimeZone().getRawOffset());
+    return new DateTime(system.now(), timeZone).plusDays(1).withTimeAtStartOfDay().getMillis();
+  }
+
   private Optional<Long> getMinCreatedAt(Map<String, QueryBuilder> filters, QueryBuilder esQuery) {
     String facetNameAndField = IssueIndexDefinition.FIELD_ISSUE_FUNC_CREATED_AT;
     SearchRequestBuilder esRequest = client
@@ -92,14 +92,14 @@ public class IssueIndexer implements ProjectIndexer, NeedAuthorizationIndexer {
   @Override
   public void indexOnStartup(Set<IndexType> uninitializedIndexTypes) {
     try (IssueIterator issues = issueIteratorFactory.createForAll()) {
-      doIndex(issues, Size.LARGE, IndexingListener.FAIL_ON_ERROR);
+      doIndex(issues, BulkIndexer.forPopulation(esClient, INDEX_TYPE_ISSUE, Size.LARGE));
     }
   }
 
   @Override
   public void indexOnAnalysis(String branchUuid) {
     try (IssueIterator issues = issueIteratorFactory.createForProject(branchUuid)) {
-      doIndex(issues, Size.REGULAR, IndexingListener.FAIL_ON_ERROR);
+      doIndex(issues, createBulkIndexer(Size.REGULAR, IndexingListener.FAIL_ON_ERROR));
     }
   }
 
@@ -234,11 +234,10 @@ public class IssueIndexer implements ProjectIndexer, NeedAuthorizationIndexer {
 
   @VisibleForTesting
   protected void index(Iterator<IssueDoc> issues) {
-    doIndex(issues, Size.LARGE, IndexingListener.FAIL_ON_ERROR);
+    doIndex(issues, createBulkIndexer(Size.LARGE, IndexingListener.FAIL_ON_ERROR));
   }
 
-  private void doIndex(Iterator<IssueDoc> issues, Size size, IndexingListener listener) {
-    BulkIndexer bulk = createBulkIndexer(size, listener);
+  private void doIndex(Iterator<IssueDoc> issues, BulkIndexer bulk) {
     bulk.start();
     while (issues.hasNext()) {
       IssueDoc issue = issues.next();
@@ -0,0 +1,185 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.issue.ws;
+
+import com.google.common.collect.Iterators;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import org.sonar.api.issue.Issue;
+import org.sonar.api.rule.Severity;
+import org.sonar.api.rules.RuleType;
+import org.sonar.api.server.ws.Request;
+import org.sonar.api.server.ws.Response;
+import org.sonar.api.server.ws.WebService;
+import org.sonar.api.utils.text.JsonWriter;
+import org.sonar.core.util.ProtobufJsonFormat;
+import org.sonar.server.issue.IssueQuery;
+import org.sonar.server.issue.IssueQueryFactory;
+import org.sonar.server.issue.SearchRequest;
+import org.sonar.server.issue.index.IssueIndex;
+import org.sonarqube.ws.Issues;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.sonar.server.ws.KeyExamples.KEY_BRANCH_EXAMPLE_001;
+import static org.sonar.server.ws.KeyExamples.KEY_PROJECT_EXAMPLE_001;
+import static org.sonarqube.ws.MediaTypes.JSON;
+import static org.sonarqube.ws.MediaTypes.PROTOBUF;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.FACET_MODE_COUNT;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_BRANCH;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_COMPONENT_KEYS;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_CREATED_AFTER;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_RESOLVED;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_RULES;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_SEVERITIES;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_STATUSES;
+import static org.sonarqube.ws.client.issue.IssuesWsParameters.PARAM_TYPES;
+
+/**
+ * Streams all the issues matching the filters, without paging. Keys are scrolled from Elasticsearch
+ * and the related DB data is loaded by chunks of {@link #CHUNK_SIZE} issues, so that memory does not
+ * depend on the number of exported issues.
+ */
+public class ExportAction implements IssuesWsAction {
+
+  public static final String ACTION_EXPORT = "export";
+  static final int CHUNK_SIZE = 500;
+
+  private final IssueIndex issueIndex;
+  private final IssueQueryFactory issueQueryFactory;
+  private final SearchResponseLoader searchResponseLoader;
+  private final SearchResponseFormat searchResponseFormat;
+
+  public ExportAction(IssueIndex issueIndex, IssueQueryFactory issueQueryFactory, SearchResponseLoader searchResponseLoader,
+    SearchResponseFormat searchResponseFormat) {
+    this.issueIndex = issueIndex;
+    this.issueQueryFactory = issueQueryFactory;
+    this.searchResponseLoader = searchResponseLoader;
+    this.searchResponseFormat = searchResponseFormat;
+  }
+
+  @Override
+  public void define(WebService.NewController controller) {
+    WebService.NewAction action = controller
+      .createAction(ACTION_EXPORT)
+      .setHandler(this)
+      .setDescription("Export all the issues of a project, without paging.<br>" +
+        "Issues are streamed in index order, which is not stable between two calls. " +
+        "In protobuf format, the response is a sequence of length-delimited messages Issue.<br>" +
+        "Requires the 'Browse' permission on the specified project.")
+      .setSince("7.0")
+      .setInternal(true)
+      .setResponseExample(getClass().getResource("export-example.json"));
+
+    action.createParam(PARAM_COMPONENT_KEYS)
+      .setDescription("Comma-separated list of component keys. Retrieve issues associated to a specific list of components (and all its descendants).")
+      .setRequired(true)
+      .setExampleValue(KEY_PROJECT_EXAMPLE_001);
+    action.createParam(PARAM_BRANCH)
+      .setDescription("Branch key")
+      .setExampleValue(KEY_BRANCH_EXAMPLE_001);
+    action.createParam(PARAM_SEVERITIES)
+      .setDescription("Comma-separated list of severities")
+      .setExampleValue(Severity.BLOCKER + "," + Severity.CRITICAL)
+      .setPossibleValues(Severity.ALL);
+    action.createParam(PARAM_STATUSES)
+      .setDescription("Comma-separated list of statuses")
+      .setExampleValue(Issue.STATUS_OPEN + "," + Issue.STATUS_REOPENED)
+      .setPossibleValues(Issue.STATUSES);
+    action.createParam(PARAM_RESOLVED)
+      .setDescription("To match resolved or unresolved issues")
+      .setBooleanPossibleValues();
+    action.createParam(PARAM_RULES)
+      .setDescription("Comma-separated list of coding rule keys. Format is &lt;repository&gt;:&lt;rule&gt;")
+      .setExampleValue("squid:AvoidCycles");
+    action.createParam(PARAM_TYPES)
+      .setDescription("Comma-separated list of types.")
+      .setPossibleValues((Object[]) RuleType.values())
+      .setExampleValue(format("%s,%s", RuleType.CODE_SMELL, RuleType.BUG));
+    action.createParam(PARAM_CREATED_AFTER)
+      .setDescription("To retrieve issues created after the given date (inclusive). <br>" +
+        "Either a date (server timezone) or datetime can be provided.")
+      .setExampleValue("2017-10-19 or 2017-10-19T13:00:00+0200");
+  }
+
+  @Override
+  public void handle(Request request, Response response) throws Exception {
+    IssueQuery query = issueQueryFactory.create(toSearchRequest(request));
+    Iterator<List<String>> chunks = Iterators.partition(issueIndex.searchAll(query), CHUNK_SIZE);
+
+    if (request.getMediaType().equals(PROTOBUF)) {
+      response.stream().setMediaType(PROTOBUF);
+      writeProtobuf(chunks, response.stream().output());
+    } else {
+      response.stream().setMediaType(JSON);
+      try (JsonWriter json = JsonWriter.of(new BufferedWriter(new OutputStreamWriter(response.stream().output(), UTF_8)))) {
+        writeJson(chunks, json);
+      }
+    }
+  }
+
+  private void writeProtobuf(Iterator<List<String>> chunks, OutputStream output) {
+    try {
+      while (chunks.hasNext()) {
+        for (Issues.Issue issue : loadChunk(chunks.next())) {
+          issue.writeDelimitedTo(output);
+        }
+      }
+      output.flush();
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to serialize issues", e);
+    }
+  }
+
+  private void writeJson(Iterator<List<String>> chunks, JsonWriter json) {
+    json.beginObject().name("issues").beginArray();
+    while (chunks.hasNext()) {
+      for (Issues.Issue issue : loadChunk(chunks.next())) {
+        ProtobufJsonFormat.write(issue, json);
+      }
+    }
+    json.endArray().endObject();
+  }
+
+  private List<Issues.Issue> loadChunk(List<String> issueKeys) {
+    EnumSet<SearchAdditionalField> noAdditionalFields = EnumSet.noneOf(SearchAdditionalField.class);
+    SearchResponseLoader.Collector collector = new SearchResponseLoader.Collector(noAdditionalFields, issueKeys);
+    SearchResponseData data = searchResponseLoader.load(collector, null);
+    return searchResponseFormat.formatIssues(noAdditionalFields, data);
+  }
+
+  private static SearchRequest toSearchRequest(Request request) {
+    return new SearchRequest()
+      .setComponentKeys(request.paramAsStrings(PARAM_COMPONENT_KEYS))
+      .setBranch(request.param(PARAM_BRANCH))
+      .setSeverities(request.paramAsStrings(PARAM_SEVERITIES))
+      .setStatuses(request.paramAsStrings(PARAM_STATUSES))
+      .setResolved(request.paramAsBoolean(PARAM_RESOLVED))
+      .setRules(request.paramAsStrings(PARAM_RULES))
+      .setTypes(request.paramAsStrings(PARAM_TYPES))
+      .setCreatedAfter(request.param(PARAM_CREATED_AFTER))
+      .setFacetMode(FACET_MODE_COUNT);
+  }
+}
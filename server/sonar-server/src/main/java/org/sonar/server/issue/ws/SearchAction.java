@@ -325,8 +325,8 @@ public class SearchAction implements IssuesWsAction {
     EnumSet<SearchAdditionalField> additionalFields = SearchAdditionalField.getFromRequest(request);
     IssueQuery query = issueQueryFactory.create(request);
 
-    // execute request
-    SearchResponse result = issueIndex.search(query, options);
+    // execute request. Facets are computed by a dedicated request, which can be cached by Elasticsearch
+    SearchResponse result = issueIndex.search(query, createPagingOptionsFromRequest(request));
     List<String> issueKeys = Arrays.stream(result.getHits().getHits())
       .map(SearchHit::getId)
       .collect(MoreCollectors.toList(result.getHits().getHits().length));
@@ -337,7 +337,7 @@ public class SearchAction implements IssuesWsAction {
     collectRequestParams(collector, request);
     Facets facets = null;
     if (!options.getFacets().isEmpty()) {
-      facets = new Facets(result, system2.getDefaultTimeZone());
+      facets = new Facets(issueIndex.searchFacets(query, options), system2.getDefaultTimeZone());
       // add missing values to facets. For example if assignee "john" and facet on "assignees" are requested, then
       // "john" should always be listed in the facet. If it is not present, then it is added with value zero.
       // This is a constraint from webapp UX.
@@ -367,13 +367,18 @@ public class SearchAction implements IssuesWsAction {
   }
 
   private static SearchOptions createSearchOptionsFromRequest(SearchRequest request) {
-    SearchOptions options = new SearchOptions();
-    options.setPage(request.getPage(), request.getPageSize());
+    SearchOptions options = createPagingOptionsFromRequest(request);
     options.addFacets(request.getFacets());
 
     return options;
   }
 
+  private static SearchOptions createPagingOptionsFromRequest(SearchRequest request) {
+    SearchOptions options = new SearchOptions();
+    options.setPage(request.getPage(), request.getPageSize());
+    return options;
+  }
+
   private Facets reorderFacets(@Nullable Facets facets, Collection<String> orderedNames) {
     if (facets == null) {
       return null;
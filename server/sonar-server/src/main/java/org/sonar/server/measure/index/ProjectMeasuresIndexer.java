@@ -19,15 +19,22 @@
  */
 package org.sonar.server.measure.index;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
-import javax.annotation.Nullable;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.elasticsearch.action.index.IndexRequest;
 import org.sonar.api.resources.Qualifiers;
 import org.sonar.core.util.stream.MoreCollectors;
@@ -35,6 +42,7 @@ import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.es.EsQueueDto;
 import org.sonar.db.measure.ProjectMeasuresIndexerIterator;
+import org.sonar.db.measure.ProjectMeasuresIndexerIterator.Project;
 import org.sonar.db.measure.ProjectMeasuresIndexerIterator.ProjectMeasures;
 import org.sonar.server.es.BulkIndexer;
 import org.sonar.server.es.BulkIndexer.Size;
@@ -53,6 +61,11 @@ public class ProjectMeasuresIndexer implements ProjectIndexer, NeedAuthorization
 
   private static final AuthorizationScope AUTHORIZATION_SCOPE = new AuthorizationScope(INDEX_TYPE_PROJECT_MEASURES, project -> Qualifiers.PROJECT.equals(project.getQualifier()));
   private static final ImmutableSet<IndexType> INDEX_TYPES = ImmutableSet.of(INDEX_TYPE_PROJECT_MEASURES);
+  private static final Comparator<Project> MOST_RECENTLY_ANALYZED_FIRST = Comparator.comparing(Project::getAnalysisDate,
+    Comparator.nullsLast(Comparator.reverseOrder()));
+  private static final int MAX_THREADS = 4;
+  @VisibleForTesting
+  static final int MIN_PROJECTS_PER_THREAD = 100;
 
   private final DbClient dbClient;
   private final EsClient esClient;
@@ -67,9 +80,70 @@ public class ProjectMeasuresIndexer implements ProjectIndexer, NeedAuthorization
     return INDEX_TYPES;
   }
 
+  /**
+   * Projects are loaded and indexed in parallel, by partitions. The most recently analyzed projects are
+   * indexed first. Periodic refresh of the index is kept enabled, so that projects
+   * become searchable while the others are still being indexed.
+   */
   @Override
   public void indexOnStartup(Set<IndexType> uninitializedIndexTypes) {
-    doIndex(Size.LARGE, null);
+    List<Project> projects;
+    try (DbSession dbSession = dbClient.openSession(false)) {
+      projects = ProjectMeasuresIndexerIterator.selectProjects(dbSession, null);
+    }
+    projects.sort(MOST_RECENTLY_ANALYZED_FIRST);
+
+    BulkIndexer bulkIndexer = BulkIndexer.forPopulation(esClient, INDEX_TYPE_PROJECT_MEASURES, Size.REGULAR);
+    bulkIndexer.start();
+    indexInParallel(projects, bulkIndexer);
+    bulkIndexer.stop();
+  }
+
+  private void indexInParallel(List<Project> projects, BulkIndexer bulkIndexer) {
+    int threads = Math.max(1, Math.min(MAX_THREADS, projects.size() / MIN_PROJECTS_PER_THREAD));
+    List<Callable<Void>> tasks = new ArrayList<>(threads);
+    for (int i = 0; i < threads; i++) {
+      // round-robin partitioning keeps the priority of recently analyzed projects in each partition
+      List<Project> partition = partition(projects, i, threads);
+      tasks.add(() -> {
+        indexProjects(partition, bulkIndexer);
+        return null;
+      });
+    }
+    ExecutorService executorService = Executors.newFixedThreadPool(threads,
+      new ThreadFactoryBuilder()
+        .setNameFormat("ProjectMeasuresIndexer-%d")
+        .setDaemon(true)
+        .build());
+    try {
+      for (Future<Void> future : executorService.invokeAll(tasks)) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while indexing project measures", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Fail to index project measures", e.getCause());
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  private static List<Project> partition(List<Project> projects, int index, int partitions) {
+    List<Project> partition = new ArrayList<>(projects.size() / partitions + 1);
+    for (int i = index; i < projects.size(); i += partitions) {
+      partition.add(projects.get(i));
+    }
+    return partition;
+  }
+
+  private void indexProjects(List<Project> projects, BulkIndexer bulkIndexer) {
+    try (DbSession dbSession = dbClient.openSession(false);
+      ProjectMeasuresIndexerIterator rowIt = ProjectMeasuresIndexerIterator.create(dbSession, projects)) {
+      while (rowIt.hasNext()) {
+        bulkIndexer.add(newIndexRequest(toProjectMeasuresDoc(rowIt.next())));
+      }
+    }
   }
 
   @Override
@@ -79,7 +153,7 @@ public class ProjectMeasuresIndexer implements ProjectIndexer, NeedAuthorization
 
   @Override
   public void indexOnAnalysis(String branchUuid) {
-    doIndex(Size.REGULAR, branchUuid);
+    doIndex(branchUuid);
   }
 
   @Override
@@ -134,11 +208,11 @@ public class ProjectMeasuresIndexer implements ProjectIndexer, NeedAuthorization
     return bulkIndexer.stop();
   }
 
-  private void doIndex(Size size, @Nullable String projectUuid) {
+  private void doIndex(String projectUuid) {
     try (DbSession dbSession = dbClient.openSession(false);
       ProjectMeasuresIndexerIterator rowIt = ProjectMeasuresIndexerIterator.create(dbSession, projectUuid)) {
 
-      BulkIndexer bulkIndexer = createBulkIndexer(size, IndexingListener.FAIL_ON_ERROR);
+      BulkIndexer bulkIndexer = createBulkIndexer(Size.REGULAR, IndexingListener.FAIL_ON_ERROR);
       bulkIndexer.start();
       while (rowIt.hasNext()) {
         ProjectMeasures doc = rowIt.next();
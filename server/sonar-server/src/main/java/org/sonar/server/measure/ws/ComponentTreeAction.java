@@ -35,6 +35,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -76,11 +77,13 @@ import static com.google.common.base.Preconditions.checkState;
 import static java.lang.String.format;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
 import static java.util.Objects.requireNonNull;
 import static org.sonar.api.measures.Metric.ValueType.DATA;
 import static org.sonar.api.measures.Metric.ValueType.DISTRIB;
 import static org.sonar.api.utils.Paging.offset;
 import static org.sonar.core.util.Uuids.UUID_EXAMPLE_02;
+import static org.sonar.db.Pagination.forPage;
 import static org.sonar.db.component.ComponentTreeQuery.Strategy.CHILDREN;
 import static org.sonar.db.component.ComponentTreeQuery.Strategy.LEAVES;
 import static org.sonar.server.component.ComponentFinder.ParamNames.BASE_COMPONENT_ID_AND_KEY;
@@ -403,8 +406,13 @@ public class ComponentTreeAction implements MeasuresWsAction {
       }
 
       ComponentTreeQuery componentTreeQuery = toComponentTreeQuery(wsRequest, baseComponent);
-      List<ComponentDto> components = searchComponents(dbSession, componentTreeQuery);
       List<MetricDto> metrics = searchMetrics(dbSession, wsRequest);
+      Optional<MetricDto> metricSortedInDb = metricSortedInDb(wsRequest, metrics);
+      if (metricSortedInDb.isPresent()) {
+        return loadPageSortedInDb(dbSession, wsRequest, baseComponent, baseSnapshot.get(), componentTreeQuery, metrics, metricSortedInDb.get());
+      }
+
+      List<ComponentDto> components = searchComponents(dbSession, componentTreeQuery);
       Table<String, MetricDto, ComponentTreeData.Measure> measuresByComponentUuidAndMetric = searchMeasuresByComponentUuidAndMetric(dbSession, baseComponent, componentTreeQuery,
               components,
               metrics);
@@ -427,6 +435,79 @@ public class ComponentTreeAction implements MeasuresWsAction {
     }
   }
 
+  /**
+   * Sorting, filtering and pagination are done by the database when components are sorted only by the value
+   * of a numeric metric and when components without value are excluded. Only the requested page of components
+   * and its measures are then loaded. Metrics optimized for best value are excluded, as their best value is not
+   * persisted on files.
+   */
+  private static Optional<MetricDto> metricSortedInDb(ComponentTreeRequest wsRequest, List<MetricDto> metrics) {
+    if (!singletonList(METRIC_SORT).equals(wsRequest.getSort()) || !componentWithMeasuresOnly(wsRequest) || wsRequest.getMetricPeriodSort() != null) {
+      return Optional.empty();
+    }
+    String metricKeyToSort = wsRequest.getMetricSort();
+    return metrics.stream()
+            .filter(m -> m.getKey().equals(metricKeyToSort))
+            .filter(ComponentTreeSort::isNumericMetric)
+            .filter(MetricDtoFunctions.isOptimizedForBestValue().negate())
+            .findFirst();
+  }
+
+  private ComponentTreeData loadPageSortedInDb(DbSession dbSession, ComponentTreeRequest wsRequest, ComponentDto baseComponent, SnapshotDto baseSnapshot,
+    ComponentTreeQuery componentTreeQuery, List<MetricDto> metrics, MetricDto metricToSort) {
+    MeasureTreeQuery measureQuery = MeasureTreeQuery.builder()
+            .setStrategy(MeasureTreeQuery.Strategy.valueOf(componentTreeQuery.getStrategy().name()))
+            .setNameOrKeyQuery(componentTreeQuery.getNameOrKeyQuery())
+            .setQualifiers(componentTreeQuery.getQualifiers())
+            .build();
+    int componentCount = dbClient.liveMeasureDao().countTreeComponentsWithValue(dbSession, baseComponent, measureQuery, metricToSort.getId());
+    List<String> componentUuids = dbClient.liveMeasureDao().selectTreeComponentUuidsSortedByValue(dbSession, baseComponent, measureQuery, metricToSort.getId(),
+            wsRequest.getAsc(), forPage(wsRequest.getPage()).andSize(wsRequest.getPageSize()));
+    Map<String, ComponentDto> componentsByUuid = dbClient.componentDao().selectByUuids(dbSession, componentUuids).stream()
+            .collect(MoreCollectors.uniqueIndex(ComponentDto::uuid, componentUuids.size()));
+    List<ComponentDto> components = componentUuids.stream()
+            .map(componentsByUuid::get)
+            .filter(Objects::nonNull)
+            .collect(MoreCollectors.toList(componentUuids.size()));
+
+    Map<Integer, MetricDto> metricsById = Maps.uniqueIndex(metrics, MetricDto::getId);
+    List<String> measuredComponentUuids = new ArrayList<>(componentUuids);
+    if (matches(baseComponent, componentTreeQuery)) {
+      measuredComponentUuids.add(baseComponent.uuid());
+    }
+    Table<String, MetricDto, ComponentTreeData.Measure> measuresByComponentUuidAndMetric = HashBasedTable.create(measuredComponentUuids.size(), metrics.size());
+    dbClient.liveMeasureDao().selectByComponentUuids(dbSession, measuredComponentUuids, metricsById.keySet())
+            .forEach(measureDto -> measuresByComponentUuidAndMetric.put(
+                    measureDto.getComponentUuid(),
+                    metricsById.get(measureDto.getMetricId()),
+                    ComponentTreeData.Measure.createFromMeasureDto(measureDto)));
+    addBestValuesToMeasures(measuresByComponentUuidAndMetric, components, metrics);
+
+    return ComponentTreeData.builder()
+            .setBaseComponent(baseComponent)
+            .setComponentsFromDb(components)
+            .setComponentCount(componentCount)
+            .setMeasuresByComponentUuidAndMetric(measuresByComponentUuidAndMetric)
+            .setMetrics(metrics)
+            .setPeriods(snapshotToWsPeriods(baseSnapshot))
+            .setReferenceComponentsByUuid(searchReferenceComponentsById(dbSession, components))
+            .build();
+  }
+
+  /**
+   * Same filters as the ones applied by {@link org.sonar.db.measure.LiveMeasureDao#selectTreeByQuery} on the base component
+   */
+  private static boolean matches(ComponentDto baseComponent, ComponentTreeQuery componentTreeQuery) {
+    Collection<String> qualifiers = componentTreeQuery.getQualifiers();
+    if (qualifiers != null && !qualifiers.contains(baseComponent.qualifier())) {
+      return false;
+    }
+    String nameOrKeyQuery = componentTreeQuery.getNameOrKeyQuery();
+    return nameOrKeyQuery == null
+      || nameOrKeyQuery.equals(baseComponent.getDbKey())
+      || baseComponent.name().toUpperCase(Locale.ENGLISH).contains(nameOrKeyQuery.toUpperCase(Locale.ENGLISH));
+  }
+
   private ComponentDto loadComponent(DbSession dbSession, ComponentTreeRequest request) {
     String componentKey = request.getComponent();
     String componentId = request.getBaseComponentId();
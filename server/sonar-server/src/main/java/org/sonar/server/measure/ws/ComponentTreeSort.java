@@ -90,6 +90,10 @@ public class ComponentTreeSort {
     return primaryOrdering.immutableSortedCopy(components);
   }
 
+  static boolean isNumericMetric(MetricDto metric) {
+    return NUMERIC_VALUE_TYPES.contains(ValueType.valueOf(metric.getValueType()));
+  }
+
   private static Ordering<ComponentDto> componentNameOrdering(boolean isAscending) {
     return stringOrdering(isAscending, ComponentDto::name);
   }
@@ -20,6 +20,9 @@
 package org.sonar.server.notification;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Multimap;
@@ -30,8 +33,10 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.api.notifications.Notification;
 import org.sonar.api.notifications.NotificationChannel;
@@ -52,8 +57,16 @@ public class DefaultNotificationManager implements NotificationManager {
 
   private static final String UNABLE_TO_READ_NOTIFICATION = "Unable to read notification";
 
+  /**
+   * Recipients are kept in cache for this duration, so that the subscribers of a project are loaded
+   * only once for the many notifications that are raised by the same analysis.
+   */
+  static final long RECIPIENTS_CACHE_TTL_SECONDS = 10;
+  private static final long RECIPIENTS_CACHE_MAX_SIZE = 1_000;
+
   private NotificationChannel[] notificationChannels;
   private final DbClient dbClient;
+  private final Cache<RecipientsKey, Multimap<String, NotificationChannel>> recipientsCache;
 
   private boolean alreadyLoggedDeserializationIssue = false;
 
@@ -62,8 +75,18 @@ public class DefaultNotificationManager implements NotificationManager {
    */
   public DefaultNotificationManager(NotificationChannel[] channels,
     DbClient dbClient) {
+    this(channels, dbClient, Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  DefaultNotificationManager(NotificationChannel[] channels, DbClient dbClient, Ticker ticker) {
     this.notificationChannels = channels;
     this.dbClient = dbClient;
+    this.recipientsCache = CacheBuilder.newBuilder()
+      .ticker(ticker)
+      .expireAfterWrite(RECIPIENTS_CACHE_TTL_SECONDS, TimeUnit.SECONDS)
+      .maximumSize(RECIPIENTS_CACHE_MAX_SIZE)
+      .build();
   }
 
   /**
@@ -76,23 +99,28 @@ public class DefaultNotificationManager implements NotificationManager {
   }
 
   /**
-   * Give the notification queue so that it can be processed
+   * Removes at most {@code batchSize} of the oldest notifications from the queue, so that they can be processed.
+   * Notifications that can't be deserialized are dropped. The returned notifications are not in the queue anymore,
+   * so they are lost if they are not delivered, for example when the server stops. {@code batchSize} should
+   * then be kept small.
    */
-  public Notification getFromQueue() {
-    int batchSize = 1;
+  public List<Notification> getFromQueue(int batchSize) {
     List<NotificationQueueDto> notificationDtos = dbClient.notificationQueueDao().selectOldest(batchSize);
     if (notificationDtos.isEmpty()) {
-      return null;
+      return Collections.emptyList();
     }
     dbClient.notificationQueueDao().delete(notificationDtos);
 
-    return convertToNotification(notificationDtos);
+    return notificationDtos.stream()
+      .map(this::convertToNotification)
+      .filter(Objects::nonNull)
+      .collect(Collectors.toList());
   }
 
-  private Notification convertToNotification(List<NotificationQueueDto> notifications) {
+  @CheckForNull
+  private Notification convertToNotification(NotificationQueueDto notification) {
     try {
-      // If batchSize is increased then we should return a list instead of a single element
-      return notifications.get(0).toNotification();
+      return notification.toNotification();
     } catch (InvalidClassException e) {
       // SONAR-4739
       if (!alreadyLoggedDeserializationIssue) {
@@ -121,7 +149,17 @@ public class DefaultNotificationManager implements NotificationManager {
   public Multimap<String, NotificationChannel> findSubscribedRecipientsForDispatcher(NotificationDispatcher dispatcher,
     String projectKey, SubscriberPermissionsOnProject subscriberPermissionsOnProject) {
     requireNonNull(projectKey, "projectKey is mandatory");
-    String dispatcherKey = dispatcher.getKey();
+    RecipientsKey key = new RecipientsKey(dispatcher.getKey(), projectKey, subscriberPermissionsOnProject);
+    Multimap<String, NotificationChannel> recipients = recipientsCache.getIfPresent(key);
+    if (recipients == null) {
+      recipients = loadSubscribedRecipients(dispatcher.getKey(), projectKey, subscriberPermissionsOnProject);
+      recipientsCache.put(key, recipients);
+    }
+    return recipients;
+  }
+
+  private Multimap<String, NotificationChannel> loadSubscribedRecipients(String dispatcherKey, String projectKey,
+    SubscriberPermissionsOnProject subscriberPermissionsOnProject) {
 
     Set<SubscriberAndChannel> subscriberAndChannels = Arrays.stream(notificationChannels)
       .flatMap(notificationChannel -> toSubscriberAndChannels(dispatcherKey, projectKey, notificationChannel))
@@ -209,6 +247,37 @@ public class DefaultNotificationManager implements NotificationManager {
     }
   }
 
+  private static final class RecipientsKey {
+    private final String dispatcherKey;
+    private final String projectKey;
+    private final SubscriberPermissionsOnProject permissions;
+
+    private RecipientsKey(String dispatcherKey, String projectKey, SubscriberPermissionsOnProject permissions) {
+      this.dispatcherKey = dispatcherKey;
+      this.projectKey = projectKey;
+      this.permissions = permissions;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      RecipientsKey that = (RecipientsKey) o;
+      return dispatcherKey.equals(that.dispatcherKey) &&
+        projectKey.equals(that.projectKey) &&
+        permissions.equals(that.permissions);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(dispatcherKey, projectKey, permissions);
+    }
+  }
+
   @VisibleForTesting
   protected List<NotificationChannel> getChannels() {
     return Arrays.asList(notificationChannels);
@@ -21,9 +21,14 @@ package org.sonar.server.notification;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import org.picocontainer.Startable;
 import org.sonar.api.Properties;
 import org.sonar.api.Property;
@@ -32,6 +37,7 @@ import org.sonar.api.notifications.Notification;
 import org.sonar.api.server.ServerSide;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
+import org.sonar.core.util.stream.MoreCollectors;
 
 @Properties({
   @Property(
@@ -43,34 +49,53 @@ import org.sonar.api.utils.log.Loggers;
     key = NotificationDaemon.PROPERTY_DELAY_BEFORE_REPORTING_STATUS,
     defaultValue = "600",
     name = "Delay before reporting notification status, in seconds",
+    global = false),
+  @Property(
+    key = NotificationDaemon.PROPERTY_DELIVERY_THREADS,
+    defaultValue = "4",
+    name = "Number of notifications delivered in parallel",
     global = false)
 })
 @ServerSide
 public class NotificationDaemon implements Startable {
   private static final String THREAD_NAME_PREFIX = "sq-notification-service-";
+  private static final String DELIVERY_THREAD_NAME_PREFIX = "sq-notification-delivery-";
 
   private static final Logger LOG = Loggers.get(NotificationDaemon.class);
 
   public static final String PROPERTY_DELAY = "sonar.notifications.delay";
   public static final String PROPERTY_DELAY_BEFORE_REPORTING_STATUS = "sonar.notifications.runningDelayBeforeReportingStatus";
+  public static final String PROPERTY_DELIVERY_THREADS = "sonar.notifications.deliveryThreads";
 
   private final long delayInSeconds;
   private final long delayBeforeReportingStatusInSeconds;
+  private final int deliveryThreads;
   private final DefaultNotificationManager manager;
   private final NotificationService service;
+  private final AtomicLong deliveredCount = new AtomicLong(0L);
 
   private ScheduledExecutorService executorService;
+  private ExecutorService deliveryService;
   private boolean stopping = false;
+  private volatile long lastEmptyQueueDate;
 
   public NotificationDaemon(Configuration config, DefaultNotificationManager manager, NotificationService service) {
     this.delayInSeconds = config.getLong(PROPERTY_DELAY).get();
     this.delayBeforeReportingStatusInSeconds = config.getLong(PROPERTY_DELAY_BEFORE_REPORTING_STATUS).get();
+    this.deliveryThreads = Math.max(1, config.getInt(PROPERTY_DELIVERY_THREADS).get());
     this.manager = manager;
     this.service = service;
+    this.lastEmptyQueueDate = System.currentTimeMillis();
   }
 
   @Override
   public void start() {
+    deliveryService = Executors.newFixedThreadPool(deliveryThreads,
+      new ThreadFactoryBuilder()
+        .setNameFormat(DELIVERY_THREAD_NAME_PREFIX + "%d")
+        .setPriority(Thread.MIN_PRIORITY)
+        .setDaemon(true)
+        .build());
     executorService = Executors.newSingleThreadScheduledExecutor(
       new ThreadFactoryBuilder()
         .setNameFormat(THREAD_NAME_PREFIX + "%d")
@@ -92,6 +117,7 @@ public class NotificationDaemon implements Startable {
       stopping = true;
       executorService.shutdown();
       executorService.awaitTermination(5, TimeUnit.SECONDS);
+      deliveryService.shutdown();
     } catch (InterruptedException e) {
       LOG.error("Error during stop of notification service", e);
       Thread.currentThread().interrupt();
@@ -99,17 +125,23 @@ public class NotificationDaemon implements Startable {
     LOG.info("Notification service stopped");
   }
 
+  /**
+   * Notifications are removed from the queue before being delivered, so that they are not delivered
+   * twice by the servers of a cluster. Delivery is then at-most-once: the notifications being delivered
+   * are lost if the server stops. Batches are not larger than the number of delivery threads, to
+   * lose as few notifications as possible.
+   */
   private synchronized void processQueue() {
     long start = now();
     long lastLog = start;
     long notifSentCount = 0;
 
-    Notification notifToSend = manager.getFromQueue();
-    while (notifToSend != null) {
-      service.deliver(notifToSend);
-      notifSentCount++;
+    List<Notification> notifsToSend = manager.getFromQueue(deliveryThreads);
+    while (!notifsToSend.isEmpty()) {
+      deliver(notifsToSend);
+      notifSentCount += notifsToSend.size();
       if (stopping) {
-        break;
+        return;
       }
       long now = now();
       if (now - lastLog > delayBeforeReportingStatusInSeconds * 1000) {
@@ -118,10 +150,51 @@ public class NotificationDaemon implements Startable {
         long spentTimeInMinutes = (now - start) / (60 * 1000);
         log(notifSentCount, remainingNotifCount, spentTimeInMinutes);
       }
-      notifToSend = manager.getFromQueue();
+      notifsToSend = manager.getFromQueue(deliveryThreads);
+    }
+    lastEmptyQueueDate = now();
+  }
+
+  /**
+   * Notifications of the batch are delivered in parallel, mostly to not wait sequentially for SMTP servers.
+   * Errors are already logged by {@link NotificationService#deliver(Notification)}.
+   */
+  private void deliver(List<Notification> notifications) {
+    List<Future<?>> futures = notifications.stream()
+      .map(notification -> deliveryService.submit(() -> service.deliver(notification)))
+      .collect(MoreCollectors.toList(notifications.size()));
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+        deliveredCount.incrementAndGet();
+      } catch (ExecutionException e) {
+        LOG.error("Fail to deliver notification", e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(e);
+      }
     }
   }
 
+  /**
+   * Number of notifications delivered since startup
+   */
+  public long getDeliveredCount() {
+    return deliveredCount.get();
+  }
+
+  /**
+   * Date of the last time the queue has been processed until it was empty. Notifications
+   * waiting in the queue have been created after this date.
+   */
+  public long getLastEmptyQueueDate() {
+    return lastEmptyQueueDate;
+  }
+
+  public int getDeliveryThreads() {
+    return deliveryThreads;
+  }
+
   @VisibleForTesting
   void log(long notifSentCount, long remainingNotifCount, long spentTimeInMinutes) {
     LOG.info("{} notifications sent during the past {} minutes and {} still waiting to be sent",
@@ -26,6 +26,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.elasticsearch.action.index.IndexRequest;
@@ -84,12 +85,12 @@ public class PermissionIndexer implements ProjectIndexer {
     // TODO do not load everything in memory. Db rows should be scrolled.
     List<Dto> authorizations = getAllAuthorizations();
     Stream<AuthorizationScope> scopes = getScopes(uninitializedIndexTypes);
-    index(authorizations, scopes, Size.LARGE);
+    index(authorizations, scopes, indexType -> BulkIndexer.forPopulation(esClient, indexType, Size.LARGE));
   }
 
   @VisibleForTesting
   void index(List<Dto> authorizations) {
-    index(authorizations, authorizationScopes.stream(), Size.REGULAR);
+    index(authorizations, authorizationScopes.stream(), indexType -> new BulkIndexer(esClient, indexType, Size.REGULAR));
   }
 
   @Override
@@ -125,7 +126,7 @@ public class PermissionIndexer implements ProjectIndexer {
     return items;
   }
 
-  private void index(Collection<PermissionIndexerDao.Dto> authorizations, Stream<AuthorizationScope> scopes, Size bulkSize) {
+  private void index(Collection<PermissionIndexerDao.Dto> authorizations, Stream<AuthorizationScope> scopes, Function<IndexType, BulkIndexer> bulkIndexerFactory) {
     if (authorizations.isEmpty()) {
       return;
     }
@@ -134,7 +135,7 @@ public class PermissionIndexer implements ProjectIndexer {
     scopes.forEach(scope -> {
       IndexType indexType = scope.getIndexType();
 
-      BulkIndexer bulkIndexer = new BulkIndexer(esClient, indexType, bulkSize);
+      BulkIndexer bulkIndexer = bulkIndexerFactory.apply(indexType);
       bulkIndexer.start();
 
       authorizations.stream()
@@ -48,7 +48,7 @@ import static org.elasticsearch.index.query.QueryBuilders.matchAllQuery;
 public class BackendCleanup {
 
   private static final String[] ANALYSIS_TABLES = {
-    "ce_activity", "ce_queue", "ce_task_input", "ce_scanner_context",
+    "ce_activity", "ce_queue", "ce_task_input", "ce_task_statistics", "ce_scanner_context",
     "duplications_index", "events", "issues", "issue_changes", "manual_measures",
     "notifications", "project_links", "project_measures", "projects",
     "snapshots", "file_sources", "webhook_deliveries"
@@ -0,0 +1,51 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.monitoring;
+
+import org.sonar.api.server.ServerSide;
+import org.sonar.process.systeminfo.SystemInfoSection;
+import org.sonar.process.systeminfo.protobuf.ProtobufSystemInfo;
+import org.sonar.server.user.AuthorizationCache;
+
+import static org.sonar.process.systeminfo.SystemInfoUtils.setAttribute;
+
+/**
+ * Usage of the cache of users and permissions, see {@link AuthorizationCache}
+ */
+@ServerSide
+public class AuthorizationCacheSection implements SystemInfoSection {
+
+  private final AuthorizationCache authorizationCache;
+
+  public AuthorizationCacheSection(AuthorizationCache authorizationCache) {
+    this.authorizationCache = authorizationCache;
+  }
+
+  @Override
+  public ProtobufSystemInfo.Section toProtobuf() {
+    ProtobufSystemInfo.Section.Builder protobuf = ProtobufSystemInfo.Section.newBuilder();
+    protobuf.setName("Web Authorization Cache");
+    setAttribute(protobuf, "Entries", authorizationCache.getSize());
+    setAttribute(protobuf, "Hits", authorizationCache.getHits());
+    setAttribute(protobuf, "Misses", authorizationCache.getMisses());
+    setAttribute(protobuf, "Invalidations", authorizationCache.getInvalidations());
+    return protobuf.build();
+  }
+}
@@ -19,13 +19,21 @@
  */
 package org.sonar.server.platform.monitoring;
 
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
 import org.apache.commons.dbcp.BasicDataSource;
 import org.sonar.api.SonarQubeSide;
 import org.sonar.api.SonarRuntime;
+import org.sonar.core.util.stream.MoreCollectors;
 import org.sonar.db.DbClient;
+import org.sonar.db.profiling.DurationHistogram;
+import org.sonar.db.profiling.ProfiledDataSource;
 import org.sonar.process.systeminfo.protobuf.ProtobufSystemInfo.Section;
 import org.sonar.server.platform.db.migration.version.DatabaseVersion;
 
+import static java.lang.String.format;
 import static org.sonar.process.systeminfo.SystemInfoUtils.setAttribute;
 
 /**
@@ -33,6 +41,9 @@ import static org.sonar.process.systeminfo.SystemInfoUtils.setAttribute;
  */
 public class DbConnectionSection extends BaseSectionMBean implements DbConnectionSectionMBean {
 
+  private static final int SLOWEST_STATEMENTS = 10;
+  private static final DurationHistogram NO_CONNECTION_WAITS = new DurationHistogram();
+
   private final DatabaseVersion dbVersion;
   private final DbClient dbClient;
   private final SonarRuntime runtime;
@@ -98,6 +109,38 @@ public class DbConnectionSection extends BaseSectionMBean implements DbConnectio
     return commonsDbcp().getRemoveAbandonedTimeout();
   }
 
+  @Override
+  public long getPoolWaitCount() {
+    return connectionWaits().getCount();
+  }
+
+  @Override
+  public long getPoolWaitTotalMillis() {
+    return connectionWaits().getTotalMillis();
+  }
+
+  @Override
+  public long getPoolWaitMaxMillis() {
+    return connectionWaits().getMaxMillis();
+  }
+
+  @Override
+  public List<String> getPoolWaitHistogram() {
+    return connectionWaits().getCountsByBucket().entrySet().stream()
+      .map(e -> e.getKey() + ": " + e.getValue())
+      .collect(MoreCollectors.toList());
+  }
+
+  @Override
+  public List<String> getSlowestStatements() {
+    return dbClient.getMyBatis().getStatementDurations().getHistogramsByStatementId().entrySet().stream()
+      .sorted(Comparator.comparingLong((Map.Entry<String, DurationHistogram> e) -> e.getValue().getTotalMillis()).reversed())
+      .limit(SLOWEST_STATEMENTS)
+      .map(e -> format("%s: count=%d, total=%d ms, max=%d ms",
+        e.getKey(), e.getValue().getCount(), e.getValue().getTotalMillis(), e.getValue().getMaxMillis()))
+      .collect(MoreCollectors.toList(SLOWEST_STATEMENTS));
+  }
+
   @Override
   public Section toProtobuf() {
     Section.Builder protobuf = Section.newBuilder();
@@ -117,6 +160,19 @@ public class DbConnectionSection extends BaseSectionMBean implements DbConnectio
     setAttribute(protobuf, "Pool Max Wait (ms)", getPoolMaxWaitMillis());
     setAttribute(protobuf, "Pool Remove Abandoned", getPoolRemoveAbandoned());
     setAttribute(protobuf, "Pool Remove Abandoned Timeout (seconds)", getPoolRemoveAbandonedTimeoutSeconds());
+    setAttribute(protobuf, "Pool Wait Count", getPoolWaitCount());
+    setAttribute(protobuf, "Pool Wait Total (ms)", getPoolWaitTotalMillis());
+    setAttribute(protobuf, "Pool Wait Max (ms)", getPoolWaitMaxMillis());
+    setAttribute(protobuf, "Pool Wait Histogram", getPoolWaitHistogram());
+    setAttribute(protobuf, "Slowest Statements", getSlowestStatements());
+  }
+
+  private DurationHistogram connectionWaits() {
+    DataSource dataSource = dbClient.getDatabase().getDataSource();
+    if (dataSource instanceof ProfiledDataSource) {
+      return ((ProfiledDataSource) dataSource).getConnectionWaits();
+    }
+    return NO_CONNECTION_WAITS;
   }
 
   private BasicDataSource commonsDbcp() {
@@ -19,6 +19,8 @@
  */
 package org.sonar.server.platform.monitoring;
 
+import java.util.List;
+
 public interface DbConnectionSectionMBean {
 
   /**
@@ -68,4 +70,30 @@ public interface DbConnectionSectionMBean {
    * Timeout in seconds before an abandoned connection can be removed.
    */
   int getPoolRemoveAbandonedTimeoutSeconds();
+
+  /**
+   * Number of connections borrowed from the pool since startup.
+   */
+  long getPoolWaitCount();
+
+  /**
+   * Total time, in milliseconds, spent by threads to borrow connections from the pool since startup.
+   */
+  long getPoolWaitTotalMillis();
+
+  /**
+   * Longest time, in milliseconds, spent by a thread to borrow a connection from the pool since startup.
+   */
+  long getPoolWaitMaxMillis();
+
+  /**
+   * Number of connections borrowed from the pool by range of waiting time, for example "<= 10 ms: 42".
+   */
+  List<String> getPoolWaitHistogram();
+
+  /**
+   * The mapper statements with the highest total execution time since startup, with their number of executions
+   * and their total and maximum durations.
+   */
+  List<String> getSlowestStatements();
 }
@@ -23,6 +23,8 @@ import java.util.Map;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.action.admin.indices.stats.IndexStats;
 import org.elasticsearch.action.admin.indices.stats.IndicesStatsResponse;
+import org.elasticsearch.index.cache.request.RequestCacheStats;
+import org.elasticsearch.index.search.stats.SearchStats;
 import org.sonar.api.server.ServerSide;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.process.systeminfo.Global;
@@ -36,6 +38,8 @@ import static org.sonar.process.systeminfo.SystemInfoUtils.setAttribute;
 @ServerSide
 public class EsIndexesSection implements SystemInfoSection, Global {
 
+  private static final String ALL_SEARCH_GROUPS = "*";
+
   private final EsClient esClient;
 
   public EsIndexesSection(EsClient esClient) {
@@ -56,12 +60,28 @@ public class EsIndexesSection implements SystemInfoSection, Global {
   }
 
   private void completeIndexAttributes(ProtobufSystemInfo.Section.Builder protobuf) {
-    IndicesStatsResponse indicesStats = esClient.prepareStats().all().get();
+    IndicesStatsResponse indicesStats = esClient.prepareStats().all().setGroups(ALL_SEARCH_GROUPS).get();
     for (Map.Entry<String, IndexStats> indexStats : indicesStats.getIndices().entrySet()) {
       String prefix = "Index " + indexStats.getKey() + " - ";
       setAttribute(protobuf, prefix + "Docs", indexStats.getValue().getPrimaries().getDocs().getCount());
       setAttribute(protobuf, prefix + "Shards", indexStats.getValue().getShards().length);
       setAttribute(protobuf, prefix + "Store Size", byteCountToDisplaySize(indexStats.getValue().getPrimaries().getStore().getSizeInBytes()));
+      RequestCacheStats requestCache = indexStats.getValue().getTotal().getRequestCache();
+      setAttribute(protobuf, prefix + "Request Cache Hits", requestCache.getHitCount());
+      setAttribute(protobuf, prefix + "Request Cache Misses", requestCache.getMissCount());
+      setAttribute(protobuf, prefix + "Request Cache Evictions", requestCache.getEvictions());
+      setAttribute(protobuf, prefix + "Request Cache Size", byteCountToDisplaySize(requestCache.getMemorySizeInBytes()));
+      Map<String, SearchStats.Stats> searchGroups = indexStats.getValue().getTotal().getSearch().getGroupStats();
+      if (searchGroups != null) {
+        searchGroups.forEach((group, stats) -> completeSearchGroupAttributes(protobuf, prefix + "Search " + group + " - ", stats));
+      }
     }
   }
+
+  private static void completeSearchGroupAttributes(ProtobufSystemInfo.Section.Builder protobuf, String prefix, SearchStats.Stats stats) {
+    setAttribute(protobuf, prefix + "Queries", stats.getQueryCount());
+    // time of query and fetch phases, by shard
+    long timeInMillis = stats.getQueryTimeInMillis() + stats.getFetchTimeInMillis();
+    setAttribute(protobuf, prefix + "Average Time (ms)", stats.getQueryCount() == 0 ? 0L : (timeInMillis / stats.getQueryCount()));
+  }
 }
@@ -0,0 +1,68 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.monitoring;
+
+import org.sonar.api.server.ServerSide;
+import org.sonar.api.utils.System2;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.process.systeminfo.SystemInfoSection;
+import org.sonar.process.systeminfo.protobuf.ProtobufSystemInfo;
+import org.sonar.server.es.RecoveryIndexer;
+
+import static org.sonar.process.systeminfo.SystemInfoUtils.setAttribute;
+
+/**
+ * State of the queue of documents to be recovered by {@link RecoveryIndexer}
+ */
+@ServerSide
+public class EsRecoverySection implements SystemInfoSection {
+
+  private final DbClient dbClient;
+  private final RecoveryIndexer recoveryIndexer;
+  private final System2 system2;
+
+  public EsRecoverySection(DbClient dbClient, RecoveryIndexer recoveryIndexer, System2 system2) {
+    this.dbClient = dbClient;
+    this.recoveryIndexer = recoveryIndexer;
+    this.system2 = system2;
+  }
+
+  @Override
+  public ProtobufSystemInfo.Section toProtobuf() {
+    ProtobufSystemInfo.Section.Builder protobuf = ProtobufSystemInfo.Section.newBuilder();
+    protobuf.setName("Search Recovery");
+    try (DbSession dbSession = dbClient.openSession(false)) {
+      setAttribute(protobuf, "Queue Size", dbClient.esQueueDao().count(dbSession));
+      long lagInMs = dbClient.esQueueDao().selectOldestCreationDate(dbSession)
+        .map(createdAt -> Math.max(0L, system2.now() - createdAt))
+        .orElse(0L);
+      setAttribute(protobuf, "Queue Lag (ms)", lagInMs);
+    }
+    setAttribute(protobuf, "Loop Limit", recoveryIndexer.getCurrentLoopLimit());
+    setAttribute(protobuf, "Last Run Documents", recoveryIndexer.getLastRunDocuments());
+    setAttribute(protobuf, "Last Run Throughput (docs/s)", throughput(recoveryIndexer.getLastRunDocuments(), recoveryIndexer.getLastRunDurationInMs()));
+    return protobuf.build();
+  }
+
+  private static long throughput(long documents, long durationInMs) {
+    return documents * 1000L / Math.max(1L, durationInMs);
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.monitoring;
+
+import org.sonar.api.server.ServerSide;
+import org.sonar.api.utils.System2;
+import org.sonar.process.systeminfo.SystemInfoSection;
+import org.sonar.process.systeminfo.protobuf.ProtobufSystemInfo;
+import org.sonar.server.notification.DefaultNotificationManager;
+import org.sonar.server.notification.NotificationDaemon;
+
+import static org.sonar.process.systeminfo.SystemInfoUtils.setAttribute;
+
+/**
+ * State of the queue of notifications processed by {@link NotificationDaemon}
+ */
+@ServerSide
+public class NotificationsSection implements SystemInfoSection {
+
+  private final DefaultNotificationManager notificationManager;
+  private final NotificationDaemon notificationDaemon;
+  private final System2 system2;
+
+  public NotificationsSection(DefaultNotificationManager notificationManager, NotificationDaemon notificationDaemon, System2 system2) {
+    this.notificationManager = notificationManager;
+    this.notificationDaemon = notificationDaemon;
+    this.system2 = system2;
+  }
+
+  @Override
+  public ProtobufSystemInfo.Section toProtobuf() {
+    ProtobufSystemInfo.Section.Builder protobuf = ProtobufSystemInfo.Section.newBuilder();
+    protobuf.setName("Notifications");
+    long queueSize = notificationManager.count();
+    setAttribute(protobuf, "Queue Size", queueSize);
+    setAttribute(protobuf, "Queue Lag (ms)", queueSize == 0 ? 0L : Math.max(0L, system2.now() - notificationDaemon.getLastEmptyQueueDate()));
+    setAttribute(protobuf, "Delivered", notificationDaemon.getDeliveredCount());
+    setAttribute(protobuf, "Delivery Threads", notificationDaemon.getDeliveryThreads());
+    return protobuf.build();
+  }
+}
@@ -51,6 +51,10 @@ public class WebSystemInfoModule {
       LoggingSection.class,
       PluginsSection.class,
       SettingsSection.class,
+      SourceDecorationCacheSection.class,
+      AuthorizationCacheSection.class,
+      EsRecoverySection.class,
+      NotificationsSection.class,
       StandaloneSystemSection.class,
 
       OfficialDistribution.class,
@@ -73,6 +77,10 @@ public class WebSystemInfoModule {
       NodeSystemSection.class,
       PluginsSection.class,
       SettingsSection.class,
+      SourceDecorationCacheSection.class,
+      AuthorizationCacheSection.class,
+      EsRecoverySection.class,
+      NotificationsSection.class,
 
       OfficialDistribution.class,
 
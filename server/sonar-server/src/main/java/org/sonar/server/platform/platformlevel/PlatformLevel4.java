@@ -210,6 +210,7 @@ import org.sonar.server.ui.PageDecorations;
 import org.sonar.server.ui.PageRepository;
 import org.sonar.server.ui.ws.NavigationWsModule;
 import org.sonar.server.updatecenter.UpdateCenterModule;
+import org.sonar.server.user.AuthorizationCache;
 import org.sonar.server.user.DefaultUserFinder;
 import org.sonar.server.user.DeprecatedUserFinder;
 import org.sonar.server.user.NewUserNotifier;
@@ -370,6 +371,7 @@ public class PlatformLevel4 extends PlatformLevel {
       AuthenticationModule.class,
 
       // users
+      AuthorizationCache.class,
       UserSessionFactoryImpl.class,
       SecurityRealmFactory.class,
       DeprecatedUserFinder.class,
@@ -22,6 +22,7 @@ package org.sonar.server.qualityprofile;
 import com.google.common.base.Splitter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -49,6 +50,8 @@ import org.sonar.server.user.UserSession;
 import org.sonar.server.util.TypeValidations;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Objects.requireNonNull;
 import static org.sonar.server.ws.WsUtils.checkRequest;
 
 /**
@@ -154,12 +157,12 @@ public class RuleActivator {
 
   private void updateProfileDates(DbSession dbSession, RuleActivatorContext context) {
     QProfileDto profile = context.getProfile();
-    if (profile != null) {
-      profile.setRulesUpdatedAtAsDate(context.getInitDate());
-      if (userSession.isLoggedIn()) {
-        profile.setUserUpdatedAt(context.getInitDate().getTime());
-      }
-      db.qualityProfileDao().update(dbSession, profile);
+    RuleActivatorBulkData bulkData = context.getBulkData();
+    if (profile != null && bulkData != null) {
+      // persisted once at the end of the bulk activation
+      bulkData.setProfileUpdated(profile, context.getInitDate());
+    } else if (profile != null) {
+      updateProfileDates(dbSession, profile, context.getInitDate());
     } else {
       // built-in profile, change rules_profiles.rules_updated_at
       RulesProfileDto rulesProfile = context.getRulesProfile();
@@ -168,6 +171,14 @@ public class RuleActivator {
     }
   }
 
+  private void updateProfileDates(DbSession dbSession, QProfileDto profile, Date date) {
+    profile.setRulesUpdatedAtAsDate(date);
+    if (userSession.isLoggedIn()) {
+      profile.setUserUpdatedAt(date.getTime());
+    }
+    db.qualityProfileDao().update(dbSession, profile);
+  }
+
   /**
    * Severity and parameter values are :
    * 1. defined by end-user
@@ -243,13 +254,19 @@ public class RuleActivator {
 
     // get all inherited profiles
     getChildren(dbSession, context).forEach(child -> {
-      RuleActivatorContext childContext = contextFactory.create(dbSession, activation.getRuleKey(), child, true);
+      RuleActivatorBulkData bulkData = context.getBulkData();
+      RuleActivatorContext childContext = bulkData == null ? contextFactory.create(dbSession, activation.getRuleKey(), child, true)
+        : contextFactory.createForBulk(activation.getRuleKey(), child, true, bulkData);
       changes.addAll(doActivate(dbSession, activation, childContext));
     });
     return changes;
   }
 
   protected List<QProfileDto> getChildren(DbSession session, RuleActivatorContext context) {
+    RuleActivatorBulkData bulkData = context.getBulkData();
+    if (context.getProfile() != null && bulkData != null) {
+      return bulkData.getChildren(context.getProfile());
+    }
     if (context.getProfile() != null) {
       return db.qualityProfileDao().selectChildren(session, context.getProfile());
     }
@@ -269,6 +286,15 @@ public class RuleActivator {
     }
     change.setActiveRule(activeRule);
     db.qProfileChangeDao().insert(dbSession, change.toDto(userSession.getLogin()));
+
+    RuleActivatorBulkData bulkData = context.getBulkData();
+    if (bulkData != null) {
+      if (activeRule == null || change.getType() == ActiveRuleChange.Type.DEACTIVATED) {
+        bulkData.removeActiveRule(change.getKey());
+      } else {
+        bulkData.putActiveRule(activeRule, new ArrayList<>(context.activeRuleParamsAsMap().values()));
+      }
+    }
   }
 
   private ActiveRuleDto doInsert(ActiveRuleChange change, RuleActivatorContext context, DbSession dbSession) {
@@ -293,6 +319,7 @@ public class RuleActivator {
         ActiveRuleParamDto paramDto = ActiveRuleParamDto.createFor(context.ruleParamsByKeys().get(param.getKey()));
         paramDto.setValue(param.getValue());
         dao.insertParam(dbSession, activeRule, paramDto);
+        context.activeRuleParamsAsMap().put(param.getKey(), paramDto);
       }
     }
     return activeRule;
@@ -321,6 +348,7 @@ public class RuleActivator {
             activeRuleParamDto = ActiveRuleParamDto.createFor(context.ruleParamsByKeys().get(param.getKey()));
             activeRuleParamDto.setValue(param.getValue());
             dao.insertParam(dbSession, activeRule, activeRuleParamDto);
+            context.activeRuleParamsAsMap().put(param.getKey(), activeRuleParamDto);
           }
         } else {
           if (param.getValue() != null) {
@@ -328,6 +356,7 @@ public class RuleActivator {
             dao.updateParam(dbSession, activeRuleParamDto);
           } else {
             dao.deleteParam(dbSession, activeRuleParamDto);
+            context.activeRuleParamsAsMap().remove(param.getKey());
           }
         }
       }
@@ -423,14 +452,19 @@ public class RuleActivator {
     return value;
   }
 
+  /**
+   * Activates the rules matching {@code ruleQuery} on {@code profile} and on its descendants. Rules, profiles and
+   * active rules are loaded at once, before computing the changes, and the profiles are reindexed in a single pass.
+   */
   public BulkChangeResult bulkActivateAndCommit(DbSession dbSession, RuleQuery ruleQuery, QProfileDto profile, @Nullable String severity) {
     BulkChangeResult result = new BulkChangeResult();
-    Iterator<RuleKey> rules = ruleIndex.searchAll(ruleQuery);
-    while (rules.hasNext()) {
-      RuleKey ruleKey = rules.next();
+    List<RuleKey> ruleKeys = newArrayList(ruleIndex.searchAll(ruleQuery));
+    RuleActivatorBulkData bulkData = contextFactory.loadBulkData(dbSession, ruleKeys, profile);
+    for (RuleKey ruleKey : ruleKeys) {
       try {
         RuleActivation activation = RuleActivation.create(ruleKey, severity, null);
-        List<ActiveRuleChange> changes = activate(dbSession, activation, profile);
+        RuleActivatorContext context = contextFactory.createForBulk(ruleKey, profile, false, bulkData);
+        List<ActiveRuleChange> changes = doActivate(dbSession, activation, context);
         result.addChanges(changes);
         if (!changes.isEmpty()) {
           result.incrementSucceeded();
@@ -442,6 +476,7 @@ public class RuleActivator {
         result.getErrors().addAll(e.errors());
       }
     }
+    bulkData.getUpdateDatesByProfileUuid().forEach((profileUuid, date) -> updateProfileDates(dbSession, requireNonNull(bulkData.getProfile(profileUuid)), date));
     activeRuleIndexer.commitAndIndex(dbSession, result.getChanges());
     return result;
   }
@@ -0,0 +1,123 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.qualityprofile;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.CheckForNull;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.db.qualityprofile.ActiveRuleDto;
+import org.sonar.db.qualityprofile.ActiveRuleKey;
+import org.sonar.db.qualityprofile.ActiveRuleParamDto;
+import org.sonar.db.qualityprofile.QProfileDto;
+import org.sonar.db.rule.RuleDefinitionDto;
+import org.sonar.db.rule.RuleParamDto;
+
+/**
+ * Rules, profiles and active rules loaded at once for the bulk activation of rules on a profile
+ * and its descendants. Active rules are kept up-to-date when changes are persisted, so that the activations
+ * cascaded to child profiles see the changes of their parent.
+ * The dates of the updated profiles are persisted once, at the end of the bulk activation.
+ */
+class RuleActivatorBulkData {
+
+  private final Map<RuleKey, RuleDefinitionDto> rulesByKey = new HashMap<>();
+  private final ListMultimap<Integer, RuleParamDto> ruleParamsByRuleId = ArrayListMultimap.create();
+  private final Map<String, QProfileDto> profilesByUuid = new HashMap<>();
+  private final ListMultimap<String, QProfileDto> childrenByParentUuid = ArrayListMultimap.create();
+  private final Map<ActiveRuleKey, ActiveRuleDto> activeRulesByKey = new HashMap<>();
+  private final ListMultimap<Integer, ActiveRuleParamDto> activeRuleParamsByActiveRuleId = ArrayListMultimap.create();
+  private final Map<String, Date> updateDatesByProfileUuid = new LinkedHashMap<>();
+
+  RuleActivatorBulkData addRules(Collection<RuleDefinitionDto> rules, Collection<RuleParamDto> ruleParams) {
+    rules.forEach(rule -> rulesByKey.put(rule.getKey(), rule));
+    ruleParams.forEach(param -> ruleParamsByRuleId.put(param.getRuleId(), param));
+    return this;
+  }
+
+  RuleActivatorBulkData addProfiles(Collection<QProfileDto> profiles) {
+    profiles.forEach(profile -> {
+      profilesByUuid.put(profile.getKee(), profile);
+      if (profile.getParentKee() != null) {
+        childrenByParentUuid.put(profile.getParentKee(), profile);
+      }
+    });
+    return this;
+  }
+
+  RuleActivatorBulkData addActiveRules(Collection<ActiveRuleDto> activeRules, Collection<ActiveRuleParamDto> activeRuleParams) {
+    activeRules.forEach(activeRule -> activeRulesByKey.put(activeRule.getKey(), activeRule));
+    activeRuleParams.forEach(param -> activeRuleParamsByActiveRuleId.put(param.getActiveRuleId(), param));
+    return this;
+  }
+
+  Optional<RuleDefinitionDto> getRule(RuleKey ruleKey) {
+    return Optional.ofNullable(rulesByKey.get(ruleKey));
+  }
+
+  List<RuleParamDto> getRuleParams(RuleDefinitionDto rule) {
+    return ruleParamsByRuleId.get(rule.getId());
+  }
+
+  @CheckForNull
+  QProfileDto getProfile(String uuid) {
+    return profilesByUuid.get(uuid);
+  }
+
+  List<QProfileDto> getChildren(QProfileDto profile) {
+    return childrenByParentUuid.get(profile.getKee());
+  }
+
+  @CheckForNull
+  ActiveRuleDto getActiveRule(ActiveRuleKey key) {
+    return activeRulesByKey.get(key);
+  }
+
+  List<ActiveRuleParamDto> getActiveRuleParams(ActiveRuleDto activeRule) {
+    return activeRuleParamsByActiveRuleId.get(activeRule.getId());
+  }
+
+  void putActiveRule(ActiveRuleDto activeRule, Collection<ActiveRuleParamDto> params) {
+    activeRulesByKey.put(activeRule.getKey(), activeRule);
+    activeRuleParamsByActiveRuleId.replaceValues(activeRule.getId(), params);
+  }
+
+  void removeActiveRule(ActiveRuleKey key) {
+    ActiveRuleDto activeRule = activeRulesByKey.remove(key);
+    if (activeRule != null) {
+      activeRuleParamsByActiveRuleId.removeAll(activeRule.getId());
+    }
+  }
+
+  void setProfileUpdated(QProfileDto profile, Date date) {
+    updateDatesByProfileUuid.put(profile.getKee(), date);
+  }
+
+  Map<String, Date> getUpdateDatesByProfileUuid() {
+    return updateDatesByProfileUuid;
+  }
+}
@@ -51,11 +51,17 @@ class RuleActivatorContext {
   private final Map<String, ActiveRuleParamDto> activeRuleParams = new HashMap<>();
   private final Map<String, ActiveRuleParamDto> parentActiveRuleParams = new HashMap<>();
   private final boolean isCascade;
+  private final RuleActivatorBulkData bulkData;
 
   RuleActivatorContext(QProfileDto profile, boolean isCascade) {
+    this(profile, isCascade, null);
+  }
+
+  RuleActivatorContext(QProfileDto profile, boolean isCascade, @Nullable RuleActivatorBulkData bulkData) {
     this.profile = profile;
     this.rulesProfile = RulesProfileDto.from(profile);
     this.isCascade = isCascade;
+    this.bulkData = bulkData;
   }
 
   RuleActivatorContext(RulesProfileDto rulesProfile) {
@@ -63,6 +69,7 @@ class RuleActivatorContext {
     this.profile = null;
     this.rulesProfile = rulesProfile;
     this.isCascade = false;
+    this.bulkData = null;
   }
 
   @CheckForNull
@@ -82,6 +89,14 @@ class RuleActivatorContext {
     return isCascade;
   }
 
+  /**
+   * Data shared by the contexts of a bulk activation, {@code null} when a single rule is activated
+   */
+  @CheckForNull
+  RuleActivatorBulkData getBulkData() {
+    return bulkData;
+  }
+
   ActiveRuleKey activeRuleKey() {
     return ActiveRuleKey.of(rulesProfile, rule.getKey());
   }
@@ -19,11 +19,14 @@
  */
 package org.sonar.server.qualityprofile;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.api.server.ServerSide;
+import org.sonar.core.util.stream.MoreCollectors;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.qualityprofile.ActiveRuleDto;
@@ -55,6 +58,61 @@ public class RuleActivatorContextFactory {
     return init(dbSession, ruleKey, context);
   }
 
+  /**
+   * Loads at once the rules, the profile, its parent, its descendants and their active rules, for
+   * the bulk activation of {@code ruleKeys} on {@code profile}
+   */
+  RuleActivatorBulkData loadBulkData(DbSession dbSession, Collection<RuleKey> ruleKeys, QProfileDto profile) {
+    RuleActivatorBulkData bulkData = new RuleActivatorBulkData();
+    List<RuleDefinitionDto> rules = db.ruleDao().selectDefinitionByKeys(dbSession, ruleKeys);
+    bulkData.addRules(rules, db.ruleDao().selectRuleParamsByRuleKeys(dbSession, ruleKeys));
+
+    List<QProfileDto> profiles = new ArrayList<>();
+    profiles.add(profile);
+    if (profile.getParentKee() != null) {
+      QProfileDto parent = db.qualityProfileDao().selectByUuid(dbSession, profile.getParentKee());
+      if (parent != null) {
+        profiles.add(parent);
+      }
+    }
+    profiles.addAll(db.qualityProfileDao().selectDescendants(dbSession, profile));
+    bulkData.addProfiles(profiles);
+
+    Set<Integer> ruleIds = rules.stream().map(RuleDefinitionDto::getId).collect(MoreCollectors.toSet(rules.size()));
+    for (QProfileDto p : profiles) {
+      List<ActiveRuleDto> activeRules = db.activeRuleDao().selectByRuleProfile(dbSession, RulesProfileDto.from(p)).stream()
+        .filter(activeRule -> ruleIds.contains(activeRule.getRuleId()))
+        .collect(MoreCollectors.toList());
+      List<Integer> activeRuleIds = activeRules.stream().map(ActiveRuleDto::getId).collect(MoreCollectors.toList(activeRules.size()));
+      bulkData.addActiveRules(activeRules, db.activeRuleDao().selectParamsByActiveRuleIds(dbSession, activeRuleIds));
+    }
+    return bulkData;
+  }
+
+  /**
+   * Same as {@link #create(DbSession, RuleKey, QProfileDto, boolean)} but without any database access, data being read
+   * from {@code bulkData}
+   */
+  RuleActivatorContext createForBulk(RuleKey ruleKey, QProfileDto profile, boolean cascade, RuleActivatorBulkData bulkData) {
+    RuleActivatorContext context = new RuleActivatorContext(profile, cascade, bulkData);
+    Optional<RuleDefinitionDto> rule = bulkData.getRule(ruleKey);
+    checkRequest(rule.isPresent(), "Rule not found: %s", ruleKey);
+    context.setRule(rule.get());
+    context.setRuleParams(bulkData.getRuleParams(rule.get()));
+
+    ActiveRuleDto activeRule = bulkData.getActiveRule(ActiveRuleKey.of(context.getRulesProfile(), ruleKey));
+    context.setActiveRule(activeRule);
+    context.setActiveRuleParams(activeRule == null ? null : bulkData.getActiveRuleParams(activeRule));
+
+    QProfileDto parent = profile.getParentKee() == null ? null : bulkData.getProfile(profile.getParentKee());
+    if (parent != null) {
+      ActiveRuleDto parentActiveRule = bulkData.getActiveRule(ActiveRuleKey.of(parent, ruleKey));
+      context.setParentActiveRule(parentActiveRule);
+      context.setParentActiveRuleParams(parentActiveRule == null ? null : bulkData.getActiveRuleParams(parentActiveRule));
+    }
+    return context;
+  }
+
   private RuleActivatorContext init(DbSession dbSession, RuleKey ruleKey, RuleActivatorContext context) {
     initRule(ruleKey, context, dbSession);
     initActiveRules(context.getRulesProfile(), ruleKey, context, dbSession, false);
@@ -20,7 +20,9 @@
 package org.sonar.server.rule;
 
 import com.google.common.collect.Iterables;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Maps;
+import com.google.common.collect.MultimapBuilder;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -28,6 +30,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.apache.commons.lang.ObjectUtils;
@@ -102,47 +105,81 @@ public class RegisterRules implements Startable {
 
       RulesDefinition.Context context = defLoader.load();
       boolean orgsEnabled = organizationFlags.isEnabled(dbSession);
-      for (RulesDefinition.ExtendedRepository repoDef : getRepositories(context)) {
-        if (languages.get(repoDef.language()) != null) {
-          for (RulesDefinition.Rule ruleDef : repoDef.rules()) {
-            RuleKey ruleKey = RuleKey.of(ruleDef.repository().key(), ruleDef.key());
-            if (ruleDef.template() && orgsEnabled) {
-              RuleDefinitionDto ruleDefinition = allRules.get(ruleKey);
-              if (ruleDefinition != null && ruleDefinition.getStatus() == RuleStatus.REMOVED) {
-                LOG.debug("Template rule {} kept removed, because organizations are enabled.", ruleKey);
-                allRules.remove(ruleKey);
-              } else {
-                LOG.info("Template rule {} will not be imported, because organizations are enabled.", ruleKey);
-              }
-              continue;
-            }
-            boolean relevantForIndex = registerRule(ruleDef, allRules, dbSession);
-            if (relevantForIndex) {
-              keysToIndex.add(ruleKey);
+      ListMultimap<String, RulesDefinition.ExtendedRepository> repositoriesByKey = getRepositoriesWithKnownLanguage(context);
+      Map<String, String> fingerprints = computeFingerprints(repositoriesByKey, orgsEnabled);
+      Set<String> unchangedRepositoryKeys = getUnchangedRepositoryKeys(dbSession, fingerprints);
+      // rules of unchanged repositories are neither updated nor removed
+      allRules.values().removeIf(rule -> unchangedRepositoryKeys.contains(rule.getRepositoryKey()));
+      ListMultimap<Integer, RuleParamDto> paramsByRuleId = loadRuleParams(dbSession, allRules.values());
+
+      for (RulesDefinition.ExtendedRepository repoDef : repositoriesByKey.values()) {
+        if (unchangedRepositoryKeys.contains(repoDef.key())) {
+          continue;
+        }
+        for (RulesDefinition.Rule ruleDef : repoDef.rules()) {
+          RuleKey ruleKey = RuleKey.of(ruleDef.repository().key(), ruleDef.key());
+          if (ruleDef.template() && orgsEnabled) {
+            RuleDefinitionDto ruleDefinition = allRules.get(ruleKey);
+            if (ruleDefinition != null && ruleDefinition.getStatus() == RuleStatus.REMOVED) {
+              LOG.debug("Template rule {} kept removed, because organizations are enabled.", ruleKey);
+              allRules.remove(ruleKey);
+            } else {
+              LOG.info("Template rule {} will not be imported, because organizations are enabled.", ruleKey);
             }
+            continue;
+          }
+          boolean relevantForIndex = registerRule(ruleDef, allRules, paramsByRuleId, dbSession);
+          if (relevantForIndex) {
+            keysToIndex.add(ruleKey);
           }
-          dbSession.commit();
         }
+        dbSession.commit();
       }
       List<RuleDefinitionDto> removedRules = processRemainingDbRules(allRules.values(), dbSession);
       List<ActiveRuleChange> changes = removeActiveRulesOnStillExistingRepositories(dbSession, removedRules, context);
       dbSession.commit();
       keysToIndex.addAll(removedRules.stream().map(RuleDefinitionDto::getKey).collect(Collectors.toList()));
 
-      persistRepositories(dbSession, context.repositories());
+      persistRepositories(dbSession, context.repositories(), fingerprints);
       ruleIndexer.commitAndIndex(dbSession, keysToIndex);
       activeRuleIndexer.commitAndIndex(dbSession, changes);
-      profiler.stopDebug();
+      profiler.stopDebug(format("%d repositories unchanged, %d rules indexed", unchangedRepositoryKeys.size(), keysToIndex.size()));
 
       webServerRuleFinder.startCaching();
     }
   }
 
-  private void persistRepositories(DbSession dbSession, List<RulesDefinition.Repository> repositories) {
+  /**
+   * Fingerprints of the repositories (including their extensions) which rules are registered. Repositories
+   * of uninstalled languages have no fingerprint, so that they are processed again when language is installed.
+   */
+  private static Map<String, String> computeFingerprints(ListMultimap<String, RulesDefinition.ExtendedRepository> repositoriesByKey,
+    boolean orgsEnabled) {
+    Map<String, String> fingerprints = new HashMap<>();
+    for (Map.Entry<String, Collection<RulesDefinition.ExtendedRepository>> entry : repositoriesByKey.asMap().entrySet()) {
+      fingerprints.put(entry.getKey(), RuleRepositoryFingerprint.compute(entry.getValue(), orgsEnabled));
+    }
+    return fingerprints;
+  }
+
+  private Set<String> getUnchangedRepositoryKeys(DbSession dbSession, Map<String, String> fingerprints) {
+    return dbClient.ruleRepositoryDao().selectAll(dbSession).stream()
+      .filter(repository -> repository.getFingerprint() != null && repository.getFingerprint().equals(fingerprints.get(repository.getKey())))
+      .map(RuleRepositoryDto::getKey)
+      .collect(MoreCollectors.toSet());
+  }
+
+  private ListMultimap<Integer, RuleParamDto> loadRuleParams(DbSession dbSession, Collection<RuleDefinitionDto> rules) {
+    List<Integer> ruleIds = rules.stream().map(RuleDefinitionDto::getId).collect(MoreCollectors.toList(rules.size()));
+    return dbClient.ruleDao().selectRuleParamsByRuleIds(dbSession, ruleIds).stream()
+      .collect(MoreCollectors.index(RuleParamDto::getRuleId));
+  }
+
+  private void persistRepositories(DbSession dbSession, List<RulesDefinition.Repository> repositories, Map<String, String> fingerprints) {
     dbClient.ruleRepositoryDao().truncate(dbSession);
     List<RuleRepositoryDto> dtos = repositories
       .stream()
-      .map(r -> new RuleRepositoryDto(r.key(), r.language(), r.name()))
+      .map(r -> new RuleRepositoryDto(r.key(), r.language(), r.name()).setFingerprint(fingerprints.get(r.key())))
       .collect(MoreCollectors.toList(repositories.size()));
     dbClient.ruleRepositoryDao().insert(dbSession, dtos);
     dbSession.commit();
@@ -153,7 +190,8 @@ public class RegisterRules implements Startable {
     // nothing
   }
 
-  private boolean registerRule(RulesDefinition.Rule ruleDef, Map<RuleKey, RuleDefinitionDto> allRules, DbSession session) {
+  private boolean registerRule(RulesDefinition.Rule ruleDef, Map<RuleKey, RuleDefinitionDto> allRules,
+    ListMultimap<Integer, RuleParamDto> paramsByRuleId, DbSession session) {
     RuleKey ruleKey = RuleKey.of(ruleDef.repository().key(), ruleDef.key());
 
     RuleDefinitionDto existingRule = allRules.remove(ruleKey);
@@ -184,7 +222,7 @@ public class RegisterRules implements Startable {
       update(session, rule);
     }
 
-    mergeParams(ruleDef, rule, session);
+    mergeParams(ruleDef, rule, paramsByRuleId.get(rule.getId()), session);
     return newRule || executeUpdate;
   }
 
@@ -196,16 +234,21 @@ public class RegisterRules implements Startable {
     return rules;
   }
 
-  private List<RulesDefinition.ExtendedRepository> getRepositories(RulesDefinition.Context context) {
-    List<RulesDefinition.ExtendedRepository> repositories = new ArrayList<>();
+  /**
+   * Repositories and their extensions, grouped by repository key. Repositories of uninstalled languages are ignored.
+   */
+  private ListMultimap<String, RulesDefinition.ExtendedRepository> getRepositoriesWithKnownLanguage(RulesDefinition.Context context) {
+    ListMultimap<String, RulesDefinition.ExtendedRepository> repositories = MultimapBuilder.linkedHashKeys().arrayListValues().build();
     for (RulesDefinition.Repository repoDef : context.repositories()) {
-      repositories.add(repoDef);
+      if (languages.get(repoDef.language()) != null) {
+        repositories.put(repoDef.key(), repoDef);
+      }
     }
     for (RulesDefinition.ExtendedRepository extendedRepoDef : context.extendedRepositories()) {
       if (context.repository(extendedRepoDef.key()) == null) {
         LOG.warn(format("Extension is ignored, repository %s does not exist", extendedRepoDef.key()));
-      } else {
-        repositories.add(extendedRepoDef);
+      } else if (languages.get(extendedRepoDef.language()) != null) {
+        repositories.put(extendedRepoDef.key(), extendedRepoDef);
       }
     }
     return repositories;
@@ -332,8 +375,7 @@ public class RegisterRules implements Startable {
     return changed;
   }
 
-  private void mergeParams(RulesDefinition.Rule ruleDef, RuleDefinitionDto rule, DbSession session) {
-    List<RuleParamDto> paramDtos = dbClient.ruleDao().selectRuleParamsByRuleKey(session, rule.getKey());
+  private void mergeParams(RulesDefinition.Rule ruleDef, RuleDefinitionDto rule, List<RuleParamDto> paramDtos, DbSession session) {
     Map<String, RuleParamDto> existingParamsByName = Maps.newHashMap();
 
     Profiler profiler = Profiler.create(Loggers.get(getClass()));
@@ -0,0 +1,104 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.rule;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.util.Collection;
+import java.util.Comparator;
+import javax.annotation.Nullable;
+import org.sonar.api.server.debt.DebtRemediationFunction;
+import org.sonar.api.server.rule.RulesDefinition;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Hash of all the attributes of the rule definitions of a repository that are persisted by {@link RegisterRules}.
+ * Rules and parameters are sorted by key, so that the fingerprint does not depend on the order in which
+ * plugins declare them.
+ */
+class RuleRepositoryFingerprint {
+
+  private RuleRepositoryFingerprint() {
+    // only static methods
+  }
+
+  /**
+   * @param repositories the repository and its extensions, all having the same key
+   * @param organizationsEnabled template rules are not registered when organizations are enabled
+   */
+  static String compute(Collection<RulesDefinition.ExtendedRepository> repositories, boolean organizationsEnabled) {
+    Hasher hasher = Hashing.sha1().newHasher();
+    hasher.putBoolean(organizationsEnabled);
+    for (RulesDefinition.ExtendedRepository repository : repositories) {
+      putString(hasher, repository.key());
+      putString(hasher, repository.language());
+      repository.rules().stream()
+        .sorted(Comparator.comparing(RulesDefinition.Rule::key))
+        .forEach(rule -> putRule(hasher, rule));
+    }
+    return hasher.hash().toString();
+  }
+
+  private static void putRule(Hasher hasher, RulesDefinition.Rule rule) {
+    putString(hasher, rule.key());
+    putString(hasher, rule.pluginKey());
+    putString(hasher, rule.name());
+    putString(hasher, rule.htmlDescription());
+    putString(hasher, rule.markdownDescription());
+    putString(hasher, rule.internalKey());
+    putString(hasher, rule.severity());
+    putString(hasher, rule.type().name());
+    putString(hasher, rule.status().name());
+    putString(hasher, rule.gapDescription());
+    hasher.putBoolean(rule.template());
+    DebtRemediationFunction debtRemediationFunction = rule.debtRemediationFunction();
+    if (debtRemediationFunction == null) {
+      hasher.putBoolean(false);
+    } else {
+      hasher.putBoolean(true);
+      putString(hasher, debtRemediationFunction.type().name());
+      putString(hasher, debtRemediationFunction.gapMultiplier());
+      putString(hasher, debtRemediationFunction.baseEffort());
+    }
+    hasher.putInt(rule.tags().size());
+    rule.tags().stream().sorted().forEach(tag -> putString(hasher, tag));
+    hasher.putInt(rule.params().size());
+    rule.params().stream()
+      .sorted(Comparator.comparing(RulesDefinition.Param::key))
+      .forEach(param -> {
+        putString(hasher, param.key());
+        putString(hasher, param.description());
+        putString(hasher, param.defaultValue());
+        putString(hasher, param.type().toString());
+      });
+  }
+
+  /**
+   * Length is hashed as a prefix so that concatenations of different values can not collide
+   */
+  private static void putString(Hasher hasher, @Nullable String s) {
+    if (s == null) {
+      hasher.putInt(-1);
+    } else {
+      hasher.putInt(s.length()).putString(s, UTF_8);
+    }
+  }
+}
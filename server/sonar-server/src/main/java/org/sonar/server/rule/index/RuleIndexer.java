@@ -69,7 +69,7 @@ public class RuleIndexer implements ResilientIndexer {
   @Override
   public void indexOnStartup(Set<IndexType> uninitializedIndexTypes) {
     try (DbSession dbSession = dbClient.openSession(false)) {
-      BulkIndexer bulk = createBulkIndexer(Size.LARGE, IndexingListener.FAIL_ON_ERROR);
+      BulkIndexer bulk = BulkIndexer.forPopulation(esClient, INDEX_TYPE_RULE, Size.LARGE);
       bulk.start();
 
       // index all definitions and system extensions
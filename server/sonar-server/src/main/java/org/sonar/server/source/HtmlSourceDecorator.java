@@ -19,13 +19,61 @@
  */
 package org.sonar.server.source;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import java.util.List;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.apache.commons.lang.StringUtils;
+import org.sonar.db.protobuf.DbFileSources;
 
 public class HtmlSourceDecorator {
 
+  /**
+   * Maximum number of characters of the decorated lines kept in cache, which is about 40Mb of heap
+   */
+  static final long CACHE_MAX_WEIGHT = 20_000_000L;
+
+  private final Cache<String, String> cache = CacheBuilder.newBuilder()
+    .maximumWeight(CACHE_MAX_WEIGHT)
+    .weigher((String key, String html) -> key.length() + html.length())
+    .recordStats()
+    .build();
+
+  /**
+   * Same as {@link #getDecoratedSourceAsHtml(String, String, String)}, but the result is cached. Lines are
+   * identified by the hash of the data of their file, so the cache does not need to be invalidated when a
+   * file is analysed again: lines of the new data are decorated again, and old entries are evicted when
+   * the cache is full.
+   *
+   * @param dataHash the hash of the data of the file ({@code FILE_SOURCES.DATA_HASH}). Line is not cached if {@code null}.
+   */
+  public String getDecoratedSourceAsHtml(@Nullable String dataHash, DbFileSources.Line line) {
+    if (dataHash == null) {
+      return decorate(line);
+    }
+    String key = dataHash + ':' + line.getLine();
+    String html = cache.getIfPresent(key);
+    if (html == null) {
+      html = decorate(line);
+      cache.put(key, html);
+    }
+    return html;
+  }
+
+  public CacheStats getCacheStats() {
+    return cache.stats();
+  }
+
+  public long getCacheSize() {
+    return cache.size();
+  }
+
+  private String decorate(DbFileSources.Line line) {
+    return StringUtils.defaultString(getDecoratedSourceAsHtml(line.getSource(), line.getHighlighting(), line.getSymbols()));
+  }
+
   @CheckForNull
   public String getDecoratedSourceAsHtml(@Nullable String sourceLine, @Nullable String highlighting, @Nullable String symbols) {
     if (sourceLine == null) {
@@ -23,7 +23,6 @@ import com.google.common.io.Closeables;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.StringReader;
-import java.util.Collection;
 import java.util.List;
 import javax.annotation.Nullable;
 import org.sonar.api.utils.log.Loggers;
@@ -106,12 +105,11 @@ class HtmlTextDecorator {
       closeCurrentSyntaxTags(charsReader, currentHtmlLine);
     }
 
-    Collection<String> tagsToOpen = getTagsToOpen(charsReader.getCurrentIndex(), decorationDataHolder);
-    openNewTags(charsReader, tagsToOpen, currentHtmlLine);
+    openNewTags(charsReader, charsReader.getCurrentIndex(), decorationDataHolder, currentHtmlLine);
 
     if (shouldAppendCharToHtmlOutput(charsReader)) {
       char currentChar = (char) charsReader.getCurrentValue();
-      currentHtmlLine.append(normalize(currentChar));
+      appendNormalized(currentChar, currentHtmlLine);
     }
   }
 
@@ -129,18 +127,16 @@ class HtmlTextDecorator {
     return to != null && to < currentLine;
   }
 
-  private char[] normalize(char currentChar) {
-    char[] normalizedChars;
+  private static void appendNormalized(char currentChar, StringBuilder decoratedText) {
     if (currentChar == HTML_OPENING) {
-      normalizedChars = ENCODED_HTML_OPENING.toCharArray();
+      decoratedText.append(ENCODED_HTML_OPENING);
     } else if (currentChar == HTML_CLOSING) {
-      normalizedChars = ENCODED_HTML_CLOSING.toCharArray();
+      decoratedText.append(ENCODED_HTML_CLOSING);
     } else if (currentChar == AMPERSAND) {
-      normalizedChars = ENCODED_AMPERSAND.toCharArray();
+      decoratedText.append(ENCODED_AMPERSAND);
     } else {
-      normalizedChars = new char[] {currentChar};
+      decoratedText.append(currentChar);
     }
-    return normalizedChars;
   }
 
   private boolean shouldAppendCharToHtmlOutput(CharactersReader charsReader) {
@@ -157,15 +153,6 @@ class HtmlTextDecorator {
     return numberOfTagsToClose;
   }
 
-  private Collection<String> getTagsToOpen(int currentIndex, DecorationDataHolder dataHolder) {
-    Collection<String> tagsToOpen = newArrayList();
-    while (dataHolder.getCurrentOpeningTagEntry() != null && currentIndex == dataHolder.getCurrentOpeningTagEntry().getStartOffset()) {
-      tagsToOpen.add(dataHolder.getCurrentOpeningTagEntry().getCssClass());
-      dataHolder.nextOpeningTagEntry();
-    }
-    return tagsToOpen;
-  }
-
   private boolean shouldClosePendingTags(CharactersReader charactersReader) {
     return charactersReader.getCurrentValue() == CR_END_OF_LINE
       || (charactersReader.getCurrentValue() == LF_END_OF_LINE && charactersReader.getPreviousValue() != CR_END_OF_LINE)
@@ -191,11 +178,14 @@ class HtmlTextDecorator {
     }
   }
 
-  private void openNewTags(CharactersReader charactersReader, Collection<String> tagsToOpen,
+  private void openNewTags(CharactersReader charactersReader, int currentIndex, DecorationDataHolder dataHolder,
     StringBuilder decoratedText) {
-    for (String tagToOpen : tagsToOpen) {
-      injectOpeningHtmlForRule(tagToOpen, decoratedText);
-      charactersReader.registerOpenTag(tagToOpen);
+    OpeningHtmlTag tagToOpen = dataHolder.getCurrentOpeningTagEntry();
+    while (tagToOpen != null && currentIndex == tagToOpen.getStartOffset()) {
+      injectOpeningHtmlForRule(tagToOpen.getCssClass(), decoratedText);
+      charactersReader.registerOpenTag(tagToOpen.getCssClass());
+      dataHolder.nextOpeningTagEntry();
+      tagToOpen = dataHolder.getCurrentOpeningTagEntry();
     }
   }
 
@@ -20,6 +20,7 @@
 package org.sonar.server.source;
 
 import java.util.Optional;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import org.sonar.core.util.stream.MoreCollectors;
 import org.sonar.db.DbClient;
@@ -57,20 +58,35 @@ public class SourceService {
   }
 
   public Optional<Iterable<String>> getLinesAsHtml(DbSession dbSession, String fileUuid, int from, int toInclusive) {
-    return getLines(dbSession, fileUuid, from, toInclusive, lineToHtml());
+    return getDecoratedLines(dbSession, fileUuid, from, toInclusive, (line, html) -> html);
+  }
+
+  /**
+   * Returns a range of lines as raw db data, along with the source of each line decorated as HTML.
+   * Decorated lines are cached by {@link HtmlSourceDecorator}. User permission is not verified.
+   * @see #getLines(DbSession, String, int, int)
+   */
+  public <E> Optional<Iterable<E>> getDecoratedLines(DbSession dbSession, String fileUuid, int from, int toInclusive,
+    BiFunction<DbFileSources.Line, String, E> lineAndHtmlFunction) {
+    return selectLines(dbSession, fileUuid, from, toInclusive,
+      dto -> line -> lineAndHtmlFunction.apply(line, htmlDecorator.getDecoratedSourceAsHtml(dto.getDataHash(), line)));
   }
 
   private <E> Optional<Iterable<E>> getLines(DbSession dbSession, String fileUuid, int from, int toInclusive, Function<DbFileSources.Line, E> function) {
+    return selectLines(dbSession, fileUuid, from, toInclusive, dto -> function);
+  }
+
+  private <E> Optional<Iterable<E>> selectLines(DbSession dbSession, String fileUuid, int from, int toInclusive,
+    Function<FileSourceDto, Function<DbFileSources.Line, E>> functionFactory) {
     verifyLine(from);
     checkArgument(toInclusive >= from, String.format("Line number must greater than or equal to %d, got %d", from, toInclusive));
     FileSourceDto dto = dbClient.fileSourceDao().selectSourceByFileUuid(dbSession, fileUuid);
     if (dto == null) {
       return Optional.empty();
     }
-    return Optional.of(dto.getSourceData().getLinesList().stream()
+    return Optional.of(dto.getSourceLines(from, toInclusive).stream()
       .filter(line -> line.hasLine() && line.getLine() >= from)
-      .limit((toInclusive - from) + 1L)
-      .map(function)
+      .map(functionFactory.apply(dto))
       .collect(MoreCollectors.toList()));
   }
 
@@ -78,8 +94,4 @@ public class SourceService {
     checkArgument(line >= 1, String.format("Line number must start at 1, got %d", line));
   }
 
-  private Function<DbFileSources.Line, String> lineToHtml() {
-    return line -> htmlDecorator.getDecoratedSourceAsHtml(line.getSource(), line.getHighlighting(), line.getSymbols());
-  }
-
 }
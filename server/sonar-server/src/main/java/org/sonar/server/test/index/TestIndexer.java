@@ -69,7 +69,7 @@ public class TestIndexer implements ProjectIndexer {
     try (DbSession dbSession = dbClient.openSession(false);
       TestResultSetIterator rowIt = TestResultSetIterator.create(dbClient, dbSession, null)) {
 
-      BulkIndexer bulkIndexer = new BulkIndexer(esClient, INDEX_TYPE_TEST, Size.LARGE);
+      BulkIndexer bulkIndexer = BulkIndexer.forPopulation(esClient, INDEX_TYPE_TEST, Size.LARGE);
       bulkIndexer.start();
       addTestsToBulkIndexer(rowIt, bulkIndexer);
       bulkIndexer.stop();
@@ -0,0 +1,209 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.user;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.picocontainer.Startable;
+import org.sonar.api.server.ServerSide;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.db.permission.AuthorizationVersionDao;
+import org.sonar.db.permission.OrganizationPermission;
+import org.sonar.db.user.GroupDto;
+import org.sonar.db.user.UserDto;
+import org.sonar.server.platform.WebServer;
+
+/**
+ * Cache of the data loaded on each web request to authenticate the user and to verify
+ * its permissions: user tokens, active users, groups and permissions.
+ * <p>
+ * The cache is bound to the version of authorizations stored in database (see {@link AuthorizationVersionDao}),
+ * which is changed in the same transaction as any change of these data, whatever the web node
+ * or process doing it. The version is read once at the beginning of each request by {@link #load()}.
+ * Entries are served only to the requests which read the version they were loaded with, so a
+ * revoked token, a deactivated user or a removed permission is never used by the requests
+ * starting after the commit of the change.
+ * <p>
+ * Data is loaded directly from database, without cache, out of web requests or when the version
+ * is not initialized.
+ */
+@ServerSide
+public class AuthorizationCache implements Startable {
+
+  private static final int MAX_SIZE = 10_000;
+  private static final int TTL_IN_MINUTES = 10;
+
+  private final DbClient dbClient;
+  private final WebServer webServer;
+  private final ThreadLocal<String> requestVersion = new ThreadLocal<>();
+  private final AtomicReference<Generation> generation = new AtomicReference<>(new Generation(null));
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder invalidations = new LongAdder();
+
+  public AuthorizationCache(DbClient dbClient, WebServer webServer) {
+    this.dbClient = dbClient;
+    this.webServer = webServer;
+  }
+
+  @Override
+  public void start() {
+    if (webServer.isStartupLeader()) {
+      try (DbSession dbSession = dbClient.openSession(false)) {
+        dbClient.authorizationVersionDao().insertIfAbsent(dbSession);
+        dbSession.commit();
+      }
+    }
+  }
+
+  @Override
+  public void stop() {
+    // nothing to do
+  }
+
+  /**
+   * Reads the current version of authorizations for the request processed by the current thread.
+   * Must be followed by {@link #unload()} at the end of the request.
+   */
+  public void load() {
+    Optional<String> version;
+    try (DbSession dbSession = dbClient.openSession(false)) {
+      version = dbClient.authorizationVersionDao().select(dbSession);
+    }
+    if (!version.isPresent()) {
+      requestVersion.remove();
+      return;
+    }
+    requestVersion.set(version.get());
+    Generation current = generation.get();
+    if (!version.get().equals(current.version) && generation.compareAndSet(current, new Generation(version.get())) && current.version != null) {
+      invalidations.increment();
+    }
+  }
+
+  public void unload() {
+    requestVersion.remove();
+  }
+
+  /**
+   * Login of the user owning the token with the specified hash. Unknown tokens are not cached.
+   */
+  public Optional<String> getLoginByTokenHash(String tokenHash, Supplier<Optional<String>> loader) {
+    return get(Arrays.asList("token", tokenHash), loader, Optional::isPresent);
+  }
+
+  /**
+   * Active user with the specified login. Unknown and deactivated users are not cached.
+   */
+  public Optional<UserDto> getActiveUserByLogin(String login, Supplier<Optional<UserDto>> loader) {
+    return get(Arrays.asList("user", login), loader, Optional::isPresent);
+  }
+
+  public Collection<GroupDto> getGroupsOfUser(String login, Supplier<Collection<GroupDto>> loader) {
+    return get(Arrays.asList("groups", login), loader, groups -> true);
+  }
+
+  /**
+   * @param userId id of user, {@code null} for anonymous
+   */
+  public Set<OrganizationPermission> getOrganizationPermissions(@Nullable Integer userId, String organizationUuid,
+    Supplier<Set<OrganizationPermission>> loader) {
+    return get(Arrays.asList("organizationPermissions", userId, organizationUuid), loader, permissions -> true);
+  }
+
+  /**
+   * @param userId id of user, {@code null} for anonymous
+   */
+  public Set<String> getProjectPermissions(@Nullable Integer userId, String projectUuid, Supplier<Set<String>> loader) {
+    return get(Arrays.asList("projectPermissions", userId, projectUuid), loader, permissions -> true);
+  }
+
+  private <T> T get(List<Object> key, Supplier<T> loader, Predicate<T> isCacheable) {
+    String version = requestVersion.get();
+    if (version == null) {
+      return loader.get();
+    }
+    Generation current = generation.get();
+    if (!version.equals(current.version)) {
+      // another version has been loaded by a more recent request
+      misses.increment();
+      return loader.get();
+    }
+    T value = current.getIfPresent(key);
+    if (value != null) {
+      hits.increment();
+      return value;
+    }
+    misses.increment();
+    value = loader.get();
+    if (isCacheable.test(value)) {
+      current.cache.put(key, value);
+    }
+    return value;
+  }
+
+  public long getSize() {
+    return generation.get().cache.size();
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public long getInvalidations() {
+    return invalidations.sum();
+  }
+
+  private static class Generation {
+    @CheckForNull
+    private final String version;
+    private final Cache<List<Object>, Object> cache = CacheBuilder.newBuilder()
+      .maximumSize(MAX_SIZE)
+      .expireAfterWrite(TTL_IN_MINUTES, TimeUnit.MINUTES)
+      .build();
+
+    private Generation(@Nullable String version) {
+      this.version = version;
+    }
+
+    @CheckForNull
+    @SuppressWarnings("unchecked")
+    private <T> T getIfPresent(List<Object> key) {
+      return (T) cache.getIfPresent(key);
+    }
+  }
+}
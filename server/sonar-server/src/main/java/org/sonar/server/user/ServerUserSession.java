@@ -21,6 +21,7 @@ package org.sonar.server.user;
 
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import java.util.Collection;
 import java.util.Collections;
@@ -54,6 +55,7 @@ public class ServerUserSession extends AbstractUserSession {
   private final DbClient dbClient;
   private final OrganizationFlags organizationFlags;
   private final DefaultOrganizationProvider defaultOrganizationProvider;
+  private final AuthorizationCache authorizationCache;
   private final Supplier<Collection<GroupDto>> groups = Suppliers.memoize(this::loadGroups);
   private final Supplier<Boolean> isSystemAdministratorSupplier = Suppliers.memoize(this::loadIsSystemAdministrator);
   private final Map<String, String> projectUuidByComponentUuid = newHashMap();
@@ -61,10 +63,11 @@ public class ServerUserSession extends AbstractUserSession {
   private Map<String, Set<String>> permissionsByProjectUuid;
 
   ServerUserSession(DbClient dbClient, OrganizationFlags organizationFlags,
-    DefaultOrganizationProvider defaultOrganizationProvider, @Nullable UserDto userDto) {
+    DefaultOrganizationProvider defaultOrganizationProvider, AuthorizationCache authorizationCache, @Nullable UserDto userDto) {
     this.dbClient = dbClient;
     this.organizationFlags = organizationFlags;
     this.defaultOrganizationProvider = defaultOrganizationProvider;
+    this.authorizationCache = authorizationCache;
     this.userDto = userDto;
   }
 
@@ -72,8 +75,12 @@ public class ServerUserSession extends AbstractUserSession {
     if (this.userDto == null) {
       return Collections.emptyList();
     }
+    return authorizationCache.getGroupsOfUser(userDto.getLogin(), () -> selectGroups(userDto.getLogin()));
+  }
+
+  private Collection<GroupDto> selectGroups(String login) {
     try (DbSession dbSession = dbClient.openSession(false)) {
-      return dbClient.groupDao().selectByUserLogin(dbSession, userDto.getLogin());
+      return ImmutableList.copyOf(dbClient.groupDao().selectByUserLogin(dbSession, login));
     }
   }
 
@@ -120,6 +127,10 @@ public class ServerUserSession extends AbstractUserSession {
   }
 
   private Set<OrganizationPermission> loadOrganizationPermissions(String organizationUuid) {
+    return authorizationCache.getOrganizationPermissions(getUserId(), organizationUuid, () -> selectOrganizationPermissions(organizationUuid));
+  }
+
+  private Set<OrganizationPermission> selectOrganizationPermissions(String organizationUuid) {
     Set<String> permissionKeys;
     try (DbSession dbSession = dbClient.openSession(false)) {
       if (userDto != null && userDto.getId() != null) {
@@ -162,13 +173,17 @@ public class ServerUserSession extends AbstractUserSession {
   }
 
   private Set<String> loadProjectPermissions(String projectUuid) {
+    return authorizationCache.getProjectPermissions(getUserId(), projectUuid, () -> selectProjectPermissions(projectUuid));
+  }
+
+  private Set<String> selectProjectPermissions(String projectUuid) {
     try (DbSession dbSession = dbClient.openSession(false)) {
       com.google.common.base.Optional<ComponentDto> component = dbClient.componentDao().selectByUuid(dbSession, projectUuid);
       if (!component.isPresent()) {
         return Collections.emptySet();
       }
       if (component.get().isPrivate()) {
-        return loadDbPermissions(dbSession, projectUuid);
+        return ImmutableSet.copyOf(loadDbPermissions(dbSession, projectUuid));
       }
       ImmutableSet.Builder<String> builder = ImmutableSet.builder();
       builder.addAll(ProjectPermissions.PUBLIC_PERMISSIONS);
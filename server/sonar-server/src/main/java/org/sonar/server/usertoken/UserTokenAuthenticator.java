@@ -23,14 +23,17 @@ import com.google.common.base.Optional;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.user.UserTokenDto;
+import org.sonar.server.user.AuthorizationCache;
 
 public class UserTokenAuthenticator {
   private final TokenGenerator tokenGenerator;
   private final DbClient dbClient;
+  private final AuthorizationCache authorizationCache;
 
-  public UserTokenAuthenticator(TokenGenerator tokenGenerator, DbClient dbClient) {
+  public UserTokenAuthenticator(TokenGenerator tokenGenerator, DbClient dbClient, AuthorizationCache authorizationCache) {
     this.tokenGenerator = tokenGenerator;
     this.dbClient = dbClient;
+    this.authorizationCache = authorizationCache;
   }
 
   /**
@@ -40,6 +43,10 @@ public class UserTokenAuthenticator {
    */
   public java.util.Optional<String> authenticate(String token) {
     String tokenHash = tokenGenerator.hash(token);
+    return authorizationCache.getLoginByTokenHash(tokenHash, () -> selectLoginByTokenHash(tokenHash));
+  }
+
+  private java.util.Optional<String> selectLoginByTokenHash(String tokenHash) {
     try (DbSession dbSession = dbClient.openSession(false)) {
       Optional<UserTokenDto> userToken = dbClient.userTokenDao().selectByTokenHash(dbSession, tokenHash);
       if (userToken.isPresent()) {
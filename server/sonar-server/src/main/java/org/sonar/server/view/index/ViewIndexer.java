@@ -66,7 +66,7 @@ public class ViewIndexer implements ResilientIndexer {
       for (UuidWithProjectUuidDto uuidWithProjectUuidDto : dbClient.componentDao().selectAllViewsAndSubViews(dbSession)) {
         viewAndProjectViewUuidMap.put(uuidWithProjectUuidDto.getUuid(), uuidWithProjectUuidDto.getProjectUuid());
       }
-      index(dbSession, viewAndProjectViewUuidMap, false, Size.LARGE);
+      index(dbSession, viewAndProjectViewUuidMap, false, BulkIndexer.forPopulation(esClient, INDEX_TYPE_VIEW, Size.LARGE));
     }
   }
 
@@ -82,7 +82,7 @@ public class ViewIndexer implements ResilientIndexer {
       for (ComponentDto viewOrSubView : dbClient.componentDao().selectEnabledDescendantModules(dbSession, rootViewUuid)) {
         viewAndProjectViewUuidMap.put(viewOrSubView.uuid(), viewOrSubView.projectUuid());
       }
-      index(dbSession, viewAndProjectViewUuidMap, true, Size.REGULAR);
+      index(dbSession, viewAndProjectViewUuidMap, true, new BulkIndexer(esClient, INDEX_TYPE_VIEW, Size.REGULAR));
     }
   }
 
@@ -98,8 +98,7 @@ public class ViewIndexer implements ResilientIndexer {
     bulk.stop();
   }
 
-  private void index(DbSession dbSession, Map<String, String> viewAndProjectViewUuidMap, boolean needClearCache, Size bulkSize) {
-    BulkIndexer bulk = new BulkIndexer(esClient, ViewIndexDefinition.INDEX_TYPE_VIEW, bulkSize);
+  private void index(DbSession dbSession, Map<String, String> viewAndProjectViewUuidMap, boolean needClearCache, BulkIndexer bulk) {
     bulk.start();
     for (Map.Entry<String, String> entry : viewAndProjectViewUuidMap.entrySet()) {
       String viewUuid = entry.getKey();
@@ -57,6 +57,14 @@ public class WebHooksImpl implements WebHooks {
       .isPresent();
   }
 
+  /**
+   * Whether a webhook with the given name and URL is still defined by the configuration
+   */
+  static boolean isConfigured(Configuration config, String name, String url) {
+    return readWebHooksFrom(config)
+      .anyMatch(nameUrl -> nameUrl.getName().equals(name) && nameUrl.getUrl().equals(url));
+  }
+
   private static Stream<NameUrl> readWebHooksFrom(Configuration config) {
     return Stream.concat(
       getWebhookProperties(config, WebhookProperties.GLOBAL_KEY).stream(),
@@ -91,11 +99,15 @@ public class WebHooksImpl implements WebHooks {
     }
 
     WebhookPayload payload = payloadSupplier.get();
-    webhooks.forEach(webhook -> asyncExecution.addToQueue(() -> {
-      WebhookDelivery delivery = caller.call(webhook, payload);
-      log(delivery);
-      deliveryStorage.persist(delivery);
-    }));
+    webhooks.forEach(webhook -> caller.callAsync(webhook, payload)
+      .thenAccept(delivery -> {
+        log(delivery);
+        deliveryStorage.persist(delivery);
+      })
+      .exceptionally(t -> {
+        LOGGER.error(format("Failed to persist delivery of webhook '%s'", webhook.getName()), t);
+        return null;
+      }));
     asyncExecution.addToQueue(() -> deliveryStorage.purge(analysis.getProjectUuid()));
   }
 
@@ -19,6 +19,8 @@
  */
 package org.sonar.server.webhook;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface WebhookCaller {
 
   /**
@@ -31,4 +33,10 @@ public interface WebhookCaller {
    */
   WebhookDelivery call(Webhook webhook, WebhookPayload payload);
 
+  /**
+   * Same as {@link #call(Webhook, WebhookPayload)}, except that the HTTP request is executed
+   * asynchronously. The returned future never completes exceptionally.
+   */
+  CompletableFuture<WebhookDelivery> callAsync(Webhook webhook, WebhookPayload payload);
+
 }
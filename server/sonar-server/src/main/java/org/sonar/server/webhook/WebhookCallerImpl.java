@@ -19,14 +19,25 @@
  */
 package org.sonar.server.webhook;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.Credentials;
+import okhttp3.Dispatcher;
 import okhttp3.HttpUrl;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
+import org.sonar.api.Startable;
 import org.sonar.api.ce.ComputeEngineSide;
 import org.sonar.api.utils.System2;
 
@@ -38,22 +49,55 @@ import static okhttp3.internal.http.StatusLine.HTTP_PERM_REDIRECT;
 import static okhttp3.internal.http.StatusLine.HTTP_TEMP_REDIRECT;
 import static org.apache.commons.lang.StringUtils.isNotEmpty;
 
+/**
+ * Webhooks are sent asynchronously by the {@link Dispatcher} of OkHttp, on a dedicated pool of threads.
+ * The dispatcher limits the number of concurrent requests, globally and per host, so that
+ * a slow endpoint does not delay the webhooks of the other endpoints.
+ */
 @ComputeEngineSide
-public class WebhookCallerImpl implements WebhookCaller {
+public class WebhookCallerImpl implements WebhookCaller, Startable {
 
   private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
   private static final String PROJECT_KEY_HEADER = "X-SonarQube-Project";
+  @VisibleForTesting
+  static final int MAX_REQUESTS = 10;
+  @VisibleForTesting
+  static final int MAX_REQUESTS_PER_HOST = 2;
 
   private final System2 system;
+  private final ExecutorService executorService;
   private final OkHttpClient okHttpClient;
 
   public WebhookCallerImpl(System2 system, OkHttpClient okHttpClient) {
     this.system = system;
-    this.okHttpClient = newClientWithoutRedirect(okHttpClient);
+    this.executorService = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+      new ThreadFactoryBuilder()
+        .setNameFormat("Webhook-%d")
+        .setDaemon(true)
+        .build());
+    Dispatcher dispatcher = new Dispatcher(executorService);
+    dispatcher.setMaxRequests(MAX_REQUESTS);
+    dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+    this.okHttpClient = newClientWithoutRedirect(okHttpClient, dispatcher);
+  }
+
+  @Override
+  public void start() {
+    // nothing to do
+  }
+
+  @Override
+  public void stop() {
+    executorService.shutdown();
   }
 
   @Override
   public WebhookDelivery call(Webhook webhook, WebhookPayload payload) {
+    return callAsync(webhook, payload).join();
+  }
+
+  @Override
+  public CompletableFuture<WebhookDelivery> callAsync(Webhook webhook, WebhookPayload payload) {
     WebhookDelivery.Builder builder = new WebhookDelivery.Builder();
     long startedAt = system.now();
     builder
@@ -61,16 +105,14 @@ public class WebhookCallerImpl implements WebhookCaller {
       .setPayload(payload)
       .setWebhook(webhook);
 
+    CompletableFuture<WebhookDelivery> result = new CompletableFuture<>();
     try {
       Request request = buildHttpRequest(webhook, payload);
-      try (Response response = execute(request)) {
-        builder.setHttpStatus(response.code());
-        builder.setDurationInMs((int) (system.now() - startedAt));
-      }
+      okHttpClient.newCall(request).enqueue(new DeliveryCallback(builder, startedAt, result, true));
     } catch (Exception e) {
-      builder.setError(e);
+      result.complete(builder.setError(e).build());
     }
-    return builder.build();
+    return result;
   }
 
   private static Request buildHttpRequest(Webhook webhook, WebhookPayload payload) {
@@ -90,9 +132,8 @@ public class WebhookCallerImpl implements WebhookCaller {
     return request.build();
   }
 
-  private Response execute(Request request) throws IOException {
-    Response response = okHttpClient.newCall(request).execute();
-    switch (response.code()) {
+  private static boolean isRedirect(int code) {
+    switch (code) {
       case HTTP_MOVED_PERM:
       case HTTP_MOVED_TEMP:
       case HTTP_TEMP_REDIRECT:
@@ -103,35 +144,75 @@ public class WebhookCallerImpl implements WebhookCaller {
         // See:
         // https://github.com/square/okhttp/blob/07309c1c7d9e296014268ebd155ebf7ef8679f6c/okhttp/src/main/java/okhttp3/internal/http/RetryAndFollowUpInterceptor.java#L316
         // https://github.com/square/okhttp/issues/936#issuecomment-266430151
-        return followPostRedirect(response);
+        return true;
       default:
-        return response;
+        return false;
     }
   }
 
   /**
    * Inspired by https://github.com/square/okhttp/blob/parent-3.6.0/okhttp/src/main/java/okhttp3/internal/http/RetryAndFollowUpInterceptor.java#L286
    */
-  private Response followPostRedirect(Response response) throws IOException {
-    String location = response.header("Location");
-    if (location == null) {
-      throw new IllegalStateException(format("Missing HTTP header 'Location' in redirect of %s", response.request().url()));
+  private static Request newPostRedirect(Response response) {
+    try {
+      String location = response.header("Location");
+      if (location == null) {
+        throw new IllegalStateException(format("Missing HTTP header 'Location' in redirect of %s", response.request().url()));
+      }
+      HttpUrl url = response.request().url().resolve(location);
+
+      // Don't follow redirects to unsupported protocols.
+      if (url == null) {
+        throw new IllegalStateException(format("Unsupported protocol in redirect of %s to %s", response.request().url(), location));
+      }
+
+      Request.Builder redirectRequest = response.request().newBuilder();
+      redirectRequest.post(response.request().body());
+      return redirectRequest.url(url).build();
+    } finally {
+      response.close();
     }
-    HttpUrl url = response.request().url().resolve(location);
+  }
 
-    // Don't follow redirects to unsupported protocols.
-    if (url == null) {
-      throw new IllegalStateException(format("Unsupported protocol in redirect of %s to %s", response.request().url(), location));
+  private class DeliveryCallback implements Callback {
+    private final WebhookDelivery.Builder builder;
+    private final long startedAt;
+    private final CompletableFuture<WebhookDelivery> result;
+    private final boolean followRedirect;
+
+    private DeliveryCallback(WebhookDelivery.Builder builder, long startedAt, CompletableFuture<WebhookDelivery> result, boolean followRedirect) {
+      this.builder = builder;
+      this.startedAt = startedAt;
+      this.result = result;
+      this.followRedirect = followRedirect;
+    }
+
+    @Override
+    public void onFailure(Call call, IOException e) {
+      result.complete(builder.setError(e).build());
     }
 
-    Request.Builder redirectRequest = response.request().newBuilder();
-    redirectRequest.post(response.request().body());
-    response.body().close();
-    return okHttpClient.newCall(redirectRequest.url(url).build()).execute();
+    @Override
+    public void onResponse(Call call, Response response) {
+      if (followRedirect && isRedirect(response.code())) {
+        try {
+          Request redirectRequest = newPostRedirect(response);
+          okHttpClient.newCall(redirectRequest).enqueue(new DeliveryCallback(builder, startedAt, result, false));
+        } catch (Exception e) {
+          result.complete(builder.setError(e).build());
+        }
+        return;
+      }
+      builder.setHttpStatus(response.code());
+      builder.setDurationInMs((int) (system.now() - startedAt));
+      response.close();
+      result.complete(builder.build());
+    }
   }
 
-  private static OkHttpClient newClientWithoutRedirect(OkHttpClient client) {
+  private static OkHttpClient newClientWithoutRedirect(OkHttpClient client, Dispatcher dispatcher) {
     return client.newBuilder()
+      .dispatcher(dispatcher)
       .followRedirects(false)
       .followSslRedirects(false)
       .build();
@@ -0,0 +1,57 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.webhook;
+
+import org.sonar.api.SonarQubeSide;
+import org.sonar.api.SonarRuntime;
+import org.sonar.api.ce.ComputeEngineSide;
+import org.sonar.api.server.ServerSide;
+import org.sonar.process.systeminfo.SystemInfoSection;
+import org.sonar.process.systeminfo.protobuf.ProtobufSystemInfo.Section;
+
+import static org.sonar.process.systeminfo.SystemInfoUtils.setAttribute;
+
+/**
+ * Statistics of the webhook deliveries made by the current process since startup
+ */
+@ServerSide
+@ComputeEngineSide
+public class WebhookDeliverySection implements SystemInfoSection {
+
+  private final WebhookDeliveryStorage deliveryStorage;
+  private final SonarRuntime runtime;
+
+  public WebhookDeliverySection(WebhookDeliveryStorage deliveryStorage, SonarRuntime runtime) {
+    this.deliveryStorage = deliveryStorage;
+    this.runtime = runtime;
+  }
+
+  @Override
+  public Section toProtobuf() {
+    Section.Builder protobuf = Section.newBuilder();
+    String side = runtime.getSonarQubeSide() == SonarQubeSide.COMPUTE_ENGINE ? "Compute Engine" : "Web";
+    protobuf.setName(side + " Webhook Deliveries");
+    setAttribute(protobuf, "Deliveries", deliveryStorage.getDeliveries());
+    setAttribute(protobuf, "Failures", deliveryStorage.getFailures());
+    setAttribute(protobuf, "Average Duration (ms)", deliveryStorage.getAverageDurationInMs());
+    setAttribute(protobuf, "Max Duration (ms)", deliveryStorage.getMaxDurationInMs());
+    return protobuf.build();
+  }
+}
@@ -19,7 +19,10 @@
  */
 package org.sonar.server.webhook;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
 import org.sonar.api.ce.ComputeEngineSide;
 import org.sonar.api.utils.System2;
 import org.sonar.core.util.UuidFactory;
@@ -29,16 +32,27 @@ import org.sonar.db.webhook.WebhookDeliveryDao;
 import org.sonar.db.webhook.WebhookDeliveryDto;
 
 /**
- * Persist and purge {@link WebhookDelivery} into database
+ * Persist and purge {@link WebhookDelivery} into database. Deliveries which failed because
+ * of a transient error are scheduled for a new attempt, with an exponential backoff.
+ * See {@link WebhookRetryScheduler}.
  */
 @ComputeEngineSide
 public class WebhookDeliveryStorage {
 
   private static final long ALIVE_DELAY_MS = 30L * 24 * 60 * 60 * 1000;
+  @VisibleForTesting
+  static final long FIRST_RETRY_DELAY_MS = 60_000L;
+  @VisibleForTesting
+  static final int MAX_ATTEMPTS = 4;
+  private static final int HTTP_TOO_MANY_REQUESTS = 429;
 
   private final DbClient dbClient;
   private final System2 system;
   private final UuidFactory uuidFactory;
+  private final AtomicLong deliveries = new AtomicLong();
+  private final AtomicLong failures = new AtomicLong();
+  private final AtomicLong totalDurationMs = new AtomicLong();
+  private final AtomicLong maxDurationMs = new AtomicLong();
 
   public WebhookDeliveryStorage(DbClient dbClient, System2 system, UuidFactory uuidFactory) {
     this.dbClient = dbClient;
@@ -47,9 +61,17 @@ public class WebhookDeliveryStorage {
   }
 
   public void persist(WebhookDelivery delivery) {
+    persist(delivery, 1);
+  }
+
+  /**
+   * @param attempt the number of the attempt, starting from 1
+   */
+  public void persist(WebhookDelivery delivery, int attempt) {
+    recordMetrics(delivery);
     WebhookDeliveryDao dao = dbClient.webhookDeliveryDao();
     try (DbSession dbSession = dbClient.openSession(false)) {
-      dao.insert(dbSession, toDto(delivery));
+      dao.insert(dbSession, toDto(delivery, attempt));
       dbSession.commit();
     }
   }
@@ -62,7 +84,46 @@ public class WebhookDeliveryStorage {
     }
   }
 
-  private WebhookDeliveryDto toDto(WebhookDelivery delivery) {
+  public long getDeliveries() {
+    return deliveries.get();
+  }
+
+  public long getFailures() {
+    return failures.get();
+  }
+
+  public long getAverageDurationInMs() {
+    long count = deliveries.get() - failures.get();
+    return count == 0 ? 0 : (totalDurationMs.get() / count);
+  }
+
+  public long getMaxDurationInMs() {
+    return maxDurationMs.get();
+  }
+
+  private void recordMetrics(WebhookDelivery delivery) {
+    deliveries.incrementAndGet();
+    if (!delivery.isSuccess()) {
+      failures.incrementAndGet();
+    }
+    delivery.getDurationInMs().ifPresent(duration -> {
+      if (delivery.isSuccess()) {
+        totalDurationMs.addAndGet(duration);
+      }
+      maxDurationMs.accumulateAndGet(duration, Math::max);
+    });
+  }
+
+  private static boolean isRetryable(WebhookDelivery delivery) {
+    if (delivery.getError().filter(IOException.class::isInstance).isPresent()) {
+      return true;
+    }
+    return delivery.getHttpStatus()
+      .filter(status -> status >= 500 || status == HTTP_TOO_MANY_REQUESTS)
+      .isPresent();
+  }
+
+  private WebhookDeliveryDto toDto(WebhookDelivery delivery, int attempt) {
     WebhookDeliveryDto dto = new WebhookDeliveryDto();
     dto.setUuid(uuidFactory.create());
     dto.setComponentUuid(delivery.getWebhook().getComponentUuid());
@@ -76,6 +137,10 @@ public class WebhookDeliveryStorage {
     dto.setErrorStacktrace(delivery.getError().map(Throwables::getStackTraceAsString).orElse(null));
     dto.setPayload(delivery.getPayload().getJson());
     dto.setCreatedAt(delivery.getAt());
+    dto.setAttempt(attempt);
+    if (attempt < MAX_ATTEMPTS && isRetryable(delivery)) {
+      dto.setRetryAt(delivery.getAt() + (FIRST_RETRY_DELAY_MS << (attempt - 1)));
+    }
     return dto;
   }
 }
@@ -0,0 +1,148 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.webhook;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.sonar.api.Startable;
+import org.sonar.api.ce.ComputeEngineSide;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.server.ServerSide;
+import org.sonar.api.utils.System2;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.db.component.ComponentDto;
+import org.sonar.db.webhook.WebhookDeliveryDto;
+import org.sonar.server.settings.ProjectConfigurationLoader;
+
+import static java.lang.String.format;
+import static java.util.Collections.singleton;
+
+/**
+ * Sends again the webhook deliveries which are scheduled for retry by {@link WebhookDeliveryStorage}.
+ * A delivery is claimed in database before being sent, so that it is retried only once even when
+ * several processes of the cluster run this scheduler. Deliveries of webhooks which have been removed
+ * or whose URL changed since the first attempt are not sent again.
+ */
+@ServerSide
+@ComputeEngineSide
+public class WebhookRetryScheduler implements Startable {
+
+  private static final Logger LOGGER = Loggers.get(WebhookRetryScheduler.class);
+  private static final long PERIOD_IN_SECONDS = 30L;
+  @VisibleForTesting
+  static final int BATCH_SIZE = 50;
+
+  private final DbClient dbClient;
+  private final WebhookCaller caller;
+  private final WebhookDeliveryStorage deliveryStorage;
+  private final System2 system;
+  private final ProjectConfigurationLoader configurationLoader;
+  private ScheduledExecutorService executorService;
+
+  public WebhookRetryScheduler(DbClient dbClient, WebhookCaller caller, WebhookDeliveryStorage deliveryStorage, System2 system,
+    ProjectConfigurationLoader configurationLoader) {
+    this.dbClient = dbClient;
+    this.caller = caller;
+    this.deliveryStorage = deliveryStorage;
+    this.system = system;
+    this.configurationLoader = configurationLoader;
+  }
+
+  @Override
+  public void start() {
+    executorService = Executors.newSingleThreadScheduledExecutor(
+      new ThreadFactoryBuilder()
+        .setNameFormat("WebhookRetryScheduler-%d")
+        .setPriority(Thread.MIN_PRIORITY)
+        .setDaemon(true)
+        .build());
+    executorService.scheduleWithFixedDelay(this::safelyRetry, PERIOD_IN_SECONDS, PERIOD_IN_SECONDS, TimeUnit.SECONDS);
+  }
+
+  @Override
+  public void stop() {
+    if (executorService != null) {
+      executorService.shutdown();
+    }
+  }
+
+  private void safelyRetry() {
+    try {
+      retry();
+    } catch (Exception e) {
+      LOGGER.error("Failed to retry webhook deliveries", e);
+    }
+  }
+
+  /**
+   * @return the number of deliveries which have been sent again
+   */
+  @VisibleForTesting
+  int retry() {
+    int count = 0;
+    try (DbSession dbSession = dbClient.openSession(false)) {
+      List<WebhookDeliveryDto> dtos = dbClient.webhookDeliveryDao().selectForRetry(dbSession, system.now(), BATCH_SIZE);
+      for (WebhookDeliveryDto dto : dtos) {
+        if (claim(dbSession, dto)) {
+          ComponentDto project = dbClient.componentDao().selectByUuid(dbSession, dto.getComponentUuid()).orNull();
+          if (project != null && isConfigured(dbSession, dto, project)) {
+            send(dto, project.getKey());
+            count++;
+          }
+        }
+      }
+    }
+    return count;
+  }
+
+  private boolean claim(DbSession dbSession, WebhookDeliveryDto dto) {
+    boolean claimed = dbClient.webhookDeliveryDao().clearRetry(dbSession, dto.getUuid(), dto.getRetryAt());
+    dbSession.commit();
+    return claimed;
+  }
+
+  private boolean isConfigured(DbSession dbSession, WebhookDeliveryDto dto, ComponentDto project) {
+    Configuration config = configurationLoader.loadProjectConfigurations(dbSession, singleton(project)).get(project.uuid());
+    if (WebHooksImpl.isConfigured(config, dto.getName(), dto.getUrl())) {
+      return true;
+    }
+    LOGGER.debug("Webhook '{}' is not configured anymore for url {}. Delivery {} is not retried.", dto.getName(), dto.getUrl(), dto.getUuid());
+    return false;
+  }
+
+  private void send(WebhookDeliveryDto dto, String projectKey) {
+    Webhook webhook = new Webhook(dto.getComponentUuid(), dto.getCeTaskUuid(), dto.getAnalysisUuid(), dto.getName(), dto.getUrl());
+    WebhookPayload payload = new WebhookPayload(projectKey, dto.getPayload());
+    int attempt = (dto.getAttempt() == null ? 1 : dto.getAttempt()) + 1;
+    caller.callAsync(webhook, payload)
+      .thenAccept(delivery -> deliveryStorage.persist(delivery, attempt))
+      .exceptionally(t -> {
+        LOGGER.error(format("Failed to persist delivery of webhook '%s'", webhook.getName()), t);
+        return null;
+      });
+  }
+}
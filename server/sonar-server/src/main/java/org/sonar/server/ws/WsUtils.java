@@ -21,6 +21,7 @@ package org.sonar.server.ws;
 
 import com.google.common.base.Optional;
 import com.google.protobuf.Message;
+import java.io.BufferedWriter;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.util.List;
@@ -52,7 +53,7 @@ public class WsUtils {
         msg.writeTo(output);
       } else {
         response.stream().setMediaType(JSON);
-        try (JsonWriter writer = JsonWriter.of(new OutputStreamWriter(output, UTF_8))) {
+        try (JsonWriter writer = JsonWriter.of(new BufferedWriter(new OutputStreamWriter(output, UTF_8)))) {
           ProtobufJsonFormat.write(msg, writer);
         }
       }
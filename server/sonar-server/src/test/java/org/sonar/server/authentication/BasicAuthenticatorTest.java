@@ -32,6 +32,8 @@ import org.sonar.db.DbTester;
 import org.sonar.db.user.UserDto;
 import org.sonar.db.user.UserTesting;
 import org.sonar.server.authentication.event.AuthenticationEvent;
+import org.sonar.server.platform.WebServer;
+import org.sonar.server.user.AuthorizationCache;
 import org.sonar.server.usertoken.UserTokenAuthenticator;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -65,6 +67,7 @@ public class BasicAuthenticatorTest {
   public DbTester dbTester = DbTester.create(System2.INSTANCE);
 
   private DbClient dbClient = dbTester.getDbClient();
+  private AuthorizationCache authorizationCache = new AuthorizationCache(dbClient, mock(WebServer.class));
 
   private DbSession dbSession = dbTester.getSession();
 
@@ -75,7 +78,7 @@ public class BasicAuthenticatorTest {
 
   private AuthenticationEvent authenticationEvent = mock(AuthenticationEvent.class);
 
-  private BasicAuthenticator underTest = new BasicAuthenticator(dbClient, credentialsAuthenticator, userTokenAuthenticator, authenticationEvent);
+  private BasicAuthenticator underTest = new BasicAuthenticator(dbClient, credentialsAuthenticator, userTokenAuthenticator, authenticationEvent, authorizationCache);
 
   @Test
   public void authenticate_from_basic_http_header() throws Exception {
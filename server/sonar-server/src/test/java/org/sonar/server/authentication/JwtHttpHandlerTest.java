@@ -39,6 +39,8 @@ import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.DbTester;
 import org.sonar.db.user.UserDto;
+import org.sonar.server.platform.WebServer;
+import org.sonar.server.user.AuthorizationCache;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
@@ -72,6 +74,7 @@ public class JwtHttpHandlerTest {
   public DbTester dbTester = DbTester.create(INSTANCE);
 
   private DbClient dbClient = dbTester.getDbClient();
+  private AuthorizationCache authorizationCache = new AuthorizationCache(dbClient, mock(WebServer.class));
   private DbSession dbSession = dbTester.getSession();
   private ArgumentCaptor<Cookie> cookieArgumentCaptor = ArgumentCaptor.forClass(Cookie.class);
   private ArgumentCaptor<JwtSerializer.JwtSession> jwtArgumentCaptor = ArgumentCaptor.forClass(JwtSerializer.JwtSession.class);
@@ -84,7 +87,7 @@ public class JwtHttpHandlerTest {
   private JwtCsrfVerifier jwtCsrfVerifier = mock(JwtCsrfVerifier.class);
   private UserDto userDto = newUserDto().setLogin(USER_LOGIN);
 
-  private JwtHttpHandler underTest = new JwtHttpHandler(system2, dbClient, settings.asConfig(), jwtSerializer, jwtCsrfVerifier);
+  private JwtHttpHandler underTest = new JwtHttpHandler(system2, dbClient, settings.asConfig(), jwtSerializer, jwtCsrfVerifier, authorizationCache);
 
   @Before
   public void setUp() throws Exception {
@@ -124,7 +127,7 @@ public class JwtHttpHandlerTest {
     int sessionTimeoutInMinutes = 10;
     settings.setProperty("sonar.web.sessionTimeoutInMinutes", sessionTimeoutInMinutes);
 
-    underTest = new JwtHttpHandler(system2, dbClient, settings.asConfig(), jwtSerializer, jwtCsrfVerifier);
+    underTest = new JwtHttpHandler(system2, dbClient, settings.asConfig(), jwtSerializer, jwtCsrfVerifier, authorizationCache);
     underTest.generateToken(userDto, request, response);
 
     verify(jwtSerializer).encode(jwtArgumentCaptor.capture());
@@ -136,7 +139,7 @@ public class JwtHttpHandlerTest {
     int firstSessionTimeoutInMinutes = 10;
     settings.setProperty("sonar.web.sessionTimeoutInMinutes", firstSessionTimeoutInMinutes);
 
-    underTest = new JwtHttpHandler(system2, dbClient, settings.asConfig(), jwtSerializer, jwtCsrfVerifier);
+    underTest = new JwtHttpHandler(system2, dbClient, settings.asConfig(), jwtSerializer, jwtCsrfVerifier, authorizationCache);
     underTest.generateToken(userDto, request, response);
 
     // The property is updated, but it won't be taking into account
@@ -154,7 +157,7 @@ public class JwtHttpHandlerTest {
     expectedException.expect(IllegalArgumentException.class);
     expectedException.expectMessage("Property sonar.web.sessionTimeoutInMinutes must be strictly positive. Got 0");
 
-    new JwtHttpHandler(system2, dbClient, settings.asConfig(), jwtSerializer, jwtCsrfVerifier);
+    new JwtHttpHandler(system2, dbClient, settings.asConfig(), jwtSerializer, jwtCsrfVerifier, authorizationCache);
   }
 
   @Test
@@ -164,7 +167,7 @@ public class JwtHttpHandlerTest {
     expectedException.expect(IllegalArgumentException.class);
     expectedException.expectMessage("Property sonar.web.sessionTimeoutInMinutes must be strictly positive. Got -10");
 
-    new JwtHttpHandler(system2, dbClient, settings.asConfig(), jwtSerializer, jwtCsrfVerifier);
+    new JwtHttpHandler(system2, dbClient, settings.asConfig(), jwtSerializer, jwtCsrfVerifier, authorizationCache);
   }
 
   @Test
@@ -174,7 +177,7 @@ public class JwtHttpHandlerTest {
     expectedException.expect(IllegalArgumentException.class);
     expectedException.expectMessage("Property sonar.web.sessionTimeoutInMinutes must not be greater than 3 months (129600 minutes). Got 172800 minutes");
 
-    new JwtHttpHandler(system2, dbClient, settings.asConfig(), jwtSerializer, jwtCsrfVerifier);
+    new JwtHttpHandler(system2, dbClient, settings.asConfig(), jwtSerializer, jwtCsrfVerifier, authorizationCache);
   }
 
   @Test
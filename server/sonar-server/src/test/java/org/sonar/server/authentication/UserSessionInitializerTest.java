@@ -37,6 +37,8 @@ import org.sonar.server.authentication.event.AuthenticationEvent;
 import org.sonar.server.authentication.event.AuthenticationEvent.Method;
 import org.sonar.server.authentication.event.AuthenticationEvent.Source;
 import org.sonar.server.authentication.event.AuthenticationException;
+import org.sonar.server.platform.WebServer;
+import org.sonar.server.user.AuthorizationCache;
 import org.sonar.server.user.TestUserSessionFactory;
 import org.sonar.server.user.ThreadLocalUserSession;
 import org.sonar.server.user.UserSession;
@@ -58,6 +60,7 @@ public class UserSessionInitializerTest {
   public DbTester dbTester = DbTester.create(System2.INSTANCE);
 
   private DbClient dbClient = dbTester.getDbClient();
+  private AuthorizationCache authorizationCache = new AuthorizationCache(dbClient, mock(WebServer.class));
 
   private DbSession dbSession = dbTester.getSession();
 
@@ -70,7 +73,7 @@ public class UserSessionInitializerTest {
   private TestUserSessionFactory userSessionFactory = TestUserSessionFactory.standalone();
   private MapSettings settings = new MapSettings();
   private UserDto user = newUserDto();
-  private UserSessionInitializer underTest = new UserSessionInitializer(settings.asConfig(), userSession, authenticationEvent, userSessionFactory, authenticators);
+  private UserSessionInitializer underTest = new UserSessionInitializer(settings.asConfig(), userSession, authenticationEvent, userSessionFactory, authenticators, authorizationCache);
 
   @Before
   public void setUp() throws Exception {
@@ -0,0 +1,144 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.batch;
+
+import java.util.stream.IntStream;
+import javax.annotation.Nullable;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.sonar.api.server.ws.WebService;
+import org.sonar.api.utils.System2;
+import org.sonar.api.web.UserRole;
+import org.sonar.core.util.CloseableIterator;
+import org.sonar.core.util.Protobuf;
+import org.sonar.db.DbTester;
+import org.sonar.db.component.ComponentDto;
+import org.sonar.scanner.protocol.input.ScannerInput.FileLineHashes;
+import org.sonar.server.exceptions.ForbiddenException;
+import org.sonar.server.tester.UserSessionRule;
+import org.sonar.server.ws.TestRequest;
+import org.sonar.server.ws.WsActionTester;
+
+import static java.util.stream.Collectors.joining;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.sonar.db.component.ComponentTesting.newFileDto;
+
+public class LineHashesActionTest {
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+  @Rule
+  public DbTester db = DbTester.create(System2.INSTANCE);
+  @Rule
+  public UserSessionRule userSession = UserSessionRule.standalone();
+
+  private WsActionTester ws = new WsActionTester(new LineHashesAction(db.getDbClient(), userSession));
+
+  @Test
+  public void definition() {
+    WebService.Action def = ws.getDef();
+
+    assertThat(def.key()).isEqualTo("line_hashes");
+    assertThat(def.since()).isEqualTo("7.0");
+    assertThat(def.isInternal()).isTrue();
+    assertThat(def.responseExampleAsString()).isNotEmpty();
+    assertThat(def.params()).extracting(WebService.Param::key).containsExactlyInAnyOrder("keys", "branch");
+    assertThat(def.param("keys").maxValuesAllowed()).isEqualTo(LineHashesAction.MAX_KEYS);
+  }
+
+  @Test
+  public void return_line_hashes_of_files() {
+    ComponentDto project = db.components().insertPrivateProject();
+    ComponentDto file1 = db.components().insertComponent(newFileDto(project));
+    ComponentDto file2 = db.components().insertComponent(newFileDto(project));
+    ComponentDto file3 = db.components().insertComponent(newFileDto(project));
+    db.fileSources().insertFileSource(file1, s -> s.setLineHashes("ABC\nDEF"));
+    db.fileSources().insertFileSource(file2, s -> s.setLineHashes("GHI"));
+    db.fileSources().insertFileSource(file3, s -> s.setLineHashes("JKL"));
+    userSession.addProjectPermission(UserRole.USER, project);
+
+    try (CloseableIterator<FileLineHashes> result = call(file1.getKey() + "," + file2.getKey(), null)) {
+      assertThat(result)
+        .extracting(FileLineHashes::getKey, FileLineHashes::getLineHashes)
+        .containsExactlyInAnyOrder(tuple(file1.getKey(), "ABC\nDEF"), tuple(file2.getKey(), "GHI"));
+    }
+  }
+
+  @Test
+  public void ignore_unknown_files_and_files_without_sources() {
+    ComponentDto project = db.components().insertPrivateProject();
+    ComponentDto fileWithoutSource = db.components().insertComponent(newFileDto(project));
+    ComponentDto fileWithoutLineHashes = db.components().insertComponent(newFileDto(project));
+    db.fileSources().insertFileSource(fileWithoutLineHashes, s -> s.setLineHashes(null));
+    userSession.addProjectPermission(UserRole.USER, project);
+
+    try (CloseableIterator<FileLineHashes> result = call(fileWithoutSource.getKey() + ",unknown," + fileWithoutLineHashes.getKey(), null)) {
+      assertThat(result)
+        .extracting(FileLineHashes::getKey, FileLineHashes::hasLineHashes)
+        .containsExactly(tuple(fileWithoutLineHashes.getKey(), false));
+    }
+  }
+
+  @Test
+  public void return_line_hashes_of_files_on_branch() {
+    ComponentDto project = db.components().insertPrivateProject();
+    ComponentDto branch = db.components().insertProjectBranch(project, b -> b.setKey("my_branch"));
+    ComponentDto file = db.components().insertComponent(newFileDto(branch));
+    db.fileSources().insertFileSource(file, s -> s.setLineHashes("ABC"));
+    userSession.addProjectPermission(UserRole.USER, project);
+
+    try (CloseableIterator<FileLineHashes> result = call(file.getKey(), "my_branch")) {
+      assertThat(result)
+        .extracting(FileLineHashes::getKey, FileLineHashes::getLineHashes)
+        .containsExactly(tuple(file.getKey(), "ABC"));
+    }
+  }
+
+  @Test
+  public void fail_if_user_does_not_have_permission_on_project() {
+    ComponentDto project = db.components().insertPrivateProject();
+    ComponentDto file = db.components().insertComponent(newFileDto(project));
+    db.fileSources().insertFileSource(file);
+
+    expectedException.expect(ForbiddenException.class);
+
+    ws.newRequest().setParam("keys", file.getKey()).execute();
+  }
+
+  @Test
+  public void fail_if_too_many_keys() {
+    String keys = IntStream.rangeClosed(0, LineHashesAction.MAX_KEYS).mapToObj(i -> "file" + i).collect(joining(","));
+
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("'keys' can contains only " + LineHashesAction.MAX_KEYS + " values");
+
+    ws.newRequest().setParam("keys", keys).execute();
+  }
+
+  private CloseableIterator<FileLineHashes> call(String keys, @Nullable String branch) {
+    TestRequest request = ws.newRequest().setParam("keys", keys);
+    if (branch != null) {
+      request.setParam("branch", branch);
+    }
+    return Protobuf.readStream(request.execute().getInputStream(), FileLineHashes.parser());
+  }
+}
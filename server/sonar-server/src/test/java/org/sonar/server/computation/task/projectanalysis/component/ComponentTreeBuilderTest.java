@@ -764,6 +764,41 @@ public class ComponentTreeBuilderTest {
     assertThat(file.getFileAttributes().isUnitTest()).isTrue();
   }
 
+  @Test
+  public void strings_repeated_on_components_are_shared() {
+    ScannerReport.Component project = newBuilder()
+      .setType(PROJECT)
+      .setKey(projectInDb.getKey())
+      .setRef(1)
+      .addChildRef(2)
+      .addChildRef(3)
+      .build();
+    scannerComponentProvider.add(newBuilder()
+      .setRef(2)
+      .setType(FILE)
+      .setPath("src/js/Foo.js")
+      .setProjectRelativePath("src/js/Foo.js")
+      .setLines(1)
+      .setLanguage(new String("js")));
+    scannerComponentProvider.add(newBuilder()
+      .setRef(3)
+      .setType(FILE)
+      .setPath("src/js/Bar.js")
+      .setProjectRelativePath("src/js/Bar.js")
+      .setLines(1)
+      .setLanguage(new String("js")));
+
+    Component root = new ComponentTreeBuilder(KEY_GENERATOR, KEY_GENERATOR, UUID_SUPPLIER, scannerComponentProvider, projectInDb, null)
+      .buildProject(project, NO_SCM_BASE_PATH);
+
+    Component file1 = root.getChildren().get(0);
+    Component file2 = root.getChildren().get(1);
+    assertThat(root.getPublicKey()).isSameAs(root.getKey());
+    assertThat(file1.getPublicKey()).isSameAs(file1.getKey());
+    assertThat(file1.getReportAttributes().getScmPath().get()).isSameAs(file1.getReportAttributes().getPath());
+    assertThat(file1.getFileAttributes().getLanguageKey()).isSameAs(file2.getFileAttributes().getLanguageKey());
+  }
+
   @Test
   public void throw_IAE_if_lines_is_absent_from_report() {
     ScannerReport.Component project = newBuilder()
@@ -119,6 +119,31 @@ public class ReportVisitorsCrawlerTest {
     assertThat(underTest.getCumulativeDurations()).hasSize(2);
   }
 
+  @Test
+  public void getResourceUsages_returns_an_empty_map_when_sampling_is_disabled_in_constructor() {
+    VisitorsCrawler underTest = new VisitorsCrawler(Arrays.asList(spyPreOrderTypeAwareVisitor, spyPostOrderTypeAwareVisitor), false, 0);
+    underTest.visit(COMPONENT_TREE);
+
+    assertThat(underTest.getResourceUsages()).isEmpty();
+  }
+
+  @Test
+  public void getResourceUsages_returns_usage_of_each_visitor_which_visited_a_sampled_component() {
+    TypeAwareVisitor projectVisitor = new TestTypeAwareVisitor(CrawlerDepthLimit.PROJECT, PRE_ORDER);
+    VisitorsCrawler underTest = new VisitorsCrawler(Arrays.asList(spyPreOrderTypeAwareVisitor, spyPathAwareVisitor, projectVisitor), false, 3);
+    underTest.visit(COMPONENT_TREE);
+
+    assertThat(underTest.getResourceUsages()).containsOnlyKeys(spyPreOrderTypeAwareVisitor, spyPathAwareVisitor, projectVisitor);
+  }
+
+  @Test
+  public void fail_with_IAE_when_sampling_rate_is_negative() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("Sampling rate can't be negative");
+
+    new VisitorsCrawler(Arrays.asList(spyPreOrderTypeAwareVisitor), false, -1);
+  }
+
   @Test
   public void fail_with_IAE_when_visitor_is_not_path_aware_or_type_aware() throws Exception {
     thrown.expect(IllegalArgumentException.class);
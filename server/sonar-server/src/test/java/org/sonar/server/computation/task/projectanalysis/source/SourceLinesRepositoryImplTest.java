@@ -19,10 +19,19 @@
  */
 package org.sonar.server.computation.task.projectanalysis.source;
 
+import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.utils.MessageException;
+import org.sonar.api.utils.System2;
 import org.sonar.core.util.CloseableIterator;
+import org.sonar.db.DbTester;
+import org.sonar.db.protobuf.DbFileSources;
+import org.sonar.db.source.FileSourceDto;
+import org.sonar.scanner.protocol.output.ScannerReport;
+import org.sonar.server.computation.task.projectanalysis.batch.BatchReportDirectoryHolderImpl;
 import org.sonar.server.computation.task.projectanalysis.batch.BatchReportReaderRule;
 import org.sonar.server.computation.task.projectanalysis.component.Component;
 import org.sonar.server.computation.task.projectanalysis.component.FileAttributes;
@@ -42,7 +51,19 @@ public class SourceLinesRepositoryImplTest {
   @Rule
   public BatchReportReaderRule reportReader = new BatchReportReaderRule();
 
-  SourceLinesRepositoryImpl underTest = new SourceLinesRepositoryImpl(reportReader);
+  @Rule
+  public DbTester db = DbTester.create(System2.INSTANCE);
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private BatchReportDirectoryHolderImpl reportDirectoryHolder = new BatchReportDirectoryHolderImpl();
+  private SourceLinesRepositoryImpl underTest = new SourceLinesRepositoryImpl(reportReader, reportDirectoryHolder, db.getDbClient());
+
+  @Before
+  public void setUp() throws Exception {
+    reportDirectoryHolder.setDirectory(temp.newFolder());
+  }
 
   @Test
   public void read_lines_from_report() throws Exception {
@@ -89,6 +110,79 @@ public class SourceLinesRepositoryImplTest {
       .build());
   }
 
+  @Test
+  public void read_lines_of_unchanged_file_from_previous_analysis_when_not_in_report() throws Exception {
+    insertFileSourceInDb("SRC_HASH", "line1", "line2", "");
+    putPreviousSourceHashInReport("SRC_HASH");
+
+    assertThat(underTest.readLines(createComponent(3, Component.Status.SAME))).containsExactly("line1", "line2", "");
+  }
+
+  @Test
+  public void load_lines_of_previous_analysis_only_once() throws Exception {
+    insertFileSourceInDb("SRC_HASH", "line1", "line2");
+    putPreviousSourceHashInReport("SRC_HASH");
+    Component file = createComponent(2, Component.Status.SAME);
+    consume(underTest.readLines(file));
+
+    db.executeUpdateSql("delete from file_sources");
+
+    assertThat(underTest.readLines(file)).containsExactly("line1", "line2");
+  }
+
+  @Test
+  public void read_lines_from_report_when_unchanged_file_is_in_report() throws Exception {
+    insertFileSourceInDb("SRC_HASH", "old1", "old2");
+    putPreviousSourceHashInReport("SRC_HASH");
+    reportReader.putFileSourceLines(FILE_REF, "line1", "line2");
+
+    assertThat(underTest.readLines(createComponent(2, Component.Status.SAME))).containsExactly("line1", "line2");
+  }
+
+  @Test
+  public void do_not_read_lines_of_changed_file_from_previous_analysis() throws Exception {
+    insertFileSourceInDb("SRC_HASH", "line1", "line2");
+
+    thrown.expect(IllegalStateException.class);
+    thrown.expectMessage("File 'ReportComponent{ref=2, key='FILE_KEY', type=FILE}' has no source code");
+
+    underTest.readLines(createComponent(2, Component.Status.CHANGED));
+  }
+
+  @Test
+  public void fail_when_source_of_previous_analysis_is_not_the_one_compared_by_scanner() throws Exception {
+    insertFileSourceInDb("OTHER_SRC_HASH", "line1", "line2");
+    putPreviousSourceHashInReport("SRC_HASH");
+
+    thrown.expect(MessageException.class);
+    thrown.expectMessage("Source of file 'FILE_KEY' was not sent by the scanner because it did not change since the previous analysis, " +
+      "but another analysis of the project has been processed since then. Please analyze the project again.");
+
+    underTest.readLines(createComponent(2, Component.Status.SAME));
+  }
+
+  @Test
+  public void fail_with_ISE_when_unchanged_file_has_no_previous_source_hash_in_report() throws Exception {
+    insertFileSourceInDb("SRC_HASH", "line1", "line2");
+    reportReader.putComponent(ScannerReport.Component.newBuilder().setRef(FILE_REF).build());
+
+    thrown.expect(IllegalStateException.class);
+    thrown.expectMessage("File 'ReportComponent{ref=2, key='FILE_KEY', type=FILE}' has no source code");
+
+    underTest.readLines(createComponent(2, Component.Status.SAME));
+  }
+
+  @Test
+  public void fail_when_unchanged_file_has_no_source_in_report_nor_in_db() throws Exception {
+    putPreviousSourceHashInReport("SRC_HASH");
+
+    thrown.expect(MessageException.class);
+    thrown.expectMessage("Source of file 'FILE_KEY' was not sent by the scanner because it did not change since the previous analysis, " +
+      "but another analysis of the project has been processed since then. Please analyze the project again.");
+
+    underTest.readLines(createComponent(2, Component.Status.SAME));
+  }
+
   @Test
   public void fail_with_NPE_to_read_lines_on_null_component() throws Exception {
     thrown.expect(NullPointerException.class);
@@ -106,13 +200,35 @@ public class SourceLinesRepositoryImplTest {
   }
 
   private static Component createComponent(int lineCount) {
+    return createComponent(lineCount, Component.Status.UNAVAILABLE);
+  }
+
+  private static Component createComponent(int lineCount, Component.Status status) {
     return builder(Component.Type.FILE, FILE_REF)
       .setKey(FILE_KEY)
       .setUuid(FILE_UUID)
+      .setStatus(status)
       .setFileAttributes(new FileAttributes(false, null, lineCount))
       .build();
   }
 
+  private void putPreviousSourceHashInReport(String srcHash) {
+    reportReader.putComponent(ScannerReport.Component.newBuilder().setRef(FILE_REF).setPreviousSourceHash(srcHash).build());
+  }
+
+  private void insertFileSourceInDb(String srcHash, String... lines) {
+    DbFileSources.Data.Builder dataBuilder = DbFileSources.Data.newBuilder();
+    for (int i = 0; i < lines.length; i++) {
+      dataBuilder.addLinesBuilder().setLine(i + 1).setSource(lines[i]);
+    }
+    db.getDbClient().fileSourceDao().insert(db.getSession(), new FileSourceDto()
+      .setFileUuid(FILE_UUID)
+      .setProjectUuid("PROJECT_UUID")
+      .setSrcHash(srcHash)
+      .setSourceData(dataBuilder.build()));
+    db.commit();
+  }
+
   private static void consume(CloseableIterator<String> stringCloseableIterator) {
     try {
       while (stringCloseableIterator.hasNext()) {
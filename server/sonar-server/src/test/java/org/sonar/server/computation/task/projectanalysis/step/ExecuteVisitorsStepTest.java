@@ -23,6 +23,7 @@ import java.util.List;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.sonar.api.config.internal.MapSettings;
 import org.sonar.api.utils.log.LogTester;
 import org.sonar.api.utils.log.LoggerLevel;
 import org.sonar.server.computation.task.ChangeLogLevel;
@@ -36,10 +37,13 @@ import org.sonar.server.computation.task.projectanalysis.measure.MeasureReposito
 import org.sonar.server.computation.task.projectanalysis.metric.Metric;
 import org.sonar.server.computation.task.projectanalysis.metric.MetricImpl;
 import org.sonar.server.computation.task.projectanalysis.metric.MetricRepositoryRule;
+import org.sonar.server.computation.task.step.TaskStatistic;
+import org.sonar.server.computation.task.step.TaskStatisticsHolder;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.sonar.api.measures.CoreMetrics.NCLOC;
 import static org.sonar.api.measures.CoreMetrics.NCLOC_KEY;
 import static org.sonar.server.computation.task.projectanalysis.component.Component.Type.DIRECTORY;
@@ -70,6 +74,9 @@ public class ExecuteVisitorsStepTest {
   @Rule
   public LogTester logTester = new LogTester();
 
+  private MapSettings settings = new MapSettings();
+  private TaskStatisticsHolder statisticsHolder = new TaskStatisticsHolder(settings.asConfig());
+
   @Before
   public void setUp() throws Exception {
     treeRootHolder.setRoot(
@@ -88,7 +95,7 @@ public class ExecuteVisitorsStepTest {
 
   @Test
   public void execute_with_type_aware_visitor() throws Exception {
-    ExecuteVisitorsStep underStep = new ExecuteVisitorsStep(treeRootHolder, singletonList(new TestTypeAwareVisitor()));
+    ExecuteVisitorsStep underStep = new ExecuteVisitorsStep(treeRootHolder, singletonList(new TestTypeAwareVisitor()), statisticsHolder);
 
     measureRepository.addRawMeasure(FILE_1_REF, NCLOC_KEY, newMeasureBuilder().create(1));
     measureRepository.addRawMeasure(FILE_2_REF, NCLOC_KEY, newMeasureBuilder().create(2));
@@ -107,7 +114,7 @@ public class ExecuteVisitorsStepTest {
 
   @Test
   public void execute_with_path_aware_visitor() throws Exception {
-    ExecuteVisitorsStep underStep = new ExecuteVisitorsStep(treeRootHolder, singletonList(new TestPathAwareVisitor()));
+    ExecuteVisitorsStep underStep = new ExecuteVisitorsStep(treeRootHolder, singletonList(new TestPathAwareVisitor()), statisticsHolder);
 
     measureRepository.addRawMeasure(FILE_1_REF, NCLOC_KEY, newMeasureBuilder().create(1));
     measureRepository.addRawMeasure(FILE_2_REF, NCLOC_KEY, newMeasureBuilder().create(1));
@@ -129,7 +136,8 @@ public class ExecuteVisitorsStepTest {
       ChangeLogLevel step3 = new ChangeLogLevel(VisitorB.class, LoggerLevel.DEBUG)) {
       ExecuteVisitorsStep underStep = new ExecuteVisitorsStep(
         treeRootHolder,
-        asList(new VisitorA(), new VisitorB(), new VisitorC()));
+        asList(new VisitorA(), new VisitorB(), new VisitorC()),
+        statisticsHolder);
 
       underStep.execute();
 
@@ -143,6 +151,30 @@ public class ExecuteVisitorsStepTest {
     }
   }
 
+  @Test
+  public void execute_records_resources_used_by_each_visitor() {
+    settings.setProperty(TaskStatisticsHolder.VISITOR_SAMPLING_RATE_PROPERTY, 2);
+    statisticsHolder = new TaskStatisticsHolder(settings.asConfig());
+    ExecuteVisitorsStep underStep = new ExecuteVisitorsStep(treeRootHolder, asList(new VisitorA(), new VisitorB()), statisticsHolder);
+
+    underStep.execute();
+
+    assertThat(statisticsHolder.getStatistics())
+      .extracting(TaskStatistic::getKind, TaskStatistic::getName)
+      .containsExactly(tuple(TaskStatistic.Kind.VISITOR, "VisitorA"), tuple(TaskStatistic.Kind.VISITOR, "VisitorB"));
+  }
+
+  @Test
+  public void execute_does_not_record_resources_used_by_visitors_when_sampling_is_disabled() {
+    settings.setProperty(TaskStatisticsHolder.VISITOR_SAMPLING_RATE_PROPERTY, 0);
+    statisticsHolder = new TaskStatisticsHolder(settings.asConfig());
+    ExecuteVisitorsStep underStep = new ExecuteVisitorsStep(treeRootHolder, asList(new VisitorA(), new VisitorB()), statisticsHolder);
+
+    underStep.execute();
+
+    assertThat(statisticsHolder.getStatistics()).isEmpty();
+  }
+
   private static class VisitorA extends TypeAwareVisitorAdapter {
     public VisitorA() {
       super(CrawlerDepthLimit.PROJECT, Order.PRE_ORDER);
@@ -24,9 +24,11 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.sonar.api.utils.System2;
+import org.sonar.core.util.CloseableIterator;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.component.ComponentDao;
+import org.sonar.db.component.ComponentDto;
 import org.sonar.server.computation.task.projectanalysis.analysis.AnalysisMetadataHolder;
 import org.sonar.server.computation.task.projectanalysis.component.BranchPersister;
 import org.sonar.server.computation.task.projectanalysis.component.Component;
@@ -34,7 +36,7 @@ import org.sonar.server.computation.task.projectanalysis.component.MutableDbIdsR
 import org.sonar.server.computation.task.projectanalysis.component.MutableDisabledComponentsHolder;
 import org.sonar.server.computation.task.projectanalysis.component.TreeRootHolder;
 
-import static java.util.Collections.emptyList;
+import static java.util.Arrays.asList;
 import static org.apache.commons.lang.RandomStringUtils.randomAlphabetic;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
@@ -57,7 +59,7 @@ public class PersistComponentsStepTest {
     doReturn(component).when(treeRootHolder).getRoot();
     doReturn(projectKey).when(component).getKey();
     doReturn(componentDao).when(dbClient).componentDao();
-    doReturn(emptyList()).when(componentDao).selectAllComponentsFromProjectKey(any(DbSession.class), eq(projectKey));
+    doReturn(CloseableIterator.emptyCloseableIterator()).when(componentDao).scrollAllComponentsFromProjectKey(any(DbSession.class), eq(projectKey));
 
     thrown.expect(IllegalStateException.class);
     thrown.expectMessage("The project '" + projectKey + "' is not stored in the database, during a project analysis");
@@ -71,4 +73,32 @@ public class PersistComponentsStepTest {
       mock(AnalysisMetadataHolder.class),
       mock(BranchPersister.class)).execute();
   }
+
+  @Test
+  public void should_fail_if_two_components_of_project_have_the_same_key() {
+    TreeRootHolder treeRootHolder = mock(TreeRootHolder.class);
+    Component component = mock(Component.class);
+    DbClient dbClient = mock(DbClient.class);
+    ComponentDao componentDao = mock(ComponentDao.class);
+    String projectKey = randomAlphabetic(20);
+    ComponentDto file1 = new ComponentDto().setDbKey(projectKey + ":file");
+    ComponentDto file2 = new ComponentDto().setDbKey(projectKey + ":file");
+
+    doReturn(component).when(treeRootHolder).getRoot();
+    doReturn(projectKey).when(component).getKey();
+    doReturn(componentDao).when(dbClient).componentDao();
+    doReturn(CloseableIterator.from(asList(file1, file2).iterator())).when(componentDao).scrollAllComponentsFromProjectKey(any(DbSession.class), eq(projectKey));
+
+    thrown.expect(IllegalStateException.class);
+    thrown.expectMessage("Duplicate component key " + projectKey + ":file");
+
+    new PersistComponentsStep(
+      dbClient,
+      treeRootHolder,
+      mock(MutableDbIdsRepository.class),
+      System2.INSTANCE,
+      mock(MutableDisabledComponentsHolder.class),
+      mock(AnalysisMetadataHolder.class),
+      mock(BranchPersister.class)).execute();
+  }
 }
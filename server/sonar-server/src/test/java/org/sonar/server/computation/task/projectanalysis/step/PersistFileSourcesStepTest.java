@@ -46,6 +46,7 @@ import org.sonar.server.computation.task.projectanalysis.duplication.InnerDuplic
 import org.sonar.server.computation.task.projectanalysis.duplication.TextBlock;
 import org.sonar.server.computation.task.projectanalysis.scm.Changeset;
 import org.sonar.server.computation.task.projectanalysis.scm.ScmInfoRepositoryRule;
+import org.sonar.server.computation.task.projectanalysis.source.SourceHashRepositoryImpl;
 import org.sonar.server.computation.task.projectanalysis.source.SourceLinesRepositoryRule;
 import org.sonar.server.computation.task.step.ComputationStep;
 
@@ -91,7 +92,7 @@ public class PersistFileSourcesStepTest extends BaseStepTest {
   public void setup() {
     when(system2.now()).thenReturn(NOW);
     underTest = new PersistFileSourcesStep(dbClient, system2, treeRootHolder, reportReader, fileSourceRepository, scmInfoRepository,
-      duplicationRepository);
+      duplicationRepository, new SourceHashRepositoryImpl(fileSourceRepository));
   }
 
   @Override
@@ -285,6 +286,7 @@ public class PersistFileSourcesStepTest extends BaseStepTest {
     String srcHash = "137f72c3708c6bd0de00a0e5a69c699b";
     String lineHashes = "137f72c3708c6bd0de00a0e5a69c699b";
     String dataHash = "29f25900140c94db38035128cb6de6a2";
+    String inputHash = "d80e01d53b39183c202ca0ee85defa15";
 
     dbClient.fileSourceDao().insert(dbTester.getSession(), new FileSourceDto()
       .setProjectUuid(PROJECT_UUID)
@@ -292,6 +294,7 @@ public class PersistFileSourcesStepTest extends BaseStepTest {
       .setSrcHash(srcHash)
       .setLineHashes(lineHashes)
       .setDataHash(dataHash)
+      .setInputHash(inputHash)
       .setSourceData(DbFileSources.Data.newBuilder()
         .addLines(DbFileSources.Line.newBuilder()
           .setLine(1)
@@ -312,6 +315,7 @@ public class PersistFileSourcesStepTest extends BaseStepTest {
     assertThat(fileSourceDto.getSrcHash()).isEqualTo(srcHash);
     assertThat(fileSourceDto.getLineHashes()).isEqualTo(lineHashes);
     assertThat(fileSourceDto.getDataHash()).isEqualTo(dataHash);
+    assertThat(fileSourceDto.getInputHash()).isEqualTo(inputHash);
     assertThat(fileSourceDto.getCreatedAt()).isEqualTo(past);
     assertThat(fileSourceDto.getUpdatedAt()).isEqualTo(past);
   }
@@ -426,6 +430,39 @@ public class PersistFileSourcesStepTest extends BaseStepTest {
     assertThat(fileSourceDto.getRevision()).isEqualTo("rev-1");
   }
 
+  @Test
+  public void update_sources_when_input_hash_is_missing() {
+    // Existing sources
+    long past = 150000L;
+    dbClient.fileSourceDao().insert(dbTester.getSession(), new FileSourceDto()
+      .setProjectUuid(PROJECT_UUID)
+      .setFileUuid(FILE1_UUID)
+      .setDataType(Type.SOURCE)
+      .setSrcHash("137f72c3708c6bd0de00a0e5a69c699b")
+      .setLineHashes("137f72c3708c6bd0de00a0e5a69c699b")
+      .setDataHash("29f25900140c94db38035128cb6de6a2")
+      // Input hash is missing, update will be made
+      .setSourceData(DbFileSources.Data.newBuilder()
+        .addLines(DbFileSources.Line.newBuilder()
+          .setLine(1)
+          .setSource("line1")
+          .build())
+        .build())
+      .setCreatedAt(past)
+      .setUpdatedAt(past));
+    dbTester.getSession().commit();
+
+    initBasicReport(1, Component.Status.SAME);
+
+    underTest.execute();
+
+    assertThat(dbTester.countRowsOfTable("file_sources")).isEqualTo(1);
+    FileSourceDto fileSourceDto = dbClient.fileSourceDao().selectSourceByFileUuid(session, FILE1_UUID);
+    assertThat(fileSourceDto.getCreatedAt()).isEqualTo(past);
+    assertThat(fileSourceDto.getUpdatedAt()).isEqualTo(NOW);
+    assertThat(fileSourceDto.getInputHash()).isEqualTo("d80e01d53b39183c202ca0ee85defa15");
+  }
+
   @Test
   public void clear_revision_when_no_ChangeSet() {
     // Existing sources
@@ -459,10 +496,72 @@ public class PersistFileSourcesStepTest extends BaseStepTest {
     assertThat(fileSourceDto.getRevision()).isNull();
   }
 
+  @Test
+  public void reuse_sources_of_unchanged_file_when_report_data_did_not_change() {
+    initBasicReport(1, Component.Status.SAME);
+    underTest.execute();
+    replaceSourceInDb("previous line");
+
+    underTest.execute();
+
+    FileSourceDto fileSourceDto = dbClient.fileSourceDao().selectSourceByFileUuid(session, FILE1_UUID);
+    assertThat(fileSourceDto.getInputHash()).isNotEmpty();
+    assertThat(fileSourceDto.getSourceData().getLines(0).getSource()).isEqualTo("previous line");
+  }
+
+  @Test
+  public void update_sources_of_unchanged_file_when_report_data_changed() {
+    initBasicReport(1, Component.Status.SAME);
+    underTest.execute();
+    String inputHash = dbClient.fileSourceDao().selectSourceByFileUuid(session, FILE1_UUID).getInputHash();
+    replaceSourceInDb("previous line");
+
+    reportReader.putCoverage(FILE1_REF, newArrayList(ScannerReport.LineCoverage.newBuilder()
+      .setLine(1)
+      .setHits(true)
+      .build()));
+    underTest.execute();
+
+    FileSourceDto fileSourceDto = dbClient.fileSourceDao().selectSourceByFileUuid(session, FILE1_UUID);
+    assertThat(fileSourceDto.getInputHash()).isNotEqualTo(inputHash);
+    assertThat(fileSourceDto.getSourceData().getLines(0).getSource()).isEqualTo("line1");
+    assertThat(fileSourceDto.getSourceData().getLines(0).getLineHits()).isEqualTo(1);
+  }
+
+  @Test
+  public void update_sources_of_file_reported_unchanged_when_source_changed() {
+    initBasicReport(1, Component.Status.SAME);
+    underTest.execute();
+
+    // on short living branches, files which are not in the SCM changed files are SAME whatever their content
+    SourceLinesRepositoryRule newSources = new SourceLinesRepositoryRule().addLine(FILE1_REF, "new line");
+    new PersistFileSourcesStep(dbClient, system2, treeRootHolder, reportReader, newSources, scmInfoRepository,
+      duplicationRepository, new SourceHashRepositoryImpl(newSources)).execute();
+
+    FileSourceDto fileSourceDto = dbClient.fileSourceDao().selectSourceByFileUuid(session, FILE1_UUID);
+    assertThat(fileSourceDto.getSourceData().getLines(0).getSource()).isEqualTo("new line");
+    assertThat(fileSourceDto.getSrcHash()).isNotEqualTo("137f72c3708c6bd0de00a0e5a69c699b");
+  }
+
+  private void replaceSourceInDb(String line) {
+    FileSourceDto dto = dbClient.fileSourceDao().selectSourceByFileUuid(session, FILE1_UUID);
+    dbClient.fileSourceDao().update(session, dto
+      .setSourceData(DbFileSources.Data.newBuilder()
+        .addLines(DbFileSources.Line.newBuilder().setLine(1).setSource(line))
+        .build())
+      .setDataHash("PREVIOUS_DATA_HASH"));
+    session.commit();
+  }
+
   private void initBasicReport(int numberOfLines) {
+    initBasicReport(numberOfLines, Component.Status.UNAVAILABLE);
+  }
+
+  private void initBasicReport(int numberOfLines, Component.Status status) {
     treeRootHolder.setRoot(ReportComponent.builder(Component.Type.PROJECT, 1).setUuid(PROJECT_UUID).setKey(PROJECT_KEY).addChildren(
       ReportComponent.builder(Component.Type.MODULE, 2).setUuid("MODULE").setKey("MODULE_KEY").addChildren(
         ReportComponent.builder(Component.Type.FILE, FILE1_REF).setUuid(FILE1_UUID).setKey("MODULE_KEY:src/Foo.java")
+          .setStatus(status)
           .setFileAttributes(new FileAttributes(false, null, numberOfLines)).build())
         .build())
       .build());
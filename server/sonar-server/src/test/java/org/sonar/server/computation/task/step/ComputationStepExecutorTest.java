@@ -25,12 +25,14 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.mockito.InOrder;
+import org.sonar.api.config.internal.MapSettings;
 import org.sonar.api.utils.log.LogTester;
 import org.sonar.api.utils.log.LoggerLevel;
 import org.sonar.server.computation.task.ChangeLogLevel;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
@@ -152,6 +154,31 @@ public class ComputationStepExecutorTest {
     new ComputationStepExecutor(mockComputationSteps(computationStep1), listener).execute();
   }
 
+  @Test
+  public void execute_records_resources_used_by_each_step_in_TaskStatisticsHolder() {
+    TaskStatisticsHolder statisticsHolder = new TaskStatisticsHolder(new MapSettings().asConfig());
+
+    new ComputationStepExecutor(mockComputationSteps(computationStep1, computationStep2), statisticsHolder, listener).execute();
+
+    assertThat(statisticsHolder.getStatistics())
+      .extracting(TaskStatistic::getKind, TaskStatistic::getName)
+      .containsExactly(tuple(TaskStatistic.Kind.STEP, "step1"), tuple(TaskStatistic.Kind.STEP, "step2"));
+    verify(listener).finished(true);
+  }
+
+  @Test
+  public void execute_does_not_record_statistics_of_failed_step() {
+    TaskStatisticsHolder statisticsHolder = new TaskStatisticsHolder(new MapSettings().asConfig());
+    doThrow(new RuntimeException("failure")).when(computationStep2).execute();
+
+    try {
+      new ComputationStepExecutor(mockComputationSteps(computationStep1, computationStep2), statisticsHolder).execute();
+      fail("exception should have been thrown");
+    } catch (RuntimeException e) {
+      assertThat(statisticsHolder.getStatistics()).extracting(TaskStatistic::getName).containsExactly("step1");
+    }
+  }
+
   private static ComputationSteps mockComputationSteps(ComputationStep... computationSteps) {
     ComputationSteps steps = mock(ComputationSteps.class);
     when(steps.instances()).thenReturn(Arrays.asList(computationSteps));
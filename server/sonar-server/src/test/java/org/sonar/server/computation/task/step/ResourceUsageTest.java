@@ -0,0 +1,69 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.step;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResourceUsageTest {
+
+  @Test
+  public void measure_resources_used_by_current_thread() {
+    ResourceUsage.Measure measure = ResourceUsage.start();
+    List<String> strings = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      strings.add("string" + i);
+    }
+    ResourceUsage resourceUsage = measure.stop();
+
+    assertThat(strings).hasSize(10_000);
+    assertThat(resourceUsage.getDurationMs()).isGreaterThanOrEqualTo(0L);
+    assertThat(resourceUsage.getCpuTimeMs()).isGreaterThanOrEqualTo(0L);
+    assertThat(resourceUsage.getAllocatedBytes()).isGreaterThanOrEqualTo(0L);
+  }
+
+  @Test
+  public void NONE_uses_no_resources() {
+    assertThat(ResourceUsage.NONE.getDurationMs()).isZero();
+    assertThat(ResourceUsage.NONE.getCpuTimeMs()).isZero();
+    assertThat(ResourceUsage.NONE.getAllocatedBytes()).isZero();
+    assertThat(ResourceUsage.NONE.plus(ResourceUsage.NONE).multiply(3).getAllocatedBytes()).isZero();
+  }
+
+  @Test
+  public void plus_and_multiply_apply_to_all_resources() {
+    ResourceUsage measured = ResourceUsage.start().stop();
+
+    ResourceUsage sum = measured.plus(measured).plus(measured);
+    ResourceUsage product = measured.multiply(3);
+
+    assertThat(product.getDurationMs()).isEqualTo(sum.getDurationMs());
+    assertThat(product.getCpuTimeMs()).isEqualTo(sum.getCpuTimeMs());
+    assertThat(product.getAllocatedBytes()).isEqualTo(sum.getAllocatedBytes());
+  }
+
+  @Test
+  public void toString_contains_all_resources() {
+    assertThat(ResourceUsage.NONE.toString()).isEqualTo("time=0ms | cpu=0ms | allocated=0B");
+  }
+}
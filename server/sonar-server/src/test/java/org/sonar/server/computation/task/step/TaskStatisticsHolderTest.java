@@ -0,0 +1,69 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.step;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.sonar.api.config.internal.MapSettings;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.server.computation.task.step.TaskStatisticsHolder.VISITOR_SAMPLING_RATE_PROPERTY;
+
+public class TaskStatisticsHolderTest {
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  private MapSettings settings = new MapSettings();
+
+  @Test
+  public void visitor_sampling_rate_is_10_by_default() {
+    assertThat(new TaskStatisticsHolder(settings.asConfig()).getVisitorSamplingRate()).isEqualTo(10);
+  }
+
+  @Test
+  public void visitor_sampling_rate_is_configurable() {
+    settings.setProperty(VISITOR_SAMPLING_RATE_PROPERTY, 0);
+
+    assertThat(new TaskStatisticsHolder(settings.asConfig()).getVisitorSamplingRate()).isEqualTo(0);
+  }
+
+  @Test
+  public void fail_if_visitor_sampling_rate_is_negative() {
+    settings.setProperty(VISITOR_SAMPLING_RATE_PROPERTY, -1);
+
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Property sonar.ce.taskStatistics.visitorSamplingRate must be positive or zero, got -1");
+
+    new TaskStatisticsHolder(settings.asConfig());
+  }
+
+  @Test
+  public void getStatistics_returns_statistics_in_order_of_addition() {
+    TaskStatisticsHolder underTest = new TaskStatisticsHolder(settings.asConfig());
+    TaskStatistic statistic1 = new TaskStatistic(TaskStatistic.Kind.STEP, "step", ResourceUsage.NONE);
+    TaskStatistic statistic2 = new TaskStatistic(TaskStatistic.Kind.VISITOR, "visitor", ResourceUsage.NONE);
+
+    underTest.add(statistic1).add(statistic2);
+
+    assertThat(underTest.getStatistics()).containsExactly(statistic1, statistic2);
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.step;
+
+import java.util.Collections;
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.utils.System2;
+import org.sonar.api.utils.log.LogTester;
+import org.sonar.api.utils.log.LoggerLevel;
+import org.sonar.core.util.SequenceUuidFactory;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbTester;
+import org.sonar.db.ce.CeTaskStatisticDto;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TaskStatisticsRecorderTest {
+
+  @Rule
+  public DbTester db = DbTester.create(System2.INSTANCE);
+  @Rule
+  public LogTester logTester = new LogTester();
+
+  private TaskStatistic step = new TaskStatistic(TaskStatistic.Kind.STEP, "Persist issues", ResourceUsage.NONE);
+  private TaskStatistic visitor = new TaskStatistic(TaskStatistic.Kind.VISITOR, "NclocVisitor", ResourceUsage.NONE);
+  private TaskStatisticsRecorder underTest = new TaskStatisticsRecorder(db.getDbClient(), new SequenceUuidFactory());
+
+  @Test
+  public void getLastTask_is_empty_if_no_task_has_been_recorded() {
+    assertThat(underTest.getLastTask()).isEmpty();
+  }
+
+  @Test
+  public void record_persists_statistics_and_keeps_the_ones_of_last_task() {
+    underTest.record("TASK_1", asList(step, visitor));
+    underTest.record("TASK_2", Collections.singletonList(step));
+
+    assertThat(db.getDbClient().ceTaskStatisticDao().selectByTaskUuid(db.getSession(), "TASK_1"))
+      .extracting(CeTaskStatisticDto::getKind, CeTaskStatisticDto::getName, CeTaskStatisticDto::getDurationMs)
+      .containsOnly(
+        tuple(CeTaskStatisticDto.Kind.STEP, "Persist issues", 0L),
+        tuple(CeTaskStatisticDto.Kind.VISITOR, "NclocVisitor", 0L));
+    assertThat(db.getDbClient().ceTaskStatisticDao().selectByTaskUuid(db.getSession(), "TASK_2")).hasSize(1);
+    TaskStatisticsRecorder.RecordedTask lastTask = underTest.getLastTask().get();
+    assertThat(lastTask.getTaskUuid()).isEqualTo("TASK_2");
+    assertThat(lastTask.getStatistics()).containsExactly(step);
+  }
+
+  @Test
+  public void record_logs_but_does_not_fail_if_statistics_can_not_be_persisted() {
+    DbClient dbClient = mock(DbClient.class);
+    when(dbClient.openSession(false)).thenThrow(new IllegalStateException("DB is down"));
+    underTest = new TaskStatisticsRecorder(dbClient, new SequenceUuidFactory());
+
+    underTest.record("TASK_1", asList(step, visitor));
+
+    assertThat(logTester.logs(LoggerLevel.ERROR)).containsOnly("Failed to persist statistics of task TASK_1");
+    assertThat(underTest.getLastTask().get().getStatistics()).containsExactly(step, visitor);
+  }
+}
@@ -32,6 +32,7 @@ import org.junit.Test;
 import org.sonar.api.utils.internal.TestSystem2;
 import org.sonar.db.DbTester;
 import org.sonar.server.es.BulkIndexer.Size;
+import org.sonar.server.es.metadata.MetadataIndex;
 
 import static java.util.Collections.emptyMap;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -71,6 +72,76 @@ public class BulkIndexerTest {
     assertThat(count()).isEqualTo(2);
   }
 
+  @Test
+  public void send_requests_to_both_current_and_rebuilt_indices() {
+    esTester.client().prepareCreate("fakes_rebuild").get();
+    new MetadataIndex(esTester.client()).setRebuildIndex(INDEX, "fakes_rebuild");
+
+    BulkIndexer indexer = new BulkIndexer(esTester.client(), INDEX_TYPE_FAKE, Size.REGULAR);
+    indexer.start();
+    indexer.add(newIndexRequestWithDocId("foo"));
+    IndexingResult result = indexer.stop();
+
+    assertThat(result.getSuccess()).isEqualTo(2);
+    assertThat(count()).isEqualTo(1);
+    assertThat(esTester.client().prepareSearch("fakes_rebuild").get().getHits().getTotalHits()).isEqualTo(1);
+  }
+
+  @Test
+  public void population_populates_only_rebuilt_index() {
+    esTester.client().prepareCreate("fakes_rebuild").get();
+    new MetadataIndex(esTester.client()).setRebuildIndex(INDEX, "fakes_rebuild");
+
+    BulkIndexer indexer = BulkIndexer.forPopulation(esTester.client(), INDEX_TYPE_FAKE, Size.LARGE);
+    indexer.start();
+    indexer.add(newIndexRequestWithDocId("foo"));
+    indexer.stop();
+
+    assertThat(count()).isZero();
+    assertThat(esTester.client().prepareSearch("fakes_rebuild").get().getHits().getTotalHits()).isEqualTo(1);
+    // settings of current index are not changed
+    assertThat(replicas()).isEqualTo(1);
+  }
+
+  @Test
+  public void population_does_not_overwrite_documents_changed_during_rebuild() {
+    esTester.client().prepareCreate("fakes_rebuild").get();
+    new MetadataIndex(esTester.client()).setRebuildIndex(INDEX, "fakes_rebuild");
+    BulkIndexer regularIndexer = new BulkIndexer(esTester.client(), INDEX_TYPE_FAKE, Size.REGULAR);
+    regularIndexer.start();
+    regularIndexer.add(newIndexRequestWithDocId("updated", 2));
+    regularIndexer.addDeletion(INDEX_TYPE_FAKE, "deleted");
+    regularIndexer.stop();
+
+    // population read the database before the changes
+    BulkIndexer indexer = BulkIndexer.forPopulation(esTester.client(), INDEX_TYPE_FAKE, Size.REGULAR);
+    indexer.start();
+    indexer.add(newIndexRequestWithDocId("updated", 1));
+    indexer.add(newIndexRequestWithDocId("deleted", 1));
+    indexer.add(newIndexRequestWithDocId("unchanged", 1));
+    IndexingResult result = indexer.stop();
+
+    assertThat(result.isSuccess()).isTrue();
+    assertThat(esTester.client().prepareGet(new IndexType("fakes_rebuild", INDEX_TYPE_FAKE.getType()), "updated").get().getSource())
+      .containsEntry(FakeIndexDefinition.INT_FIELD, 2);
+    assertThat(esTester.client().prepareGet(new IndexType("fakes_rebuild", INDEX_TYPE_FAKE.getType()), "deleted").get().isExists()).isFalse();
+    assertThat(esTester.client().prepareGet(new IndexType("fakes_rebuild", INDEX_TYPE_FAKE.getType()), "unchanged").get().isExists()).isTrue();
+  }
+
+  @Test
+  public void large_indexing_is_sent_to_both_current_and_rebuilt_indices_if_not_a_population() {
+    esTester.client().prepareCreate("fakes_rebuild").get();
+    new MetadataIndex(esTester.client()).setRebuildIndex(INDEX, "fakes_rebuild");
+
+    BulkIndexer indexer = new BulkIndexer(esTester.client(), INDEX_TYPE_FAKE, Size.LARGE);
+    indexer.start();
+    indexer.add(newIndexRequestWithDocId("foo"));
+    indexer.stop();
+
+    assertThat(count()).isEqualTo(1);
+    assertThat(esTester.client().prepareSearch("fakes_rebuild").get().getHits().getTotalHits()).isEqualTo(1);
+  }
+
   @Test
   public void large_indexing() {
     // index has one replica
@@ -185,8 +256,12 @@ public class BulkIndexerTest {
   }
 
   private IndexRequest newIndexRequestWithDocId(String id) {
+    return newIndexRequestWithDocId(id, 42);
+  }
+
+  private IndexRequest newIndexRequestWithDocId(String id, int intField) {
     return new IndexRequest(INDEX, INDEX_TYPE_FAKE.getType())
       .id(id)
-      .source(ImmutableMap.of(FakeIndexDefinition.INT_FIELD, 42));
+      .source(ImmutableMap.of(FakeIndexDefinition.INT_FIELD, intField));
   }
 }
@@ -89,7 +89,7 @@ public class IndexCreatorTest {
   }
 
   @Test
-  public void recreate_index_on_definition_changes() throws Exception {
+  public void rebuild_index_in_background_on_definition_changes() throws Exception {
     // v1
     startNewCreator(new FakeIndexDefinition());
 
@@ -97,17 +97,58 @@ public class IndexCreatorTest {
     String id = "1";
     es.client().prepareIndex(fakeIndexType).setId(id).setSource(new FakeDoc().getFields()).setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE).get();
     assertThat(es.client().prepareGet(fakeIndexType, id).get().isExists()).isTrue();
+    metadataIndex.setInitialized(fakeIndexType, true);
+    String hashV1 = metadataIndex.getHash("fakes").get();
 
     // v2
     startNewCreator(new FakeIndexDefinitionV2());
 
+    // current index is kept until the new index is populated. It accepts the new field.
     ImmutableOpenMap<String, ImmutableOpenMap<String, MappingMetaData>> mappings = mappings();
-    MappingMetaData mapping = mappings.get("fakes").get("fake");
+    assertThat(countMappingFields(mappings.get("fakes").get("fake"))).isEqualTo(3);
+    assertThat(es.client().prepareGet(fakeIndexType, id).get().isExists()).isTrue();
+    assertThat(metadataIndex.getHash("fakes")).hasValue(hashV1);
+    assertThat(metadataIndex.getRebuildHash("fakes").get()).isNotEqualTo(hashV1);
+
+    String rebuildIndex = metadataIndex.getRebuildIndex("fakes").get();
+    assertThat(rebuildIndex).startsWith("fakes_");
+    MappingMetaData mapping = mappings.get(rebuildIndex).get("fake");
     assertThat(countMappingFields(mapping)).isEqualTo(3);
     assertThat(field(mapping, "updatedAt").get("type")).isEqualTo("date");
     assertThat(field(mapping, "newField").get("type")).isEqualTo("integer");
+    assertThat(metadataIndex.getInitialized(fakeIndexType)).isTrue();
+  }
 
-    assertThat(es.client().prepareGet(fakeIndexType, id).get().isExists()).isFalse();
+  @Test
+  public void recreate_index_on_incompatible_definition_changes() throws Exception {
+    startNewCreator(new FakeIndexDefinition());
+    IndexType fakeIndexType = new IndexType("fakes", "fake");
+    es.client().prepareIndex(fakeIndexType).setId("1").setSource(new FakeDoc().getFields()).setRefreshPolicy(IMMEDIATE).get();
+    metadataIndex.setInitialized(fakeIndexType, true);
+
+    startNewCreator(new FakeIndexDefinitionWithChangedField());
+
+    assertThat(logTester.logs(LoggerLevel.INFO)).contains("Delete Elasticsearch index fakes (incompatible structure change)");
+    assertThat(es.client().prepareGet(fakeIndexType, "1").get().isExists()).isFalse();
+    assertThat(field(mappings().get("fakes").get("fake"), "updatedAt").get("type")).isEqualTo("integer");
+    assertThat(metadataIndex.getRebuildIndex("fakes")).isEmpty();
+    assertThat(metadataIndex.getInitialized(fakeIndexType)).isFalse();
+  }
+
+  @Test
+  public void restart_interrupted_rebuild() throws Exception {
+    startNewCreator(new FakeIndexDefinition());
+    startNewCreator(new FakeIndexDefinitionV2());
+    String interruptedRebuildIndex = metadataIndex.getRebuildIndex("fakes").get();
+    es.client().prepareIndex(new IndexType(interruptedRebuildIndex, "fake")).setId("1").setSource(new FakeDoc().getFields())
+      .setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE).get();
+
+    // definition did not change, but the rebuild has not been completed
+    startNewCreator(new FakeIndexDefinitionV2());
+
+    String rebuildIndex = metadataIndex.getRebuildIndex("fakes").get();
+    assertThat(es.client().prepareSearch(rebuildIndex).get().getHits().getTotalHits()).isZero();
+    assertThat(mappings().keys().toArray(String.class)).containsOnly("fakes", "metadatas", rebuildIndex);
   }
 
   @Test
@@ -234,6 +275,16 @@ public class IndexCreatorTest {
     }
   }
 
+  private static class FakeIndexDefinitionWithChangedField implements IndexDefinition {
+    @Override
+    public void define(IndexDefinitionContext context) {
+      NewIndex index = context.create("fakes", SETTINGS_CONFIGURATION);
+      NewIndex.NewIndexType mapping = index.createType("fake");
+      mapping.keywordFieldBuilder("key").build();
+      mapping.createIntegerField("updatedAt");
+    }
+  }
+
   private static class FakeIndexDefinitionV2 implements IndexDefinition {
     @Override
     public void define(IndexDefinitionContext context) {
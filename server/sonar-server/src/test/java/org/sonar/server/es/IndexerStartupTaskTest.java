@@ -19,7 +19,11 @@
  */
 package org.sonar.server.es;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import java.util.Optional;
+import java.util.Set;
+import org.elasticsearch.action.index.IndexRequest;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -27,9 +31,12 @@ import org.mockito.Mockito;
 import org.sonar.api.config.internal.MapSettings;
 import org.sonar.server.es.metadata.MetadataIndex;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.sonar.server.es.FakeIndexDefinition.INDEX_TYPE_FAKE;
@@ -47,6 +54,7 @@ public class IndexerStartupTaskTest {
   @Before
   public void setUp() throws Exception {
     doReturn(ImmutableSet.of(INDEX_TYPE_FAKE)).when(indexer).getIndexTypes();
+    doReturn(Optional.empty()).when(metadataIndex).getRebuildIndex(anyString());
   }
 
   @Test
@@ -78,6 +86,63 @@ public class IndexerStartupTaskTest {
     verifyNoMoreInteractions(indexer);
   }
 
+  @Test
+  public void do_not_index_on_startup_the_indices_which_are_rebuilt_in_background() {
+    doReturn(false).when(metadataIndex).getInitialized(INDEX_TYPE_FAKE);
+    doReturn(Optional.of("fakes_rebuild")).when(metadataIndex).getRebuildIndex(INDEX_TYPE_FAKE.getIndex());
+    IndexerStartupTask task = new IndexerStartupTask(es.client(), settings.asConfig(), metadataIndex, new StartupIndexer() {
+      @Override
+      public void indexOnStartup(Set<IndexType> uninitializedIndexTypes) {
+        throw new IllegalStateException("must be called in background only");
+      }
+
+      @Override
+      public Set<IndexType> getIndexTypes() {
+        return ImmutableSet.of(INDEX_TYPE_FAKE);
+      }
+    });
+
+    // background rebuild fails and is logged
+    task.execute();
+
+    verify(metadataIndex, never()).setInitialized(INDEX_TYPE_FAKE, true);
+  }
+
+  @Test
+  public void rebuild_populates_new_index_then_swaps_it_with_current_index() {
+    MetadataIndex realMetadataIndex = new MetadataIndex(es.client());
+    es.putDocuments(INDEX_TYPE_FAKE, new FakeDoc().setInt(1));
+    es.client().prepareCreate("fakes_rebuild").get();
+    realMetadataIndex.setHash(INDEX_TYPE_FAKE.getIndex(), "old_hash");
+    realMetadataIndex.setRebuildHash(INDEX_TYPE_FAKE.getIndex(), "new_hash");
+    realMetadataIndex.setRebuildIndex(INDEX_TYPE_FAKE.getIndex(), "fakes_rebuild");
+    StartupIndexer fakeIndexer = new StartupIndexer() {
+      @Override
+      public void indexOnStartup(Set<IndexType> uninitializedIndexTypes) {
+        BulkIndexer bulk = new BulkIndexer(es.client(), INDEX_TYPE_FAKE, BulkIndexer.Size.LARGE);
+        bulk.start();
+        bulk.add(new IndexRequest(INDEX_TYPE_FAKE.getIndex(), INDEX_TYPE_FAKE.getType(), "new").source(new FakeDoc().setInt(2).getFields()));
+        bulk.stop();
+      }
+
+      @Override
+      public Set<IndexType> getIndexTypes() {
+        return ImmutableSet.of(INDEX_TYPE_FAKE);
+      }
+    };
+    IndexerStartupTask task = new IndexerStartupTask(es.client(), settings.asConfig(), realMetadataIndex, fakeIndexer);
+
+    task.rebuild(ImmutableMap.of(INDEX_TYPE_FAKE.getIndex(), "fakes_rebuild"));
+
+    assertThat(es.getIds(INDEX_TYPE_FAKE)).containsOnly("new");
+    assertThat(es.client().prepareIndicesExist("fakes_rebuild").get().isExists()).isTrue();
+    assertThat(es.client().nativeClient().admin().indices().prepareGetIndex().setIndices(INDEX_TYPE_FAKE.getIndex()).get().getIndices())
+      .containsOnly("fakes_rebuild");
+    assertThat(realMetadataIndex.getRebuildIndex(INDEX_TYPE_FAKE.getIndex())).isEmpty();
+    assertThat(realMetadataIndex.getHash(INDEX_TYPE_FAKE.getIndex())).hasValue("new_hash");
+    assertThat(realMetadataIndex.getInitialized(INDEX_TYPE_FAKE)).isTrue();
+  }
+
   @Test
   public void do_not_index_if_indexes_are_disabled() throws Exception {
     settings.setProperty("sonar.internal.es.disableIndexes", "true");
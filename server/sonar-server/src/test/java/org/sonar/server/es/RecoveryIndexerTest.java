@@ -25,9 +25,13 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import javax.annotation.Nullable;
 import org.junit.After;
 import org.junit.Rule;
 import org.junit.Test;
@@ -50,6 +54,7 @@ import static java.util.stream.IntStream.rangeClosed;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.spy;
+import static org.sonar.api.utils.log.LoggerLevel.DEBUG;
 import static org.sonar.api.utils.log.LoggerLevel.ERROR;
 import static org.sonar.api.utils.log.LoggerLevel.INFO;
 import static org.sonar.api.utils.log.LoggerLevel.TRACE;
@@ -304,6 +309,124 @@ public class RecoveryIndexerTest {
     assertThatLogsContain(INFO, "Elasticsearch recovery - 3 documents processed [0 failures]");
   }
 
+  @Test
+  public void items_of_different_routings_are_indexed_in_parallel() {
+    List<EsQueueDto> items = IntStream.range(0, 10)
+      .mapToObj(i -> insertItem(FOO_TYPE, "f" + i, "project" + i))
+      .collect(Collectors.toList());
+    advanceInTime();
+
+    // each call waits for the other one, so that the test times out if calls are sequential
+    ConcurrentFakeIndexer indexer = new ConcurrentFakeIndexer(FOO_TYPE, 2);
+    MapSettings settings = new MapSettings()
+      .setProperty("sonar.search.recovery.threads", "2");
+    underTest = newRecoveryIndexer(settings.asConfig(), indexer);
+    underTest.recover();
+
+    assertThatQueueHasSize(0);
+    assertThat(indexer.called).hasSize(2);
+    assertThat(indexer.called.stream().flatMap(Collection::stream))
+      .extracting(EsQueueDto::getUuid)
+      .containsExactlyInAnyOrder(items.stream().map(EsQueueDto::getUuid).toArray(String[]::new));
+    // items of the same project are processed together
+    indexer.called.forEach(call -> assertThat(call).extracting(EsQueueDto::getDocRouting)
+      .doesNotContainAnyElementsOf(indexer.called.stream().filter(c -> c != call).flatMap(Collection::stream)
+        .map(EsQueueDto::getDocRouting).collect(Collectors.toList())));
+  }
+
+  @Test
+  public void loop_limit_is_reduced_when_indexing_is_slow_and_restored_when_fast() {
+    IntStream.range(0, 100).forEach(i -> insertItem(FOO_TYPE, "" + i));
+    advanceInTime();
+
+    // first loop takes 1 minute, next ones are immediate
+    SlowFirstCallIndexer indexer = new SlowFirstCallIndexer(FOO_TYPE, 60_000L);
+    MapSettings settings = new MapSettings()
+      .setProperty("sonar.search.recovery.loopLimit", "40")
+      .setProperty("sonar.search.recovery.loopTargetDurationInMs", "30000");
+    underTest = newRecoveryIndexer(settings.asConfig(), indexer);
+    assertThat(underTest.getCurrentLoopLimit()).isEqualTo(40L);
+
+    underTest.recover();
+
+    assertThatQueueHasSize(0);
+    assertThat(indexer.called).extracting(Collection::size).containsExactly(40, 20, 40);
+    assertThat(underTest.getCurrentLoopLimit()).isEqualTo(40L);
+    assertThat(underTest.getLastRunDocuments()).isEqualTo(100L);
+    assertThat(underTest.getLastRunDurationInMs()).isEqualTo(60_000L);
+    assertThatLogsContain(DEBUG, "Elasticsearch recovery - loop of 40 documents took 60000 ms, loading 20 documents per loop");
+  }
+
+  private class ConcurrentFakeIndexer implements ResilientIndexer {
+    private final IndexType indexType;
+    private final CyclicBarrier barrier;
+    private final List<Collection<EsQueueDto>> called = new CopyOnWriteArrayList<>();
+
+    ConcurrentFakeIndexer(IndexType indexType, int parties) {
+      this.indexType = indexType;
+      this.barrier = new CyclicBarrier(parties);
+    }
+
+    @Override
+    public IndexingResult index(DbSession dbSession, Collection<EsQueueDto> items) {
+      called.add(items);
+      try {
+        barrier.await();
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+      IndexingResult result = new IndexingResult();
+      items.forEach(i -> result.incrementSuccess().incrementRequests());
+      db.getDbClient().esQueueDao().delete(dbSession, items);
+      dbSession.commit();
+      return result;
+    }
+
+    @Override
+    public void indexOnStartup(Set<IndexType> uninitializedIndexTypes) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Set<IndexType> getIndexTypes() {
+      return ImmutableSet.of(indexType);
+    }
+  }
+
+  private class SlowFirstCallIndexer implements ResilientIndexer {
+    private final IndexType indexType;
+    private final long firstCallDurationInMs;
+    private final List<Collection<EsQueueDto>> called = new ArrayList<>();
+
+    SlowFirstCallIndexer(IndexType indexType, long firstCallDurationInMs) {
+      this.indexType = indexType;
+      this.firstCallDurationInMs = firstCallDurationInMs;
+    }
+
+    @Override
+    public IndexingResult index(DbSession dbSession, Collection<EsQueueDto> items) {
+      if (called.isEmpty()) {
+        system2.setNow(system2.now() + firstCallDurationInMs);
+      }
+      called.add(items);
+      IndexingResult result = new IndexingResult();
+      items.forEach(i -> result.incrementSuccess().incrementRequests());
+      db.getDbClient().esQueueDao().delete(dbSession, items);
+      dbSession.commit();
+      return result;
+    }
+
+    @Override
+    public void indexOnStartup(Set<IndexType> uninitializedIndexTypes) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Set<IndexType> getIndexTypes() {
+      return ImmutableSet.of(indexType);
+    }
+  }
+
   private class FailingAlwaysOnSameElementIndexer implements ResilientIndexer {
     private final IndexType indexType;
     private final EsQueueDto failing;
@@ -415,7 +538,11 @@ public class RecoveryIndexerTest {
   }
 
   private EsQueueDto insertItem(IndexType indexType, String docUuid) {
-    EsQueueDto item = EsQueueDto.create(indexType.format(), docUuid);
+    return insertItem(indexType, docUuid, null);
+  }
+
+  private EsQueueDto insertItem(IndexType indexType, String docUuid, @Nullable String routing) {
+    EsQueueDto item = EsQueueDto.create(indexType.format(), docUuid, null, routing);
     db.getDbClient().esQueueDao().insert(db.getSession(), item);
     db.commit();
     return item;
@@ -27,6 +27,7 @@ import org.sonar.server.es.IndexType;
 
 import static org.apache.commons.lang.RandomStringUtils.randomAlphanumeric;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.elasticsearch.action.support.WriteRequest.RefreshPolicy.IMMEDIATE;
 
 public class MetadataIndexTest {
 
@@ -60,6 +61,33 @@ public class MetadataIndexTest {
     assertThat(underTest.getHash(index)).hasValue(hash);
   }
 
+  @Test
+  public void rebuild_index_and_its_hash_are_removed_when_rebuild_completes() {
+    underTest.setRebuildIndex(index, "foo");
+    underTest.setRebuildHash(index, "bar");
+    assertThat(underTest.getRebuildIndex(index)).hasValue("foo");
+    assertThat(underTest.getPendingRebuildIndex(index)).isEqualTo("foo");
+    assertThat(underTest.getRebuildHash(index)).hasValue("bar");
+
+    underTest.setRebuildIndex(index, null);
+
+    assertThat(underTest.getRebuildIndex(index)).isEmpty();
+    assertThat(underTest.getPendingRebuildIndex(index)).isNull();
+    assertThat(underTest.getRebuildHash(index)).isEmpty();
+  }
+
+  @Test
+  public void do_not_request_again_an_index_without_pending_rebuild() {
+    assertThat(underTest.getPendingRebuildIndex(index)).isNull();
+
+    // rebuilds are started at startup only
+    es.client().prepareIndex(MetadataIndexDefinition.INDEX_TYPE_METADATA).setId(index + ".rebuildIndex")
+      .setSource(MetadataIndexDefinition.FIELD_VALUE, "foo").setRefreshPolicy(IMMEDIATE).get();
+
+    assertThat(underTest.getRebuildIndex(index)).hasValue("foo");
+    assertThat(underTest.getPendingRebuildIndex(index)).isNull();
+  }
+
   @Test
   public void database_metadata_are_empty_if_absent_from_index() {
     assertThat(underTest.getDbVendor()).isNotPresent();
@@ -1362,6 +1362,95 @@ public class IssueIndexTest {
     assertThat(underTest.searchBranchStatistics(project.uuid(), singletonList("unknown"))).isEmpty();
   }
 
+  @Test
+  public void searchAll_returns_keys_of_all_matching_issues() {
+    ComponentDto project = ComponentTesting.newPrivateProjectDto(newOrganizationDto());
+    ComponentDto otherProject = ComponentTesting.newPrivateProjectDto(newOrganizationDto());
+    List<IssueDoc> issues = new ArrayList<>();
+    IntStream.range(0, 1_200).forEach(i -> issues.add(newDoc("I" + i, project)));
+    issues.add(newDoc("OTHER", otherProject));
+    indexIssues(issues.toArray(new IssueDoc[issues.size()]));
+
+    List<String> keys = new ArrayList<>();
+    underTest.searchAll(IssueQuery.builder().projectUuids(singletonList(project.uuid())).build()).forEachRemaining(keys::add);
+
+    assertThat(keys)
+      .hasSize(1_200)
+      .doesNotHaveDuplicates()
+      .doesNotContain("OTHER");
+  }
+
+  @Test
+  public void searchAll_applies_authorization_filter() {
+    ComponentDto project = ComponentTesting.newPrivateProjectDto(newOrganizationDto());
+    GroupDto group = newGroupDto();
+    indexIssue(newDoc("I1", project));
+    authorizationIndexerTester.allowOnlyGroup(project, group);
+
+    userSessionRule.logIn().setGroups(group);
+    assertThat(underTest.searchAll(IssueQuery.builder().build())).containsExactly("I1");
+
+    userSessionRule.logIn();
+    assertThat(underTest.searchAll(IssueQuery.builder().build())).isEmpty();
+  }
+
+  @Test
+  public void searchFacets_returns_facets_without_hits() {
+    ComponentDto project = ComponentTesting.newPrivateProjectDto(newOrganizationDto());
+    indexIssues(
+      newDoc("I1", project).setSeverity(Severity.MAJOR),
+      newDoc("I2", project).setSeverity(Severity.MAJOR),
+      newDoc("I3", project).setSeverity(Severity.INFO));
+
+    SearchResponse result = underTest.searchFacets(IssueQuery.builder().build(), new SearchOptions().addFacets(singletonList("severities")));
+
+    assertThat(result.getHits().getHits()).isEmpty();
+    assertThat(result.getHits().getTotalHits()).isEqualTo(3L);
+    assertThat(new Facets(result, system2.getDefaultTimeZone()).get("severities")).containsOnly(entry("MAJOR", 2L), entry("INFO", 1L));
+  }
+
+  @Test
+  public void searchFacets_uses_request_cache_until_issues_are_indexed() {
+    ComponentDto project = ComponentTesting.newPrivateProjectDto(newOrganizationDto());
+    indexIssues(newDoc("I1", project).setSeverity(Severity.MAJOR));
+    IssueQuery query = IssueQuery.builder().build();
+    SearchOptions options = new SearchOptions().addFacets(singletonList("severities"));
+
+    underTest.searchFacets(query, options);
+    underTest.searchFacets(query, options);
+    assertThat(requestCacheHits()).isGreaterThan(0L);
+
+    indexIssues(newDoc("I2", project).setSeverity(Severity.MAJOR));
+    assertThat(new Facets(underTest.searchFacets(query, options), system2.getDefaultTimeZone()).get("severities")).containsOnly(entry("MAJOR", 2L));
+  }
+
+  @Test
+  public void searchFacets_uses_request_cache_for_facet_on_creation_date_during_the_day() {
+    ComponentDto project = ComponentTesting.newPrivateProjectDto(newOrganizationDto());
+    indexIssues(newDoc("I1", project).setFuncCreationDate(parseDateTime("2017-07-13T10:00:00-0100")));
+    IssueQuery query = IssueQuery.builder().createdAfter(parseDateTime("2017-07-10T00:00:00-0100")).build();
+    SearchOptions options = new SearchOptions().addFacets(singletonList("createdAt"));
+
+    underTest.searchFacets(query, options);
+    // later the same day
+    ((TestSystem2) system2).setNow(system2.now() + 60_000L);
+    Map<String, Long> createdAt = new Facets(underTest.searchFacets(query, options), system2.getDefaultTimeZone()).get("createdAt");
+
+    assertThat(requestCacheHits()).isGreaterThan(0L);
+    // buckets until today
+    assertThat(createdAt).containsOnly(
+      entry("2017-07-10", 0L),
+      entry("2017-07-11", 0L),
+      entry("2017-07-12", 0L),
+      entry("2017-07-13", 1L),
+      entry("2017-07-14", 0L));
+  }
+
+  private long requestCacheHits() {
+    return es.client().prepareStats(IssueIndexDefinition.INDEX_TYPE_ISSUE.getIndex()).setRequestCache(true).get()
+      .getTotal().getRequestCache().getHitCount();
+  }
+
   private void addIssues(ComponentDto component, int bugs, int vulnerabilities, int codeSmelles) {
     List<IssueDoc> issues = new ArrayList<>();
     IntStream.range(0, bugs).forEach(b -> issues.add(newDoc(component).setType(BUG).setResolution(null)));
@@ -0,0 +1,174 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.issue.ws;
+
+import java.io.InputStream;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.api.resources.Languages;
+import org.sonar.api.server.ws.WebService;
+import org.sonar.api.utils.Durations;
+import org.sonar.api.utils.System2;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbTester;
+import org.sonar.db.component.ComponentDto;
+import org.sonar.db.issue.IssueDto;
+import org.sonar.db.rule.RuleDefinitionDto;
+import org.sonar.server.es.EsTester;
+import org.sonar.server.issue.IssueFieldsSetter;
+import org.sonar.server.issue.IssueQueryFactory;
+import org.sonar.server.issue.TransitionService;
+import org.sonar.server.issue.index.IssueIndex;
+import org.sonar.server.issue.index.IssueIndexDefinition;
+import org.sonar.server.issue.index.IssueIndexer;
+import org.sonar.server.issue.index.IssueIteratorFactory;
+import org.sonar.server.issue.workflow.FunctionExecutor;
+import org.sonar.server.issue.workflow.IssueWorkflow;
+import org.sonar.server.permission.index.AuthorizationTypeSupport;
+import org.sonar.server.permission.index.PermissionIndexerTester;
+import org.sonar.server.tester.UserSessionRule;
+import org.sonar.server.ws.WsActionTester;
+import org.sonar.server.ws.WsResponseCommonFormat;
+import org.sonarqube.ws.Issues;
+import org.sonarqube.ws.MediaTypes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.db.component.ComponentTesting.newFileDto;
+import static org.sonar.test.JsonAssert.assertJson;
+
+public class ExportActionTest {
+
+  @Rule
+  public UserSessionRule userSession = UserSessionRule.standalone();
+  @Rule
+  public DbTester db = DbTester.create();
+  @Rule
+  public EsTester es = new EsTester(new IssueIndexDefinition(new MapSettings().asConfig()));
+
+  private DbClient dbClient = db.getDbClient();
+  private IssueIndex issueIndex = new IssueIndex(es.client(), System2.INSTANCE, userSession, new AuthorizationTypeSupport(userSession));
+  private IssueIndexer issueIndexer = new IssueIndexer(es.client(), dbClient, new IssueIteratorFactory(dbClient));
+  private PermissionIndexerTester permissionIndexerTester = new PermissionIndexerTester(es, issueIndexer);
+  private IssueQueryFactory issueQueryFactory = new IssueQueryFactory(dbClient, Clock.systemUTC(), userSession);
+  private IssueFieldsSetter issueFieldsSetter = new IssueFieldsSetter();
+  private IssueWorkflow issueWorkflow = new IssueWorkflow(new FunctionExecutor(issueFieldsSetter), issueFieldsSetter);
+  private SearchResponseLoader searchResponseLoader = new SearchResponseLoader(userSession, dbClient, new TransitionService(userSession, issueWorkflow));
+  private Languages languages = new Languages();
+  private SearchResponseFormat searchResponseFormat = new SearchResponseFormat(new Durations(), new WsResponseCommonFormat(languages), languages, new AvatarResolverImpl());
+  private WsActionTester ws = new WsActionTester(new ExportAction(issueIndex, issueQueryFactory, searchResponseLoader, searchResponseFormat));
+
+  @Before
+  public void setUp() {
+    issueWorkflow.start();
+  }
+
+  @Test
+  public void test_definition() {
+    WebService.Action def = ws.getDef();
+    assertThat(def.key()).isEqualTo("export");
+    assertThat(def.isInternal()).isTrue();
+    assertThat(def.isPost()).isFalse();
+    assertThat(def.since()).isEqualTo("7.0");
+    assertThat(def.responseExampleAsString()).isNotEmpty();
+    assertThat(def.params()).extracting(WebService.Param::key).containsExactlyInAnyOrder(
+      "componentKeys", "branch", "severities", "statuses", "resolved", "rules", "types", "createdAfter");
+    assertThat(def.param("componentKeys").isRequired()).isTrue();
+  }
+
+  @Test
+  public void export_issues_as_json() {
+    ComponentDto project = db.components().insertPublicProject();
+    ComponentDto file = db.components().insertComponent(newFileDto(project));
+    RuleDefinitionDto rule = db.rules().insert();
+    IssueDto issue = db.issues().insert(rule, project, file, i -> i.setMessage("the message").setSeverity("MAJOR"));
+    indexIssuesAndPermissions(project);
+
+    String json = ws.newRequest()
+      .setParam("componentKeys", project.getKey())
+      .execute()
+      .getInput();
+
+    assertJson(json).isSimilarTo("{" +
+      "  \"issues\": [" +
+      "    {" +
+      "      \"key\": \"" + issue.getKey() + "\"," +
+      "      \"rule\": \"" + rule.getKey() + "\"," +
+      "      \"component\": \"" + file.getKey() + "\"," +
+      "      \"project\": \"" + project.getKey() + "\"," +
+      "      \"severity\": \"MAJOR\"," +
+      "      \"message\": \"the message\"" +
+      "    }" +
+      "  ]" +
+      "}");
+  }
+
+  @Test
+  public void export_all_issues_over_several_chunks_as_protobuf() throws Exception {
+    ComponentDto project = db.components().insertPublicProject();
+    ComponentDto file = db.components().insertComponent(newFileDto(project));
+    RuleDefinitionDto rule = db.rules().insert();
+    int nbIssues = ExportAction.CHUNK_SIZE * 2 + 10;
+    IntStream.range(0, nbIssues).forEach(i -> db.issues().insert(rule, project, file));
+    indexIssuesAndPermissions(project);
+
+    InputStream input = ws.newRequest()
+      .setMediaType(MediaTypes.PROTOBUF)
+      .setParam("componentKeys", project.getKey())
+      .execute()
+      .getInputStream();
+
+    List<Issues.Issue> issues = new ArrayList<>();
+    Issues.Issue issue;
+    while ((issue = Issues.Issue.parseDelimitedFrom(input)) != null) {
+      issues.add(issue);
+    }
+    assertThat(issues)
+      .hasSize(nbIssues)
+      .extracting(Issues.Issue::getComponent).containsOnly(file.getKey());
+  }
+
+  @Test
+  public void does_not_export_issues_of_projects_without_browse_permission() {
+    ComponentDto project = db.components().insertPrivateProject();
+    ComponentDto file = db.components().insertComponent(newFileDto(project));
+    db.issues().insert(db.rules().insert(), project, file);
+    issueIndexer.indexOnStartup(issueIndexer.getIndexTypes());
+    permissionIndexerTester.allowOnlyUser(project, db.users().insertUser());
+    userSession.logIn();
+
+    String json = ws.newRequest()
+      .setParam("componentKeys", project.getKey())
+      .execute()
+      .getInput();
+
+    assertJson(json).isSimilarTo("{\"issues\": []}");
+  }
+
+  private void indexIssuesAndPermissions(ComponentDto project) {
+    issueIndexer.indexOnStartup(issueIndexer.getIndexTypes());
+    permissionIndexerTester.allowOnlyAnyone(project);
+  }
+}
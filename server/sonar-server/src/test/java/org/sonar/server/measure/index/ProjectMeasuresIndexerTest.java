@@ -19,14 +19,23 @@
  */
 package org.sonar.server.measure.index;
 
+import com.carrotsearch.hppc.cursors.ObjectObjectCursor;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.elasticsearch.action.admin.indices.create.CreateIndexRequestBuilder;
 import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.cluster.metadata.MappingMetaData;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.search.SearchHit;
 import org.junit.Rule;
 import org.junit.Test;
 import org.sonar.api.config.internal.MapSettings;
 import org.sonar.api.utils.System2;
+import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.DbTester;
 import org.sonar.db.component.ComponentDto;
@@ -34,8 +43,10 @@ import org.sonar.db.component.SnapshotDto;
 import org.sonar.db.es.EsQueueDto;
 import org.sonar.db.organization.OrganizationDto;
 import org.sonar.server.es.EsTester;
+import org.sonar.server.es.IndexType;
 import org.sonar.server.es.IndexingResult;
 import org.sonar.server.es.ProjectIndexer;
+import org.sonar.server.es.metadata.MetadataIndex;
 
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptySet;
@@ -43,6 +54,8 @@ import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.elasticsearch.index.query.QueryBuilders.boolQuery;
 import static org.elasticsearch.index.query.QueryBuilders.termQuery;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
 import static org.sonar.db.component.ComponentTesting.newPrivateProjectDto;
 import static org.sonar.server.es.ProjectIndexer.Cause.PROJECT_CREATION;
 import static org.sonar.server.es.ProjectIndexer.Cause.PROJECT_DELETION;
@@ -81,6 +94,17 @@ public class ProjectMeasuresIndexerTest {
     assertThatIndexContainsOnly(project1, project2, project3);
   }
 
+  @Test
+  public void indexOnStartup_indexes_partitions_of_projects_in_parallel() {
+    OrganizationDto organization = db.organizations().insert();
+    int nbProjects = 2 * ProjectMeasuresIndexer.MIN_PROJECTS_PER_THREAD + 10;
+    IntStream.range(0, nbProjects).forEach(i -> db.components().insertPrivateProject(organization));
+
+    underTest.indexOnStartup(emptySet());
+
+    assertThat(es.countDocuments(INDEX_TYPE_PROJECT_MEASURES)).isEqualTo(nbProjects);
+  }
+
   /**
    * Provisioned projects don't have analysis yet
    */
@@ -209,6 +233,52 @@ public class ProjectMeasuresIndexerTest {
     assertThat(es.countDocuments(INDEX_TYPE_PROJECT_MEASURES)).isEqualTo(0);
   }
 
+  @Test
+  public void indexOnStartup_rebuilds_index_without_overwriting_concurrent_changes() throws IOException {
+    OrganizationDto organization = db.organizations().insert();
+    ComponentDto updatedProject = db.components().insertPrivateProject(organization, p -> p.setTagsString("old"));
+    ComponentDto deletedProject = db.components().insertPrivateProject(organization, p -> p.setTagsString("old"));
+    ComponentDto unchangedProject = db.components().insertPrivateProject(organization, p -> p.setTagsString("old"));
+    String rebuildIndex = createRebuildIndex();
+    DbClient dbClient = spy(db.getDbClient());
+    AtomicInteger openedSessions = new AtomicInteger();
+    doAnswer(invocation -> {
+      // the population loaded the projects in the first session, then projects are changed concurrently
+      if (openedSessions.incrementAndGet() == 2) {
+        updatedProject.setTagsString("new");
+        db.getDbClient().componentDao().updateTags(db.getSession(), updatedProject);
+        indexProject(updatedProject, PROJECT_TAGS_UPDATE);
+        db.getDbClient().componentDao().delete(db.getSession(), deletedProject.getId());
+        indexProject(deletedProject, PROJECT_DELETION);
+      }
+      return invocation.callRealMethod();
+    }).when(dbClient).openSession(false);
+
+    new ProjectMeasuresIndexer(dbClient, es.client()).indexOnStartup(emptySet());
+
+    // population does not write to the current index, which receives only the concurrent changes
+    assertThatIndexContainsOnly(updatedProject);
+    IndexType rebuildIndexType = new IndexType(rebuildIndex, INDEX_TYPE_PROJECT_MEASURES.getType());
+    assertThat(es.getIds(rebuildIndexType)).containsExactlyInAnyOrder(updatedProject.uuid(), unchangedProject.uuid());
+    assertThat(es.client().prepareSearch(rebuildIndex).setQuery(termQuery(FIELD_TAGS, "new")).get().getHits().getHits())
+      .extracting(SearchHit::getId)
+      .containsExactly(updatedProject.uuid());
+  }
+
+  private String createRebuildIndex() throws IOException {
+    String index = INDEX_TYPE_PROJECT_MEASURES.getIndex();
+    String rebuildIndex = index + "_rebuild";
+    Settings settings = es.client().nativeClient().admin().indices().prepareGetSettings(index).get().getIndexToSettings().get(index);
+    CreateIndexRequestBuilder request = es.client().nativeClient().admin().indices().prepareCreate(rebuildIndex)
+      .setSettings(settings.filter(key -> key.startsWith("index.analysis.")));
+    for (ObjectObjectCursor<String, MappingMetaData> mapping : es.client().nativeClient().admin().indices().prepareGetMappings(index).get().getMappings().get(index)) {
+      request.addMapping(mapping.key, mapping.value.source().string(), XContentType.JSON);
+    }
+    request.get();
+    new MetadataIndex(es.client()).setRebuildIndex(index, rebuildIndex);
+    return rebuildIndex;
+  }
+
   private IndexingResult indexProject(ComponentDto project, ProjectIndexer.Cause cause) {
     DbSession dbSession = db.getSession();
     Collection<EsQueueDto> items = underTest.prepareForRecovery(dbSession, singletonList(project.uuid()), cause);
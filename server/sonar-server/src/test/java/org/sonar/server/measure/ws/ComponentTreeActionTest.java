@@ -66,6 +66,7 @@ import static org.sonar.api.resources.Qualifiers.FILE;
 import static org.sonar.api.resources.Qualifiers.MODULE;
 import static org.sonar.api.resources.Qualifiers.PROJECT;
 import static org.sonar.api.resources.Qualifiers.UNIT_TEST_FILE;
+import static org.sonar.api.server.ws.WebService.Param.ASCENDING;
 import static org.sonar.api.server.ws.WebService.Param.SORT;
 import static org.sonar.api.utils.DateUtils.parseDateTime;
 import static org.sonar.api.web.UserRole.USER;
@@ -394,6 +395,46 @@ public class ComponentTreeActionTest {
     assertThat(response.getPaging().getTotal()).isEqualTo(3);
   }
 
+  @Test
+  public void paginate_components_with_measures_only_sorted_by_metric_value() {
+    ComponentDto project = db.components().insertPrivateProject();
+    db.components().insertSnapshot(project);
+    ComponentDto dir = componentDb.insertComponent(newDirectory(project, "dir-uuid", "src"));
+    ComponentDto file1 = componentDb.insertComponent(newFileDto(project, dir, "file-uuid-1").setName("file-1"));
+    ComponentDto file2 = componentDb.insertComponent(newFileDto(project, dir, "file-uuid-2").setName("file-2"));
+    ComponentDto file3 = componentDb.insertComponent(newFileDto(project, dir, "file-uuid-3").setName("file-3"));
+    ComponentDto file4 = componentDb.insertComponent(newFileDto(project, dir, "file-uuid-4").setName("file-4"));
+    componentDb.insertComponent(newFileDto(project, dir, "file-uuid-5"));
+    MetricDto ncloc = newMetricDto().setKey("ncloc").setValueType(INT.name()).setDirection(1);
+    dbClient.metricDao().insert(dbSession, ncloc);
+    db.measures().insertLiveMeasure(project, ncloc, m -> m.setValue(40.0d));
+    db.measures().insertLiveMeasure(dir, ncloc, m -> m.setValue(40.0d));
+    db.measures().insertLiveMeasure(file1, ncloc, m -> m.setValue(10.0d));
+    db.measures().insertLiveMeasure(file2, ncloc, m -> m.setValue(10.0d));
+    db.measures().insertLiveMeasure(file3, ncloc, m -> m.setValue(5.0d));
+    db.measures().insertLiveMeasure(file4, ncloc, m -> m.setValue(15.0d));
+    db.commit();
+
+    ComponentTreeWsResponse response = ws.newRequest()
+      .setParam(PARAM_COMPONENT, project.getKey())
+      .setParam(SORT, METRIC_SORT)
+      .setParam(ASCENDING, "false")
+      .setParam(PARAM_METRIC_SORT, "ncloc")
+      .setParam(PARAM_METRIC_KEYS, "ncloc")
+      .setParam(PARAM_STRATEGY, "leaves")
+      .setParam(PARAM_QUALIFIERS, "FIL")
+      .setParam(PARAM_METRIC_SORT_FILTER, WITH_MEASURES_ONLY_METRIC_SORT_FILTER)
+      .setParam(Param.PAGE, "2")
+      .setParam(Param.PAGE_SIZE, "2")
+      .executeProtobuf(ComponentTreeWsResponse.class);
+
+    assertThat(response.getComponentsList()).extracting("id").containsExactly(file2.uuid(), file3.uuid());
+    assertThat(response.getComponentsList().get(0).getMeasuresList()).extracting("value").containsExactly("10");
+    assertThat(response.getBaseComponent().getMeasuresList()).isEmpty();
+    assertThat(response.getPaging().getPageIndex()).isEqualTo(2);
+    assertThat(response.getPaging().getTotal()).isEqualTo(4);
+  }
+
   @Test
   public void sort_by_metric_period() {
     ComponentDto project = db.components().insertPrivateProject();
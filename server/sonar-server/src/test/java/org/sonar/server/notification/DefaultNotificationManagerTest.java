@@ -19,12 +19,14 @@
  */
 package org.sonar.server.notification;
 
+import com.google.common.base.Ticker;
 import com.google.common.collect.Multimap;
 import java.io.InvalidClassException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang.RandomStringUtils;
 import org.junit.Before;
 import org.junit.Test;
@@ -103,12 +105,12 @@ public class DefaultNotificationManagerTest {
     Notification notification = new Notification("test");
     NotificationQueueDto dto = NotificationQueueDto.toNotificationQueueDto(notification);
     List<NotificationQueueDto> dtos = Arrays.asList(dto);
-    when(notificationQueueDao.selectOldest(1)).thenReturn(dtos);
+    when(notificationQueueDao.selectOldest(10)).thenReturn(dtos);
 
-    assertThat(underTest.getFromQueue()).isNotNull();
+    assertThat(underTest.getFromQueue(10)).hasSize(1);
 
     InOrder inOrder = inOrder(notificationQueueDao);
-    inOrder.verify(notificationQueueDao).selectOldest(1);
+    inOrder.verify(notificationQueueDao).selectOldest(10);
     inOrder.verify(notificationQueueDao).delete(dtos);
   }
 
@@ -117,12 +119,13 @@ public class DefaultNotificationManagerTest {
   public void shouldNotFailWhenUnableToDeserialize() throws Exception {
     NotificationQueueDto dto1 = mock(NotificationQueueDto.class);
     when(dto1.toNotification()).thenThrow(new InvalidClassException("Pouet"));
-    List<NotificationQueueDto> dtos = Arrays.asList(dto1);
-    when(notificationQueueDao.selectOldest(1)).thenReturn(dtos);
+    NotificationQueueDto dto2 = NotificationQueueDto.toNotificationQueueDto(new Notification("test"));
+    List<NotificationQueueDto> dtos = Arrays.asList(dto1, dto2);
+    when(notificationQueueDao.selectOldest(2)).thenReturn(dtos);
 
     underTest = spy(underTest);
-    assertThat(underTest.getFromQueue()).isNull();
-    assertThat(underTest.getFromQueue()).isNull();
+    assertThat(underTest.getFromQueue(2)).extracting(Notification::getType).containsExactly("test");
+    assertThat(underTest.getFromQueue(2)).extracting(Notification::getType).containsExactly("test");
 
     verify(underTest, times(1)).logDeserializationIssue();
   }
@@ -162,6 +165,34 @@ public class DefaultNotificationManagerTest {
     verify(authorizationDao, times(1)).keepAuthorizedLoginsOnProject(eq(dbSession), anySet(), anyString(), anyString());
   }
 
+  @Test
+  public void recipients_are_kept_in_cache_for_a_short_period() {
+    FakeTicker ticker = new FakeTicker();
+    underTest = new DefaultNotificationManager(new NotificationChannel[] {emailChannel, twitterChannel}, dbClient, ticker);
+    String projectUuid = "uuid_45";
+    when(propertiesDao.findUsersForNotification("NewViolations", "Email", projectUuid))
+      .thenReturn(newHashSet(new Subscriber("user1", false)));
+    when(authorizationDao.keepAuthorizedLoginsOnProject(dbSession, newHashSet("user1"), projectUuid, "user"))
+      .thenReturn(newHashSet("user1"));
+
+    Multimap<String, NotificationChannel> first = underTest.findSubscribedRecipientsForDispatcher(dispatcher, projectUuid,
+      SubscriberPermissionsOnProject.ALL_MUST_HAVE_ROLE_USER);
+    Multimap<String, NotificationChannel> second = underTest.findSubscribedRecipientsForDispatcher(dispatcher, projectUuid,
+      SubscriberPermissionsOnProject.ALL_MUST_HAVE_ROLE_USER);
+
+    assertThat(second).isEqualTo(first);
+    assertThat(second.get("user1")).containsOnly(emailChannel);
+    verify(propertiesDao, times(1)).findUsersForNotification("NewViolations", "Email", projectUuid);
+
+    // other permissions are not shared
+    underTest.findSubscribedRecipientsForDispatcher(dispatcher, projectUuid, new SubscriberPermissionsOnProject("admin"));
+    verify(propertiesDao, times(2)).findUsersForNotification("NewViolations", "Email", projectUuid);
+
+    ticker.advance(DefaultNotificationManager.RECIPIENTS_CACHE_TTL_SECONDS + 1, TimeUnit.SECONDS);
+    underTest.findSubscribedRecipientsForDispatcher(dispatcher, projectUuid, SubscriberPermissionsOnProject.ALL_MUST_HAVE_ROLE_USER);
+    verify(propertiesDao, times(3)).findUsersForNotification("NewViolations", "Email", projectUuid);
+  }
+
   @Test
   public void should_apply_distinct_permission_filtering_global_or_project_subscribers() {
     String globalPermission = RandomStringUtils.randomAlphanumeric(4);
@@ -243,4 +274,17 @@ public class DefaultNotificationManagerTest {
     verify(authorizationDao, times(0)).keepAuthorizedLoginsOnProject(eq(dbSession), anySet(), anyString(), eq(globalPermission));
     verify(authorizationDao, times(1)).keepAuthorizedLoginsOnProject(eq(dbSession), anySet(), anyString(), eq(projectPermission));
   }
+
+  private static class FakeTicker extends Ticker {
+    private long nanos = 0L;
+
+    @Override
+    public long read() {
+      return nanos;
+    }
+
+    void advance(long duration, TimeUnit unit) {
+      nanos += unit.toNanos(duration);
+    }
+  }
 }
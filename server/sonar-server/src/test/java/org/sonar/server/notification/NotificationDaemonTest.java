@@ -21,6 +21,8 @@ package org.sonar.server.notification;
 
 import com.google.common.collect.Sets;
 import java.util.Arrays;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
 import org.junit.Test;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
@@ -32,8 +34,12 @@ import org.sonar.api.notifications.NotificationChannel;
 import org.sonar.db.DbClient;
 import org.sonar.db.property.PropertiesDao;
 
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.same;
 import static org.mockito.Mockito.doAnswer;
@@ -69,7 +75,7 @@ public class NotificationDaemonTest {
     when(commentOnIssueCreatedByMe.getType()).thenReturn("issue-changes");
     when(qualityGateChange.getKey()).thenReturn("QGateChange");
     when(qualityGateChange.getType()).thenReturn("qgate-changes");
-    when(manager.getFromQueue()).thenReturn(notification).thenReturn(null);
+    when(manager.getFromQueue(anyInt())).thenReturn(singletonList(notification)).thenReturn(emptyList());
 
     MapSettings settings = new MapSettings(new PropertyDefinitions(NotificationDaemon.class)).setProperty("sonar.notifications.delay", 1L);
 
@@ -175,7 +181,7 @@ public class NotificationDaemonTest {
   @Test
   public void shouldNotStopWhenException() {
     setUpMocks();
-    when(manager.getFromQueue()).thenThrow(new RuntimeException("Unexpected exception")).thenReturn(notification).thenReturn(null);
+    when(manager.getFromQueue(anyInt())).thenThrow(new RuntimeException("Unexpected exception")).thenReturn(singletonList(notification)).thenReturn(emptyList());
     doAnswer(addUser(ASSIGNEE_SIMON, emailChannel)).when(commentOnIssueAssignedToMe).dispatch(same(notification), any(NotificationDispatcher.Context.class));
     doAnswer(addUser(CREATOR_SIMON, emailChannel)).when(commentOnIssueCreatedByMe).dispatch(same(notification), any(NotificationDispatcher.Context.class));
 
@@ -217,7 +223,7 @@ public class NotificationDaemonTest {
   public void shouldLogEvery10Minutes() {
     setUpMocks();
     // Emulate 2 notifications in DB
-    when(manager.getFromQueue()).thenReturn(notification).thenReturn(notification).thenReturn(null);
+    when(manager.getFromQueue(anyInt())).thenReturn(singletonList(notification)).thenReturn(singletonList(notification)).thenReturn(emptyList());
     when(manager.count()).thenReturn(1L).thenReturn(0L);
     underTest = spy(underTest);
     // Emulate processing of each notification take 10 min to have a log each time
@@ -228,6 +234,28 @@ public class NotificationDaemonTest {
     underTest.stop();
   }
 
+  @Test
+  public void deliver_notifications_by_batches_in_parallel() throws Exception {
+    setUpMocks();
+    Notification otherNotification = mock(Notification.class);
+    // batches are not larger than the number of delivery threads
+    when(manager.getFromQueue(4)).thenReturn(asList(notification, otherNotification)).thenReturn(emptyList());
+    // each delivery waits for the other one, so that deliveries fail if they are sequential
+    CyclicBarrier barrier = new CyclicBarrier(2);
+    doAnswer(invocation -> {
+      barrier.await(2, TimeUnit.SECONDS);
+      return addUser(ASSIGNEE_SIMON, emailChannel).answer(invocation);
+    }).when(commentOnIssueAssignedToMe).dispatch(any(Notification.class), any(NotificationDispatcher.Context.class));
+
+    underTest.start();
+    verify(emailChannel, timeout(2000)).deliver(notification, ASSIGNEE_SIMON);
+    verify(emailChannel, timeout(2000)).deliver(otherNotification, ASSIGNEE_SIMON);
+    underTest.stop();
+
+    assertThat(underTest.getDeliveredCount()).isEqualTo(2L);
+    assertThat(underTest.getDeliveryThreads()).isEqualTo(4);
+  }
+
   @Test
   public void hasProjectSubscribersForType() {
     setUpMocks();
@@ -0,0 +1,55 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.monitoring;
+
+import org.junit.Test;
+import org.sonar.process.systeminfo.protobuf.ProtobufSystemInfo;
+import org.sonar.server.user.AuthorizationCache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.sonar.process.systeminfo.SystemInfoUtils.attribute;
+
+public class AuthorizationCacheSectionTest {
+
+  private AuthorizationCache authorizationCache = mock(AuthorizationCache.class);
+  private AuthorizationCacheSection underTest = new AuthorizationCacheSection(authorizationCache);
+
+  @Test
+  public void name() {
+    assertThat(underTest.toProtobuf().getName()).isEqualTo("Web Authorization Cache");
+  }
+
+  @Test
+  public void cache_attributes() {
+    when(authorizationCache.getSize()).thenReturn(4L);
+    when(authorizationCache.getHits()).thenReturn(10L);
+    when(authorizationCache.getMisses()).thenReturn(5L);
+    when(authorizationCache.getInvalidations()).thenReturn(2L);
+
+    ProtobufSystemInfo.Section section = underTest.toProtobuf();
+
+    assertThat(attribute(section, "Entries").getLongValue()).isEqualTo(4L);
+    assertThat(attribute(section, "Hits").getLongValue()).isEqualTo(10L);
+    assertThat(attribute(section, "Misses").getLongValue()).isEqualTo(5L);
+    assertThat(attribute(section, "Invalidations").getLongValue()).isEqualTo(2L);
+  }
+}
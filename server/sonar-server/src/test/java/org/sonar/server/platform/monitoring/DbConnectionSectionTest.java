@@ -19,6 +19,7 @@
  */
 package org.sonar.server.platform.monitoring;
 
+import java.util.List;
 import org.junit.Rule;
 import org.junit.Test;
 import org.sonar.api.SonarQubeSide;
@@ -57,6 +58,19 @@ public class DbConnectionSectionTest {
     assertThat(attribute(section, "Pool Max Wait (ms)")).isNotNull();
     assertThat(attribute(section, "Pool Remove Abandoned")).isNotNull();
     assertThat(attribute(section, "Pool Remove Abandoned Timeout (seconds)").getLongValue()).isGreaterThanOrEqualTo(0L);
+    assertThat(attribute(section, "Pool Wait Count").getLongValue()).isGreaterThanOrEqualTo(0L);
+    assertThat(attribute(section, "Pool Wait Max (ms)").getLongValue()).isGreaterThanOrEqualTo(0L);
+    assertThat(attribute(section, "Pool Wait Histogram").getStringValuesList()).hasSize(6);
+  }
+
+  @Test
+  public void slowest_statements() {
+    dbTester.components().insertPrivateProject();
+
+    List<String> statements = underTest.getSlowestStatements();
+    assertThat(statements).isNotEmpty();
+    assertThat(statements.size()).isLessThanOrEqualTo(10);
+    assertThat(statements).allMatch(s -> s.matches("org\\.sonar\\.db\\..+: count=\\d+, total=\\d+ ms, max=\\d+ ms"));
   }
 
   @Test
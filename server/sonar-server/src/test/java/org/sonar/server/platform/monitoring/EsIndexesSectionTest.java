@@ -54,6 +54,20 @@ public class EsIndexesSectionTest {
     assertThat(attribute(section, "Index issues - Docs").getLongValue()).isEqualTo(0L);
     assertThat(attribute(section, "Index issues - Shards").getLongValue()).isGreaterThan(0);
     assertThat(attribute(section, "Index issues - Store Size").getStringValue()).isNotNull();
+    assertThat(attribute(section, "Index issues - Request Cache Hits").getLongValue()).isEqualTo(0L);
+    assertThat(attribute(section, "Index issues - Request Cache Misses").getLongValue()).isEqualTo(0L);
+    assertThat(attribute(section, "Index issues - Request Cache Evictions").getLongValue()).isEqualTo(0L);
+    assertThat(attribute(section, "Index issues - Request Cache Size").getStringValue()).isNotNull();
+  }
+
+  @Test
+  public void search_latency_by_group_of_requests() {
+    esTester.client().prepareSearch(IssueIndexDefinition.INDEX_TYPE_ISSUE).setStats("foo").get();
+
+    ProtobufSystemInfo.Section section = underTest.toProtobuf();
+
+    assertThat(attribute(section, "Index issues - Search foo - Queries").getLongValue()).isGreaterThan(0L);
+    assertThat(attribute(section, "Index issues - Search foo - Average Time (ms)").getLongValue()).isGreaterThanOrEqualTo(0L);
   }
 
   @Test
@@ -0,0 +1,78 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.monitoring;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.utils.internal.TestSystem2;
+import org.sonar.db.DbTester;
+import org.sonar.db.es.EsQueueDto;
+import org.sonar.process.systeminfo.protobuf.ProtobufSystemInfo;
+import org.sonar.server.es.RecoveryIndexer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.sonar.process.systeminfo.SystemInfoUtils.attribute;
+
+public class EsRecoverySectionTest {
+
+  private TestSystem2 system2 = new TestSystem2().setNow(1_000L);
+
+  @Rule
+  public DbTester db = DbTester.create(system2);
+
+  private RecoveryIndexer recoveryIndexer = mock(RecoveryIndexer.class);
+  private EsRecoverySection underTest = new EsRecoverySection(db.getDbClient(), recoveryIndexer, system2);
+
+  @Test
+  public void empty_queue() {
+    ProtobufSystemInfo.Section section = underTest.toProtobuf();
+
+    assertThat(section.getName()).isEqualTo("Search Recovery");
+    assertThat(attribute(section, "Queue Size").getLongValue()).isEqualTo(0L);
+    assertThat(attribute(section, "Queue Lag (ms)").getLongValue()).isEqualTo(0L);
+    assertThat(attribute(section, "Last Run Throughput (docs/s)").getLongValue()).isEqualTo(0L);
+  }
+
+  @Test
+  public void queue_and_last_run_attributes() {
+    insertItem();
+    system2.setNow(1_500L);
+    insertItem();
+    system2.setNow(3_000L);
+    when(recoveryIndexer.getCurrentLoopLimit()).thenReturn(500L);
+    when(recoveryIndexer.getLastRunDocuments()).thenReturn(300L);
+    when(recoveryIndexer.getLastRunDurationInMs()).thenReturn(2_000L);
+
+    ProtobufSystemInfo.Section section = underTest.toProtobuf();
+
+    assertThat(attribute(section, "Queue Size").getLongValue()).isEqualTo(2L);
+    assertThat(attribute(section, "Queue Lag (ms)").getLongValue()).isEqualTo(2_000L);
+    assertThat(attribute(section, "Loop Limit").getLongValue()).isEqualTo(500L);
+    assertThat(attribute(section, "Last Run Documents").getLongValue()).isEqualTo(300L);
+    assertThat(attribute(section, "Last Run Throughput (docs/s)").getLongValue()).isEqualTo(150L);
+  }
+
+  private void insertItem() {
+    db.getDbClient().esQueueDao().insert(db.getSession(), EsQueueDto.create("foos/foo", "f1"));
+    db.commit();
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.monitoring;
+
+import org.junit.Test;
+import org.sonar.api.utils.internal.TestSystem2;
+import org.sonar.process.systeminfo.protobuf.ProtobufSystemInfo;
+import org.sonar.server.notification.DefaultNotificationManager;
+import org.sonar.server.notification.NotificationDaemon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.sonar.process.systeminfo.SystemInfoUtils.attribute;
+
+public class NotificationsSectionTest {
+
+  private DefaultNotificationManager notificationManager = mock(DefaultNotificationManager.class);
+  private NotificationDaemon notificationDaemon = mock(NotificationDaemon.class);
+  private TestSystem2 system2 = new TestSystem2().setNow(10_000L);
+  private NotificationsSection underTest = new NotificationsSection(notificationManager, notificationDaemon, system2);
+
+  @Test
+  public void queue_lag_is_time_since_queue_was_empty() {
+    when(notificationManager.count()).thenReturn(42L);
+    when(notificationDaemon.getLastEmptyQueueDate()).thenReturn(4_000L);
+    when(notificationDaemon.getDeliveredCount()).thenReturn(1_000L);
+    when(notificationDaemon.getDeliveryThreads()).thenReturn(4);
+
+    ProtobufSystemInfo.Section section = underTest.toProtobuf();
+
+    assertThat(section.getName()).isEqualTo("Notifications");
+    assertThat(attribute(section, "Queue Size").getLongValue()).isEqualTo(42L);
+    assertThat(attribute(section, "Queue Lag (ms)").getLongValue()).isEqualTo(6_000L);
+    assertThat(attribute(section, "Delivered").getLongValue()).isEqualTo(1_000L);
+    assertThat(attribute(section, "Delivery Threads").getLongValue()).isEqualTo(4L);
+  }
+
+  @Test
+  public void no_lag_if_queue_is_empty() {
+    when(notificationManager.count()).thenReturn(0L);
+    when(notificationDaemon.getLastEmptyQueueDate()).thenReturn(4_000L);
+
+    ProtobufSystemInfo.Section section = underTest.toProtobuf();
+
+    assertThat(attribute(section, "Queue Lag (ms)").getLongValue()).isEqualTo(0L);
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.platform.monitoring;
+
+import org.junit.Test;
+import org.sonar.db.protobuf.DbFileSources;
+import org.sonar.process.systeminfo.protobuf.ProtobufSystemInfo;
+import org.sonar.server.source.HtmlSourceDecorator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.process.systeminfo.SystemInfoUtils.attribute;
+
+public class SourceDecorationCacheSectionTest {
+
+  private HtmlSourceDecorator htmlSourceDecorator = new HtmlSourceDecorator();
+  private SourceDecorationCacheSection underTest = new SourceDecorationCacheSection(htmlSourceDecorator);
+
+  @Test
+  public void name() {
+    assertThat(underTest.toProtobuf().getName()).isEqualTo("Web Source Decoration Cache");
+  }
+
+  @Test
+  public void cache_attributes() {
+    DbFileSources.Line line = DbFileSources.Line.newBuilder().setLine(1).setSource("foo").build();
+    htmlSourceDecorator.getDecoratedSourceAsHtml("HASH", line);
+    htmlSourceDecorator.getDecoratedSourceAsHtml("HASH", line);
+
+    ProtobufSystemInfo.Section section = underTest.toProtobuf();
+
+    assertThat(attribute(section, "Lines").getLongValue()).isEqualTo(1L);
+    assertThat(attribute(section, "Hits").getLongValue()).isEqualTo(1L);
+    assertThat(attribute(section, "Misses").getLongValue()).isEqualTo(1L);
+    assertThat(attribute(section, "Evictions").getLongValue()).isEqualTo(0L);
+  }
+}
@@ -70,6 +70,7 @@ import static org.sonar.api.rule.Severity.MAJOR;
 import static org.sonar.api.rule.Severity.MINOR;
 import static org.sonar.db.rule.RuleTesting.newCustomRule;
 import static org.sonar.server.qualityprofile.ActiveRule.Inheritance.INHERITED;
+import static org.sonar.server.qualityprofile.ActiveRule.Inheritance.OVERRIDES;
 
 public class RuleActivatorTest {
 
@@ -864,6 +865,35 @@ public class RuleActivatorTest {
       r -> assertThatRuleIsActivated(profile, r.getDefinition(), null, MINOR, null, emptyMap()));
   }
 
+  @Test
+  public void bulk_activation_cascades_on_descendants_and_stops_on_overriding_profiles() {
+    String repositoryKey = randomAlphanumeric(10);
+    RuleDefinitionDto rule1 = db.rules().insert(r -> r.setSeverity(Severity.MAJOR).setLanguage("java").setRepositoryKey(repositoryKey));
+    RuleParamDto ruleParam = db.rules().insertRuleParam(rule1, p -> p.setName("min").setDefaultValue("10"));
+    RuleDefinitionDto rule2 = db.rules().insert(r -> r.setSeverity(Severity.MAJOR).setLanguage("java").setRepositoryKey(repositoryKey));
+    QProfileDto parentProfile = createProfile(rule1);
+    QProfileDto childProfile = createChildProfile(parentProfile);
+    QProfileDto grandchildProfile = createChildProfile(childProfile);
+    activate(childProfile, RuleActivation.create(rule1.getKey(), CRITICAL, of(ruleParam.getName(), "20")));
+    ruleIndexer.indexOnStartup(ruleIndexer.getIndexTypes());
+
+    RuleQuery ruleQuery = new RuleQuery().setRepositories(singletonList(repositoryKey));
+    BulkChangeResult result = underTest.bulkActivateAndCommit(db.getSession(), ruleQuery, parentProfile, BLOCKER);
+
+    assertThat(result.countSucceeded()).isEqualTo(2);
+    assertThat(result.countFailed()).isEqualTo(0);
+    assertThat(result.getChanges()).hasSize(5);
+    assertThatRuleIsActivated(parentProfile, rule1, result.getChanges(), BLOCKER, null, of("min", "10"));
+    assertThatRuleIsUpdated(childProfile, rule1, CRITICAL, OVERRIDES, of("min", "20"));
+    assertThatRuleIsUpdated(grandchildProfile, rule1, CRITICAL, INHERITED, of("min", "20"));
+    assertThatRuleIsActivated(parentProfile, rule2, result.getChanges(), BLOCKER, null, emptyMap());
+    assertThatRuleIsActivated(childProfile, rule2, result.getChanges(), BLOCKER, INHERITED, emptyMap());
+    assertThatRuleIsActivated(grandchildProfile, rule2, result.getChanges(), BLOCKER, INHERITED, emptyMap());
+    assertThatProfileIsUpdatedBySystem(parentProfile);
+    assertThatProfileIsUpdatedBySystem(childProfile);
+    assertThatProfileIsUpdatedBySystem(grandchildProfile);
+  }
+
   @Test
   public void bulk_deactivation() {
     int bulkSize = SearchOptions.MAX_LIMIT + 10 + new Random().nextInt(100);
@@ -434,6 +434,38 @@ public class RegisterRulesTest {
     assertThat(rule1.getUpdatedAt()).isEqualTo(DATE1.getTime());
   }
 
+  @Test
+  public void skip_repositories_which_definitions_did_not_change() {
+    execute(new FakeRepositoryV1(), new FindbugsRepository());
+    RuleRepositoryDto fakeRepository = dbClient.ruleRepositoryDao().selectByKey(dbTester.getSession(), "fake").get();
+    assertThat(fakeRepository.getFingerprint()).isNotEmpty();
+
+    // rule is changed in db, so that it would be restored if the repository was processed again
+    RuleDefinitionDto rule1 = dbClient.ruleDao().selectOrFailDefinitionByKey(dbTester.getSession(), RULE_KEY1);
+    dbClient.ruleDao().update(dbTester.getSession(), rule1.setName("Changed in db"));
+    dbTester.getSession().commit();
+
+    when(system.now()).thenReturn(DATE2.getTime());
+    execute(new FakeRepositoryV1(), new FindbugsRepository());
+
+    assertThat(dbClient.ruleDao().selectOrFailDefinitionByKey(dbTester.getSession(), RULE_KEY1).getName()).isEqualTo("Changed in db");
+    assertThat(dbClient.ruleDao().selectAllDefinitions(dbTester.getSession())).hasSize(3)
+      .extracting(RuleDefinitionDto::getStatus).doesNotContain(RuleStatus.REMOVED);
+    assertThat(dbClient.ruleRepositoryDao().selectByKey(dbTester.getSession(), "fake").get().getFingerprint()).isEqualTo(fakeRepository.getFingerprint());
+  }
+
+  @Test
+  public void process_repositories_which_definitions_changed() {
+    execute(new FakeRepositoryV1(), new FindbugsRepository());
+    String fingerprint = dbClient.ruleRepositoryDao().selectByKey(dbTester.getSession(), "findbugs").get().getFingerprint();
+
+    execute(new FakeRepositoryV1(), new FindbugsRepository(), new FbContribRepository());
+
+    assertThat(dbClient.ruleDao().selectAllDefinitions(dbTester.getSession())).extracting(RuleDefinitionDto::getKey)
+      .containsOnly(RULE_KEY1, RULE_KEY2, RuleKey.of("findbugs", "rule1"), RuleKey.of("findbugs", "rule2"));
+    assertThat(dbClient.ruleRepositoryDao().selectByKey(dbTester.getSession(), "findbugs").get().getFingerprint()).isNotEqualTo(fingerprint);
+  }
+
   @Test
   public void do_not_update_already_removed_rules() {
     execute(new FakeRepositoryV1());
@@ -0,0 +1,77 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.rule;
+
+import java.util.Collections;
+import java.util.function.Consumer;
+import org.junit.Test;
+import org.sonar.api.server.rule.RulesDefinition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RuleRepositoryFingerprintTest {
+
+  @Test
+  public void fingerprint_does_not_depend_on_declaration_order() {
+    String fingerprint1 = fingerprintOf(repo -> {
+      repo.createRule("rule1").setName("One").setHtmlDescription("Desc").setTags("a", "b");
+      repo.createRule("rule2").setName("Two").setHtmlDescription("Desc");
+    });
+    String fingerprint2 = fingerprintOf(repo -> {
+      repo.createRule("rule2").setName("Two").setHtmlDescription("Desc");
+      repo.createRule("rule1").setName("One").setHtmlDescription("Desc").setTags("b", "a");
+    });
+
+    assertThat(fingerprint1).isEqualTo(fingerprint2);
+  }
+
+  @Test
+  public void fingerprint_changes_when_a_rule_attribute_changes() {
+    String fingerprint = fingerprintOf(repo -> repo.createRule("rule1").setName("One").setHtmlDescription("Desc"));
+
+    assertThat(fingerprintOf(repo -> repo.createRule("rule1").setName("One v2").setHtmlDescription("Desc"))).isNotEqualTo(fingerprint);
+    assertThat(fingerprintOf(repo -> repo.createRule("rule1").setName("One").setHtmlDescription("Desc v2"))).isNotEqualTo(fingerprint);
+    assertThat(fingerprintOf(repo -> repo.createRule("rule1").setName("One").setHtmlDescription("Desc").setTemplate(true))).isNotEqualTo(fingerprint);
+    assertThat(fingerprintOf(repo -> {
+      RulesDefinition.NewRule rule = repo.createRule("rule1").setName("One").setHtmlDescription("Desc");
+      rule.createParam("param").setDefaultValue("10");
+    })).isNotEqualTo(fingerprint);
+  }
+
+  @Test
+  public void fingerprint_depends_on_organizations_flag() {
+    RulesDefinition.Context context = new RulesDefinition.Context();
+    RulesDefinition.NewRepository newRepository = context.createRepository("repo", "java");
+    newRepository.createRule("rule1").setName("One").setHtmlDescription("Desc");
+    newRepository.done();
+    RulesDefinition.Repository repository = context.repository("repo");
+
+    assertThat(RuleRepositoryFingerprint.compute(Collections.singletonList(repository), true))
+      .isNotEqualTo(RuleRepositoryFingerprint.compute(Collections.singletonList(repository), false));
+  }
+
+  private static String fingerprintOf(Consumer<RulesDefinition.NewRepository> definition) {
+    RulesDefinition.Context context = new RulesDefinition.Context();
+    RulesDefinition.NewRepository repository = context.createRepository("repo", "java");
+    definition.accept(repository);
+    repository.done();
+    return RuleRepositoryFingerprint.compute(Collections.singletonList(context.repository("repo")), false);
+  }
+}
@@ -21,6 +21,7 @@ package org.sonar.server.source;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.sonar.db.protobuf.DbFileSources;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -75,4 +76,25 @@ public class HtmlSourceDecoratorTest {
     assertThat(sourceDecorator.getDecoratedSourceAsHtml(sourceLine, highlighting, symbols)).isEqualTo("<span class=\"a\">@<span class=\"sym-1 sym\">Deprecated</span></span>");
   }
 
+  @Test
+  public void should_cache_decorated_lines_by_data_hash_and_line() {
+    DbFileSources.Line line = DbFileSources.Line.newBuilder().setLine(1).setSource("a < b").setHighlighting("0,1,k").build();
+
+    assertThat(sourceDecorator.getDecoratedSourceAsHtml("HASH_1", line)).isEqualTo("<span class=\"k\">a</span> &lt; b");
+    assertThat(sourceDecorator.getDecoratedSourceAsHtml("HASH_1", line)).isEqualTo("<span class=\"k\">a</span> &lt; b");
+    assertThat(sourceDecorator.getDecoratedSourceAsHtml("HASH_2", line)).isEqualTo("<span class=\"k\">a</span> &lt; b");
+
+    assertThat(sourceDecorator.getCacheSize()).isEqualTo(2);
+    assertThat(sourceDecorator.getCacheStats().hitCount()).isEqualTo(1);
+    assertThat(sourceDecorator.getCacheStats().missCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void should_not_cache_lines_without_data_hash() {
+    DbFileSources.Line line = DbFileSources.Line.newBuilder().setLine(1).setSource("abc").build();
+
+    assertThat(sourceDecorator.getDecoratedSourceAsHtml(null, line)).isEqualTo("abc");
+    assertThat(sourceDecorator.getCacheSize()).isZero();
+  }
+
 }
@@ -34,12 +34,15 @@ import org.sonar.db.source.FileSourceDto;
 import org.sonar.server.source.index.FileSourceTesting;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 public class SourceServiceTest {
 
   public static final String FILE_UUID = "FILE_UUID";
+  public static final String DATA_HASH = "DATA_HASH";
 
   @Rule
   public DbTester dbTester = DbTester.create(System2.INSTANCE);
@@ -54,7 +57,7 @@ public class SourceServiceTest {
   @Before
   public void injectFakeLines() throws IOException {
     FileSourceDto dto = new FileSourceDto();
-    dto.setFileUuid(FILE_UUID).setProjectUuid("PROJECT_UUID");
+    dto.setFileUuid(FILE_UUID).setProjectUuid("PROJECT_UUID").setDataHash(DATA_HASH);
     dto.setSourceData(FileSourceTesting.newFakeData(10).build());
     dbTester.getDbClient().fileSourceDao().insert(dbTester.getSession(), dto);
     dbTester.commit();
@@ -81,9 +84,8 @@ public class SourceServiceTest {
 
   @Test
   public void get_range_of_lines_as_html() throws Exception {
-    when(htmlDecorator.getDecoratedSourceAsHtml("SOURCE_5", "HIGHLIGHTING_5", "SYMBOLS_5")).thenReturn("HTML_5");
-    when(htmlDecorator.getDecoratedSourceAsHtml("SOURCE_6", "HIGHLIGHTING_6", "SYMBOLS_6")).thenReturn("HTML_6");
-    when(htmlDecorator.getDecoratedSourceAsHtml("SOURCE_7", "HIGHLIGHTING_7", "SYMBOLS_7")).thenReturn("HTML_7");
+    when(htmlDecorator.getDecoratedSourceAsHtml(eq(DATA_HASH), any(DbFileSources.Line.class)))
+      .then(invocation -> "HTML_" + ((DbFileSources.Line) invocation.getArguments()[1]).getLine());
 
     Optional<Iterable<String>> linesOpt = underTest.getLinesAsHtml(dbTester.getSession(), FILE_UUID, 5, 7);
     assertThat(linesOpt.isPresent()).isTrue();
@@ -91,6 +93,17 @@ public class SourceServiceTest {
     assertThat(lines).containsExactly("HTML_5", "HTML_6", "HTML_7");
   }
 
+  @Test
+  public void get_range_of_decorated_lines() throws Exception {
+    when(htmlDecorator.getDecoratedSourceAsHtml(eq(DATA_HASH), any(DbFileSources.Line.class)))
+      .then(invocation -> "HTML_" + ((DbFileSources.Line) invocation.getArguments()[1]).getLine());
+
+    Optional<Iterable<String>> linesOpt = underTest.getDecoratedLines(dbTester.getSession(), FILE_UUID, 9, Integer.MAX_VALUE,
+      (line, html) -> line.getSource() + "=" + html);
+    assertThat(linesOpt.isPresent()).isTrue();
+    assertThat(linesOpt.get()).containsExactly("SOURCE_9=HTML_9", "SOURCE_10=HTML_10");
+  }
+
   @Test
   public void getLines_fails_if_range_starts_at_zero() {
     expectedException.expect(IllegalArgumentException.class);
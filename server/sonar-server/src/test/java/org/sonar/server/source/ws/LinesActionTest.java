@@ -44,6 +44,7 @@ import org.sonar.server.tester.UserSessionRule;
 import org.sonar.server.ws.WsTester;
 
 import static java.lang.String.format;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -76,16 +77,16 @@ public class LinesActionTest {
   @Before
   public void setUp() {
     htmlSourceDecorator = mock(HtmlSourceDecorator.class);
-    when(htmlSourceDecorator.getDecoratedSourceAsHtml(anyString(), anyString(), anyString())).then(new Answer<String>() {
+    when(htmlSourceDecorator.getDecoratedSourceAsHtml(anyString(), any(DbFileSources.Line.class))).then(new Answer<String>() {
       @Override
       public String answer(InvocationOnMock invocationOnMock) throws Throwable {
-        return "<p>" + invocationOnMock.getArguments()[0] + "</p>";
+        return "<p>" + ((DbFileSources.Line) invocationOnMock.getArguments()[1]).getSource() + "</p>";
       }
     });
     sourceService = new SourceService(db.getDbClient(), htmlSourceDecorator);
-    componentDao = new ComponentDao();
+    componentDao = db.getDbClient().componentDao();
     wsTester = new WsTester(new SourcesWs(
-      new LinesAction(TestComponentFinder.from(db), db.getDbClient(), sourceService, htmlSourceDecorator, userSession)));
+      new LinesAction(TestComponentFinder.from(db), db.getDbClient(), sourceService, userSession)));
     project = ComponentTesting.newPrivateProjectDto(db.organizations().insert(), PROJECT_UUID);
     file = newFileDto(project, null, FILE_UUID).setDbKey(FILE_KEY);
   }
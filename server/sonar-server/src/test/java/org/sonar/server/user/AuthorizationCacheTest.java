@@ -0,0 +1,209 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.user;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.utils.System2;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbTester;
+import org.sonar.db.permission.AuthorizationVersionDao;
+import org.sonar.db.user.GroupDto;
+import org.sonar.db.user.UserDto;
+import org.sonar.server.platform.WebServer;
+
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.sonar.db.permission.OrganizationPermission.SCAN;
+
+public class AuthorizationCacheTest {
+
+  @Rule
+  public DbTester db = DbTester.create(System2.INSTANCE);
+
+  private DbClient dbClient = db.getDbClient();
+  private WebServer webServer = mock(WebServer.class);
+  private AuthorizationCache underTest = new AuthorizationCache(dbClient, webServer);
+
+  @Test
+  public void start_initializes_version_on_startup_leader() {
+    when(webServer.isStartupLeader()).thenReturn(true);
+
+    underTest.start();
+
+    assertThat(dbClient.authorizationVersionDao().select(db.getSession())).isPresent();
+  }
+
+  @Test
+  public void start_does_not_initialize_version_if_not_startup_leader() {
+    when(webServer.isStartupLeader()).thenReturn(false);
+
+    underTest.start();
+
+    assertThat(dbClient.authorizationVersionDao().select(db.getSession())).isEmpty();
+  }
+
+  @Test
+  public void data_is_not_cached_out_of_requests() {
+    initializeVersion();
+    CountingLoader<Collection<GroupDto>> loader = new CountingLoader<>(singletonList(new GroupDto()));
+
+    underTest.getGroupsOfUser("foo", loader);
+    underTest.getGroupsOfUser("foo", loader);
+
+    assertThat(loader.count.get()).isEqualTo(2);
+    assertThat(underTest.getSize()).isZero();
+  }
+
+  @Test
+  public void data_is_not_cached_if_version_is_not_initialized() {
+    CountingLoader<Collection<GroupDto>> loader = new CountingLoader<>(singletonList(new GroupDto()));
+
+    underTest.load();
+    underTest.getGroupsOfUser("foo", loader);
+    underTest.getGroupsOfUser("foo", loader);
+
+    assertThat(loader.count.get()).isEqualTo(2);
+    assertThat(underTest.getSize()).isZero();
+  }
+
+  @Test
+  public void data_is_cached_across_requests_while_authorizations_do_not_change() {
+    initializeVersion();
+    CountingLoader<Collection<GroupDto>> loader = new CountingLoader<>(singletonList(new GroupDto()));
+
+    underTest.load();
+    assertThat(underTest.getGroupsOfUser("foo", loader)).isSameAs(loader.value);
+    assertThat(underTest.getGroupsOfUser("foo", loader)).isSameAs(loader.value);
+    underTest.unload();
+    underTest.load();
+    assertThat(underTest.getGroupsOfUser("foo", loader)).isSameAs(loader.value);
+    underTest.unload();
+
+    assertThat(loader.count.get()).isEqualTo(1);
+    assertThat(underTest.getSize()).isEqualTo(1);
+    assertThat(underTest.getHits()).isEqualTo(2);
+    assertThat(underTest.getMisses()).isEqualTo(1);
+    assertThat(underTest.getInvalidations()).isZero();
+  }
+
+  @Test
+  public void cache_is_invalidated_when_authorizations_change() {
+    initializeVersion();
+    UserDto user = db.users().insertUser();
+    CountingLoader<Collection<GroupDto>> loader = new CountingLoader<>(singletonList(new GroupDto()));
+    underTest.load();
+    underTest.getGroupsOfUser(user.getLogin(), loader);
+    underTest.unload();
+
+    db.users().insertPermissionOnUser(db.getDefaultOrganization(), user, SCAN);
+    underTest.load();
+    underTest.getGroupsOfUser(user.getLogin(), loader);
+    underTest.getGroupsOfUser(user.getLogin(), loader);
+    underTest.unload();
+
+    assertThat(loader.count.get()).isEqualTo(2);
+    assertThat(underTest.getInvalidations()).isEqualTo(1);
+    assertThat(underTest.getSize()).isEqualTo(1);
+  }
+
+  @Test
+  public void request_started_before_a_change_does_not_use_data_loaded_after_the_change() throws InterruptedException {
+    initializeVersion();
+    UserDto user = db.users().insertUser();
+    CountingLoader<Collection<GroupDto>> loader = new CountingLoader<>(singletonList(new GroupDto()));
+    underTest.load();
+
+    db.users().insertPermissionOnUser(db.getDefaultOrganization(), user, SCAN);
+    Thread otherRequest = new Thread(() -> {
+      underTest.load();
+      underTest.getGroupsOfUser(user.getLogin(), loader);
+      underTest.unload();
+    });
+    otherRequest.start();
+    otherRequest.join();
+    underTest.getGroupsOfUser(user.getLogin(), loader);
+    underTest.getGroupsOfUser(user.getLogin(), loader);
+
+    assertThat(loader.count.get()).isEqualTo(3);
+    assertThat(underTest.getSize()).isEqualTo(1);
+  }
+
+  @Test
+  public void unknown_tokens_and_users_are_not_cached() {
+    initializeVersion();
+    CountingLoader<Optional<String>> tokenLoader = new CountingLoader<>(Optional.empty());
+    CountingLoader<Optional<UserDto>> userLoader = new CountingLoader<>(Optional.empty());
+
+    underTest.load();
+    underTest.getLoginByTokenHash("hash", tokenLoader);
+    underTest.getLoginByTokenHash("hash", tokenLoader);
+    underTest.getActiveUserByLogin("foo", userLoader);
+    underTest.getActiveUserByLogin("foo", userLoader);
+
+    assertThat(tokenLoader.count.get()).isEqualTo(2);
+    assertThat(userLoader.count.get()).isEqualTo(2);
+    assertThat(underTest.getSize()).isZero();
+  }
+
+  @Test
+  public void permissions_are_cached_by_user_and_by_organization_or_project() {
+    initializeVersion();
+    CountingLoader<Set<String>> loader = new CountingLoader<>(singleton("user"));
+
+    underTest.load();
+    underTest.getProjectPermissions(1, "P1", loader);
+    underTest.getProjectPermissions(1, "P1", loader);
+    underTest.getProjectPermissions(2, "P1", loader);
+    underTest.getProjectPermissions(null, "P1", loader);
+    underTest.getProjectPermissions(1, "P2", loader);
+    underTest.getProjectPermissions(null, "P1", loader);
+
+    assertThat(loader.count.get()).isEqualTo(4);
+  }
+
+  private void initializeVersion() {
+    dbClient.internalPropertiesDao().save(db.getSession(), AuthorizationVersionDao.KEY, "initial");
+    db.commit();
+  }
+
+  private static class CountingLoader<T> implements Supplier<T> {
+    private final AtomicInteger count = new AtomicInteger();
+    private final T value;
+
+    private CountingLoader(T value) {
+      this.value = value;
+    }
+
+    @Override
+    public T get() {
+      count.incrementAndGet();
+      return value;
+    }
+  }
+}
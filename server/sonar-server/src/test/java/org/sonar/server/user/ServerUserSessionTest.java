@@ -32,16 +32,19 @@ import org.sonar.db.DbTester;
 import org.sonar.db.component.ComponentDto;
 import org.sonar.db.component.ComponentTesting;
 import org.sonar.db.organization.OrganizationDto;
+import org.sonar.db.permission.AuthorizationVersionDao;
 import org.sonar.db.permission.OrganizationPermission;
 import org.sonar.db.user.GroupDto;
 import org.sonar.db.user.UserDto;
 import org.sonar.server.exceptions.ForbiddenException;
 import org.sonar.server.organization.TestDefaultOrganizationProvider;
 import org.sonar.server.organization.TestOrganizationFlags;
+import org.sonar.server.platform.WebServer;
 
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 import static org.sonar.core.permission.GlobalPermissions.PROVISIONING;
 import static org.sonar.core.permission.GlobalPermissions.SYSTEM_ADMIN;
 import static org.sonar.db.component.ComponentTesting.newChildComponent;
@@ -73,6 +76,7 @@ public class ServerUserSessionTest {
   public ExpectedException expectedException = ExpectedException.none();
 
   private DbClient dbClient = db.getDbClient();
+  private AuthorizationCache authorizationCache = new AuthorizationCache(dbClient, mock(WebServer.class));
   private UserDto user;
   private GroupDto groupOfUser;
   private TestOrganizationFlags organizationFlags = TestOrganizationFlags.standalone();
@@ -558,8 +562,32 @@ public class ServerUserSessionTest {
     assertThat(hasComponentPermissionByDtoOrUuid(underTest, "p1", fileInBranch)).isTrue();
   }
 
+  @Test
+  public void permissions_are_cached_across_requests_until_authorizations_change() {
+    db.users().insertPermissionOnUser(organization, user, PROVISION_PROJECTS);
+    db.users().insertProjectPermissionOnUser(user, UserRole.ADMIN, privateProject);
+    dbClient.internalPropertiesDao().save(db.getSession(), AuthorizationVersionDao.KEY, "initial");
+    db.commit();
+
+    authorizationCache.load();
+    assertThat(newUserSession(user).hasPermission(PROVISION_PROJECTS, organization)).isTrue();
+    assertThat(newUserSession(user).hasComponentPermission(UserRole.ADMIN, privateProject)).isTrue();
+    authorizationCache.unload();
+    authorizationCache.load();
+    assertThat(newUserSession(user).hasPermission(PROVISION_PROJECTS, organization)).isTrue();
+    authorizationCache.unload();
+    assertThat(authorizationCache.getHits()).isEqualTo(1);
+
+    db.users().deletePermissionFromUser(organization, user, PROVISION_PROJECTS);
+    db.users().deletePermissionFromUser(privateProject, user, UserRole.ADMIN);
+    authorizationCache.load();
+    assertThat(newUserSession(user).hasPermission(PROVISION_PROJECTS, organization)).isFalse();
+    assertThat(newUserSession(user).hasComponentPermission(UserRole.ADMIN, privateProject)).isFalse();
+    authorizationCache.unload();
+  }
+
   private ServerUserSession newUserSession(@Nullable UserDto userDto) {
-    return new ServerUserSession(dbClient, organizationFlags, defaultOrganizationProvider, userDto);
+    return new ServerUserSession(dbClient, organizationFlags, defaultOrganizationProvider, authorizationCache, userDto);
   }
 
   private ServerUserSession newAnonymousSession() {
@@ -32,6 +32,8 @@ import org.sonar.api.utils.System2;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.DbTester;
+import org.sonar.server.platform.WebServer;
+import org.sonar.server.user.AuthorizationCache;
 
 public class UserTokenAuthenticatorTest {
   static final String GRACE_HOPPER = "grace.hopper";
@@ -43,10 +45,11 @@ public class UserTokenAuthenticatorTest {
   @Rule
   public DbTester db = DbTester.create(System2.INSTANCE);
   DbClient dbClient = db.getDbClient();
+  private AuthorizationCache authorizationCache = new AuthorizationCache(dbClient, mock(WebServer.class));
   DbSession dbSession = db.getSession();
   TokenGenerator tokenGenerator = mock(TokenGenerator.class);
 
-  UserTokenAuthenticator underTest = new UserTokenAuthenticator(tokenGenerator, db.getDbClient());
+  UserTokenAuthenticator underTest = new UserTokenAuthenticator(tokenGenerator, db.getDbClient(), authorizationCache);
 
   @Test
   public void return_login_when_token_hash_found_in_db() {
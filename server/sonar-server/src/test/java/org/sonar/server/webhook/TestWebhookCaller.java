@@ -21,6 +21,7 @@ package org.sonar.server.webhook;
 
 import java.util.LinkedList;
 import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nullable;
 
@@ -55,6 +56,11 @@ public class TestWebhookCaller implements WebhookCaller {
       .build();
   }
 
+  @Override
+  public CompletableFuture<WebhookDelivery> callAsync(Webhook webhook, WebhookPayload payload) {
+    return CompletableFuture.completedFuture(call(webhook, payload));
+  }
+
   public int countSent() {
     return countSent.get();
   }
@@ -19,6 +19,8 @@
  */
 package org.sonar.server.webhook;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import okhttp3.Credentials;
 import okhttp3.HttpUrl;
 import okhttp3.mockwebserver.MockResponse;
@@ -111,6 +113,21 @@ public class WebhookCallerImplTest {
     assertThat(delivery.getPayload()).isSameAs(PAYLOAD);
   }
 
+  @Test
+  public void callAsync_sends_webhooks_concurrently() throws Exception {
+    Webhook webhook = new Webhook(PROJECT_UUID, CE_TASK_UUID, RandomStringUtils.randomAlphanumeric(40), "my-webhook", server.url("/ping").toString());
+    server.enqueue(new MockResponse().setResponseCode(200).setBodyDelay(200, TimeUnit.MILLISECONDS));
+    server.enqueue(new MockResponse().setResponseCode(200).setBodyDelay(200, TimeUnit.MILLISECONDS));
+
+    WebhookCaller underTest = newSender();
+    CompletableFuture<WebhookDelivery> first = underTest.callAsync(webhook, PAYLOAD);
+    CompletableFuture<WebhookDelivery> second = underTest.callAsync(webhook, PAYLOAD);
+
+    assertThat(first.get().getHttpStatus()).hasValue(200);
+    assertThat(second.get().getHttpStatus()).hasValue(200);
+    assertThat(server.getRequestCount()).isEqualTo(2);
+  }
+
   /**
    * SONAR-8799
    */
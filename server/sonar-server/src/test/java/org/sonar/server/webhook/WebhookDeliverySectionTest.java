@@ -0,0 +1,61 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.webhook;
+
+import org.junit.Test;
+import org.sonar.api.SonarQubeSide;
+import org.sonar.api.SonarRuntime;
+import org.sonar.process.systeminfo.protobuf.ProtobufSystemInfo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.sonar.process.systeminfo.SystemInfoUtils.attribute;
+
+public class WebhookDeliverySectionTest {
+
+  private WebhookDeliveryStorage deliveryStorage = mock(WebhookDeliveryStorage.class);
+  private SonarRuntime runtime = mock(SonarRuntime.class);
+  private WebhookDeliverySection underTest = new WebhookDeliverySection(deliveryStorage, runtime);
+
+  @Test
+  public void test_attributes() {
+    when(runtime.getSonarQubeSide()).thenReturn(SonarQubeSide.COMPUTE_ENGINE);
+    when(deliveryStorage.getDeliveries()).thenReturn(12L);
+    when(deliveryStorage.getFailures()).thenReturn(2L);
+    when(deliveryStorage.getAverageDurationInMs()).thenReturn(150L);
+    when(deliveryStorage.getMaxDurationInMs()).thenReturn(900L);
+
+    ProtobufSystemInfo.Section section = underTest.toProtobuf();
+
+    assertThat(section.getName()).isEqualTo("Compute Engine Webhook Deliveries");
+    assertThat(attribute(section, "Deliveries").getLongValue()).isEqualTo(12L);
+    assertThat(attribute(section, "Failures").getLongValue()).isEqualTo(2L);
+    assertThat(attribute(section, "Average Duration (ms)").getLongValue()).isEqualTo(150L);
+    assertThat(attribute(section, "Max Duration (ms)").getLongValue()).isEqualTo(900L);
+  }
+
+  @Test
+  public void name_depends_on_process() {
+    when(runtime.getSonarQubeSide()).thenReturn(SonarQubeSide.SERVER);
+
+    assertThat(underTest.toProtobuf().getName()).isEqualTo("Web Webhook Deliveries");
+  }
+}
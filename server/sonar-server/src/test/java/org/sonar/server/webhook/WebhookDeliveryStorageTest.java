@@ -86,6 +86,52 @@ public class WebhookDeliveryStorageTest {
     assertThat(dto.getErrorStacktrace()).contains("java.io.IOException", "fail to connect");
   }
 
+  @Test
+  public void persist_schedules_retry_with_exponential_backoff_on_server_errors() {
+    when(uuidFactory.create()).thenReturn("D1", "D2", "D3");
+
+    underTest.persist(newBuilderTemplate().setHttpStatus(503).build());
+    underTest.persist(newBuilderTemplate().setHttpStatus(429).build(), 3);
+    underTest.persist(newBuilderTemplate().setHttpStatus(500).build(), WebhookDeliveryStorage.MAX_ATTEMPTS);
+
+    WebhookDeliveryDto dto = dbClient.webhookDeliveryDao().selectByUuid(dbSession, "D1").get();
+    assertThat(dto.getAttempt()).isEqualTo(1);
+    assertThat(dto.getRetryAt()).isEqualTo(1_000_000L + WebhookDeliveryStorage.FIRST_RETRY_DELAY_MS);
+    dto = dbClient.webhookDeliveryDao().selectByUuid(dbSession, "D2").get();
+    assertThat(dto.getAttempt()).isEqualTo(3);
+    assertThat(dto.getRetryAt()).isEqualTo(1_000_000L + 4 * WebhookDeliveryStorage.FIRST_RETRY_DELAY_MS);
+    // no more attempts
+    dto = dbClient.webhookDeliveryDao().selectByUuid(dbSession, "D3").get();
+    assertThat(dto.getRetryAt()).isNull();
+  }
+
+  @Test
+  public void persist_schedules_retry_on_network_errors_only() {
+    when(uuidFactory.create()).thenReturn("D1", "D2", "D3");
+
+    underTest.persist(newBuilderTemplate().setHttpStatus(null).setError(new IOException("fail to connect")).build());
+    underTest.persist(newBuilderTemplate().setHttpStatus(null).setError(new IllegalArgumentException("bad url")).build());
+    underTest.persist(newBuilderTemplate().setHttpStatus(404).build());
+
+    assertThat(dbClient.webhookDeliveryDao().selectByUuid(dbSession, "D1").get().getRetryAt()).isNotNull();
+    assertThat(dbClient.webhookDeliveryDao().selectByUuid(dbSession, "D2").get().getRetryAt()).isNull();
+    assertThat(dbClient.webhookDeliveryDao().selectByUuid(dbSession, "D3").get().getRetryAt()).isNull();
+  }
+
+  @Test
+  public void persist_records_delivery_metrics() {
+    when(uuidFactory.create()).thenReturn("D1", "D2", "D3");
+
+    underTest.persist(newBuilderTemplate().setDurationInMs(100).build());
+    underTest.persist(newBuilderTemplate().setDurationInMs(300).build());
+    underTest.persist(newBuilderTemplate().setHttpStatus(500).setDurationInMs(1_000).build());
+
+    assertThat(underTest.getDeliveries()).isEqualTo(3);
+    assertThat(underTest.getFailures()).isEqualTo(1);
+    assertThat(underTest.getAverageDurationInMs()).isEqualTo(200);
+    assertThat(underTest.getMaxDurationInMs()).isEqualTo(1_000);
+  }
+
   @Test
   public void purge_deletes_records_older_than_one_month_on_the_project() {
     when(system.now()).thenReturn(NOW);
@@ -0,0 +1,142 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.webhook;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.api.utils.System2;
+import org.sonar.core.util.UuidFactoryFast;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.db.DbTester;
+import org.sonar.db.component.ComponentDto;
+import org.sonar.db.webhook.WebhookDeliveryDto;
+import org.sonar.server.settings.ProjectConfigurationLoaderImpl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.sonar.db.webhook.WebhookDbTesting.newWebhookDeliveryDto;
+
+public class WebhookRetrySchedulerTest {
+
+  private static final long NOW = 1_500_000_000_000L;
+  private static final String WEBHOOK_NAME = "Jenkins";
+  private static final String WEBHOOK_URL = "http://jenkins";
+
+  private System2 system = mock(System2.class);
+
+  @Rule
+  public DbTester db = DbTester.create(system);
+
+  private DbClient dbClient = db.getDbClient();
+  private DbSession dbSession = db.getSession();
+  private TestWebhookCaller caller = new TestWebhookCaller();
+  private WebhookDeliveryStorage deliveryStorage = new WebhookDeliveryStorage(dbClient, system, UuidFactoryFast.getInstance());
+  private MapSettings settings = new MapSettings()
+    .setProperty("sonar.webhooks.global", "1")
+    .setProperty("sonar.webhooks.global.1.name", WEBHOOK_NAME)
+    .setProperty("sonar.webhooks.global.1.url", WEBHOOK_URL);
+  private WebhookRetryScheduler underTest = new WebhookRetryScheduler(dbClient, caller, deliveryStorage, system,
+    new ProjectConfigurationLoaderImpl(settings, dbClient));
+
+  @Test
+  public void retry_deliveries_which_are_due() {
+    when(system.now()).thenReturn(NOW);
+    ComponentDto project = db.components().insertPrivateProject();
+    insertDelivery("D1", project, 2, NOW - 1_000L);
+    insertDelivery("D2", project, 1, NOW + 1_000L);
+    caller.enqueueSuccess(NOW, 200, 10);
+
+    int retried = underTest.retry();
+
+    assertThat(retried).isEqualTo(1);
+    assertThat(caller.countSent()).isEqualTo(1);
+    // D1 is not retried twice
+    assertThat(dbClient.webhookDeliveryDao().selectByUuid(dbSession, "D1").get().getRetryAt()).isNull();
+    assertThat(dbClient.webhookDeliveryDao().selectByUuid(dbSession, "D2").get().getRetryAt()).isEqualTo(NOW + 1_000L);
+    assertThat(underTest.retry()).isZero();
+    assertThat(db.countSql("select count(1) from webhook_deliveries where attempt=3 and success=" + db.getDbClient().getDatabase().getDialect().getTrueSqlValue()))
+      .isEqualTo(1);
+  }
+
+  @Test
+  public void ignore_deliveries_of_deleted_projects() {
+    when(system.now()).thenReturn(NOW);
+    dbClient.webhookDeliveryDao().insert(dbSession, newWebhookDeliveryDto().setUuid("D1").setAttempt(1).setRetryAt(NOW - 1_000L));
+    dbSession.commit();
+
+    assertThat(underTest.retry()).isZero();
+    assertThat(caller.countSent()).isZero();
+  }
+
+  @Test
+  public void retry_deliveries_of_webhooks_configured_on_project() {
+    when(system.now()).thenReturn(NOW);
+    settings.clear();
+    ComponentDto project = db.components().insertPrivateProject();
+    db.properties().insertPropertySet("sonar.webhooks.project", project, ImmutableMap.of("name", WEBHOOK_NAME, "url", WEBHOOK_URL));
+    insertDelivery("D1", project, 1, NOW - 1_000L);
+    caller.enqueueSuccess(NOW, 200, 10);
+
+    assertThat(underTest.retry()).isEqualTo(1);
+    assertThat(caller.countSent()).isEqualTo(1);
+  }
+
+  @Test
+  public void do_not_retry_deliveries_of_webhooks_which_have_been_removed() {
+    when(system.now()).thenReturn(NOW);
+    settings.clear();
+    ComponentDto project = db.components().insertPrivateProject();
+    insertDelivery("D1", project, 1, NOW - 1_000L);
+
+    assertThat(underTest.retry()).isZero();
+    assertThat(caller.countSent()).isZero();
+    // delivery is not retried later
+    assertThat(dbClient.webhookDeliveryDao().selectByUuid(dbSession, "D1").get().getRetryAt()).isNull();
+  }
+
+  @Test
+  public void do_not_retry_deliveries_of_webhooks_whose_url_changed() {
+    when(system.now()).thenReturn(NOW);
+    settings.setProperty("sonar.webhooks.global.1.url", "http://other");
+    ComponentDto project = db.components().insertPrivateProject();
+    insertDelivery("D1", project, 1, NOW - 1_000L);
+
+    assertThat(underTest.retry()).isZero();
+    assertThat(caller.countSent()).isZero();
+  }
+
+  private void insertDelivery(String uuid, ComponentDto project, int attempt, long retryAt) {
+    WebhookDeliveryDto dto = newWebhookDeliveryDto()
+      .setUuid(uuid)
+      .setComponentUuid(project.uuid())
+      .setName(WEBHOOK_NAME)
+      .setUrl(WEBHOOK_URL)
+      .setSuccess(false)
+      .setHttpStatus(503)
+      .setAttempt(attempt)
+      .setRetryAt(retryAt);
+    dbClient.webhookDeliveryDao().insert(dbSession, dto);
+    dbSession.commit();
+  }
+}
@@ -24,8 +24,8 @@ import com.google.protobuf.MapEntry;
 import com.google.protobuf.Message;
 import java.io.StringWriter;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.sonar.api.utils.text.JsonWriter;
 
 /**
@@ -124,6 +124,12 @@ import org.sonar.api.utils.text.JsonWriter;
  *     }
  *   }
  * </pre>
+ *
+ * <h3>Performance</h3>
+ * <p>
+ * Descriptors are introspected only once per message type. The resulting field writers are
+ * kept in memory and reused for all the messages of the same type.
+ * </p>
  */
 public class ProtobufJsonFormat {
 
@@ -131,24 +137,36 @@ public class ProtobufJsonFormat {
     // only statics
   }
 
+  @FunctionalInterface
+  private interface FieldWriter {
+    void write(Message message, JsonWriter writer);
+  }
+
+  @FunctionalInterface
+  private interface ValueWriter {
+    void write(Object value, JsonWriter writer);
+  }
+
   static class MessageType {
-    private static final Map<Class<? extends Message>, MessageType> TYPES_BY_CLASS = new HashMap<>();
+    private static final Map<Descriptors.Descriptor, MessageType> TYPES_BY_DESCRIPTOR = new ConcurrentHashMap<>();
 
-    private final Descriptors.FieldDescriptor[] fieldDescriptors;
-    private final boolean doesWrapRepeated;
+    private final FieldWriter[] fieldWriters;
+    // not null if the message is a wrapper of a repeated field, which must be inlined
+    private final FieldWriter inlinedRepeatedWriter;
 
     private MessageType(Descriptors.Descriptor descriptor) {
-      this.fieldDescriptors = descriptor.getFields().toArray(new Descriptors.FieldDescriptor[descriptor.getFields().size()]);
-      this.doesWrapRepeated = fieldDescriptors.length == 1 && fieldDescriptors[0].isRepeated() && descriptor.getName().equalsIgnoreCase(fieldDescriptors[0].getName());
+      this.fieldWriters = descriptor.getFields().stream()
+        .map(ProtobufJsonFormat::newFieldWriter)
+        .toArray(FieldWriter[]::new);
+      this.inlinedRepeatedWriter = doesWrapRepeated(descriptor) ? newInlinedRepeatedWriter(descriptor.getFields().get(0)) : null;
+    }
+
+    private static boolean doesWrapRepeated(Descriptors.Descriptor descriptor) {
+      return descriptor.getFields().size() == 1 && descriptor.getFields().get(0).isRepeated() && descriptor.getName().equalsIgnoreCase(descriptor.getFields().get(0).getName());
     }
 
     static MessageType of(Message message) {
-      MessageType type = TYPES_BY_CLASS.get(message.getClass());
-      if (type == null) {
-        type = new MessageType(message.getDescriptorForType());
-        TYPES_BY_CLASS.put(message.getClass(), type);
-      }
-      return type;
+      return TYPES_BY_DESCRIPTOR.computeIfAbsent(message.getDescriptorForType(), MessageType::new);
     }
   }
 
@@ -168,83 +186,89 @@ public class ProtobufJsonFormat {
   }
 
   private static void writeMessage(Message message, JsonWriter writer) {
-    MessageType type = MessageType.of(message);
-    for (Descriptors.FieldDescriptor fieldDescriptor : type.fieldDescriptors) {
-      if (fieldDescriptor.isRepeated()) {
-        writer.name(fieldDescriptor.getName());
-        if (fieldDescriptor.isMapField()) {
-          writeMap((Collection<MapEntry>) message.getField(fieldDescriptor), writer);
-        } else {
-          writeArray(writer, fieldDescriptor, (Collection) message.getField(fieldDescriptor));
-        }
-      } else if (message.hasField(fieldDescriptor)) {
-        writer.name(fieldDescriptor.getName());
-        Object fieldValue = message.getField(fieldDescriptor);
-        writeFieldValue(fieldDescriptor, fieldValue, writer);
-      }
+    for (FieldWriter fieldWriter : MessageType.of(message).fieldWriters) {
+      fieldWriter.write(message, writer);
     }
   }
 
-  private static void writeArray(JsonWriter writer, Descriptors.FieldDescriptor fieldDescriptor, Collection array) {
-    writer.beginArray();
-    for (Object o : array) {
-      writeFieldValue(fieldDescriptor, o, writer);
+  private static void writeMessageValue(Message message, JsonWriter writer) {
+    MessageType messageType = MessageType.of(message);
+    if (messageType.inlinedRepeatedWriter != null) {
+      messageType.inlinedRepeatedWriter.write(message, writer);
+    } else {
+      writer.beginObject();
+      writeMessage(message, writer);
+      writer.endObject();
     }
-    writer.endArray();
   }
 
-  private static void writeMap(Collection<MapEntry> mapEntries, JsonWriter writer) {
-    writer.beginObject();
-    for (MapEntry mapEntry : mapEntries) {
+  private static FieldWriter newFieldWriter(Descriptors.FieldDescriptor fieldDescriptor) {
+    String name = fieldDescriptor.getName();
+    if (fieldDescriptor.isRepeated()) {
+      ValueWriter repeatedWriter = newRepeatedWriter(fieldDescriptor);
+      return (message, writer) -> {
+        writer.name(name);
+        repeatedWriter.write(message.getField(fieldDescriptor), writer);
+      };
+    }
+    ValueWriter valueWriter = newValueWriter(fieldDescriptor);
+    return (message, writer) -> {
+      if (message.hasField(fieldDescriptor)) {
+        writer.name(name);
+        valueWriter.write(message.getField(fieldDescriptor), writer);
+      }
+    };
+  }
+
+  private static FieldWriter newInlinedRepeatedWriter(Descriptors.FieldDescriptor fieldDescriptor) {
+    ValueWriter repeatedWriter = newRepeatedWriter(fieldDescriptor);
+    return (message, writer) -> repeatedWriter.write(message.getField(fieldDescriptor), writer);
+  }
+
+  private static ValueWriter newRepeatedWriter(Descriptors.FieldDescriptor fieldDescriptor) {
+    if (fieldDescriptor.isMapField()) {
       // Key fields are always double-quoted in json
-      writer.name(mapEntry.getKey().toString());
-      Descriptors.FieldDescriptor valueDescriptor = mapEntry.getDescriptorForType().findFieldByName("value");
-      writeFieldValue(valueDescriptor, mapEntry.getValue(), writer);
+      ValueWriter mapValueWriter = newValueWriter(fieldDescriptor.getMessageType().findFieldByName("value"));
+      return (value, writer) -> {
+        writer.beginObject();
+        for (MapEntry mapEntry : (Collection<MapEntry>) value) {
+          writer.name(mapEntry.getKey().toString());
+          mapValueWriter.write(mapEntry.getValue(), writer);
+        }
+        writer.endObject();
+      };
     }
-    writer.endObject();
+    ValueWriter elementWriter = newValueWriter(fieldDescriptor);
+    return (value, writer) -> {
+      writer.beginArray();
+      for (Object o : (Collection) value) {
+        elementWriter.write(o, writer);
+      }
+      writer.endArray();
+    };
   }
 
-  private static void writeFieldValue(Descriptors.FieldDescriptor fieldDescriptor, Object value, JsonWriter writer) {
+  private static ValueWriter newValueWriter(Descriptors.FieldDescriptor fieldDescriptor) {
     switch (fieldDescriptor.getJavaType()) {
       case INT:
-        writer.value((Integer) value);
-        break;
+        return (value, writer) -> writer.value((Integer) value);
       case LONG:
-        writer.value((Long) value);
-        break;
+        return (value, writer) -> writer.value((Long) value);
       case DOUBLE:
-        writer.value((Double) value);
-        break;
+        return (value, writer) -> writer.value((Double) value);
       case BOOLEAN:
-        writer.value((Boolean) value);
-        break;
+        return (value, writer) -> writer.value((Boolean) value);
       case STRING:
-        writer.value((String) value);
-        break;
+        return (value, writer) -> writer.value((String) value);
       case ENUM:
-        writer.value(((Descriptors.EnumValueDescriptor) value).getName());
-        break;
+        return (value, writer) -> writer.value(((Descriptors.EnumValueDescriptor) value).getName());
       case MESSAGE:
-        writeMessageValue((Message) value, writer);
-        break;
+        return (value, writer) -> writeMessageValue((Message) value, writer);
       default:
-        throw new IllegalStateException(String.format("JSON format does not support type '%s' of field '%s'", fieldDescriptor.getJavaType(), fieldDescriptor.getName()));
-    }
-  }
-
-  private static void writeMessageValue(Message message, JsonWriter writer) {
-    MessageType messageType = MessageType.of(message);
-    if (messageType.doesWrapRepeated) {
-      Descriptors.FieldDescriptor repeatedDescriptor = messageType.fieldDescriptors[0];
-      if (repeatedDescriptor.isMapField()) {
-        writeMap((Collection<MapEntry>) message.getField(repeatedDescriptor), writer);
-      } else {
-        writeArray(writer, repeatedDescriptor, (Collection) message.getField(repeatedDescriptor));
-      }
-    } else {
-      writer.beginObject();
-      writeMessage(message, writer);
-      writer.endObject();
+        // fail only if the field is effectively written, as the message type may declare unused fields
+        return (value, writer) -> {
+          throw new IllegalStateException(String.format("JSON format does not support type '%s' of field '%s'", fieldDescriptor.getJavaType(), fieldDescriptor.getName()));
+        };
     }
   }
 }
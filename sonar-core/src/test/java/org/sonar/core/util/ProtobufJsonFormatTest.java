@@ -61,6 +61,16 @@ public class ProtobufJsonFormatTest {
       "{\"stringField\":\"foo\",\"intField\":10,\"longField\":100,\"doubleField\":3.14,\"booleanField\":true,\"enumField\":\"GREEN\"}");
   }
 
+  @Test
+  public void message_type_is_introspected_once() {
+    PrimitiveTypeMsg first = PrimitiveTypeMsg.newBuilder().setStringField("foo").build();
+    PrimitiveTypeMsg second = PrimitiveTypeMsg.newBuilder().setIntField(10).build();
+
+    assertThat(ProtobufJsonFormat.MessageType.of(first)).isSameAs(ProtobufJsonFormat.MessageType.of(second));
+    assertThat(toJson(first)).isEqualTo("{\"stringField\":\"foo\"}");
+    assertThat(toJson(second)).isEqualTo("{\"intField\":10}");
+  }
+
   @Test
   public void bytes_field_can_not_be_converted() {
     expectedException.expect(RuntimeException.class);
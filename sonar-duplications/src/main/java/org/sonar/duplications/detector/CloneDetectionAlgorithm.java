@@ -0,0 +1,84 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.duplications.detector;
+
+import java.util.Collection;
+import java.util.List;
+import org.sonar.duplications.block.Block;
+import org.sonar.duplications.detector.original.OriginalCloneDetectionAlgorithm;
+import org.sonar.duplications.detector.suffixtree.SuffixTreeCloneDetectionAlgorithm;
+import org.sonar.duplications.index.CloneGroup;
+import org.sonar.duplications.index.CloneIndex;
+
+import static java.lang.String.format;
+
+/**
+ * The algorithms available to detect clones between a file and an index. They report the same clone groups.
+ */
+public enum CloneDetectionAlgorithm {
+
+  /**
+   * Generalized suffix tree of the sequences of blocks shared by the file. Memory grows with the number
+   * of occurrences of the blocks of the file in the index.
+   */
+  SUFFIX_TREE("suffixTree") {
+    @Override
+    public List<CloneGroup> detect(CloneIndex index, Collection<Block> fileBlocks) {
+      return SuffixTreeCloneDetectionAlgorithm.detect(index, fileBlocks);
+    }
+  },
+
+  /**
+   * Intersection of the sorted groups of blocks having the same hash as consecutive blocks of the file,
+   * see {@link OriginalCloneDetectionAlgorithm}. No structure is built besides the groups, which is
+   * faster on files sharing blocks with a lot of other files.
+   */
+  INDEX("index") {
+    @Override
+    public List<CloneGroup> detect(CloneIndex index, Collection<Block> fileBlocks) {
+      return OriginalCloneDetectionAlgorithm.detect(index, fileBlocks);
+    }
+  };
+
+  private final String key;
+
+  CloneDetectionAlgorithm(String key) {
+    this.key = key;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * Clone groups between the file, represented by its blocks, and the index. Blocks of the file stored in
+   * the index are ignored.
+   */
+  public abstract List<CloneGroup> detect(CloneIndex index, Collection<Block> fileBlocks);
+
+  public static CloneDetectionAlgorithm fromKey(String key) {
+    for (CloneDetectionAlgorithm algorithm : values()) {
+      if (algorithm.key.equalsIgnoreCase(key)) {
+        return algorithm;
+      }
+    }
+    throw new IllegalArgumentException(format("Unsupported clone detection algorithm '%s'. Supported values are: suffixTree, index", key));
+  }
+}
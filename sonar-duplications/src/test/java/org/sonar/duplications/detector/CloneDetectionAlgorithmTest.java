@@ -0,0 +1,96 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.duplications.detector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.sonar.duplications.block.Block;
+import org.sonar.duplications.block.ByteArray;
+import org.sonar.duplications.index.CloneGroup;
+import org.sonar.duplications.index.CloneIndex;
+import org.sonar.duplications.index.MemoryCloneIndex;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CloneDetectionAlgorithmTest {
+
+  private static final int LINES_PER_BLOCK = 5;
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  @Test
+  public void get_by_key() {
+    assertThat(CloneDetectionAlgorithm.fromKey("suffixTree")).isEqualTo(CloneDetectionAlgorithm.SUFFIX_TREE);
+    assertThat(CloneDetectionAlgorithm.fromKey("INDEX")).isEqualTo(CloneDetectionAlgorithm.INDEX);
+  }
+
+  @Test
+  public void fail_on_unknown_key() {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Unsupported clone detection algorithm 'foo'. Supported values are: suffixTree, index");
+
+    CloneDetectionAlgorithm.fromKey("foo");
+  }
+
+  /**
+   * Cross-check on random files made of few distinct blocks, so that they share a lot of duplications
+   */
+  @Test
+  public void algorithms_detect_the_same_clone_groups() {
+    Random random = new Random(42L);
+    for (int run = 0; run < 200; run++) {
+      CloneIndex index = new MemoryCloneIndex();
+      int nbFiles = 1 + random.nextInt(6);
+      for (int f = 0; f < nbFiles; f++) {
+        for (Block block : randomBlocks(random, "file" + f)) {
+          index.insert(block);
+        }
+      }
+      List<Block> fileBlocks = Arrays.asList(randomBlocks(random, "origin"));
+
+      List<CloneGroup> suffixTree = CloneDetectionAlgorithm.SUFFIX_TREE.detect(index, fileBlocks);
+      List<CloneGroup> fromIndex = CloneDetectionAlgorithm.INDEX.detect(index, fileBlocks);
+
+      assertThat(new HashSet<>(fromIndex)).as("run %d", run).isEqualTo(new HashSet<>(suffixTree));
+    }
+  }
+
+  private static Block[] randomBlocks(Random random, String resourceId) {
+    int nbBlocks = 1 + random.nextInt(30);
+    int nbDistinctHashes = 1 + random.nextInt(5);
+    List<Block> blocks = new ArrayList<>(nbBlocks);
+    for (int i = 0; i < nbBlocks; i++) {
+      blocks.add(Block.builder()
+        .setResourceId(resourceId)
+        .setBlockHash(new ByteArray(new byte[] {(byte) random.nextInt(nbDistinctHashes)}))
+        .setIndexInFile(i)
+        .setLines(i, i + LINES_PER_BLOCK)
+        .build());
+    }
+    return blocks.toArray(new Block[nbBlocks]);
+  }
+}
@@ -26,6 +26,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.jar.JarOutputStream;
 import java.util.jar.Pack200;
 import java.util.zip.GZIPInputStream;
@@ -35,6 +37,8 @@ import javax.annotation.CheckForNull;
  * This class is responsible for managing Sonar batch file cache. You can put file into cache and
  * later try to retrieve them. MD5 is used to differentiate files (name is not secure as files may come
  * from different Sonar servers and have same name but be actually different, and same for SNAPSHOTs).
+ * <p>
+ * This class is thread-safe, and the cache can be shared by several processes.
  */
 public class FileCache {
 
@@ -45,6 +49,7 @@ public class FileCache {
   private final File tmpDir;
   private final FileHashes hashes;
   private final Logger logger;
+  private final ConcurrentMap<File, Object> threadLocks = new ConcurrentHashMap<>();
 
   FileCache(File dir, FileHashes fileHashes, Logger logger) {
     this.hashes = fileHashes;
@@ -80,36 +85,102 @@ public class FileCache {
     void download(String filename, File toFile) throws IOException;
   }
 
+  /**
+   * Provides the content of the file to be cached. Contrary to {@link Downloader}, the hash
+   * is computed while the content is written to disk, so the downloaded file is not read again.
+   *
+   * @since 7.0
+   */
+  @FunctionalInterface
+  public interface StreamDownloader {
+    /**
+     * The returned stream is closed by the cache.
+     */
+    InputStream openStream(String filename) throws IOException;
+  }
+
   public File get(String filename, String hash, Downloader downloader) {
-    // Does not fail if another process tries to create the directory at the same time.
+    return getOrWrite(filename, hash, tempFile -> {
+      download(downloader, filename, tempFile);
+      return hashes.of(tempFile);
+    });
+  }
+
+  /**
+   * @since 7.0
+   */
+  public File get(String filename, String hash, StreamDownloader downloader) {
+    return getOrWrite(filename, hash, tempFile -> download(downloader, filename, tempFile));
+  }
+
+  private File getOrWrite(String filename, String hash, TempFileWriter writer) {
     File hashDir = hashDir(hash);
     File targetFile = new File(hashDir, filename);
     if (!targetFile.exists()) {
-      cacheMiss(targetFile, hash, downloader);
+      cacheMiss(targetFile, hash, writer);
     }
     return targetFile;
   }
 
-  private void cacheMiss(File targetFile, String expectedHash, Downloader downloader) {
+  /**
+   * Several processes (or threads) may populate the cache at the same time. A file lock on the hash directory
+   * ensures that a given file is downloaded only once, the others waiting for the download to complete.
+   */
+  private void cacheMiss(File targetFile, String expectedHash, TempFileWriter writer) {
+    // Does not fail if another process tries to create the directory at the same time.
+    File hashDir = targetFile.getParentFile();
+    mkdirQuietly(hashDir);
+    synchronized (lockFor(hashDir)) {
+      DirectoryLock lock = new DirectoryLock(hashDir.toPath(), logger);
+      lock.lock();
+      try {
+        // Check again, the file may have been cached by another process while waiting for the lock
+        if (!targetFile.exists()) {
+          writeToCache(targetFile, expectedHash, writer);
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  private Object lockFor(File hashDir) {
+    // file locks are held by the JVM, so they can't be used to synchronize threads of the same process
+    return threadLocks.computeIfAbsent(hashDir, k -> new Object());
+  }
+
+  private void writeToCache(File targetFile, String expectedHash, TempFileWriter writer) {
     File tempFile = newTempFile();
-    download(downloader, targetFile.getName(), tempFile);
-    String downloadedHash = hashes.of(tempFile);
+    String downloadedHash = writer.write(tempFile);
     if (!expectedHash.equals(downloadedHash)) {
       throw new IllegalStateException("INVALID HASH: File " + tempFile.getAbsolutePath() + " was expected to have hash " + expectedHash
         + " but was downloaded with hash " + downloadedHash);
     }
-    mkdirQuietly(targetFile.getParentFile());
     renameQuietly(tempFile, targetFile);
   }
 
   public File getCompressed(String filename, String hash, Downloader downloader) {
+    return getCompressedOrWrite(filename, hash, tempFile -> {
+      download(downloader, filename, tempFile);
+      return hashes.of(tempFile);
+    });
+  }
+
+  /**
+   * @since 7.0
+   */
+  public File getCompressed(String filename, String hash, StreamDownloader downloader) {
+    return getCompressedOrWrite(filename, hash, tempFile -> download(downloader, filename, tempFile));
+  }
+
+  private File getCompressedOrWrite(String filename, String hash, TempFileWriter writer) {
     File hashDir = hashDir(hash);
     File compressedFile = new File(hashDir, filename);
     File jarFile = new File(compressedFile.getParentFile(), getUnpackedFileName(compressedFile.getName()));
 
     if (!jarFile.exists()) {
       if (!compressedFile.exists()) {
-        cacheMiss(compressedFile, hash, downloader);
+        cacheMiss(compressedFile, hash, writer);
       }
       File tempFile = newTempFile();
       unpack200(compressedFile.toPath(), tempFile.toPath());
@@ -143,6 +214,22 @@ public class FileCache {
     }
   }
 
+  private String download(StreamDownloader downloader, String filename, File tempFile) {
+    try {
+      return hashes.copy(downloader.openStream(filename), tempFile);
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to download " + filename + " to " + tempFile, e);
+    }
+  }
+
+  /**
+   * Writes the content to be cached in a temporary file and returns its hash
+   */
+  @FunctionalInterface
+  private interface TempFileWriter {
+    String write(File tempFile);
+  }
+
   private void renameQuietly(File sourceFile, File targetFile) {
     boolean rename = sourceFile.renameTo(targetFile);
     // Check if the file was cached by another process during download
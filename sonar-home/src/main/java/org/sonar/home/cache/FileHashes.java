@@ -23,8 +23,11 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
 import java.math.BigInteger;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 /**
  * Hashes used to store files in the cache directory.
@@ -34,6 +37,7 @@ import java.security.MessageDigest;
 public class FileHashes {
 
   private static final int STREAM_BUFFER_LENGTH = 1024;
+  private static final int COPY_BUFFER_LENGTH = 64 * 1024;
 
   public String of(File file) {
     try {
@@ -48,14 +52,41 @@ public class FileHashes {
    */
   public String of(InputStream input) {
     try(InputStream is = input) {
-      MessageDigest digest = MessageDigest.getInstance("MD5");
-      byte[] hash = digest(is, digest);
+      byte[] hash = digest(is, newDigest());
       return toHex(hash);
     } catch (Exception e) {
       throw new IllegalStateException("Fail to compute hash", e);
     }
   }
 
+  /**
+   * Copies the given stream to a file and returns the hash of the copied content, so that
+   * the file does not have to be read again. The stream is closed by this method.
+   *
+   * @since 7.0
+   */
+  public String copy(InputStream input, File toFile) throws IOException {
+    try (InputStream is = input; OutputStream output = Files.newOutputStream(toFile.toPath())) {
+      MessageDigest digest = newDigest();
+      byte[] buffer = new byte[COPY_BUFFER_LENGTH];
+      int read = is.read(buffer);
+      while (read > -1) {
+        digest.update(buffer, 0, read);
+        output.write(buffer, 0, read);
+        read = is.read(buffer);
+      }
+      return toHex(digest.digest());
+    }
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("MD5");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("MD5 is not supported", e);
+    }
+  }
+
   private static byte[] digest(InputStream input, MessageDigest digest) throws IOException {
     final byte[] buffer = new byte[STREAM_BUFFER_LENGTH];
     int read = input.read(buffer, 0, STREAM_BUFFER_LENGTH);
@@ -19,8 +19,17 @@
  */
 package org.sonar.home.cache;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.io.FileUtils;
 import org.junit.Before;
 import org.junit.Rule;
@@ -28,9 +37,12 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.rules.TemporaryFolder;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
@@ -126,10 +138,21 @@ public class FileCacheTest {
     assertThat(cachedFile).isNotNull().exists().isFile();
 
     assertThat(cachedFile.getName()).isEqualTo("sonar-foo-plugin-1.5.jar");
-    assertThat(cachedFile.getParentFile().list()).containsOnly("sonar-foo-plugin-1.5.jar", "sonar-foo-plugin-1.5.pack.gz");
+    assertThat(cachedFile.getParentFile().list()).containsOnly("sonar-foo-plugin-1.5.jar", "sonar-foo-plugin-1.5.pack.gz", DirectoryLock.LOCK_FILE_NAME);
     assertThat(cachedFile.getParentFile().getParentFile()).isEqualTo(cache.getDir());
   }
 
+  @Test
+  public void download_compressed_file_as_stream() throws IOException {
+    cache = new FileCache(tempFolder.newFolder(), new FileHashes(), mock(Logger.class));
+    String hash = new FileHashes().of(compressedFile());
+
+    File cachedFile = cache.getCompressed("sonar-foo-plugin-1.5.pack.gz", hash, filename -> new FileInputStream(compressedFile()));
+
+    assertThat(cachedFile).isNotNull().exists().isFile();
+    assertThat(cachedFile.getName()).isEqualTo("sonar-foo-plugin-1.5.jar");
+  }
+
   @Test
   public void dont_download_compressed_file_if_jar_exists() throws IOException {
     when(fileHashes.of(any(File.class))).thenReturn("ABCDE");
@@ -167,6 +190,64 @@ public class FileCacheTest {
     verifyZeroInteractions(downloader);
   }
 
+  @Test
+  public void download_stream_and_add_to_cache() throws IOException {
+    when(fileHashes.copy(any(InputStream.class), any(File.class))).thenCallRealMethod();
+
+    File cachedFile = cache.get("sonar-foo-plugin-1.5.jar", "d85e336d61f5344395c42126fac239bc", filename -> new ByteArrayInputStream("sonar".getBytes(UTF_8)));
+
+    assertThat(cachedFile).isNotNull().exists().isFile();
+    assertThat(cachedFile.getName()).isEqualTo("sonar-foo-plugin-1.5.jar");
+    assertThat(cachedFile.getParentFile().getParentFile()).isEqualTo(cache.getDir());
+    assertThat(FileUtils.readFileToString(cachedFile, UTF_8)).isEqualTo("sonar");
+    // the downloaded file is not read again to compute its hash
+    verify(fileHashes, never()).of(any(File.class));
+  }
+
+  @Test
+  public void download_corrupted_stream() throws IOException {
+    when(fileHashes.copy(any(InputStream.class), any(File.class))).thenCallRealMethod();
+
+    thrown.expect(IllegalStateException.class);
+    thrown.expectMessage("INVALID HASH");
+
+    cache.get("sonar-foo-plugin-1.5.jar", "ABCDE", filename -> new ByteArrayInputStream("corrupted".getBytes(UTF_8)));
+  }
+
+  @Test
+  public void fail_to_download_stream() {
+    thrown.expect(IllegalStateException.class);
+    thrown.expectMessage("Fail to download");
+
+    cache.get("sonar-foo-plugin-1.5.jar", "ABCDE", (FileCache.StreamDownloader) filename -> {
+      throw new IOException("fail");
+    });
+  }
+
+  @Test
+  public void file_is_downloaded_once_by_concurrent_threads() throws Exception {
+    when(fileHashes.of(any(File.class))).thenReturn("ABCDE");
+    AtomicInteger downloads = new AtomicInteger();
+    FileCache.Downloader downloader = (filename, toFile) -> {
+      downloads.incrementAndGet();
+      FileUtils.write(toFile, "body");
+    };
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<File>> futures = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        futures.add(executor.submit(() -> cache.get("sonar-foo-plugin-1.5.jar", "ABCDE", downloader)));
+      }
+      for (Future<File> future : futures) {
+        assertThat(future.get()).exists().hasContent("body");
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertThat(downloads.get()).isEqualTo(1);
+  }
+
   @Test
   public void download_corrupted_file() throws IOException {
     thrown.expect(IllegalStateException.class);
@@ -73,6 +73,16 @@ public class FileHashesTest {
     assertThat(hashFile(f)).isEqualTo("d85e336d61f5344395c42126fac239bc");
   }
 
+  @Test
+  public void copy_stream_to_file_and_compute_hash() throws IOException {
+    File f = temp.newFile();
+
+    String hash = new FileHashes().copy(new ByteArrayInputStream("sonar".getBytes(StandardCharsets.UTF_8)), f);
+
+    assertThat(hash).isEqualTo("d85e336d61f5344395c42126fac239bc");
+    assertThat(FileUtils.readFileToString(f, StandardCharsets.UTF_8)).isEqualTo("sonar");
+  }
+
   @Test
   public void test_toHex() {
     // lower-case
@@ -20,17 +20,27 @@
 package org.sonar.scanner.bootstrap;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.Gson;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 import javax.annotation.Nullable;
-import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.input.CountingInputStream;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.api.utils.log.Profiler;
@@ -43,12 +53,14 @@ import static java.lang.String.format;
 
 /**
  * Downloads the plugins installed on server and stores them in a local user cache
- * (see {@link FileCacheProvider}).
+ * (see {@link FileCacheProvider}). Missing plugins are downloaded concurrently by
+ * a bounded pool of threads.
  */
 public class ScannerPluginInstaller implements PluginInstaller {
 
   private static final Logger LOG = Loggers.get(ScannerPluginInstaller.class);
   private static final String PLUGINS_WS_URL = "/api/plugins/installed";
+  private static final int DOWNLOAD_THREADS = 4;
 
   private final FileCache fileCache;
   private final ScannerPluginPredicate pluginPredicate;
@@ -66,21 +78,52 @@ public class ScannerPluginInstaller implements PluginInstaller {
   }
 
   private Map<String, ScannerPlugin> loadPlugins(InstalledPlugin[] remotePlugins) {
-    Map<String, ScannerPlugin> infosByKey = new HashMap<>(remotePlugins.length);
+    List<InstalledPlugin> plugins = Arrays.stream(remotePlugins)
+      .filter(installedPlugin -> pluginPredicate.apply(installedPlugin.key))
+      .collect(Collectors.toList());
+    Map<String, ScannerPlugin> infosByKey = new HashMap<>(plugins.size());
 
     Profiler profiler = Profiler.create(LOG).startInfo("Load/download plugins");
-
-    for (InstalledPlugin installedPlugin : remotePlugins) {
-      if (pluginPredicate.apply(installedPlugin.key)) {
-        File jarFile = download(installedPlugin);
-        PluginInfo info = PluginInfo.create(jarFile);
-        infosByKey.put(info.getKey(), new ScannerPlugin(installedPlugin.key, installedPlugin.updatedAt, info));
+    DownloadProgress progress = new DownloadProgress(plugins.size());
+    ExecutorService executorService = Executors.newFixedThreadPool(Math.max(1, Math.min(DOWNLOAD_THREADS, plugins.size())), new ThreadFactoryBuilder()
+      .setNameFormat("PluginDownloader-%d")
+      .setDaemon(true)
+      .build());
+    try {
+      List<Future<ScannerPlugin>> tasks = new ArrayList<>(plugins.size());
+      for (InstalledPlugin installedPlugin : plugins) {
+        tasks.add(executorService.submit(() -> load(installedPlugin, progress)));
+      }
+      for (Future<ScannerPlugin> task : tasks) {
+        ScannerPlugin plugin = waitFor(task);
+        infosByKey.put(plugin.getInfo().getKey(), plugin);
       }
+    } finally {
+      executorService.shutdownNow();
     }
+    progress.log();
     profiler.stopInfo();
     return infosByKey;
   }
 
+  private ScannerPlugin load(InstalledPlugin installedPlugin, DownloadProgress progress) {
+    File jarFile = download(installedPlugin, progress);
+    PluginInfo info = PluginInfo.create(jarFile);
+    return new ScannerPlugin(installedPlugin.key, installedPlugin.updatedAt, info);
+  }
+
+  private static ScannerPlugin waitFor(Future<ScannerPlugin> task) {
+    try {
+      return task.get();
+    } catch (ExecutionException e) {
+      // Unwrap ExecutionException
+      throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new IllegalStateException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
   /**
    * Returns empty on purpose. This method is used only by medium tests.
    * @see org.sonar.scanner.mediumtest.ScannerMediumTester
@@ -91,12 +134,16 @@ public class ScannerPluginInstaller implements PluginInstaller {
   }
 
   @VisibleForTesting
-  File download(final InstalledPlugin remote) {
+  File download(InstalledPlugin remote) {
+    return download(remote, new DownloadProgress(1));
+  }
+
+  private File download(InstalledPlugin remote, DownloadProgress progress) {
     try {
       if (remote.compressedFilename != null) {
-        return fileCache.getCompressed(remote.compressedFilename, remote.compressedHash, new FileDownloader(remote.key));
+        return fileCache.getCompressed(remote.compressedFilename, remote.compressedHash, new FileDownloader(remote.key, progress));
       } else {
-        return fileCache.get(remote.filename, remote.hash, new FileDownloader(remote.key));
+        return fileCache.get(remote.filename, remote.hash, new FileDownloader(remote.key, progress));
       }
     } catch (Exception e) {
       throw new IllegalStateException("Fail to download plugin: " + remote.key, e);
@@ -136,25 +183,57 @@ public class ScannerPluginInstaller implements PluginInstaller {
     String compressedFilename;
   }
 
-  private class FileDownloader implements FileCache.Downloader {
-    private String key;
+  private class FileDownloader implements FileCache.StreamDownloader {
+    private final String key;
+    private final DownloadProgress progress;
 
-    FileDownloader(String key) {
+    FileDownloader(String key, DownloadProgress progress) {
       this.key = key;
+      this.progress = progress;
     }
 
     @Override
-    public void download(String filename, File toFile) throws IOException {
+    public InputStream openStream(String filename) {
       String url = format("/deploy/plugins/%s/%s", key, filename);
-      if (LOG.isDebugEnabled()) {
-        LOG.debug("Download plugin '{}' to '{}'", filename, toFile);
-      } else {
-        LOG.debug("Download '{}'", filename);
-      }
+      LOG.debug("Download '{}'", filename);
 
       WsResponse response = wsClient.call(new GetRequest(url));
-      try (InputStream stream = response.contentStream()) {
-        FileUtils.copyInputStreamToFile(stream, toFile);
+      return new CountingInputStream(response.contentStream()) {
+        @Override
+        public void close() throws IOException {
+          super.close();
+          progress.downloaded(filename, getByteCount());
+        }
+      };
+    }
+  }
+
+  /**
+   * Number of plugins and bytes downloaded by the concurrent downloads. Plugins found in cache
+   * are not counted.
+   */
+  private static class DownloadProgress {
+    private final int total;
+    private final long startedAt = System.currentTimeMillis();
+    private final AtomicInteger downloadedFiles = new AtomicInteger();
+    private final AtomicLong downloadedBytes = new AtomicLong();
+
+    DownloadProgress(int total) {
+      this.total = total;
+    }
+
+    void downloaded(String filename, long bytes) {
+      int count = downloadedFiles.incrementAndGet();
+      downloadedBytes.addAndGet(bytes);
+      LOG.debug("Downloaded '{}' ({} kB), {}/{} plugins", filename, bytes / 1024, count, total);
+    }
+
+    void log() {
+      int count = downloadedFiles.get();
+      if (count > 0) {
+        long bytes = downloadedBytes.get();
+        long durationMs = Math.max(1L, System.currentTimeMillis() - startedAt);
+        LOG.info("Downloaded {} plugin(s) on {} ({} kB at {} kB/s)", count, total, bytes / 1024, bytes * 1000 / 1024 / durationMs);
       }
     }
   }
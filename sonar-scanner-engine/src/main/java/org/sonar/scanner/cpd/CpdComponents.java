@@ -21,6 +21,7 @@ package org.sonar.scanner.cpd;
 
 import com.google.common.collect.ImmutableList;
 import java.util.List;
+import org.sonar.scanner.cpd.deprecated.CpdBlocksCache;
 import org.sonar.scanner.cpd.deprecated.CpdMappings;
 import org.sonar.scanner.cpd.deprecated.DefaultCpdBlockIndexer;
 import org.sonar.scanner.cpd.deprecated.DeprecatedCpdBlockIndexerSensor;
@@ -36,6 +37,7 @@ public final class CpdComponents {
       DeprecatedCpdBlockIndexerSensor.class,
       CpdMappings.class,
       JavaCpdBlockIndexer.class,
+      CpdBlocksCache.class,
       DefaultCpdBlockIndexer.class);
   }
 
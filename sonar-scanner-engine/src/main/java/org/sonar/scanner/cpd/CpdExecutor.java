@@ -36,7 +36,7 @@ import org.sonar.api.batch.fs.internal.DefaultInputComponent;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.duplications.block.Block;
-import org.sonar.duplications.detector.suffixtree.SuffixTreeCloneDetectionAlgorithm;
+import org.sonar.duplications.detector.CloneDetectionAlgorithm;
 import org.sonar.duplications.index.CloneGroup;
 import org.sonar.duplications.index.ClonePart;
 import org.sonar.duplications.index.PackedMemoryCloneIndex.ResourceBlocks;
@@ -69,6 +69,7 @@ public class CpdExecutor {
   private final ProgressReport progressReport;
   private final CpdSettings settings;
   private final BranchConfiguration branchConfiguration;
+  private CloneDetectionAlgorithm algorithm = CloneDetectionAlgorithm.SUFFIX_TREE;
   private int count;
   private int total;
 
@@ -97,6 +98,8 @@ public class CpdExecutor {
     if (filesWithoutBlocks > 0) {
       LOG.info("{} {} had no CPD blocks", filesWithoutBlocks, pluralize(filesWithoutBlocks));
     }
+    algorithm = settings.getAlgorithm();
+    LOG.debug("Detection of duplications with algorithm {}", algorithm.getKey());
     progressReport.start(String.format("Calculating CPD for %d %s", total, pluralize(total)));
     ExecutorService executorService = Executors.newSingleThreadExecutor();
     try {
@@ -133,7 +136,7 @@ public class CpdExecutor {
     progressReport.message(String.format("%d/%d - current file: %s", count, total, inputFile.absolutePath()));
 
     List<CloneGroup> duplications;
-    Future<List<CloneGroup>> futureResult = executorService.submit(() -> SuffixTreeCloneDetectionAlgorithm.detect(index, fileBlocks));
+    Future<List<CloneGroup>> futureResult = executorService.submit(() -> algorithm.detect(index, fileBlocks));
     try {
       duplications = futureResult.get(timeout, TimeUnit.MILLISECONDS);
     } catch (TimeoutException e) {
@@ -24,8 +24,11 @@ import org.sonar.api.CoreProperties;
 import org.sonar.api.batch.fs.internal.InputModuleHierarchy;
 import org.sonar.api.config.Configuration;
 import org.sonar.duplications.block.BlockChunker;
+import org.sonar.duplications.detector.CloneDetectionAlgorithm;
 
 public class CpdSettings {
+  static final String ALGORITHM_PROPERTY = "sonar.cpd.algorithm";
+
   private final Configuration settings;
   private final String branch;
 
@@ -49,4 +52,15 @@ public class CpdSettings {
   int getMinimumTokens(String languageKey) {
     return settings.getInt("sonar.cpd." + languageKey + ".minimumTokens").orElse(100);
   }
+
+  /**
+   * Algorithm used to detect clones, {@link CloneDetectionAlgorithm#SUFFIX_TREE} by default. The algorithm
+   * {@link CloneDetectionAlgorithm#INDEX} can be selected with "index" for projects that time out on files
+   * sharing blocks with many other files.
+   */
+  CloneDetectionAlgorithm getAlgorithm() {
+    return settings.get(ALGORITHM_PROPERTY)
+      .map(CloneDetectionAlgorithm::fromKey)
+      .orElse(CloneDetectionAlgorithm.SUFFIX_TREE);
+  }
 }
@@ -0,0 +1,203 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.scanner.cpd.deprecated;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+import org.sonar.api.SonarRuntime;
+import org.sonar.api.batch.ScannerSide;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.batch.fs.internal.DefaultInputModule;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.duplications.block.Block;
+import org.sonar.duplications.block.ByteArray;
+import org.sonar.home.cache.FileCache;
+
+/**
+ * CPD blocks of the files of a module, kept in the user cache between two analyses on the same machine, so
+ * that files whose content did not change are not tokenized again. Blocks are identified by the hash of the
+ * content and by the charset of the file. There is one cache file per module, which only contains the files
+ * of the last analysis. The cache is dropped when the version of the scanner changes, because the
+ * tokenizer which computes the blocks may have changed.
+ * <p>
+ * The cache is an optimization: it is ignored if it can't be read, and a failure to write it does not fail
+ * the analysis.
+ */
+@ScannerSide
+public class CpdBlocksCache {
+
+  private static final Logger LOG = Loggers.get(CpdBlocksCache.class);
+  private static final int FORMAT_VERSION = 2;
+
+  private final Path cacheFile;
+  private final String scannerVersion;
+  private final Map<String, List<Block>> current = new HashMap<>();
+  private Map<String, List<Block>> previous = Collections.emptyMap();
+
+  public CpdBlocksCache(FileCache fileCache, DefaultInputModule module, SonarRuntime runtime) {
+    this(fileCache.getDir().toPath().resolve("_cpd").resolve(module.key().replaceAll("[^a-zA-Z0-9._-]", "_")),
+      runtime.getApiVersion().toString());
+  }
+
+  CpdBlocksCache(Path cacheFile, String scannerVersion) {
+    this.cacheFile = cacheFile;
+    this.scannerVersion = scannerVersion;
+  }
+
+  /**
+   * Loads the blocks stored by the previous analysis for the given kind of blocks, for example "java".
+   * Blocks of a different kind, of a different block size or computed by another version of the scanner are ignored.
+   */
+  public void load(String kind, int blockSize) {
+    current.clear();
+    previous = Collections.emptyMap();
+    Path file = fileOf(kind);
+    if (!Files.exists(file)) {
+      return;
+    }
+    try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (input.readInt() == FORMAT_VERSION && input.readUTF().equals(scannerVersion) && input.readInt() == blockSize) {
+        previous = read(input);
+      }
+    } catch (IOException | RuntimeException e) {
+      LOG.debug("Fail to read CPD cache " + file + ", it is ignored", e);
+    }
+  }
+
+  /**
+   * Blocks of the previous analysis, or {@code null} if the content of the file changed or if the file was not
+   * analyzed. The file is kept in the cache for the next analysis.
+   */
+  @CheckForNull
+  public List<Block> get(InputFile inputFile) {
+    String contentKey = contentKey(inputFile);
+    List<Block> blocks = contentKey == null ? null : previous.get(contentKey);
+    if (blocks == null) {
+      return null;
+    }
+    current.put(contentKey, blocks);
+    String resourceId = ((DefaultInputFile) inputFile).key();
+    List<Block> result = new ArrayList<>(blocks.size());
+    for (Block block : blocks) {
+      result.add(Block.builder()
+        .setResourceId(resourceId)
+        .setBlockHash(block.getBlockHash())
+        .setIndexInFile(block.getIndexInFile())
+        .setLines(block.getStartLine(), block.getEndLine())
+        .setUnit(block.getStartUnit(), block.getEndUnit())
+        .build());
+    }
+    return result;
+  }
+
+  public void put(InputFile inputFile, List<Block> blocks) {
+    String contentKey = contentKey(inputFile);
+    if (contentKey != null) {
+      current.put(contentKey, blocks);
+    }
+  }
+
+  /**
+   * Replaces the stored blocks by the ones of the files requested since {@link #load(String, int)}
+   */
+  public void save(String kind, int blockSize) {
+    Path file = fileOf(kind);
+    try {
+      Files.createDirectories(file.getParent());
+      Path tmpFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+      try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+        output.writeInt(FORMAT_VERSION);
+        output.writeUTF(scannerVersion);
+        output.writeInt(blockSize);
+        write(output, current);
+      }
+      // the cache can be shared by several analyses running at the same time
+      Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException | RuntimeException e) {
+      LOG.debug("Fail to write CPD cache " + file, e);
+    }
+    previous = Collections.emptyMap();
+    current.clear();
+  }
+
+  private Path fileOf(String kind) {
+    return cacheFile.resolveSibling(cacheFile.getFileName() + "-" + kind + ".bin");
+  }
+
+  @CheckForNull
+  private static String contentKey(InputFile inputFile) {
+    String hash = ((DefaultInputFile) inputFile).hash();
+    return hash == null ? null : (hash + ":" + inputFile.charset().name());
+  }
+
+  private static Map<String, List<Block>> read(DataInputStream input) throws IOException {
+    int nbFiles = input.readInt();
+    Map<String, List<Block>> result = new HashMap<>(nbFiles);
+    for (int f = 0; f < nbFiles; f++) {
+      String contentKey = input.readUTF();
+      int nbBlocks = input.readInt();
+      List<Block> blocks = new ArrayList<>(nbBlocks);
+      for (int b = 0; b < nbBlocks; b++) {
+        byte[] hash = new byte[input.readUnsignedShort()];
+        input.readFully(hash);
+        blocks.add(Block.builder()
+          .setBlockHash(new ByteArray(hash))
+          .setIndexInFile(input.readInt())
+          .setLines(input.readInt(), input.readInt())
+          .setUnit(input.readInt(), input.readInt())
+          .build());
+      }
+      result.put(contentKey, blocks);
+    }
+    return result;
+  }
+
+  private static void write(DataOutputStream output, Map<String, List<Block>> blocksByContentKey) throws IOException {
+    output.writeInt(blocksByContentKey.size());
+    for (Map.Entry<String, List<Block>> entry : blocksByContentKey.entrySet()) {
+      output.writeUTF(entry.getKey());
+      output.writeInt(entry.getValue().size());
+      for (Block block : entry.getValue()) {
+        byte[] hash = block.getBlockHash().getBytes();
+        output.writeShort(hash.length);
+        output.write(hash);
+        output.writeInt(block.getIndexInFile());
+        output.writeInt(block.getStartLine());
+        output.writeInt(block.getEndLine());
+        output.writeInt(block.getStartUnit());
+        output.writeInt(block.getEndUnit());
+      }
+    }
+  }
+}
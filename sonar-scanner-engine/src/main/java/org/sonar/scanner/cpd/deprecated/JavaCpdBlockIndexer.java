@@ -20,12 +20,19 @@
 package org.sonar.scanner.cpd.deprecated;
 
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.sonar.api.CoreProperties;
 import org.sonar.api.batch.fs.FilePredicates;
 import org.sonar.api.batch.fs.FileSystem;
@@ -48,15 +55,19 @@ public class JavaCpdBlockIndexer extends CpdBlockIndexer {
   private static final Logger LOG = Loggers.get(JavaCpdBlockIndexer.class);
 
   private static final int BLOCK_SIZE = 10;
+  private static final int CHUNK_THREADS = 4;
+  private static final String CACHE_KIND = "java";
 
   private final FileSystem fs;
   private final Configuration settings;
   private final SonarCpdBlockIndex index;
+  private final CpdBlocksCache cache;
 
-  public JavaCpdBlockIndexer(FileSystem fs, Configuration settings, SonarCpdBlockIndex index) {
+  public JavaCpdBlockIndexer(FileSystem fs, Configuration settings, SonarCpdBlockIndex index, CpdBlocksCache cache) {
     this.fs = fs;
     this.settings = settings;
     this.index = index;
+    this.cache = cache;
   }
 
   @Override
@@ -79,33 +90,73 @@ public class JavaCpdBlockIndexer extends CpdBlockIndexer {
     createIndex(sourceFiles);
   }
 
-  private void createIndex(Iterable<InputFile> sourceFiles) {
-    TokenChunker tokenChunker = JavaTokenProducer.build();
-    StatementChunker statementChunker = JavaStatementBuilder.build();
+  private void createIndex(List<InputFile> sourceFiles) {
+    cache.load(CACHE_KIND, BLOCK_SIZE);
+    ThreadLocal<TokenChunker> tokenChunkers = ThreadLocal.withInitial(JavaTokenProducer::build);
+    ThreadLocal<StatementChunker> statementChunkers = ThreadLocal.withInitial(JavaStatementBuilder::build);
     BlockChunker blockChunker = new BlockChunker(BLOCK_SIZE);
 
-    for (InputFile inputFile : sourceFiles) {
-      LOG.debug("Populating index from {}", inputFile);
-      String resourceEffectiveKey = ((DefaultInputFile) inputFile).key();
+    ExecutorService executorService = Executors.newFixedThreadPool(Math.max(1, Math.min(CHUNK_THREADS, sourceFiles.size())), new ThreadFactoryBuilder()
+      .setNameFormat("CpdChunker-%d")
+      .setDaemon(true)
+      .build());
+    int fromCache = 0;
+    try {
+      List<Future<List<Block>>> tasks = new ArrayList<>(sourceFiles.size());
+      for (InputFile inputFile : sourceFiles) {
+        List<Block> cachedBlocks = cache.get(inputFile);
+        if (cachedBlocks == null) {
+          tasks.add(executorService.submit(() -> chunk(inputFile, tokenChunkers.get(), statementChunkers.get(), blockChunker)));
+        } else {
+          fromCache++;
+          tasks.add(Futures.immediateFuture(cachedBlocks));
+        }
+      }
+      // blocks are inserted in the order of files, as the index is not thread-safe
+      for (int i = 0; i < sourceFiles.size(); i++) {
+        InputFile inputFile = sourceFiles.get(i);
+        List<Block> blocks = waitFor(tasks.get(i));
+        cache.put(inputFile, blocks);
+        index.insert(inputFile, blocks);
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+    cache.save(CACHE_KIND, BLOCK_SIZE);
+    LOG.info("CPD blocks of {}/{} Java files loaded from cache", fromCache, sourceFiles.size());
+  }
 
-      List<Statement> statements;
+  private static List<Block> chunk(InputFile inputFile, TokenChunker tokenChunker, StatementChunker statementChunker, BlockChunker blockChunker) {
+    LOG.debug("Populating index from {}", inputFile);
+    String resourceEffectiveKey = ((DefaultInputFile) inputFile).key();
 
-      try (InputStream is = inputFile.inputStream();
-        Reader reader = new InputStreamReader(is, inputFile.charset())) {
-        statements = statementChunker.chunk(tokenChunker.chunk(reader));
-      } catch (FileNotFoundException e) {
-        throw new IllegalStateException("Cannot find file " + inputFile.file(), e);
-      } catch (IOException e) {
-        throw new IllegalStateException("Exception handling file: " + inputFile.file(), e);
-      }
+    List<Statement> statements;
 
-      List<Block> blocks;
-      try {
-        blocks = blockChunker.chunk(resourceEffectiveKey, statements);
-      } catch (Exception e) {
-        throw new IllegalStateException("Cannot process file " + inputFile.file(), e);
-      }
-      index.insert(inputFile, blocks);
+    try (InputStream is = inputFile.inputStream();
+      Reader reader = new InputStreamReader(is, inputFile.charset())) {
+      statements = statementChunker.chunk(tokenChunker.chunk(reader));
+    } catch (FileNotFoundException e) {
+      throw new IllegalStateException("Cannot find file " + inputFile.file(), e);
+    } catch (IOException e) {
+      throw new IllegalStateException("Exception handling file: " + inputFile.file(), e);
+    }
+
+    try {
+      return blockChunker.chunk(resourceEffectiveKey, statements);
+    } catch (Exception e) {
+      throw new IllegalStateException("Cannot process file " + inputFile.file(), e);
+    }
+  }
+
+  private static List<Block> waitFor(Future<List<Block>> task) {
+    try {
+      return task.get();
+    } catch (ExecutionException e) {
+      // Unwrap ExecutionException
+      throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new IllegalStateException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
     }
   }
 }
@@ -22,7 +22,6 @@ package org.sonar.scanner.issue.ignore.scanner;
 import java.util.ArrayList;
 import java.util.List;
 import javax.annotation.CheckForNull;
-import org.apache.commons.lang.StringUtils;
 import org.sonar.api.batch.fs.internal.charhandler.CharHandler;
 import org.sonar.scanner.issue.ignore.pattern.BlockIssuePattern;
 import org.sonar.scanner.issue.ignore.pattern.IssueExclusionPatternInitializer;
@@ -30,7 +29,7 @@ import org.sonar.scanner.issue.ignore.pattern.IssuePattern;
 import org.sonar.scanner.issue.ignore.pattern.PatternMatcher;
 
 public final class IssueExclusionsLoader {
-  private final List<java.util.regex.Pattern> allFilePatterns;
+  private final List<LinePattern> allFilePatterns;
   private final List<DoubleRegexpMatcher> blockMatchers;
   private final PatternMatcher patternMatcher;
   private final IssueExclusionPatternInitializer patternsInitializer;
@@ -43,12 +42,10 @@ public final class IssueExclusionsLoader {
     this.blockMatchers = new ArrayList<>();
 
     for (String pattern : patternsInitializer.getAllFilePatterns()) {
-      allFilePatterns.add(java.util.regex.Pattern.compile(pattern));
+      allFilePatterns.add(new LinePattern(pattern));
     }
     for (BlockIssuePattern pattern : patternsInitializer.getBlockPatterns()) {
-      blockMatchers.add(new DoubleRegexpMatcher(
-        java.util.regex.Pattern.compile(pattern.getBeginBlockRegexp()),
-        java.util.regex.Pattern.compile(pattern.getEndBlockRegexp())));
+      blockMatchers.add(new DoubleRegexpMatcher(new LinePattern(pattern.getBeginBlockRegexp()), new LinePattern(pattern.getEndBlockRegexp())));
     }
     enableCharHandler = !allFilePatterns.isEmpty() || !blockMatchers.isEmpty();
   }
@@ -75,24 +72,24 @@ public final class IssueExclusionsLoader {
 
   public static class DoubleRegexpMatcher {
 
-    private java.util.regex.Pattern firstPattern;
-    private java.util.regex.Pattern secondPattern;
+    private final LinePattern firstPattern;
+    private final LinePattern secondPattern;
 
-    DoubleRegexpMatcher(java.util.regex.Pattern firstPattern, java.util.regex.Pattern secondPattern) {
+    DoubleRegexpMatcher(LinePattern firstPattern, LinePattern secondPattern) {
       this.firstPattern = firstPattern;
       this.secondPattern = secondPattern;
     }
 
     boolean matchesFirstPattern(String line) {
-      return firstPattern.matcher(line).find();
+      return firstPattern.find(line);
     }
 
     boolean matchesSecondPattern(String line) {
-      return hasSecondPattern() && secondPattern.matcher(line).find();
+      return hasSecondPattern() && secondPattern.find(line);
     }
 
     boolean hasSecondPattern() {
-      return StringUtils.isNotEmpty(secondPattern.toString());
+      return !secondPattern.isEmpty();
     }
   }
 
@@ -23,7 +23,6 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.regex.Pattern;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,7 +35,7 @@ public class IssueExclusionsRegexpScanner extends CharHandler {
   private static final Logger LOG = LoggerFactory.getLogger(IssueExclusionsLoader.class);
 
   private final StringBuilder sb = new StringBuilder();
-  private final List<Pattern> allFilePatterns;
+  private final List<LinePattern> allFilePatterns;
   private final List<DoubleRegexpMatcher> blockMatchers;
   private final String componentKey;
   private final PatternMatcher patternMatcher;
@@ -46,8 +45,9 @@ public class IssueExclusionsRegexpScanner extends CharHandler {
   private LineExclusion currentLineExclusion = null;
   private int fileLength = 0;
   private DoubleRegexpMatcher currentMatcher;
+  private boolean fileExcluded = false;
 
-  IssueExclusionsRegexpScanner(String componentKey, List<Pattern> allFilePatterns, List<DoubleRegexpMatcher> blockMatchers, PatternMatcher patternMatcher) {
+  IssueExclusionsRegexpScanner(String componentKey, List<LinePattern> allFilePatterns, List<DoubleRegexpMatcher> blockMatchers, PatternMatcher patternMatcher) {
     this.allFilePatterns = allFilePatterns;
     this.blockMatchers = blockMatchers;
     this.patternMatcher = patternMatcher;
@@ -63,14 +63,14 @@ public class IssueExclusionsRegexpScanner extends CharHandler {
 
   @Override
   public void newLine() {
-    processLine(sb.toString());
+    processLine();
     sb.setLength(0);
     lineIndex++;
   }
 
   @Override
   public void eof() {
-    processLine(sb.toString());
+    processLine();
 
     if (currentMatcher != null && !currentMatcher.hasSecondPattern()) {
       // this will happen when there is a start block regexp but no end block regexp
@@ -86,18 +86,22 @@ public class IssueExclusionsRegexpScanner extends CharHandler {
     }
   }
 
-  private void processLine(String line) {
-    if (line.trim().length() == 0) {
+  private void processLine() {
+    if (isBlank(sb)) {
       return;
     }
+    String line = sb.toString();
 
     // first check the single regexp patterns that can be used to totally exclude a file
-    for (Pattern pattern : allFilePatterns) {
-      if (pattern.matcher(line).find()) {
-        patternMatcher.addPatternToExcludeResource(componentKey);
-        // nothing more to do on this file
-        LOG.debug("- Exclusion pattern '{}': every issue in this file will be ignored.", pattern);
-        return;
+    if (!fileExcluded) {
+      for (LinePattern pattern : allFilePatterns) {
+        if (pattern.find(line)) {
+          patternMatcher.addPatternToExcludeResource(componentKey);
+          // no need to look for these patterns in the next lines
+          fileExcluded = true;
+          LOG.debug("- Exclusion pattern '{}': every issue in this file will be ignored.", pattern);
+          return;
+        }
       }
     }
 
@@ -105,6 +109,15 @@ public class IssueExclusionsRegexpScanner extends CharHandler {
     checkDoubleRegexps(line, lineIndex);
   }
 
+  private static boolean isBlank(CharSequence line) {
+    for (int i = 0; i < line.length(); i++) {
+      if (line.charAt(i) > ' ') {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private Set<LineRange> convertLineExclusionsToLineRanges() {
     Set<LineRange> lineRanges = new HashSet<>(lineExclusions.size());
     for (LineExclusion lineExclusion : lineExclusions) {
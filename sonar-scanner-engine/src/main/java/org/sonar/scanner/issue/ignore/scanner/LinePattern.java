@@ -0,0 +1,85 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.scanner.issue.ignore.scanner;
+
+import java.util.regex.Pattern;
+import javax.annotation.CheckForNull;
+
+/**
+ * Regular expression searched in lines of source code. Most exclusion patterns start with a
+ * literal (for example "// NOSONAR-BEGIN" or "@Generated"). This literal is extracted once, so that
+ * the lines which do not contain it are rejected by {@link String#contains(CharSequence)} without
+ * running the regular expression engine.
+ */
+class LinePattern {
+
+  private static final String METACHARACTERS = "\\[](){}.*+?^$|";
+  private static final String OPTIONAL_QUANTIFIERS = "?*{";
+
+  private final Pattern pattern;
+  @CheckForNull
+  private final String requiredLiteral;
+
+  LinePattern(String regexp) {
+    this.pattern = Pattern.compile(regexp);
+    this.requiredLiteral = extractRequiredLiteral(regexp);
+  }
+
+  boolean find(String line) {
+    if (requiredLiteral != null && !line.contains(requiredLiteral)) {
+      return false;
+    }
+    return pattern.matcher(line).find();
+  }
+
+  boolean isEmpty() {
+    return pattern.pattern().isEmpty();
+  }
+
+  @CheckForNull
+  String getRequiredLiteral() {
+    return requiredLiteral;
+  }
+
+  /**
+   * Leading characters of the regexp that any match must contain, or null if there is none.
+   * Alternations are ignored, as the leading literal would then be only one of the options.
+   */
+  @CheckForNull
+  static String extractRequiredLiteral(String regexp) {
+    if (regexp.indexOf('|') >= 0) {
+      return null;
+    }
+    int end = 0;
+    while (end < regexp.length() && METACHARACTERS.indexOf(regexp.charAt(end)) < 0) {
+      end++;
+    }
+    if (end > 0 && end < regexp.length() && OPTIONAL_QUANTIFIERS.indexOf(regexp.charAt(end)) >= 0) {
+      // the quantifier applies to the last character, which may not be part of the match
+      end--;
+    }
+    return end == 0 ? null : regexp.substring(0, end);
+  }
+
+  @Override
+  public String toString() {
+    return pattern.toString();
+  }
+}
@@ -22,15 +22,25 @@ package org.sonar.scanner.issue.tracking;
 import com.google.common.base.Splitter;
 import com.google.common.collect.Iterators;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
 import org.apache.commons.io.IOUtils;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.api.utils.log.Profiler;
 import org.sonar.scanner.bootstrap.ScannerWsClient;
+import org.sonar.scanner.protocol.input.ScannerInput.FileLineHashes;
 import org.sonar.scanner.util.ScannerUtils;
 import org.sonarqube.ws.client.GetRequest;
 
 public class DefaultServerLineHashesLoader implements ServerLineHashesLoader {
+  static final int MAX_KEYS_PER_REQUEST = 100;
+  private static final int MAX_KEYS_LENGTH_PER_REQUEST = 4_000;
+  private static final int ENCODED_SEPARATOR_LENGTH = "%2C".length();
+
   private ScannerWsClient wsClient;
 
   public DefaultServerLineHashesLoader(ScannerWsClient wsClient) {
@@ -40,7 +50,57 @@ public class DefaultServerLineHashesLoader implements ServerLineHashesLoader {
   @Override
   public String[] getLineHashes(String fileKey) {
     String hashesFromWs = loadHashesFromWs(fileKey);
-    return Iterators.toArray(Splitter.on('\n').split(hashesFromWs).iterator(), String.class);
+    return split(hashesFromWs);
+  }
+
+  @Override
+  public void loadLineHashes(Collection<String> fileKeys, BiConsumer<String, String[]> consumer) {
+    for (List<String> keys : partition(fileKeys)) {
+      Profiler profiler = Profiler.createIfDebug(Loggers.get(getClass()))
+        .addContext("files", keys.size())
+        .startDebug("Load line hashes");
+
+      GetRequest getRequest = new GetRequest("/batch/line_hashes.protobuf?keys=" + ScannerUtils.encodeForUrl(String.join(",", keys)));
+      try (InputStream is = wsClient.call(getRequest).contentStream()) {
+        FileLineHashes lineHashes = FileLineHashes.parseDelimitedFrom(is);
+        while (lineHashes != null) {
+          consumer.accept(lineHashes.getKey(), split(lineHashes.getLineHashes()));
+          lineHashes = FileLineHashes.parseDelimitedFrom(is);
+        }
+      } catch (IOException e) {
+        throw new IllegalStateException("Unable to load line hashes", e);
+      } finally {
+        profiler.stopDebug();
+      }
+    }
+  }
+
+  /**
+   * Groups the keys so that each request does not exceed the maximum number of keys accepted by the web service,
+   * nor a reasonable URL length.
+   */
+  private static List<List<String>> partition(Collection<String> fileKeys) {
+    List<List<String>> partitions = new ArrayList<>();
+    List<String> partition = new ArrayList<>();
+    int partitionLength = 0;
+    for (String key : fileKeys) {
+      int keyLength = ScannerUtils.encodeForUrl(key).length() + ENCODED_SEPARATOR_LENGTH;
+      if (!partition.isEmpty() && (partition.size() == MAX_KEYS_PER_REQUEST || partitionLength + keyLength > MAX_KEYS_LENGTH_PER_REQUEST)) {
+        partitions.add(partition);
+        partition = new ArrayList<>();
+        partitionLength = 0;
+      }
+      partition.add(key);
+      partitionLength += keyLength;
+    }
+    if (!partition.isEmpty()) {
+      partitions.add(partition);
+    }
+    return partitions;
+  }
+
+  private static String[] split(String lineHashes) {
+    return Iterators.toArray(Splitter.on('\n').split(lineHashes).iterator(), String.class);
   }
 
   private String loadHashesFromWs(String fileKey) {
@@ -47,23 +47,27 @@ import org.sonar.scanner.analysis.DefaultAnalysisMode;
 import org.sonar.scanner.issue.IssueTransformer;
 import org.sonar.scanner.protocol.output.ScannerReport;
 import org.sonar.scanner.repository.ProjectRepositories;
+import org.sonar.scanner.scan.filesystem.InputComponentStore;
 
 @ScannerSide
 public class LocalIssueTracking {
   private final Tracker<TrackedIssue, ServerIssueFromWs> tracker;
-  private final ServerLineHashesLoader lastLineHashes;
+  private final ServerLineHashesPrefetcher lastLineHashes;
   private final ActiveRules activeRules;
   private final ServerIssueRepository serverIssueRepository;
   private final DefaultAnalysisMode mode;
   private final InputComponentTree componentTree;
+  private final InputComponentStore inputComponentStore;
 
   private boolean hasServerAnalysis;
 
   public LocalIssueTracking(Tracker<TrackedIssue, ServerIssueFromWs> tracker, ServerLineHashesLoader lastLineHashes, InputComponentTree componentTree,
-    ActiveRules activeRules, ServerIssueRepository serverIssueRepository, ProjectRepositories projectRepositories, DefaultAnalysisMode mode) {
+    InputComponentStore inputComponentStore, ActiveRules activeRules, ServerIssueRepository serverIssueRepository, ProjectRepositories projectRepositories,
+    DefaultAnalysisMode mode) {
     this.tracker = tracker;
-    this.lastLineHashes = lastLineHashes;
+    this.lastLineHashes = new ServerLineHashesPrefetcher(lastLineHashes);
     this.componentTree = componentTree;
+    this.inputComponentStore = inputComponentStore;
     this.serverIssueRepository = serverIssueRepository;
     this.mode = mode;
     this.activeRules = activeRules;
@@ -72,10 +76,27 @@ public class LocalIssueTracking {
 
   public void init() {
     if (hasServerAnalysis) {
+      // line hashes of changed files are loaded in background while server issues are loaded and tracked
+      lastLineHashes.prefetch(changedFileKeys());
       serverIssueRepository.load();
     }
   }
 
+  private List<String> changedFileKeys() {
+    List<String> keys = new ArrayList<>();
+    for (InputFile inputFile : inputComponentStore.allFiles()) {
+      if (inputFile.status() == Status.CHANGED) {
+        DefaultInputModule module = (DefaultInputModule) componentTree.getParent(componentTree.getParent(inputFile));
+        String key = SourceHashHolder.serverSideKey(module, (DefaultInputFile) inputFile);
+        // keys are comma-separated in bulk requests
+        if (key.indexOf(',') < 0) {
+          keys.add(key);
+        }
+      }
+    }
+    return keys;
+  }
+
   public List<TrackedIssue> trackIssues(InputComponent component, Collection<ScannerReport.Issue> reportIssues, Date analysisDate) {
     List<TrackedIssue> trackedIssues = new LinkedList<>();
     if (hasServerAnalysis) {
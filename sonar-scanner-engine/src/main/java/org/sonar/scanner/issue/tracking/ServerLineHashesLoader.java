@@ -19,10 +19,17 @@
  */
 package org.sonar.scanner.issue.tracking;
 
+import java.util.Collection;
+import java.util.function.BiConsumer;
 import org.sonar.api.batch.ScannerSide;
 
 @ScannerSide
 public interface ServerLineHashesLoader {
 
   String[] getLineHashes(String fileKey);
+
+  /**
+   * Loads the line hashes of several files. Files which are unknown by the server are ignored.
+   */
+  void loadLineHashes(Collection<String> fileKeys, BiConsumer<String, String[]> consumer);
 }
@@ -0,0 +1,100 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.scanner.issue.tracking;
+
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import javax.annotation.CheckForNull;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Loads in background the line hashes of the files to be tracked, by batches of files instead of
+ * one request per file. The line hashes of a file which was not prefetched are loaded on demand.
+ */
+class ServerLineHashesPrefetcher implements ServerLineHashesLoader {
+
+  private static final Logger LOG = Loggers.get(ServerLineHashesPrefetcher.class);
+  private static final int THREADS = 2;
+
+  private final ServerLineHashesLoader delegate;
+  private final Map<String, Future<Map<String, String[]>>> batchesByFileKey = new HashMap<>();
+
+  ServerLineHashesPrefetcher(ServerLineHashesLoader delegate) {
+    this.delegate = delegate;
+  }
+
+  void prefetch(Collection<String> fileKeys) {
+    if (fileKeys.isEmpty()) {
+      return;
+    }
+    LOG.debug("Prefetch line hashes of {} files", fileKeys.size());
+    ExecutorService executorService = Executors.newFixedThreadPool(THREADS, new ThreadFactoryBuilder()
+      .setNameFormat("LineHashesPrefetcher-%d")
+      .setDaemon(true)
+      .build());
+    for (List<String> batch : Iterables.partition(fileKeys, DefaultServerLineHashesLoader.MAX_KEYS_PER_REQUEST)) {
+      Future<Map<String, String[]>> future = executorService.submit(() -> {
+        Map<String, String[]> lineHashesByFileKey = new HashMap<>(batch.size());
+        delegate.loadLineHashes(batch, lineHashesByFileKey::put);
+        return lineHashesByFileKey;
+      });
+      batch.forEach(fileKey -> batchesByFileKey.put(fileKey, future));
+    }
+    // threads terminate once all the batches are loaded
+    executorService.shutdown();
+  }
+
+  @Override
+  @CheckForNull
+  public String[] getLineHashes(String fileKey) {
+    Future<Map<String, String[]>> batch = batchesByFileKey.get(fileKey);
+    if (batch == null) {
+      return delegate.getLineHashes(fileKey);
+    }
+    return waitFor(batch).get(fileKey);
+  }
+
+  @Override
+  public void loadLineHashes(Collection<String> fileKeys, BiConsumer<String, String[]> consumer) {
+    delegate.loadLineHashes(fileKeys, consumer);
+  }
+
+  private static Map<String, String[]> waitFor(Future<Map<String, String[]>> batch) {
+    try {
+      return batch.get();
+    } catch (ExecutionException e) {
+      // Unwrap ExecutionException
+      throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new IllegalStateException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -51,14 +51,17 @@ public class SourceHashHolder {
       } else if (status == Status.SAME) {
         hashedReference = hashedSource;
       } else {
-        // Need key with branch
-        String serverSideKey = ComponentKeys.createEffectiveKey(module.definition().getKeyWithBranch(), inputFile);
-        String[] lineHashes = lastSnapshots.getLineHashes(serverSideKey);
+        String[] lineHashes = lastSnapshots.getLineHashes(serverSideKey(module, inputFile));
         hashedReference = lineHashes != null ? FileHashes.create(lineHashes) : null;
       }
     }
   }
 
+  static String serverSideKey(DefaultInputModule module, DefaultInputFile inputFile) {
+    // Need key with branch
+    return ComponentKeys.createEffectiveKey(module.definition().getKeyWithBranch(), inputFile);
+  }
+
   @CheckForNull
   public FileHashes getHashedReference() {
     initHashes();
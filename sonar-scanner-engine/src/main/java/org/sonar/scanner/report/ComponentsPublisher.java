@@ -113,6 +113,9 @@ public class ComponentsPublisher implements ReportPublisherStep {
       builder.setIsTest(file.type() == InputFile.Type.TEST);
       builder.setLines(file.lines());
       builder.setStatus(convert(file.status()));
+      if (file.status() == InputFile.Status.SAME && file.hash() != null) {
+        builder.setPreviousSourceHash(file.hash());
+      }
 
       String lang = getLanguageKey(file);
       if (lang != null) {
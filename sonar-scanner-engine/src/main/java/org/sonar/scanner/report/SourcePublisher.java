@@ -26,22 +26,47 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.Objects;
 import org.apache.commons.io.IOUtils;
+import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
 import org.sonar.scanner.protocol.output.ScannerReportWriter;
+import org.sonar.scanner.scan.branch.BranchConfiguration;
 import org.sonar.scanner.scan.filesystem.InputComponentStore;
 
 public class SourcePublisher implements ReportPublisherStep {
 
+  /**
+   * When enabled, the source of the files which did not change since the previous analysis
+   * is not put in the report. The Compute Engine reads it back from the previous analysis. Processing of the report
+   * fails if another analysis of the branch, which changed these files, is processed in the meantime.
+   */
+  public static final String INCREMENTAL_PROP_KEY = "sonar.scanner.incremental";
+
+  private static final Logger LOG = Loggers.get(SourcePublisher.class);
+
   private final InputComponentStore componentCache;
+  private final Configuration settings;
+  private final BranchConfiguration branchConfiguration;
 
-  public SourcePublisher(InputComponentStore componentStore) {
+  public SourcePublisher(InputComponentStore componentStore, Configuration settings, BranchConfiguration branchConfiguration) {
     this.componentCache = componentStore;
+    this.settings = settings;
+    this.branchConfiguration = branchConfiguration;
   }
 
   @Override
   public void publish(ScannerReportWriter writer) {
+    boolean incremental = isIncremental();
+    int skipped = 0;
     for (final DefaultInputFile inputFile : componentCache.allFilesToPublish()) {
+      if (incremental && inputFile.status() == InputFile.Status.SAME) {
+        skipped++;
+        continue;
+      }
       File iofile = writer.getSourceFile(inputFile.batchId());
 
       try (FileOutputStream output = new FileOutputStream(iofile);
@@ -52,6 +77,21 @@ public class SourcePublisher implements ReportPublisherStep {
         throw new IllegalStateException("Unable to store file source in the report", e);
       }
     }
+    if (incremental) {
+      LOG.info("Source of {} unchanged files not published", skipped);
+    }
+  }
+
+  /**
+   * The status of files is computed against the project repositories of {@link BranchConfiguration#branchBase()}.
+   * Sources can be read back by the Compute Engine only if this base is the branch being analyzed. It is not the case
+   * on short living branches, nor on long living branches analyzed for the first time, which are compared
+   * to their target.
+   */
+  private boolean isIncremental() {
+    return settings.getBoolean(INCREMENTAL_PROP_KEY).orElse(false)
+      && !branchConfiguration.isShortLivingBranch()
+      && Objects.equals(branchConfiguration.branchBase(), branchConfiguration.branchName());
   }
 
   private static void writeSource(BufferedReader reader, FileOutputStream output, int lines) throws IOException {
@@ -19,11 +19,16 @@
  */
 package org.sonar.scanner.rule;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.picocontainer.injectors.ProviderAdapter;
 import org.sonar.api.batch.rule.ActiveRules;
 import org.sonar.api.batch.rule.internal.ActiveRulesBuilder;
@@ -36,10 +41,12 @@ import org.sonar.api.utils.log.Profiler;
 /**
  * Loads the rules that are activated on the Quality profiles
  * used by the current project and builds {@link org.sonar.api.batch.rule.ActiveRules}.
+ * Quality profiles are independent, so they are requested concurrently by a bounded pool of threads.
  */
 public class ActiveRulesProvider extends ProviderAdapter {
   private static final Logger LOG = Loggers.get(ActiveRulesProvider.class);
   private static final String LOG_MSG = "Load active rules";
+  private static final int LOAD_THREADS = 4;
   private ActiveRules singleton = null;
 
   public ActiveRules provide(ActiveRulesLoader loader, ModuleQProfiles qProfiles) {
@@ -56,20 +63,40 @@ public class ActiveRulesProvider extends ProviderAdapter {
     Collection<String> qProfileKeys = getKeys(qProfiles);
     Map<RuleKey, LoadedActiveRule> loadedRulesByKey = new HashMap<>();
 
-    for (String qProfileKey : qProfileKeys) {
-      Collection<LoadedActiveRule> qProfileRules;
-      qProfileRules = load(loader, qProfileKey);
-
-      for (LoadedActiveRule r : qProfileRules) {
-        if (!loadedRulesByKey.containsKey(r.getRuleKey())) {
-          loadedRulesByKey.put(r.getRuleKey(), r);
+    ExecutorService executorService = Executors.newFixedThreadPool(Math.max(1, Math.min(LOAD_THREADS, qProfileKeys.size())), new ThreadFactoryBuilder()
+      .setNameFormat("ActiveRulesLoader-%d")
+      .setDaemon(true)
+      .build());
+    try {
+      List<Future<List<LoadedActiveRule>>> tasks = new ArrayList<>(qProfileKeys.size());
+      for (String qProfileKey : qProfileKeys) {
+        tasks.add(executorService.submit(() -> load(loader, qProfileKey)));
+      }
+      // profiles are processed in their original order, so that the first profile wins when a rule is activated in several profiles
+      for (Future<List<LoadedActiveRule>> task : tasks) {
+        for (LoadedActiveRule r : waitFor(task)) {
+          loadedRulesByKey.putIfAbsent(r.getRuleKey(), r);
         }
       }
+    } finally {
+      executorService.shutdownNow();
     }
 
     return transform(loadedRulesByKey.values());
   }
 
+  private static List<LoadedActiveRule> waitFor(Future<List<LoadedActiveRule>> task) {
+    try {
+      return task.get();
+    } catch (ExecutionException e) {
+      // Unwrap ExecutionException
+      throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new IllegalStateException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
   private static ActiveRules transform(Collection<LoadedActiveRule> loadedRules) {
     ActiveRulesBuilder builder = new ActiveRulesBuilder();
 
@@ -19,20 +19,27 @@
  */
 package org.sonar.scanner.bootstrap;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
 import org.sonar.home.cache.FileCache;
 import org.sonar.scanner.WsTestUtil;
 import org.sonar.scanner.bootstrap.ScannerPluginInstaller.InstalledPlugin;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -67,7 +74,7 @@ public class ScannerPluginInstallerTest {
   @Test
   public void should_download_plugin() throws Exception {
     File pluginJar = temp.newFile();
-    when(fileCache.get(eq("checkstyle-plugin.jar"), eq("fakemd5_1"), any(FileCache.Downloader.class))).thenReturn(pluginJar);
+    when(fileCache.get(eq("checkstyle-plugin.jar"), eq("fakemd5_1"), any(FileCache.StreamDownloader.class))).thenReturn(pluginJar);
 
     ScannerPluginInstaller underTest = new ScannerPluginInstaller(wsClient, fileCache, pluginPredicate);
 
@@ -83,7 +90,7 @@ public class ScannerPluginInstallerTest {
   @Test
   public void should_download_compressed_plugin() throws Exception {
     File pluginJar = temp.newFile();
-    when(fileCache.getCompressed(eq("checkstyle-plugin.pack.gz"), eq("hash"), any(FileCache.Downloader.class))).thenReturn(pluginJar);
+    when(fileCache.getCompressed(eq("checkstyle-plugin.pack.gz"), eq("hash"), any(FileCache.StreamDownloader.class))).thenReturn(pluginJar);
 
     ScannerPluginInstaller underTest = new ScannerPluginInstaller(wsClient, fileCache, pluginPredicate);
 
@@ -98,6 +105,52 @@ public class ScannerPluginInstallerTest {
     assertThat(file).isEqualTo(pluginJar);
   }
 
+  @Test
+  public void download_plugin_from_server() throws Exception {
+    WsTestUtil.mockStream(wsClient, "/deploy/plugins/checkstyle/checkstyle-plugin.jar", new ByteArrayInputStream("content".getBytes(StandardCharsets.UTF_8)));
+    ArgumentCaptor<FileCache.StreamDownloader> downloader = ArgumentCaptor.forClass(FileCache.StreamDownloader.class);
+    when(fileCache.get(eq("checkstyle-plugin.jar"), eq("fakemd5_1"), downloader.capture())).thenReturn(temp.newFile());
+
+    InstalledPlugin remote = new InstalledPlugin();
+    remote.key = "checkstyle";
+    remote.filename = "checkstyle-plugin.jar";
+    remote.hash = "fakemd5_1";
+    new ScannerPluginInstaller(wsClient, fileCache, pluginPredicate).download(remote);
+
+    try (InputStream input = downloader.getValue().openStream("checkstyle-plugin.jar")) {
+      assertThat(IOUtils.toString(input, StandardCharsets.UTF_8)).isEqualTo("content");
+    }
+  }
+
+  @Test
+  public void install_remote_plugins() throws Exception {
+    WsTestUtil.mockReader(wsClient, "/api/plugins/installed",
+      new InputStreamReader(this.getClass().getResourceAsStream("ScannerPluginInstallerTest/installed-plugins-ws.json"), StandardCharsets.UTF_8));
+    when(pluginPredicate.apply("java")).thenReturn(true);
+    File pluginJar = temp.newFile();
+    FileUtils.copyURLToFile(getClass().getResource("ScannerPluginJarExploderTest/sonar-checkstyle-plugin-2.8.jar"), pluginJar);
+    when(fileCache.get(eq("sonar-java-plugin-3.0.jar"), anyString(), any(FileCache.StreamDownloader.class))).thenReturn(pluginJar);
+
+    Map<String, ScannerPlugin> plugins = new ScannerPluginInstaller(wsClient, fileCache, pluginPredicate).installRemotes();
+
+    assertThat(plugins).containsOnlyKeys("checkstyle");
+    assertThat(plugins.get("checkstyle").getKey()).isEqualTo("java");
+    assertThat(plugins.get("checkstyle").getInfo().getNonNullJarFile()).isEqualTo(pluginJar);
+  }
+
+  @Test
+  public void fail_to_install_remote_plugins_if_a_download_fails() {
+    WsTestUtil.mockReader(wsClient, "/api/plugins/installed",
+      new InputStreamReader(this.getClass().getResourceAsStream("ScannerPluginInstallerTest/installed-plugins-ws.json"), StandardCharsets.UTF_8));
+    when(pluginPredicate.apply(anyString())).thenReturn(true);
+    when(fileCache.get(anyString(), anyString(), any(FileCache.StreamDownloader.class))).thenThrow(new IllegalStateException("Fail to download"));
+
+    thrown.expect(IllegalStateException.class);
+    thrown.expectMessage("Fail to download plugin: ");
+
+    new ScannerPluginInstaller(wsClient, fileCache, pluginPredicate).installRemotes();
+  }
+
   @Test
   public void should_fail_to_get_plugin_index() {
     WsTestUtil.mockException(wsClient, "/api/plugins/installed", new IllegalStateException());
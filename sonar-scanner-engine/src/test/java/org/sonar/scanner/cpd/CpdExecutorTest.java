@@ -39,6 +39,7 @@ import org.sonar.api.utils.log.LoggerLevel;
 import org.sonar.core.util.CloseableIterator;
 import org.sonar.duplications.block.Block;
 import org.sonar.duplications.block.ByteArray;
+import org.sonar.duplications.detector.CloneDetectionAlgorithm;
 import org.sonar.duplications.index.CloneGroup;
 import org.sonar.duplications.index.ClonePart;
 import org.sonar.scanner.cpd.index.SonarCpdBlockIndex;
@@ -84,6 +85,7 @@ public class CpdExecutorTest {
 
     branchConfig = mock(BranchConfiguration.class);
     settings = mock(CpdSettings.class);
+    when(settings.getAlgorithm()).thenReturn(CloneDetectionAlgorithm.SUFFIX_TREE);
     publisher = mock(ReportPublisher.class);
     when(publisher.getWriter()).thenReturn(new ScannerReportWriter(outputDir));
 
@@ -25,6 +25,7 @@ import org.junit.Test;
 import org.sonar.api.batch.fs.internal.DefaultInputModule;
 import org.sonar.api.batch.fs.internal.InputModuleHierarchy;
 import org.sonar.api.config.Configuration;
+import org.sonar.duplications.detector.CloneDetectionAlgorithm;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.anyString;
@@ -59,4 +60,16 @@ public class CpdSettingsTest {
     assertThat(cpdSettings.getMinimumTokens("java")).isEqualTo(42);
     assertThat(cpdSettings.getMinimumTokens("php")).isEqualTo(33);
   }
+
+  @Test
+  public void defaultAlgorithm() {
+    when(configuration.get(anyString())).thenReturn(Optional.empty());
+    assertThat(cpdSettings.getAlgorithm()).isEqualTo(CloneDetectionAlgorithm.SUFFIX_TREE);
+  }
+
+  @Test
+  public void selectAlgorithm() {
+    when(configuration.get("sonar.cpd.algorithm")).thenReturn(Optional.of("index"));
+    assertThat(cpdSettings.getAlgorithm()).isEqualTo(CloneDetectionAlgorithm.INDEX);
+  }
 }
@@ -0,0 +1,145 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.scanner.cpd.deprecated;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.duplications.block.Block;
+import org.sonar.duplications.block.ByteArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class CpdBlocksCacheTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private Path cacheDir;
+  private CpdBlocksCache underTest;
+
+  @Before
+  public void setUp() throws IOException {
+    cacheDir = temp.newFolder().toPath();
+    underTest = new CpdBlocksCache(cacheDir.resolve("module"), "7.0");
+  }
+
+  @Test
+  public void get_blocks_of_previous_analysis() {
+    InputFile file = newFile("src/Foo.java", "h1");
+    underTest.load("java", 10);
+    assertThat(underTest.get(file)).isNull();
+    underTest.put(file, blocks("foo:src/Foo.java"));
+    underTest.save("java", 10);
+
+    // file is renamed without changing its content
+    InputFile renamed = newFile("src/Bar.java", "h1");
+    underTest.load("java", 10);
+    List<Block> blocks = underTest.get(renamed);
+
+    assertThat(blocks).extracting(Block::getResourceId).containsOnly("foo:src/Bar.java");
+    assertThat(blocks).extracting(Block::getBlockHash, Block::getIndexInFile, Block::getStartLine, Block::getEndLine, Block::getStartUnit, Block::getEndUnit)
+      .containsExactly(
+        tuple(new ByteArray("0a1b"), 0, 1, 10, 2, 20),
+        tuple(new ByteArray("0c1d"), 1, 3, 12, 5, 25));
+  }
+
+  @Test
+  public void ignore_blocks_if_content_changed() {
+    underTest.load("java", 10);
+    underTest.put(newFile("src/Foo.java", "h1"), blocks("foo:src/Foo.java"));
+    underTest.save("java", 10);
+
+    underTest.load("java", 10);
+    assertThat(underTest.get(newFile("src/Foo.java", "h2"))).isNull();
+  }
+
+  @Test
+  public void ignore_blocks_of_other_block_size_or_kind() {
+    InputFile file = newFile("src/Foo.java", "h1");
+    underTest.load("java", 10);
+    underTest.put(file, blocks("foo:src/Foo.java"));
+    underTest.save("java", 10);
+
+    underTest.load("java", 20);
+    assertThat(underTest.get(file)).isNull();
+    underTest.load("other", 10);
+    assertThat(underTest.get(file)).isNull();
+  }
+
+  @Test
+  public void ignore_blocks_computed_by_other_version_of_scanner() {
+    InputFile file = newFile("src/Foo.java", "h1");
+    underTest.load("java", 10);
+    underTest.put(file, blocks("foo:src/Foo.java"));
+    underTest.save("java", 10);
+
+    CpdBlocksCache upgraded = new CpdBlocksCache(cacheDir.resolve("module"), "7.1");
+    upgraded.load("java", 10);
+    assertThat(upgraded.get(file)).isNull();
+  }
+
+  @Test
+  public void keep_only_files_of_last_analysis() {
+    InputFile foo = newFile("src/Foo.java", "h1");
+    InputFile bar = newFile("src/Bar.java", "h2");
+    underTest.load("java", 10);
+    underTest.put(foo, blocks("foo:src/Foo.java"));
+    underTest.put(bar, blocks("foo:src/Bar.java"));
+    underTest.save("java", 10);
+
+    underTest.load("java", 10);
+    assertThat(underTest.get(foo)).isNotNull();
+    underTest.save("java", 10);
+
+    underTest.load("java", 10);
+    assertThat(underTest.get(foo)).isNotNull();
+    assertThat(underTest.get(bar)).isNull();
+  }
+
+  @Test
+  public void ignore_corrupted_cache() throws IOException {
+    Files.write(cacheDir.resolve("module-java.bin"), "corrupted".getBytes(StandardCharsets.UTF_8));
+
+    underTest.load("java", 10);
+
+    assertThat(underTest.get(newFile("src/Foo.java", "h1"))).isNull();
+  }
+
+  private static InputFile newFile(String path, String hash) {
+    return new TestInputFileBuilder("foo", path).setHash(hash).setCharset(StandardCharsets.UTF_8).build();
+  }
+
+  private static List<Block> blocks(String resourceId) {
+    return Arrays.asList(
+      Block.builder().setResourceId(resourceId).setBlockHash(new ByteArray("0a1b")).setIndexInFile(0).setLines(1, 10).setUnit(2, 20).build(),
+      Block.builder().setResourceId(resourceId).setBlockHash(new ByteArray("0c1d")).setIndexInFile(1).setLines(3, 12).setUnit(5, 25).build());
+  }
+}
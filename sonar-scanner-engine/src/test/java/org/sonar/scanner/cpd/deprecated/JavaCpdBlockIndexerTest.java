@@ -38,12 +38,15 @@ import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.internal.DefaultFileSystem;
 import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
 import org.sonar.api.config.internal.MapSettings;
+import org.sonar.api.utils.log.LogTester;
+import org.sonar.api.utils.log.LoggerLevel;
 import org.sonar.duplications.block.Block;
 import org.sonar.scanner.cpd.index.SonarCpdBlockIndex;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 
@@ -57,11 +60,14 @@ public class JavaCpdBlockIndexerTest {
   private ArgumentCaptor<List<Block>> blockCaptor;
 
   private MapSettings settings;
+  private CpdBlocksCache cache;
   private JavaCpdBlockIndexer engine;
   private InputFile file;
 
   @Rule
   public TemporaryFolder temp = new TemporaryFolder();
+  @Rule
+  public LogTester logTester = new LogTester();
 
   @Before
   public void setUp() throws IOException {
@@ -71,6 +77,7 @@ public class JavaCpdBlockIndexerTest {
     DefaultFileSystem fs = new DefaultFileSystem(baseDir);
     file = new TestInputFileBuilder("foo", "src/ManyStatements.java")
       .setModuleBaseDir(baseDir.toPath())
+      .setHash("3a3ad2b5f6d0c2c5e7a0c8b7c4a1d8e1")
       .setCharset(StandardCharsets.UTF_8)
       .setLanguage(JAVA).build();
     fs.add(file);
@@ -78,12 +85,13 @@ public class JavaCpdBlockIndexerTest {
     FileUtils.copyURLToFile(this.getClass().getResource("ManyStatements.java"), ioFile);
 
     settings = new MapSettings();
-    engine = new JavaCpdBlockIndexer(fs, settings.asConfig(), index);
+    cache = new CpdBlocksCache(temp.newFolder().toPath().resolve("foo"), "7.0");
+    engine = new JavaCpdBlockIndexer(fs, settings.asConfig(), index, cache);
   }
 
   @Test
   public void languageSupported() {
-    JavaCpdBlockIndexer engine = new JavaCpdBlockIndexer(mock(FileSystem.class), new MapSettings().asConfig(), index);
+    JavaCpdBlockIndexer engine = new JavaCpdBlockIndexer(mock(FileSystem.class), new MapSettings().asConfig(), index, cache);
     assertThat(engine.isLanguageSupported(JAVA)).isTrue();
     assertThat(engine.isLanguageSupported("php")).isFalse();
   }
@@ -104,4 +112,19 @@ public class JavaCpdBlockIndexerTest {
 
     assertThat(blockList).hasSize(26);
   }
+
+  @Test
+  public void reuse_blocks_of_previous_analysis_if_file_did_not_change() throws Exception {
+    engine.index(JAVA);
+    assertThat(logTester.logs(LoggerLevel.INFO)).contains("CPD blocks of 0/1 Java files loaded from cache");
+
+    // file is not tokenized again, even if it was modified on disk without changing its hash
+    FileUtils.write(file.file(), "class Empty {}", StandardCharsets.UTF_8);
+    engine.index(JAVA);
+    assertThat(logTester.logs(LoggerLevel.INFO)).contains("CPD blocks of 1/1 Java files loaded from cache");
+
+    verify(index, times(2)).insert(eq(file), blockCaptor.capture());
+    List<List<Block>> insertedBlocks = blockCaptor.getAllValues();
+    assertThat(insertedBlocks.get(1)).hasSize(26).isEqualTo(insertedBlocks.get(0));
+  }
 }
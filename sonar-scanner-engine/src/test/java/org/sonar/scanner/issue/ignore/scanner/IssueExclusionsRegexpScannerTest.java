@@ -30,7 +30,6 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.regex.Pattern;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
@@ -54,7 +53,7 @@ public class IssueExclusionsRegexpScannerTest {
   @Mock
   private PatternMatcher patternMatcher;
 
-  private List<Pattern> allFilePatterns;
+  private List<LinePattern> allFilePatterns;
   private List<DoubleRegexpMatcher> blockPatterns;
   private IssueExclusionsRegexpScanner regexpScanner;
   private FileMetadata fileMetadata = new FileMetadata();
@@ -64,10 +63,10 @@ public class IssueExclusionsRegexpScannerTest {
     MockitoAnnotations.initMocks(this);
 
     blockPatterns = Arrays.asList(new DoubleRegexpMatcher[] {
-      new DoubleRegexpMatcher(Pattern.compile("// SONAR-OFF"), Pattern.compile("// SONAR-ON")),
-      new DoubleRegexpMatcher(Pattern.compile("// FOO-OFF"), Pattern.compile("// FOO-ON"))
+      new DoubleRegexpMatcher(new LinePattern("// SONAR-OFF"), new LinePattern("// SONAR-ON")),
+      new DoubleRegexpMatcher(new LinePattern("// FOO-OFF"), new LinePattern("// FOO-ON"))
     });
-    allFilePatterns = Collections.singletonList(Pattern.compile("@SONAR-IGNORE-ALL"));
+    allFilePatterns = Collections.singletonList(new LinePattern("@SONAR-IGNORE-ALL"));
 
     javaFile = "org.sonar.test.MyFile";
     regexpScanner = new IssueExclusionsRegexpScanner(javaFile, allFilePatterns, blockPatterns, patternMatcher);
@@ -167,6 +166,15 @@ public class IssueExclusionsRegexpScannerTest {
     verifyNoMoreInteractions(patternMatcher);
   }
 
+  @Test
+  public void shouldAddPatternToExcludeFileOnlyOnceWhenSeveralLinesMatch() throws Exception {
+    Path filePath = getResource("file-with-single-regexp-twice.txt");
+    fileMetadata.readMetadata(Files.newInputStream(filePath), UTF_8, filePath.toString(), regexpScanner);
+
+    verify(patternMatcher, times(1)).addPatternToExcludeResource(javaFile);
+    verifyNoMoreInteractions(patternMatcher);
+  }
+
   private Path getResource(String fileName) throws URISyntaxException {
     return Paths.get(Resources.getResource("org/sonar/scanner/issue/ignore/scanner/IssueExclusionsRegexpScannerTest/" + fileName).toURI());
   }
@@ -0,0 +1,80 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.scanner.issue.ignore.scanner;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LinePatternTest {
+
+  @Test
+  public void extract_leading_literal() {
+    assertThat(LinePattern.extractRequiredLiteral("// SONAR-OFF")).isEqualTo("// SONAR-OFF");
+    assertThat(LinePattern.extractRequiredLiteral("@Generated.*")).isEqualTo("@Generated");
+    assertThat(LinePattern.extractRequiredLiteral("// BEGIN\\s+GENERATED")).isEqualTo("// BEGIN");
+    assertThat(LinePattern.extractRequiredLiteral("foo(bar)")).isEqualTo("foo");
+  }
+
+  @Test
+  public void do_not_extract_literal_followed_by_optional_quantifier() {
+    assertThat(LinePattern.extractRequiredLiteral("colou?r")).isEqualTo("colo");
+    assertThat(LinePattern.extractRequiredLiteral("ab*c")).isEqualTo("a");
+    assertThat(LinePattern.extractRequiredLiteral("ab{0,2}")).isEqualTo("a");
+    assertThat(LinePattern.extractRequiredLiteral("a?")).isNull();
+  }
+
+  @Test
+  public void no_literal_if_regexp_starts_with_metacharacter_or_has_alternation() {
+    assertThat(LinePattern.extractRequiredLiteral("")).isNull();
+    assertThat(LinePattern.extractRequiredLiteral(".*foo")).isNull();
+    assertThat(LinePattern.extractRequiredLiteral("\\bfoo")).isNull();
+    assertThat(LinePattern.extractRequiredLiteral("(?i)foo")).isNull();
+    assertThat(LinePattern.extractRequiredLiteral("foo|bar")).isNull();
+    assertThat(LinePattern.extractRequiredLiteral("foo(bar|baz)")).isNull();
+  }
+
+  @Test
+  public void find_pattern_in_line() {
+    LinePattern pattern = new LinePattern("@Generated\\(\"[a-z]+\"\\)");
+
+    assertThat(pattern.getRequiredLiteral()).isEqualTo("@Generated");
+    assertThat(pattern.find("  @Generated(\"antlr\") class Foo")).isTrue();
+    assertThat(pattern.find("  @Generated(\"ANTLR\") class Foo")).isFalse();
+    assertThat(pattern.find("  class Foo")).isFalse();
+  }
+
+  @Test
+  public void find_pattern_without_literal() {
+    LinePattern pattern = new LinePattern("colou?r|grey");
+
+    assertThat(pattern.getRequiredLiteral()).isNull();
+    assertThat(pattern.find("the color")).isTrue();
+    assertThat(pattern.find("grey")).isTrue();
+    assertThat(pattern.find("blue")).isFalse();
+  }
+
+  @Test
+  public void empty_pattern() {
+    assertThat(new LinePattern("").isEmpty()).isTrue();
+    assertThat(new LinePattern("foo").isEmpty()).isFalse();
+    assertThat(new LinePattern("foo")).hasToString("foo");
+  }
+}
@@ -19,9 +19,17 @@
  */
 package org.sonar.scanner.issue.tracking;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.StringReader;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.commons.lang.StringUtils;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -29,9 +37,18 @@ import org.junit.rules.ExpectedException;
 import org.sonar.api.utils.HttpDownloader;
 import org.sonar.scanner.WsTestUtil;
 import org.sonar.scanner.bootstrap.ScannerWsClient;
+import org.sonar.scanner.protocol.input.ScannerInput.FileLineHashes;
+import org.sonarqube.ws.client.WsRequest;
+import org.sonarqube.ws.client.WsResponse;
 
+import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class DefaultServerLineHashesLoaderTest {
   private ScannerWsClient wsClient;
@@ -64,6 +81,51 @@ public class DefaultServerLineHashesLoaderTest {
     WsTestUtil.verifyCall(wsClient, "/api/sources/hash?key=myproject%3Aorg%2Ffoo%2FFoo+Bar.c");
   }
 
+  @Test
+  public void load_line_hashes_of_several_files() throws Exception {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    FileLineHashes.newBuilder().setKey("myproject:Foo.c").setLineHashes("ae12\n\n43fb").build().writeDelimitedTo(output);
+    FileLineHashes.newBuilder().setKey("myproject:Bar.c").build().writeDelimitedTo(output);
+    WsTestUtil.mockStream(wsClient, new ByteArrayInputStream(output.toByteArray()));
+    ServerLineHashesLoader underTest = new DefaultServerLineHashesLoader(wsClient);
+
+    Map<String, String[]> result = new HashMap<>();
+    underTest.loadLineHashes(asList("myproject:Foo.c", "myproject:Bar.c", "myproject:Unknown.c"), result::put);
+
+    assertThat(result).containsOnlyKeys("myproject:Foo.c", "myproject:Bar.c");
+    assertThat(result.get("myproject:Foo.c")).containsExactly("ae12", "", "43fb");
+    assertThat(result.get("myproject:Bar.c")).containsExactly("");
+    WsTestUtil.verifyCall(wsClient, "/batch/line_hashes.protobuf?keys=myproject%3AFoo.c%2Cmyproject%3ABar.c%2Cmyproject%3AUnknown.c");
+  }
+
+  @Test
+  public void split_requests_on_number_of_files() {
+    mockEmptyResponses();
+    ServerLineHashesLoader underTest = new DefaultServerLineHashesLoader(wsClient);
+
+    List<String> keys = IntStream.range(0, 250).mapToObj(i -> "p:F" + i).collect(Collectors.toList());
+    underTest.loadLineHashes(keys, (key, hashes) -> fail("no line hashes expected"));
+
+    verify(wsClient, times(3)).call(any(WsRequest.class));
+  }
+
+  @Test
+  public void split_requests_on_length_of_keys() {
+    mockEmptyResponses();
+    ServerLineHashesLoader underTest = new DefaultServerLineHashesLoader(wsClient);
+
+    List<String> keys = IntStream.range(0, 10).mapToObj(i -> "p:" + StringUtils.repeat("a", 1_000) + i).collect(Collectors.toList());
+    underTest.loadLineHashes(keys, (key, hashes) -> fail("no line hashes expected"));
+
+    verify(wsClient, times(4)).call(any(WsRequest.class));
+  }
+
+  private void mockEmptyResponses() {
+    WsResponse response = mock(WsResponse.class);
+    when(response.contentStream()).thenAnswer(invocation -> new ByteArrayInputStream(new byte[0]));
+    when(wsClient.call(any(WsRequest.class))).thenReturn(response);
+  }
+
   @Test
   public void should_fail_to_download_source_from_ws() throws URISyntaxException {
     WsTestUtil.mockException(wsClient, new HttpDownloader.HttpException(new URI(""), 500));
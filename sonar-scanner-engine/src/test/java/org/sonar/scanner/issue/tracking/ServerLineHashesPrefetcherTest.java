@@ -0,0 +1,98 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.scanner.issue.tracking;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ServerLineHashesPrefetcherTest {
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  private ServerLineHashesLoader delegate = mock(ServerLineHashesLoader.class);
+  private ServerLineHashesPrefetcher underTest = new ServerLineHashesPrefetcher(delegate);
+
+  @Test
+  public void prefetch_line_hashes_by_batches() {
+    doAnswer(invocation -> {
+      Collection<String> keys = (Collection<String>) invocation.getArguments()[0];
+      BiConsumer<String, String[]> consumer = (BiConsumer<String, String[]>) invocation.getArguments()[1];
+      keys.stream().filter(key -> !key.equals("p:unknown")).forEach(key -> consumer.accept(key, new String[] {"hash of " + key}));
+      return null;
+    }).when(delegate).loadLineHashes(anyCollectionOf(String.class), any(BiConsumer.class));
+
+    List<String> keys = IntStream.range(0, 150).mapToObj(i -> "p:F" + i).collect(Collectors.toList());
+    keys.add("p:unknown");
+    underTest.prefetch(keys);
+
+    assertThat(underTest.getLineHashes("p:F0")).containsExactly("hash of p:F0");
+    assertThat(underTest.getLineHashes("p:F149")).containsExactly("hash of p:F149");
+    assertThat(underTest.getLineHashes("p:unknown")).isNull();
+    verify(delegate, times(2)).loadLineHashes(anyCollectionOf(String.class), any(BiConsumer.class));
+    verify(delegate, never()).getLineHashes(any(String.class));
+  }
+
+  @Test
+  public void load_line_hashes_of_file_which_was_not_prefetched() {
+    when(delegate.getLineHashes("p:F1")).thenReturn(new String[] {"hash"});
+
+    underTest.prefetch(singletonList("p:F0"));
+
+    assertThat(underTest.getLineHashes("p:F1")).containsExactly("hash");
+  }
+
+  @Test
+  public void do_nothing_if_no_files_to_prefetch() {
+    underTest.prefetch(singletonList("p:F0").subList(0, 0));
+
+    verify(delegate, never()).loadLineHashes(anyCollectionOf(String.class), any(BiConsumer.class));
+  }
+
+  @Test
+  public void propagate_failure_of_prefetch() {
+    doThrow(new IllegalStateException("Unable to load line hashes")).when(delegate).loadLineHashes(anyCollectionOf(String.class), any(BiConsumer.class));
+
+    underTest.prefetch(singletonList("p:F0"));
+
+    expectedException.expect(IllegalStateException.class);
+    expectedException.expectMessage("Unable to load line hashes");
+
+    underTest.getLineHashes("p:F0");
+  }
+}
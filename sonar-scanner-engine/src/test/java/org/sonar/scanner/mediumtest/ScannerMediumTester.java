@@ -28,6 +28,7 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.Collection;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
@@ -36,6 +37,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import javax.annotation.CheckForNull;
@@ -503,5 +505,10 @@ public class ScannerMediumTester extends ExternalResource {
         throw new IllegalStateException("You forgot to mock line hashes for " + fileKey);
       }
     }
+
+    @Override
+    public void loadLineHashes(Collection<String> fileKeys, BiConsumer<String, String[]> consumer) {
+      fileKeys.forEach(fileKey -> consumer.accept(fileKey, getLineHashes(fileKey)));
+    }
   }
 }
@@ -122,7 +122,7 @@ public class ComponentsPublisherTest {
       .setModuleBaseDir(moduleBaseDir);
     tree.index(dir2, module1);
 
-    DefaultInputFile file = new TestInputFileBuilder("module1", "src/Foo.java", 4).setLines(2).setStatus(InputFile.Status.SAME).build();
+    DefaultInputFile file = new TestInputFileBuilder("module1", "src/Foo.java", 4).setLines(2).setStatus(InputFile.Status.SAME).setHash("FOO_HASH").build();
     tree.index(file, dir);
 
     DefaultInputFile file18 = new TestInputFileBuilder("module1", "src2/Foo.java", 18).setLines(2).setStatus(InputFile.Status.SAME).build();
@@ -165,7 +165,9 @@ public class ComponentsPublisherTest {
     assertThat(module1Protobuf.getVersion()).isEqualTo("1.0");
 
     assertThat(reader.readComponent(4).getStatus()).isEqualTo(FileStatus.SAME);
+    assertThat(reader.readComponent(4).getPreviousSourceHash()).isEqualTo("FOO_HASH");
     assertThat(reader.readComponent(6).getStatus()).isEqualTo(FileStatus.CHANGED);
+    assertThat(reader.readComponent(6).getPreviousSourceHash()).isEmpty();
     assertThat(reader.readComponent(7).getStatus()).isEqualTo(FileStatus.ADDED);
   }
 
@@ -407,7 +409,7 @@ public class ComponentsPublisherTest {
       .setModuleBaseDir(moduleBaseDir);
     tree.index(dir, module1);
 
-    DefaultInputFile file = new TestInputFileBuilder("module1", "src/Foo.java", 4).setLines(2).setStatus(InputFile.Status.SAME).build();
+    DefaultInputFile file = new TestInputFileBuilder("module1", "src/Foo.java", 4).setLines(2).setStatus(InputFile.Status.SAME).setHash("FOO_HASH").build();
     tree.index(file, dir);
 
     DefaultInputFile fileWithoutLang = new TestInputFileBuilder("module1", "src/make", 5).setLines(10).setStatus(InputFile.Status.SAME).build();
@@ -481,7 +483,7 @@ public class ComponentsPublisherTest {
       .setModuleBaseDir(moduleBaseDir);
     tree.index(dir, module1);
 
-    DefaultInputFile file = new TestInputFileBuilder("module1", "src/Foo.java", 4).setLines(2).setStatus(InputFile.Status.SAME).build();
+    DefaultInputFile file = new TestInputFileBuilder("module1", "src/Foo.java", 4).setLines(2).setStatus(InputFile.Status.SAME).setHash("FOO_HASH").build();
     tree.index(file, dir);
 
     ComponentsPublisher publisher = new ComponentsPublisher(moduleHierarchy, tree, branchConfiguration);
@@ -27,15 +27,19 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.internal.DefaultInputFile;
 import org.sonar.api.batch.fs.internal.DefaultInputModule;
 import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.config.internal.MapSettings;
 import org.sonar.scanner.protocol.output.ScannerReportWriter;
 import org.sonar.scanner.scan.branch.BranchConfiguration;
+import org.sonar.scanner.scan.branch.BranchType;
 import org.sonar.scanner.scan.filesystem.InputComponentStore;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class SourcePublisherTest {
 
@@ -45,6 +49,8 @@ public class SourcePublisherTest {
   private File sourceFile;
   private ScannerReportWriter writer;
   private DefaultInputFile inputFile;
+  private MapSettings settings = new MapSettings();
+  private BranchConfiguration branchConfiguration = mock(BranchConfiguration.class);
 
   @Before
   public void prepare() throws IOException {
@@ -55,13 +61,14 @@ public class SourcePublisherTest {
       .setLines(5)
       .setModuleBaseDir(baseDir.toPath())
       .setCharset(StandardCharsets.ISO_8859_1)
+      .setStatus(InputFile.Status.SAME)
       .build();
 
     DefaultInputModule rootModule = TestInputFileBuilder.newDefaultInputModule(moduleKey, baseDir);
     InputComponentStore componentStore = new InputComponentStore(rootModule, mock(BranchConfiguration.class));
     componentStore.put(inputFile);
 
-    publisher = new SourcePublisher(componentStore);
+    publisher = new SourcePublisher(componentStore, settings.asConfig(), branchConfiguration);
     File outputDir = temp.newFolder();
     writer = new ScannerReportWriter(outputDir);
   }
@@ -117,4 +124,54 @@ public class SourcePublisherTest {
     assertThat(FileUtils.readFileToString(out, StandardCharsets.UTF_8)).isEqualTo("\n2\n3\n4\n5");
   }
 
+  @Test
+  public void do_not_publish_source_of_unchanged_files_in_incremental_mode() throws Exception {
+    FileUtils.write(sourceFile, "1\n2\n3\n4\n", StandardCharsets.ISO_8859_1);
+    settings.setProperty(SourcePublisher.INCREMENTAL_PROP_KEY, true);
+
+    publisher.publish(writer);
+
+    assertThat(writer.getSourceFile(inputFile.batchId())).doesNotExist();
+  }
+
+  @Test
+  public void publish_source_of_unchanged_files_in_incremental_mode_on_short_living_branch() throws Exception {
+    FileUtils.write(sourceFile, "1\n2\n3\n4\n", StandardCharsets.ISO_8859_1);
+    settings.setProperty(SourcePublisher.INCREMENTAL_PROP_KEY, true);
+    when(branchConfiguration.isShortLivingBranch()).thenReturn(true);
+
+    publisher.publish(writer);
+
+    File out = writer.getSourceFile(inputFile.batchId());
+    assertThat(FileUtils.readFileToString(out, StandardCharsets.UTF_8)).isEqualTo("1\n2\n3\n4\n");
+  }
+
+  @Test
+  public void do_not_publish_source_of_unchanged_files_in_incremental_mode_on_long_living_branch() throws Exception {
+    FileUtils.write(sourceFile, "1\n2\n3\n4\n", StandardCharsets.ISO_8859_1);
+    settings.setProperty(SourcePublisher.INCREMENTAL_PROP_KEY, true);
+    when(branchConfiguration.branchType()).thenReturn(BranchType.LONG);
+    when(branchConfiguration.branchName()).thenReturn("release");
+    when(branchConfiguration.branchBase()).thenReturn("release");
+
+    publisher.publish(writer);
+
+    assertThat(writer.getSourceFile(inputFile.batchId())).doesNotExist();
+  }
+
+  @Test
+  public void publish_source_of_unchanged_files_in_incremental_mode_on_new_long_living_branch() throws Exception {
+    FileUtils.write(sourceFile, "1\n2\n3\n4\n", StandardCharsets.ISO_8859_1);
+    settings.setProperty(SourcePublisher.INCREMENTAL_PROP_KEY, true);
+    // the branch does not exist yet, so files are compared to its target
+    when(branchConfiguration.branchType()).thenReturn(BranchType.LONG);
+    when(branchConfiguration.branchName()).thenReturn("release");
+    when(branchConfiguration.branchBase()).thenReturn("master");
+
+    publisher.publish(writer);
+
+    File out = writer.getSourceFile(inputFile.batchId());
+    assertThat(FileUtils.readFileToString(out, StandardCharsets.UTF_8)).isEqualTo("1\n2\n3\n4\n");
+  }
+
 }
@@ -23,8 +23,12 @@ import com.google.common.collect.ImmutableList;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.sonar.api.batch.rule.ActiveRules;
@@ -39,6 +43,10 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 public class ActiveRulesProviderTest {
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
   private ActiveRulesProvider provider;
 
   @Mock
@@ -77,6 +85,35 @@ public class ActiveRulesProviderTest {
     verifyNoMoreInteractions(loader);
   }
 
+  @Test
+  public void load_quality_profiles_concurrently() {
+    // each load waits for the other one, so it can only succeed if both are running at the same time
+    CountDownLatch latch = new CountDownLatch(2);
+    when(loader.load(eq("qp1"))).thenAnswer(invocation -> awaitOthers(latch, mockRule("rule1")));
+    when(loader.load(eq("qp2"))).thenAnswer(invocation -> awaitOthers(latch, mockRule("rule2")));
+
+    ActiveRules activeRules = provider.provide(loader, mockProfiles("qp1", "qp2"));
+
+    assertThat(activeRules.findAll()).extracting("ruleKey").containsOnly(RuleKey.of("rule1", "rule1"), RuleKey.of("rule2", "rule2"));
+  }
+
+  @Test
+  public void fail_if_a_quality_profile_can_not_be_loaded() {
+    when(loader.load(eq("qp1"))).thenReturn(ImmutableList.of(mockRule("rule1")));
+    when(loader.load(eq("qp2"))).thenThrow(new IllegalStateException("Fail to load qp2"));
+
+    expectedException.expect(IllegalStateException.class);
+    expectedException.expectMessage("Fail to load qp2");
+
+    provider.provide(loader, mockProfiles("qp1", "qp2"));
+  }
+
+  private static List<LoadedActiveRule> awaitOthers(CountDownLatch latch, LoadedActiveRule rule) throws InterruptedException {
+    latch.countDown();
+    assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+    return ImmutableList.of(rule);
+  }
+
   private static ModuleQProfiles mockProfiles(String... keys) {
     List<QualityProfile> profiles = new LinkedList<>();
 
@@ -50,6 +50,9 @@ import static okhttp3.internal.http.StatusLine.HTTP_TEMP_REDIRECT;
  * Connect to any SonarQube server available through HTTP or HTTPS.
  * <p>TLS 1.0, 1.1 and 1.2 are supported on both Java 7 and 8. SSLv3 is not supported.</p>
  * <p>The JVM system proxies are used.</p>
+ * <p>Responses are compressed with gzip when supported by server. HTTP/2 is negotiated with HTTPS
+ * servers when the JVM supports ALPN (Java 9+), otherwise HTTP/1.1 connections are kept alive and
+ * reused. The connector is thread-safe, so independent requests can be executed concurrently.</p>
  */
 public class HttpConnector implements WsConnector {
 
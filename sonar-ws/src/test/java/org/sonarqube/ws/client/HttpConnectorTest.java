@@ -31,6 +31,10 @@ import okhttp3.ConnectionSpec;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.RandomStringUtils;
@@ -125,6 +129,20 @@ public class HttpConnectorTest {
     assertThat(recordedRequest.getHeader("Accept-Encoding")).isEqualTo("gzip");
   }
 
+  @Test
+  public void decompress_gzip_response() throws Exception {
+    Buffer gzipBody = new Buffer();
+    try (BufferedSink sink = Okio.buffer(new GzipSink(gzipBody))) {
+      sink.writeUtf8("hello, world!");
+    }
+    server.enqueue(new MockResponse().setHeader("Content-Encoding", "gzip").setBody(gzipBody));
+
+    underTest = HttpConnector.newBuilder().url(serverUrl).build();
+    WsResponse response = underTest.call(new GetRequest("api/issues/search"));
+
+    assertThat(response.content()).isEqualTo("hello, world!");
+  }
+
   @Test
   public void add_headers_to_GET_request() throws Exception {
     answerHelloWorld();